@@ -26,6 +26,7 @@ import java.time.OffsetDateTime;
 import java.time.ZoneOffset;
 import java.time.temporal.ChronoUnit;
 import java.util.Objects;
+import java.util.OptionalLong;
 
 public class DateTimeGranularity implements Granularity<OffsetDateTime> {
     public static final DateTimeGranularity DEFAULT = new DateTimeGranularity(ChronoUnit.MILLIS, false);
@@ -103,6 +104,25 @@ public class DateTimeGranularity implements Granularity<OffsetDateTime> {
         return trimToGranularity(value);
     }
 
+    @Override
+    public OptionalLong getStepsBetween(OffsetDateTime from, OffsetDateTime to) {
+        // working days can't be counted without stepping through them, and adding several months to a date late in
+        // a month can land on a different day from adding one month several times
+        if (workingDay || !isCorrectScale(from)) {
+            return OptionalLong.empty();
+        }
+        return OptionalLong.of(chronoUnit.between(from, to));
+    }
+
+    @Override
+    public OffsetDateTime getValueAfterSteps(OffsetDateTime from, long steps) {
+        // for the same reasons as getStepsBetween, these can only be reached by stepping through each value
+        if (workingDay || !isCorrectScale(from)) {
+            return Granularity.super.getValueAfterSteps(from, steps);
+        }
+        return from.plus(steps, chronoUnit);
+    }
+
     @Override
     public OffsetDateTime getRandom(OffsetDateTime min, OffsetDateTime max, RandomNumberGenerator randomNumberGenerator) {
         long generatedLong = randomNumberGenerator.nextLong(getMilli(min), getMilli(max));
@@ -133,7 +153,7 @@ public class DateTimeGranularity implements Granularity<OffsetDateTime> {
 
     @Override
     public int hashCode() {
-        return Objects.hash(chronoUnit, workingDay);
+        return Objects.hash(chronoUnit.name(), workingDay);
     }
 
     @Override
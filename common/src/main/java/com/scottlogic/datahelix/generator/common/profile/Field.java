@@ -26,6 +26,7 @@ public class Field {
     private final boolean internal;
     private final boolean nullable;
     private final String generator;
+    private int hash;
 
     public Field(String name, SpecificFieldType type, boolean unique, String formatting, boolean internal, boolean nullable, String generator) {
         this.name = name;
@@ -86,7 +87,12 @@ public class Field {
 
     @Override
     public int hashCode() {
-        return Objects.hash(name, unique, formatting, type, nullable, generator);
+        int hash = this.hash;
+        if (hash == 0) {
+            hash = Objects.hash(name, unique, formatting, type, nullable, generator);
+            this.hash = hash;
+        }
+        return hash;
     }
 
     public String getName()
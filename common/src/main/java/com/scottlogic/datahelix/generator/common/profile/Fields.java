@@ -22,6 +22,11 @@ import java.util.stream.Stream;
 public interface Fields extends Iterable<Field> {
     Field getByName(String fieldName);
     int size();
+
+    /**
+     * @return the position of the field in the profile, or -1 if it is not one of the profile's fields
+     */
+    int indexOf(Field field);
     Stream<Field> stream();
     Stream<Field> getExternalStream();
     List<Field> asList();
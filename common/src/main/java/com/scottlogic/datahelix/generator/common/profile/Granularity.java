@@ -18,6 +18,8 @@ package com.scottlogic.datahelix.generator.common.profile;
 
 import com.scottlogic.datahelix.generator.common.RandomNumberGenerator;
 
+import java.util.OptionalLong;
+
 public interface Granularity<T> {
     Granularity<T> getFinestGranularity();
 
@@ -38,4 +40,25 @@ public interface Granularity<T> {
     default T getPrevious(T value) { return getPrevious(value, 1);}
 
     T getRandom(T inclusiveMin, T exclusiveMax, RandomNumberGenerator randomNumberGenerator);
+
+    /**
+     * The number of whole steps of this granularity from one value to another, where it can be worked out without
+     * stepping through them and {@link #getValueAfterSteps(Object, long)} reaches the same values as repeated calls to
+     * {@link #getNext(Object)}
+     */
+    default OptionalLong getStepsBetween(T from, T to) {
+        return OptionalLong.empty();
+    }
+
+    /**
+     * The value a number of steps after another, found by stepping through them one at a time unless a granularity
+     * can work it out directly
+     */
+    default T getValueAfterSteps(T from, long steps) {
+        T value = from;
+        for (long step = 0; step < steps; step++) {
+            value = getNext(value);
+        }
+        return value;
+    }
 }
@@ -23,8 +23,10 @@ import com.scottlogic.datahelix.generator.common.util.defaults.NumericDefaults;
 import com.scottlogic.datahelix.generator.common.RandomNumberGenerator;
 
 import java.math.BigDecimal;
+import java.math.BigInteger;
 import java.math.RoundingMode;
 import java.util.Objects;
+import java.util.OptionalLong;
 
 public class NumericGranularity implements Granularity<BigDecimal> {
     public static final NumericGranularity DECIMAL_DEFAULT = new NumericGranularity(20);
@@ -99,6 +101,19 @@ public class NumericGranularity implements Granularity<BigDecimal> {
 
     }
 
+    @Override
+    public OptionalLong getStepsBetween(BigDecimal from, BigDecimal to) {
+        BigInteger steps = to.subtract(from).scaleByPowerOfTen(decimalPlaces)
+            .setScale(0, RoundingMode.FLOOR)
+            .toBigIntegerExact();
+        return steps.bitLength() < Long.SIZE ? OptionalLong.of(steps.longValue()) : OptionalLong.empty();
+    }
+
+    @Override
+    public BigDecimal getValueAfterSteps(BigDecimal from, long steps) {
+        return from.add(BigDecimal.valueOf(steps, decimalPlaces));
+    }
+
     @Override
     public BigDecimal trimToGranularity(BigDecimal value) {
         return value.setScale(decimalPlaces, RoundingMode.FLOOR);
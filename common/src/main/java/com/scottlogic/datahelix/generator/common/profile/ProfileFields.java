@@ -16,15 +16,21 @@
 
 package com.scottlogic.datahelix.generator.common.profile;
 
+import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
 import java.util.stream.Stream;
 
 public class ProfileFields implements Fields {
     private final List<Field> fields;
+    private final Map<Field, Integer> indexes = new HashMap<>();
 
     public ProfileFields(List<Field> fields) {
         this.fields = fields;
+        for (int index = 0; index < fields.size(); index++) {
+            indexes.putIfAbsent(fields.get(index), index);
+        }
     }
 
     public Field getByName(String fieldName) {
@@ -38,6 +44,12 @@ public class ProfileFields implements Fields {
         return this.fields.size();
     }
 
+    @Override
+    public int indexOf(Field field) {
+        Integer index = indexes.get(field);
+        return index == null ? -1 : index;
+    }
+
     @Override
     public Iterator<Field> iterator() {
         return fields.iterator();
@@ -64,6 +64,7 @@ public class SpecificFieldType {
 
     @Override
     public int hashCode() {
-        return Objects.hash(type, fieldType, formatting, fakerMethod);
+        // hashed by name, as an enum's own hash code differs between runs and would change iteration orders
+        return Objects.hash(type, fieldType.name(), formatting, fakerMethod);
     }
 }
@@ -24,6 +24,7 @@ import java.time.Duration;
 import java.time.LocalTime;
 import java.time.temporal.ChronoUnit;
 import java.util.Objects;
+import java.util.OptionalLong;
 
 public class TimeGranularity implements Granularity<LocalTime> {
     public static final TimeGranularity DEFAULT = new TimeGranularity(ChronoUnit.MILLIS);
@@ -100,6 +101,16 @@ public class TimeGranularity implements Granularity<LocalTime> {
         return value.truncatedTo(granularity);
     }
 
+    @Override
+    public OptionalLong getStepsBetween(LocalTime from, LocalTime to) {
+        return isCorrectScale(from) ? OptionalLong.of(granularity.between(from, to)) : OptionalLong.empty();
+    }
+
+    @Override
+    public LocalTime getValueAfterSteps(LocalTime from, long steps) {
+        return from.plus(steps, granularity);
+    }
+
     @Override
     public LocalTime getRandom(LocalTime min, LocalTime max, RandomNumberGenerator randomNumberGenerator) {
         long a = min.until(max, granularity);
@@ -117,7 +128,7 @@ public class TimeGranularity implements Granularity<LocalTime> {
 
     @Override
     public int hashCode() {
-        return Objects.hash(granularity);
+        return Objects.hash(granularity.name());
     }
 
     @Override
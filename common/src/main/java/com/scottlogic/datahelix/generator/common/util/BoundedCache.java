@@ -0,0 +1,107 @@
+/*
+ * Copyright 2019 Scott Logic Ltd
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.scottlogic.datahelix.generator.common.util;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+/**
+ * A thread-safe memo table holding at most a fixed number of entries, evicting the least recently used entry when
+ * full. Values are computed outside the lock, so computations may themselves use the cache; two threads missing on
+ * the same key at once will both compute it and the last result is kept.
+ *
+ * Large caches are split by key hash into segments, each with its own lock and its own share of the entries, so that
+ * threads looking up different keys rarely wait for each other. Eviction is then least recently used per segment.
+ */
+public class BoundedCache<K, V> {
+    private static final int SEGMENTS = 16;
+    private static final int MINIMUM_SEGMENT_SIZE = 64;
+
+    private final Map<K, V>[] segments;
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+
+    @SuppressWarnings("unchecked")
+    public BoundedCache(int maximumSize) {
+        if (maximumSize < 1) {
+            throw new IllegalArgumentException("maximumSize must be at least 1, but was " + maximumSize);
+        }
+
+        int segmentCount = maximumSize >= SEGMENTS * MINIMUM_SEGMENT_SIZE ? SEGMENTS : 1;
+        int segmentSize = maximumSize / segmentCount;
+        this.segments = new Map[segmentCount];
+        for (int i = 0; i < segmentCount; i++) {
+            segments[i] = new LinkedHashMap<K, V>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<K, V> eldest) {
+                    return size() > segmentSize;
+                }
+            };
+        }
+    }
+
+    public V get(K key, Function<? super K, ? extends V> compute) {
+        Map<K, V> segment = segmentFor(key);
+        synchronized (segment) {
+            V cached = segment.get(key);
+            if (cached != null) {
+                hits.incrementAndGet();
+                return cached;
+            }
+        }
+
+        misses.incrementAndGet();
+        V value = compute.apply(key);
+        if (value != null) {
+            synchronized (segment) {
+                segment.put(key, value);
+            }
+        }
+        return value;
+    }
+
+    public int size() {
+        int size = 0;
+        for (Map<K, V> segment : segments) {
+            synchronized (segment) {
+                size += segment.size();
+            }
+        }
+        return size;
+    }
+
+    public long getHits() {
+        return hits.get();
+    }
+
+    public long getMisses() {
+        return misses.get();
+    }
+
+    private Map<K, V> segmentFor(K key) {
+        int hash = key.hashCode();
+        // segment counts are powers of two, so spread the high bits of the hash into the low ones first
+        return segments[(hash ^ (hash >>> 16)) & (segments.length - 1)];
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%d hits, %d misses, %d entries", getHits(), getMisses(), size());
+    }
+}
@@ -0,0 +1,137 @@
+/*
+ * Copyright 2019 Scott Logic Ltd
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.scottlogic.datahelix.generator.common.util;
+
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Iterator over a stream that is produced on an executor thread and handed to the consumer through a bounded queue.
+ *
+ * The producer never blocks on a full queue; it yields its thread and is rescheduled once the consumer has taken
+ * an item. This means any number of buffered streams can share a small, fixed pool without deadlocking, and a
+ * stream that is abandoned part way through does not hold on to a thread.
+ *
+ * Null elements are not supported.
+ */
+public class ConcurrentBufferedIterator<T> implements Iterator<T> {
+    private static final Object END = new Object();
+
+    private final Supplier<Stream<T>> source;
+    private final Executor executor;
+    private final BlockingQueue<Object> queue;
+    private final AtomicBoolean scheduled = new AtomicBoolean(true);
+    private final Runnable producer = this::produce;
+
+    private Iterator<T> sourceIterator;
+    private volatile boolean sourceExhausted;
+    private volatile RuntimeException failure;
+    private Object next;
+
+    private ConcurrentBufferedIterator(Supplier<Stream<T>> source, Executor executor, int capacity) {
+        this.source = source;
+        this.executor = executor;
+        // one slot is held back so the end marker can always be queued without blocking
+        this.queue = new ArrayBlockingQueue<>(capacity + 1);
+    }
+
+    public static <T> Stream<T> stream(Supplier<Stream<T>> source, Executor executor, int capacity) {
+        ConcurrentBufferedIterator<T> iterator = new ConcurrentBufferedIterator<>(source, executor, capacity);
+        executor.execute(iterator.producer);
+
+        return StreamSupport.stream(
+            Spliterators.spliteratorUnknownSize(iterator, Spliterator.ORDERED),
+            false);
+    }
+
+    @Override
+    public boolean hasNext() {
+        if (next == null) {
+            next = take();
+        }
+        if (next == END) {
+            if (failure != null) {
+                throw failure;
+            }
+            return false;
+        }
+        return true;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public T next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+
+        T value = (T) next;
+        next = null;
+        return value;
+    }
+
+    private Object take() {
+        Object item;
+        try {
+            item = queue.take();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for generated values", e);
+        }
+
+        if (!sourceExhausted && scheduled.compareAndSet(false, true)) {
+            executor.execute(producer);
+        }
+        return item;
+    }
+
+    private void produce() {
+        try {
+            if (sourceIterator == null) {
+                sourceIterator = source.get().iterator();
+            }
+
+            do {
+                while (queue.remainingCapacity() > 1) {
+                    if (!sourceIterator.hasNext()) {
+                        finish();
+                        return;
+                    }
+                    queue.add(sourceIterator.next());
+                }
+                scheduled.set(false);
+            } while (queue.remainingCapacity() > 1 && scheduled.compareAndSet(false, true));
+        } catch (RuntimeException e) {
+            failure = e;
+            finish();
+        }
+    }
+
+    private void finish() {
+        sourceExhausted = true;
+        queue.add(END);
+    }
+}
@@ -0,0 +1,38 @@
+/*
+ * Copyright 2019 Scott Logic Ltd
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.scottlogic.datahelix.generator.common.util;
+
+import com.scottlogic.datahelix.generator.common.RandomNumberGenerator;
+
+import java.util.Random;
+
+/**
+ * Adapts a {@link RandomNumberGenerator} for libraries that expect a {@link Random}, so that their values are drawn
+ * from the same (possibly seeded) source as the rest of the generation.
+ */
+public class DelegatingRandom extends Random {
+    private final RandomNumberGenerator randomNumberGenerator;
+
+    public DelegatingRandom(RandomNumberGenerator randomNumberGenerator) {
+        this.randomNumberGenerator = randomNumberGenerator;
+    }
+
+    @Override
+    protected int next(int bits) {
+        return randomNumberGenerator.nextInt() >>> (32 - bits);
+    }
+}
@@ -0,0 +1,96 @@
+/*
+ * Copyright 2019 Scott Logic Ltd
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.scottlogic.datahelix.generator.common.util;
+
+import com.scottlogic.datahelix.generator.common.RandomNumberGenerator;
+
+import java.util.stream.LongStream;
+
+/**
+ * A keyed bijection on the indexes {@code [0, size)}, so that values that can be addressed by index can be produced
+ * in a shuffled order with each value appearing exactly once, without holding the values or a record of those seen.
+ *
+ * A balanced Feistel network permutes the smallest domain of an even number of bits that holds every index, and
+ * results that fall outside {@code [0, size)} are permuted again until one falls inside it (cycle walking). The
+ * domain is less than four times the size, so this takes fewer than four passes through the network on average.
+ */
+public class IndexPermutation {
+    private static final int ROUNDS = 6;
+
+    private final long size;
+    private final int halfBits;
+    private final long halfMask;
+    private final long[] roundKeys = new long[ROUNDS];
+
+    public IndexPermutation(long size, RandomNumberGenerator randomNumberGenerator) {
+        if (size < 0) {
+            throw new IllegalArgumentException("Cannot permute a negative number of indexes: " + size);
+        }
+
+        this.size = size;
+        int bits = Long.SIZE - Long.numberOfLeadingZeros(Math.max(size - 1, 1));
+        this.halfBits = (bits + 1) / 2;
+        this.halfMask = -1L >>> (Long.SIZE - halfBits);
+        for (int i = 0; i < ROUNDS; i++) {
+            roundKeys[i] = ((long) randomNumberGenerator.nextInt() << Integer.SIZE)
+                ^ (randomNumberGenerator.nextInt() & 0xffffffffL);
+        }
+    }
+
+    public long size() {
+        return size;
+    }
+
+    /**
+     * @return the index that {@code index} is moved to, which is in {@code [0, size)} when {@code index} is
+     */
+    public long permute(long index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Index " + index + " is not in [0, " + size + ")");
+        }
+
+        long permuted = index;
+        do {
+            permuted = encrypt(permuted);
+        } while (Long.compareUnsigned(permuted, size) >= 0);
+        return permuted;
+    }
+
+    /**
+     * @return every index in {@code [0, size)} once, in permuted order
+     */
+    public LongStream permutedIndexes() {
+        return LongStream.range(0, size).map(this::permute);
+    }
+
+    private long encrypt(long value) {
+        long left = value >>> halfBits;
+        long right = value & halfMask;
+        for (long key : roundKeys) {
+            long next = left ^ (mix(right ^ key) & halfMask);
+            left = right;
+            right = next;
+        }
+        return (left << halfBits) | right;
+    }
+
+    private static long mix(long value) {
+        value = (value ^ (value >>> 33)) * 0xff51afd7ed558ccdL;
+        value = (value ^ (value >>> 33)) * 0xc4ceb9fe1a85ec53L;
+        return value ^ (value >>> 33);
+    }
+}
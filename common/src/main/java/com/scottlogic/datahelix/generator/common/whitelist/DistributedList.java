@@ -19,35 +19,65 @@ package com.scottlogic.datahelix.generator.common.whitelist;
 import com.scottlogic.datahelix.generator.common.RandomNumberGenerator;
 
 import java.util.*;
-import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
+/**
+ * A list of elements, each with a weight giving how likely it is to be picked at random. Elements are held in a
+ * random access list and normalised weights in an array, so indexed access is O(1); weighted picks use an alias table
+ * (Vose's method), built on the first pick, so each pick is O(1) and allocates nothing.
+ *
+ * A uniform list can also be a view of a list that reads its elements on demand, such as the values of a large file,
+ * in which case no copy of the elements is held.
+ */
 public class DistributedList<T> {
     private static final DistributedList<?> EMPTY = new DistributedList<>(Collections.emptyList());
 
-    private final List<WeightedElement<T>> underlyingWeights;
+    private final List<Object> elements;
+
+    /**
+     * The weight of each element, normalised so they sum to 1, or null if every element has the same weight
+     */
+    private final double[] weights;
+
+    /**
+     * Whether every element has the same weight, in which case picks need no alias table
+     */
+    private final boolean uniform;
+
+    private AliasTable aliasTable;
 
-    private final List<WeightedElement<T>> underlyingCumulativeWeights;
+    private int hashCode;
 
     public DistributedList(final List<WeightedElement<T>> underlyingWeights) {
         if (underlyingWeights.contains(null)) {
             throw new IllegalArgumentException("DistributedSet should not contain null elements");
         }
 
-        List<WeightedElement<T>> normalisedWeights = normalise(underlyingWeights);
-        this.underlyingWeights = Collections.unmodifiableList(normalisedWeights);
-        this.underlyingCumulativeWeights = cumulative(normalisedWeights);
-    }
+        int size = underlyingWeights.size();
+        double total = 0.0D;
+        for (WeightedElement<T> holder : underlyingWeights) {
+            total += holder.weight();
+        }
 
-    private static <T> List<WeightedElement<T>> normalise(final List<WeightedElement<T>> denormalised) {
-        final double total = denormalised.stream()
-            .map(WeightedElement::weight)
-            .reduce(0.0D, Double::sum);
+        Object[] elements = new Object[size];
+        double[] weights = new double[size];
+        boolean sameWeights = true;
+        int index = 0;
+        for (WeightedElement<T> holder : underlyingWeights) {
+            elements[index] = holder.element();
+            weights[index] = holder.weight() / total;
+            sameWeights &= weights[index] == weights[0];
+            index++;
+        }
+        this.elements = Arrays.asList(elements);
+        this.weights = sameWeights ? null : weights;
+        this.uniform = sameWeights;
+    }
 
-        // Stream (even with 0 elements) ensure a copy of the original set is returned
-        return denormalised.stream()
-            .map(holder -> new WeightedElement<>(holder.element(), holder.weight() / total))
-            .collect(Collectors.toList());
+    private DistributedList(final List<Object> elements, final double[] weights) {
+        this.elements = elements;
+        this.weights = weights;
+        this.uniform = weights == null;
     }
 
     public static <T> DistributedList<T> singleton(final T element) {
@@ -55,32 +85,19 @@ public class DistributedList<T> {
     }
 
     public static <T> DistributedList<T> uniform(final Collection<T> underlyingSet) {
-        return new DistributedList<>(
-            underlyingSet.stream()
-                .map(WeightedElement::withDefaultWeight)
-                .collect(Collectors.toList()));
-    }
-
-    private static <T> List<WeightedElement<T>> cumulative(List<WeightedElement<T>> nonCumulative) {
-        List<WeightedElement<T>> cumulative = new LinkedList<>();
-        double runningTotal = 0.0D;
-        for (WeightedElement<T> holder : nonCumulative) {
-            runningTotal += holder.weight();
-            cumulative.add(new WeightedElement<>(holder.element(), runningTotal));
-        }
-
-        if (!cumulative.isEmpty()) {
-           replaceLastCumulativeElement(cumulative);
-        }
-
-        return new ArrayList<>(cumulative);
+        return new DistributedList<>(Arrays.asList(underlyingSet.toArray()), null);
     }
 
-    private static <T> void replaceLastCumulativeElement(List<WeightedElement<T>> cumulative) {
-        int lastIndex = cumulative.size() - 1;
-        WeightedElement<T> last = cumulative.get(lastIndex);
-        cumulative.remove(lastIndex);
-        cumulative.add(new WeightedElement<>(last.element(), 1.0D));
+    /**
+     * @param elements a random access list, which is used directly rather than copied, so must not change
+     * @return a uniform list of the elements, each read from the underlying list whenever it is accessed
+     */
+    @SuppressWarnings("unchecked")
+    public static <T> DistributedList<T> uniformView(final List<T> elements) {
+        if (!(elements instanceof RandomAccess)) {
+            throw new IllegalArgumentException("DistributedList can only be a view of a random access list");
+        }
+        return new DistributedList<>((List<Object>) elements, null);
     }
 
     @SuppressWarnings("unchecked")
@@ -88,36 +105,57 @@ public class DistributedList<T> {
         return (DistributedList<T>) EMPTY;
     }
 
+    /**
+     * @return a view of the elements with their normalised weights
+     */
     public List<WeightedElement<T>> distributedList() {
-        return underlyingWeights;
+        return new AbstractList<WeightedElement<T>>() {
+            @Override
+            public WeightedElement<T> get(int index) {
+                return new WeightedElement<>(DistributedList.this.get(index), weight(index));
+            }
+
+            @Override
+            public int size() {
+                return elements.size();
+            }
+        };
     }
 
     public T pickRandomly(RandomNumberGenerator random) {
-        return getElementFromCumulativeDistribution(1.0D - random.nextDouble(0.0D, 1.0D));
-    }
+        // one draw picks both a column of the alias table, by its integer part, and whether to take the column's own
+        // element or its alias, by its fractional part
+        double scaled = random.nextDouble(0.0D, 1.0D) * elements.size();
+        int column = Math.min((int) scaled, elements.size() - 1);
+        if (uniform) {
+            return get(column);
+        }
 
-    private T getElementFromCumulativeDistribution(final double value) {
-        List<Double> weights = underlyingCumulativeWeights.stream()
-            .map(WeightedElement::weight)
-            .collect(Collectors.toList());
+        AliasTable table = getAliasTable();
+        return scaled - column < table.probability[column] ? get(column) : get(table.alias[column]);
+    }
 
-        final int index = binarySearch(weights, value);
+    private AliasTable getAliasTable() {
+        // racing threads build equal tables, and its fields are final, so publishing without a lock is safe
+        AliasTable table = aliasTable;
+        if (table == null) {
+            table = new AliasTable(weights);
+            aliasTable = table;
+        }
+        return table;
+    }
 
-        return underlyingCumulativeWeights.get(index).element();
+    @SuppressWarnings("unchecked")
+    public T get(int index) {
+        return (T) elements.get(index);
     }
 
-    private static int binarySearch(List<Double> weights, double target) {
-        final int index = Collections.binarySearch(weights, target, Double::compare);
+    private double weight(int index) {
+        return weights == null ? 1.0D / elements.size() : weights[index];
+    }
 
-        // We need to resolve the index.
-        // A positive index represents an exact match
-        // A negative index represents an inexact match
-        // See Collections.binarySearch javadoc for more information
-        if (index < 0) {
-            return (-index) - 1;
-        } else {
-            return index;
-        }
+    public int size() {
+        return elements.size();
     }
 
     @Override
@@ -125,12 +163,34 @@ public class DistributedList<T> {
         if (this == o) return true;
         if (o == null || getClass() != o.getClass()) return false;
         DistributedList<?> that = (DistributedList<?>) o;
-        return Objects.equals(underlyingWeights, that.underlyingWeights);
+        if (size() != that.size()) return false;
+        for (int index = 0; index < size(); index++) {
+            if (Double.compare(weight(index), that.weight(index)) != 0) return false;
+        }
+        return elements.equals(that.elements);
     }
 
     @Override
     public int hashCode() {
-        return Objects.hash(underlyingWeights);
+        // large inSet lists are hashed every time their constraint is put into a tree node, so only hash them once
+        int hash = hashCode;
+        if (hash == 0) {
+            hash = 31 * elements.hashCode() + weightsHashCode();
+            hashCode = hash;
+        }
+        return hash;
+    }
+
+    /**
+     * @return the same hash as {@link Arrays#hashCode(double[])} of every element's weight
+     */
+    private int weightsHashCode() {
+        int hash = 1;
+        for (int index = 0; index < size(); index++) {
+            long bits = Double.doubleToLongBits(weight(index));
+            hash = 31 * hash + (int) (bits ^ (bits >>> 32));
+        }
+        return hash;
     }
 
     @Override
@@ -139,14 +199,66 @@ public class DistributedList<T> {
     }
 
     public Stream<T> stream() {
-        return distributedList().stream().map(WeightedElement::element);
+        return list().stream();
     }
 
+    /**
+     * @return an unmodifiable view of the elements, in order
+     */
+    @SuppressWarnings("unchecked")
     public List<T> list() {
-        return stream().collect(Collectors.toList());
+        return Collections.unmodifiableList((List<T>) elements);
     }
 
     public boolean isEmpty(){
-        return distributedList().isEmpty();
+        return elements.isEmpty();
+    }
+
+    /**
+     * Splits the weights into one column per element, each of which holds the probability of taking that element and
+     * an alias element to take otherwise, so that every column is equally likely
+     */
+    private static class AliasTable {
+        private final double[] probability;
+        private final int[] alias;
+
+        AliasTable(double[] weights) {
+            int size = weights.length;
+            probability = new double[size];
+            alias = new int[size];
+
+            int[] small = new int[size];
+            int[] large = new int[size];
+            int smallCount = 0;
+            int largeCount = 0;
+            for (int index = 0; index < size; index++) {
+                probability[index] = weights[index] * size;
+                if (probability[index] < 1.0D) {
+                    small[smallCount++] = index;
+                } else {
+                    large[largeCount++] = index;
+                }
+            }
+
+            while (smallCount > 0 && largeCount > 0) {
+                int less = small[--smallCount];
+                int more = large[--largeCount];
+                alias[less] = more;
+                probability[more] = (probability[more] + probability[less]) - 1.0D;
+                if (probability[more] < 1.0D) {
+                    small[smallCount++] = more;
+                } else {
+                    large[largeCount++] = more;
+                }
+            }
+
+            // whatever remains is within rounding error of a full column
+            while (largeCount > 0) {
+                probability[large[--largeCount]] = 1.0D;
+            }
+            while (smallCount > 0) {
+                probability[small[--smallCount]] = 1.0D;
+            }
+        }
     }
 }
@@ -203,4 +203,44 @@ class ProfileFieldsTests
             secondHashCode
         );
     }
+
+    @Test
+    void indexOf_fieldsOfProfile_returnsPositionsInProfile() {
+        Field first = createField("First Field");
+        Field second = createField("Second Field");
+
+        ProfileFields profileFields = new ProfileFields(Arrays.asList(first, second));
+
+        assertEquals(
+            "Expected the fields of a profile to be indexed by their positions in the profile",
+            Arrays.asList(0, 1),
+            Arrays.asList(profileFields.indexOf(first), profileFields.indexOf(second))
+        );
+    }
+
+    @Test
+    void indexOf_fieldInSeveralProfiles_returnsPositionInEachProfile() {
+        Field first = createField("First Field");
+        Field second = createField("Second Field");
+        ProfileFields firstProfileFields = new ProfileFields(Arrays.asList(first, second));
+
+        ProfileFields secondProfileFields = new ProfileFields(Arrays.asList(second));
+
+        assertEquals(
+            "Expected a field to be indexed by its position in each profile it is part of",
+            Arrays.asList(1, 0),
+            Arrays.asList(firstProfileFields.indexOf(second), secondProfileFields.indexOf(second))
+        );
+    }
+
+    @Test
+    void indexOf_fieldNotInProfile_returnsMinusOne() {
+        ProfileFields profileFields = new ProfileFields(Arrays.asList(createField("First Field")));
+
+        assertEquals(
+            "Expected a field outside the profile to have no index",
+            -1,
+            profileFields.indexOf(createField("Other Field"))
+        );
+    }
 }
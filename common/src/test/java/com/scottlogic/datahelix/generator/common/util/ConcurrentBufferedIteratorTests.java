@@ -0,0 +1,88 @@
+/*
+ * Copyright 2019 Scott Logic Ltd
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.scottlogic.datahelix.generator.common.util;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ConcurrentBufferedIteratorTests {
+    private ExecutorService executor;
+
+    @BeforeEach
+    void setup() {
+        executor = Executors.newSingleThreadExecutor();
+    }
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void stream_withMoreValuesThanCapacity_returnsAllValuesInOrder() {
+        List<Integer> result = ConcurrentBufferedIterator.stream(
+            () -> IntStream.range(0, 1000).boxed(),
+            executor,
+            7).collect(Collectors.toList());
+
+        assertEquals(IntStream.range(0, 1000).boxed().collect(Collectors.toList()), result);
+    }
+
+    @Test
+    void stream_withEmptySource_returnsEmptyStream() {
+        Stream<Integer> result = ConcurrentBufferedIterator.stream(Stream::empty, executor, 7);
+
+        assertEquals(0, result.count());
+    }
+
+    @Test
+    void stream_whenSourceThrows_rethrowsOnConsumingThread() {
+        Stream<Integer> result = ConcurrentBufferedIterator.stream(
+            () -> Stream.of(1, 2).map(i -> { throw new IllegalStateException("failed"); }),
+            executor,
+            7);
+
+        IllegalStateException exception = assertThrows(IllegalStateException.class, result::count);
+        assertEquals("failed", exception.getMessage());
+    }
+
+    @Test
+    void stream_withMoreStreamsThanThreads_interleavesWithoutDeadlocking() {
+        Iterator<Integer> first = ConcurrentBufferedIterator.stream(
+            () -> IntStream.range(0, 100).boxed(), executor, 2).iterator();
+        Iterator<Integer> second = ConcurrentBufferedIterator.stream(
+            () -> IntStream.range(100, 200).boxed(), executor, 2).iterator();
+
+        for (int i = 0; i < 100; i++) {
+            assertEquals(i, (int) first.next());
+            assertEquals(i + 100, (int) second.next());
+        }
+        assertFalse(first.hasNext());
+        assertFalse(second.hasNext());
+    }
+}
@@ -0,0 +1,73 @@
+/*
+ * Copyright 2019 Scott Logic Ltd
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.scottlogic.datahelix.generator.common.util;
+
+import com.scottlogic.datahelix.generator.common.TestRandomNumberGenerator;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class IndexPermutationTests {
+    @Test
+    void permutedIndexes_smallSizes_returnsEveryIndexOnce() {
+        for (long size = 0; size < 70; size++) {
+            List<Long> indexes = new IndexPermutation(size, new TestRandomNumberGenerator())
+                .permutedIndexes().boxed().collect(Collectors.toList());
+
+            assertEquals(
+                LongStream.range(0, size).boxed().collect(Collectors.toSet()),
+                new HashSet<>(indexes));
+            assertEquals(size, indexes.size());
+        }
+    }
+
+    @Test
+    void permutedIndexes_returnsIndexesOutOfOrder() {
+        List<Long> indexes = new IndexPermutation(1000, new TestRandomNumberGenerator())
+            .permutedIndexes().boxed().collect(Collectors.toList());
+
+        assertNotEquals(LongStream.range(0, 1000).boxed().collect(Collectors.toList()), indexes);
+    }
+
+    @Test
+    void permute_largeSize_returnsDistinctIndexesInRange() {
+        long size = 2_000_000_000L;
+        IndexPermutation permutation = new IndexPermutation(size, new TestRandomNumberGenerator());
+
+        Set<Long> indexes = new HashSet<>();
+        for (long i = 0; i < 100_000; i++) {
+            long permuted = permutation.permute(i);
+            assertTrue(permuted >= 0 && permuted < size);
+            indexes.add(permuted);
+        }
+
+        assertEquals(100_000, indexes.size());
+    }
+
+    @Test
+    void permute_indexOutsideSize_throws() {
+        IndexPermutation permutation = new IndexPermutation(10, new TestRandomNumberGenerator());
+
+        assertThrows(IndexOutOfBoundsException.class, () -> permutation.permute(10));
+    }
+}
@@ -19,9 +19,14 @@ package com.scottlogic.datahelix.generator.common.whitelist;
 import com.scottlogic.datahelix.generator.common.RandomNumberGenerator;
 import org.junit.jupiter.api.Test;
 
+import java.util.AbstractList;
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedList;
 import java.util.List;
+import java.util.Map;
+import java.util.RandomAccess;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
@@ -86,9 +91,90 @@ class DistributedListTest {
         assertEquals(fourthValue, otherFourthValue);
     }
 
+    @Test
+    public void testWeightedPicksFollowWeights() {
+        DistributedList<String> set = new DistributedList<>(Arrays.asList(
+            new WeightedElement<>("rare", 1.0D),
+            new WeightedElement<>("common", 6.0D),
+            new WeightedElement<>("middling", 3.0D)));
+
+        Map<String, Integer> counts = new HashMap<>();
+        int draws = 1000;
+        for (int draw = 0; draw < draws; draw++) {
+            counts.merge(set.pickRandomly(mockOfRandom((draw + 0.5D) / draws)), 1, Integer::sum);
+        }
+
+        assertEquals(100, counts.get("rare"), 1);
+        assertEquals(600, counts.get("common"), 1);
+        assertEquals(300, counts.get("middling"), 1);
+    }
+
+    @Test
+    public void testGetReturnsElementAtIndex() {
+        DistributedList<String> set = prepareTwoElementSet();
+
+        assertEquals("third", set.get(2));
+        assertEquals(4, set.size());
+    }
+
+    @Test
+    public void testDistributedListHasNormalisedWeights() {
+        DistributedList<String> set = new DistributedList<>(Arrays.asList(
+            new WeightedElement<>("first", 1.0D),
+            new WeightedElement<>("second", 3.0D)));
+
+        assertEquals(
+            Arrays.asList(new WeightedElement<>("first", 0.25D), new WeightedElement<>("second", 0.75D)),
+            set.distributedList());
+    }
+
+    @Test
+    public void testUniformViewReadsElementsFromUnderlyingList() {
+        List<String> underlying = new AbstractList<String>() {
+            @Override
+            public String get(int index) {
+                return "element" + index;
+            }
+
+            @Override
+            public int size() {
+                return 3;
+            }
+        };
+
+        DistributedList<String> view = DistributedList.uniformView(new RandomAccessList<>(underlying));
+
+        assertEquals("element1", view.get(1));
+        assertEquals("element2", view.pickRandomly(mockOfRandom(0.9D)));
+        assertEquals(DistributedList.uniform(Arrays.asList("element0", "element1", "element2")), view);
+    }
+
+    @Test
+    public void testUniformViewOfSequentialListIsRejected() {
+        assertThrows(IllegalArgumentException.class, () -> DistributedList.uniformView(new LinkedList<>()));
+    }
+
     private static RandomNumberGenerator mockOfRandom(double value) {
         RandomNumberGenerator generator = mock(RandomNumberGenerator.class);
         when(generator.nextDouble(0.0D, 1.0D)).thenReturn(value);
         return generator;
     }
+
+    private static class RandomAccessList<T> extends AbstractList<T> implements RandomAccess {
+        private final List<T> underlying;
+
+        RandomAccessList(List<T> underlying) {
+            this.underlying = underlying;
+        }
+
+        @Override
+        public T get(int index) {
+            return underlying.get(index);
+        }
+
+        @Override
+        public int size() {
+            return underlying.size();
+        }
+    }
 }
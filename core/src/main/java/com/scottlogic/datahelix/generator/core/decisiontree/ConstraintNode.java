@@ -20,12 +20,14 @@ import com.scottlogic.datahelix.generator.core.fieldspecs.relations.FieldSpecRel
 import com.scottlogic.datahelix.generator.core.profile.constraints.atomic.AtomicConstraint;
 
 import java.util.*;
+import java.util.stream.Collectors;
 
 public class ConstraintNode implements Node {
     private final Set<AtomicConstraint> atomicConstraints;
     private final Set<FieldSpecRelation> relations;
     private final Set<DecisionNode> decisions;
     private final Set<NodeMarking> nodeMarkings;
+    private final int hashCode;
 
     public ConstraintNode(Set<AtomicConstraint> atomicConstraints,
                           Set<FieldSpecRelation> relations,
@@ -35,6 +37,7 @@ public class ConstraintNode implements Node {
         this.relations = Collections.unmodifiableSet(relations);
         this.decisions = Collections.unmodifiableSet(decisions);
         this.nodeMarkings = Collections.unmodifiableSet(nodeMarkings);
+        this.hashCode = Objects.hash(atomicConstraints, relations, decisions, markingNames(nodeMarkings));
     }
 
     public Set<AtomicConstraint> getAtomicConstraints() {
@@ -85,6 +88,7 @@ public class ConstraintNode implements Node {
         if (this == o) return true;
         if (o == null || getClass() != o.getClass()) return false;
         ConstraintNode that = (ConstraintNode) o;
+        if (hashCode != that.hashCode) return false;
 
         return Objects.equals(atomicConstraints, that.atomicConstraints) &&
             Objects.equals(relations, that.relations) &&
@@ -94,7 +98,12 @@ public class ConstraintNode implements Node {
 
     @Override
     public int hashCode() {
-        return Objects.hash(atomicConstraints, relations, decisions, nodeMarkings);
+        return hashCode;
+    }
+
+    // markings are hashed by name, for the same reason as in SpecificFieldType.hashCode
+    private static Set<String> markingNames(Set<NodeMarking> nodeMarkings) {
+        return nodeMarkings.stream().map(NodeMarking::name).collect(Collectors.toSet());
     }
 
     static ConstraintNode merge(Iterator<ConstraintNode> constraintNodeIterator) {
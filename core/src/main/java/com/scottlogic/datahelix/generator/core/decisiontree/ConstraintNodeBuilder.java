@@ -132,7 +132,7 @@ public class ConstraintNodeBuilder {
     }
 
     public ConstraintNode build() {
-        return new ConstraintNode(atomicConstraints, relations, decisions, nodeMarkings);
+        return NodeInterner.intern(new ConstraintNode(atomicConstraints, relations, decisions, nodeMarkings));
     }
 
 }
@@ -26,6 +26,7 @@ import java.util.stream.Stream;
 public final class DecisionNode implements Node {
     private final Set<ConstraintNode> options;
     private final Set<NodeMarking> nodeMarkings;
+    private final int hashCode;
 
     public DecisionNode(ConstraintNode... options) {
         this(Collections.unmodifiableSet(SetUtils.setOf(options)));
@@ -38,6 +39,7 @@ public final class DecisionNode implements Node {
     public DecisionNode(Set<ConstraintNode> options, Set<NodeMarking> nodeMarkings) {
         this.options = Collections.unmodifiableSet(options);
         this.nodeMarkings = Collections.unmodifiableSet(nodeMarkings);
+        this.hashCode = options.hashCode();
     }
 
     public Set<ConstraintNode> getOptions() {
@@ -45,7 +47,7 @@ public final class DecisionNode implements Node {
     }
 
     public DecisionNode setOptions(Set<ConstraintNode> options){
-        return new DecisionNode(options);
+        return NodeInterner.intern(new DecisionNode(options));
     }
 
     @Override
@@ -58,6 +60,7 @@ public final class DecisionNode implements Node {
                 Stream.of(Collections.singleton(marking), this.nodeMarkings),
                 Collection::stream)
             .collect(Collectors.toSet());
+        // not interned: equality ignores markings, so a marked node must never stand in for an unmarked one
         return new DecisionNode(this.options, newMarkings);
     }
 
@@ -75,12 +78,12 @@ public final class DecisionNode implements Node {
         if (this == o) return true;
         if (o == null || getClass() != o.getClass()) return false;
         DecisionNode that = (DecisionNode) o;
+        if (hashCode != that.hashCode || options.size() != that.options.size()) return false;
         return options.containsAll(that.options) && that.options.containsAll(options);
     }
 
     @Override
     public int hashCode() {
-        List<ConstraintNode> optionsList = new ArrayList<>(options);
-        return Objects.hash(optionsList);
+        return hashCode;
     }
 }
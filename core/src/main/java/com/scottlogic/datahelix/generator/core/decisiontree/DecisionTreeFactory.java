@@ -124,7 +124,7 @@ public class DecisionTreeFactory {
             .map(this::convertConstraint)
             .collect(Collectors.toSet());
 
-        return asConstraintNode(new DecisionNode(options));
+        return asConstraintNode(NodeInterner.intern(new DecisionNode(options)));
     }
 
     private ConstraintNode convertConditionalConstraint(ConditionalConstraint constraintToConvert) {
@@ -147,7 +147,7 @@ public class DecisionTreeFactory {
 
     private static ConstraintNode asConstraintNode(AtomicConstraint constraint) {
         return new ConstraintNodeBuilder()
-            .addAtomicConstraints(Collections.singleton(constraint))
+            .addAtomicConstraints(Collections.singleton(NodeInterner.intern(constraint)))
             .setDecisions(Collections.emptySet())
             .build();
     }
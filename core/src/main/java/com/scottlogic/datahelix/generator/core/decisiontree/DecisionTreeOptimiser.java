@@ -55,7 +55,7 @@ public class DecisionTreeOptimiser {
             return rootNode;
         }
         // Add negation of most prolific constraint to new decision node
-        AtomicConstraint negatedMostProlificConstraint = mostProlificAtomicConstraint.negate();
+        AtomicConstraint negatedMostProlificConstraint = NodeInterner.intern(mostProlificAtomicConstraint.negate());
 
         List<DecisionNode> factorisableDecisionNodes = rootNode.getDecisions().stream()
             .filter(node -> this.decisionIsFactorisable(node, mostProlificAtomicConstraint, negatedMostProlificConstraint))
@@ -83,13 +83,13 @@ public class DecisionTreeOptimiser {
         }
 
         // Add new decision node
-        DecisionNode factorisedDecisionNode = new DecisionNode(
+        DecisionNode factorisedDecisionNode = NodeInterner.intern(new DecisionNode(
             Stream.concat(
                 Stream.of(
                     optimiseLevelOfTree(factorisingConstraintNode),
                     optimiseLevelOfTree(negatedFactorisingConstraintNode)),
                 otherOptions.stream())
-            .collect(Collectors.toSet()));
+            .collect(Collectors.toSet())));
 
         return rootNode.builder()
             .removeDecisions(decisionsToRemove)
@@ -109,7 +109,7 @@ public class DecisionTreeOptimiser {
             return newNode;
         }
 
-        return newNode.builder().addDecision(new DecisionNode(optionsToAdd)).build();
+        return newNode.builder().addDecision(NodeInterner.intern(new DecisionNode(optionsToAdd))).build();
     }
 
     private AtomicConstraint getMostProlificAtomicConstraint(Collection<DecisionNode> decisions) {
@@ -0,0 +1,55 @@
+/*
+ * Copyright 2019 Scott Logic Ltd
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.scottlogic.datahelix.generator.core.decisiontree;
+
+import com.google.common.collect.Interner;
+import com.google.common.collect.Interners;
+import com.scottlogic.datahelix.generator.core.profile.constraints.atomic.AtomicConstraint;
+
+/**
+ * Shares structurally identical tree nodes and atomic constraints. Once every child of a node is the canonical
+ * instance, comparing nodes for equality mostly reduces to an identity check on each child, and the node's cached
+ * hash code means putting it into a set no longer walks the subtree beneath it.
+ *
+ * Entries are weakly held so instances are dropped once no tree refers to them. The interners are concurrent, so
+ * trees built on several threads do not wait on each other.
+ */
+public final class NodeInterner {
+    private static final Interner<ConstraintNode> constraintNodes = Interners.newWeakInterner();
+    private static final Interner<DecisionNode> decisionNodes = Interners.newWeakInterner();
+    private static final Interner<AtomicConstraint> atomicConstraints = Interners.newWeakInterner();
+
+    private NodeInterner() {
+    }
+
+    public static ConstraintNode intern(ConstraintNode node) {
+        return sameClassOrOriginal(node, constraintNodes.intern(node));
+    }
+
+    public static DecisionNode intern(DecisionNode node) {
+        return sameClassOrOriginal(node, decisionNodes.intern(node));
+    }
+
+    public static AtomicConstraint intern(AtomicConstraint constraint) {
+        return sameClassOrOriginal(constraint, atomicConstraints.intern(constraint));
+    }
+
+    private static <T> T sameClassOrOriginal(T instance, T canonical) {
+        // equal instances of different classes are not interchangeable
+        return canonical.getClass() == instance.getClass() ? canonical : instance;
+    }
+}
@@ -24,13 +24,19 @@ import com.scottlogic.datahelix.generator.core.restrictions.TypedRestrictions;
 import com.scottlogic.datahelix.generator.core.restrictions.linear.LinearRestrictionsMerger;
 import com.scottlogic.datahelix.generator.common.SetUtils;
 
-import java.util.Optional;
+import java.util.*;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 /**
  * Returns a FieldSpec that permits only data permitted by all of its inputs
  */
 public class FieldSpecMerger {
+    /**
+     * Sets at least this large are filtered against restrictions in parallel
+     */
+    private static final int PARALLEL_FILTER_THRESHOLD = 50_000;
+
     private final RestrictionsMergeOperation restrictionMergeOperation =
         new RestrictionsMergeOperation(new LinearRestrictionsMerger(), new StringRestrictionsMerger(), new BooleanRestrictionsMerger());
 
@@ -66,32 +72,35 @@ public class FieldSpecMerger {
         return combineRestrictions((RestrictionsFieldSpec)left, (RestrictionsFieldSpec)right, useFinestGranularityAvailable);
     }
 
-    private static WeightedElement<Object> mergeElements(WeightedElement<Object> left,
-                                                         WeightedElement<Object> right) {
-        return new WeightedElement<>(left.element(), left.weight() + right.weight());
-    }
-
-    //TODO try a performance test with this replaced with combineSetWithRestrictions()
-
+    /**
+     * Pairs each element of the left set with every equal element of the right, found through a hash of the right
+     * set's weights by element, so merging is linear in the sizes of the sets
+     */
     private Optional<FieldSpec> mergeSets(WhitelistFieldSpec left, WhitelistFieldSpec right) {
-        DistributedList<Object> set = new DistributedList<>(left.getWhitelist().distributedList().stream()
-            .flatMap(leftHolder -> right.getWhitelist().distributedList().stream()
-                .filter(rightHolder -> elementsEqual(leftHolder, rightHolder))
-                .map(rightHolder -> mergeElements(leftHolder, rightHolder)))
-            .distinct()
-            .collect(Collectors.toList()));
+        Map<Object, List<Double>> rightWeights = new HashMap<>();
+        for (WeightedElement<Object> rightHolder : right.getWhitelist().distributedList()) {
+            rightWeights.computeIfAbsent(rightHolder.element(), element -> new ArrayList<>(1)).add(rightHolder.weight());
+        }
+
+        Set<WeightedElement<Object>> merged = new LinkedHashSet<>();
+        for (WeightedElement<Object> leftHolder : left.getWhitelist().distributedList()) {
+            for (double rightWeight : rightWeights.getOrDefault(leftHolder.element(), Collections.emptyList())) {
+                merged.add(mergeElements(leftHolder, rightWeight));
+            }
+        }
+        DistributedList<Object> set = new DistributedList<>(new ArrayList<>(merged));
 
         FieldSpec newFieldSpec = set.isEmpty() ? FieldSpecFactory.nullOnly() : FieldSpecFactory.fromList(set);
         return addNullability(left.isNullable(), right.isNullable(), newFieldSpec);
     }
-    private static <T> boolean elementsEqual(WeightedElement<T> left, WeightedElement<T> right) {
-        return left.element().equals(right.element());
+
+    private static WeightedElement<Object> mergeElements(WeightedElement<Object> left, double rightWeight) {
+        return new WeightedElement<>(left.element(), left.weight() + rightWeight);
     }
 
     private Optional<FieldSpec> combineSetWithRestrictions(WhitelistFieldSpec set, FieldSpec restrictions) {
         DistributedList<Object> newSet = new DistributedList<>(
-            set.getWhitelist().distributedList().stream()
-                .filter(holder -> restrictions.canCombineWithWhitelistValue(holder.element()))
+            filter(set.getWhitelist().distributedList(), restrictions).stream()
                 .distinct()
                 .collect(Collectors.toList()));
 
@@ -99,6 +108,28 @@ public class FieldSpecMerger {
         return addNullability(set.isNullable(), restrictions.isNullable(), newSpec);
     }
 
+    /**
+     * Large sets are checked against restrictions in parallel. The first element is checked first on this thread, so
+     * that state restrictions create lazily on their first check is created before the checks are shared out.
+     */
+    private static List<WeightedElement<Object>> filter(List<WeightedElement<Object>> holders, FieldSpec restrictions) {
+        if (holders.size() < PARALLEL_FILTER_THRESHOLD || !(restrictions instanceof RestrictionsFieldSpec)) {
+            return holders.stream()
+                .filter(holder -> restrictions.canCombineWithWhitelistValue(holder.element()))
+                .collect(Collectors.toList());
+        }
+
+        WeightedElement<Object> first = holders.get(0);
+        Stream<WeightedElement<Object>> firstIfPermitted = restrictions.canCombineWithWhitelistValue(first.element())
+            ? Stream.of(first)
+            : Stream.empty();
+        return Stream.concat(
+            firstIfPermitted,
+            holders.subList(1, holders.size()).parallelStream()
+                .filter(holder -> restrictions.canCombineWithWhitelistValue(holder.element())))
+            .collect(Collectors.toList());
+    }
+
     private Optional<FieldSpec> addNullability(boolean leftIsNullable, boolean rightIsNullable, FieldSpec newFieldSpec) {
         if (leftIsNullable && rightIsNullable) {
             return Optional.of(newFieldSpec);
@@ -20,11 +20,19 @@ import com.scottlogic.datahelix.generator.common.whitelist.DistributedList;
 import com.scottlogic.datahelix.generator.core.generation.fieldvaluesources.CannedValuesFieldValueSource;
 import com.scottlogic.datahelix.generator.core.generation.fieldvaluesources.FieldValueSource;
 
+import java.util.HashSet;
 import java.util.Objects;
+import java.util.Set;
 
 public class WhitelistFieldSpec extends FieldSpec {
     private final DistributedList<Object> whitelist;
 
+    /**
+     * The whitelisted elements, hashed on first use so values can be looked up without scanning the list. Volatile so
+     * that a set built by one thread is seen fully populated by the others.
+     */
+    private volatile Set<Object> index;
+
     WhitelistFieldSpec(DistributedList<Object> whitelist, boolean nullable) {
         super(nullable);
         if (whitelist.isEmpty()){
@@ -33,9 +41,24 @@ public class WhitelistFieldSpec extends FieldSpec {
         this.whitelist = whitelist;
     }
 
+    private WhitelistFieldSpec(DistributedList<Object> whitelist, boolean nullable, Set<Object> index) {
+        this(whitelist, nullable);
+        this.index = index;
+    }
+
     @Override
     public boolean canCombineWithWhitelistValue(Object value) {
-        return whitelist.list().contains(value);
+        return getIndex().contains(value);
+    }
+
+    private Set<Object> getIndex() {
+        // threads racing to build the set build equal ones, so whichever is kept does not matter
+        Set<Object> elements = index;
+        if (elements == null) {
+            elements = new HashSet<>(whitelist.list());
+            index = elements;
+        }
+        return elements;
     }
 
     @Override
@@ -45,7 +68,7 @@ public class WhitelistFieldSpec extends FieldSpec {
 
     @Override
     public WhitelistFieldSpec withNotNull() {
-        return new WhitelistFieldSpec(whitelist, false);
+        return new WhitelistFieldSpec(whitelist, false, index);
     }
 
     public DistributedList<Object> getWhitelist() {
@@ -24,6 +24,8 @@ import com.scottlogic.datahelix.generator.core.generation.databags.DataBagValue;
 import com.scottlogic.datahelix.generator.core.profile.constraints.Constraint;
 import com.scottlogic.datahelix.generator.core.restrictions.linear.LinearRestrictions;
 
+import java.util.Objects;
+
 import static com.scottlogic.datahelix.generator.common.util.GranularityUtils.readGranularity;
 
 public class AfterRelation<T extends Comparable<T>> implements FieldSpecRelation {
@@ -104,4 +106,23 @@ public class AfterRelation<T extends Comparable<T>> implements FieldSpecRelation
     public Constraint negate() {
         throw new UnsupportedOperationException("Negating relations with an offset is not supported");
     }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        AfterRelation<?> that = (AfterRelation<?>) o;
+        return Objects.equals(main, that.main) &&
+            Objects.equals(other, that.other) &&
+            inclusive == that.inclusive &&
+            Objects.equals(defaults, that.defaults) &&
+            Objects.equals(offsetGranularity, that.offsetGranularity) &&
+            offset == that.offset;
+    }
+
+    @Override
+    public int hashCode() {
+        // the defaults are shared per type, so are left out of the hash
+        return Objects.hash(main, other, inclusive, offsetGranularity, offset);
+    }
 }
@@ -27,6 +27,7 @@ import com.scottlogic.datahelix.generator.core.profile.constraints.Constraint;
 import com.scottlogic.datahelix.generator.core.restrictions.linear.LinearRestrictions;
 
 import java.util.List;
+import java.util.Objects;
 import java.util.stream.Collectors;
 
 public class EqualToOffsetRelation<T extends Comparable<T>> implements FieldSpecRelation {
@@ -104,4 +105,20 @@ public class EqualToOffsetRelation<T extends Comparable<T>> implements FieldSpec
     public Constraint negate() {
         throw new UnsupportedOperationException("Negating relations with an offset is not supported");
     }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        EqualToOffsetRelation<?> that = (EqualToOffsetRelation<?>) o;
+        return Objects.equals(main, that.main) &&
+            Objects.equals(other, that.other) &&
+            Objects.equals(offsetGranularity, that.offsetGranularity) &&
+            offset == that.offset;
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(main, other, offsetGranularity, offset);
+    }
 }
@@ -26,6 +26,7 @@ import com.scottlogic.datahelix.generator.core.profile.constraints.Constraint;
 import java.math.BigDecimal;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Objects;
 
 public class InMapIndexRelation implements FieldSpecRelation
 {
@@ -43,8 +44,8 @@ public class InMapIndexRelation implements FieldSpecRelation
     public FieldSpec createModifierFromOtherFieldSpec(FieldSpec otherFieldSpec) {
         List<Object> whiteList = new ArrayList<>();
 
-        for (int i = 0; i < underlyingList.list().size(); i++) {
-            Object testingElement = underlyingList.list().get(i);
+        for (int i = 0; i < underlyingList.size(); i++) {
+            Object testingElement = underlyingList.get(i);
             if (otherFieldSpec.canCombineWithWhitelistValue(testingElement)) {
                 whiteList.add(BigDecimal.valueOf(i));
             }
@@ -80,4 +81,19 @@ public class InMapIndexRelation implements FieldSpecRelation
     public Constraint negate() {
         throw new UnsupportedOperationException("in map relations cannot currently be negated");
     }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        InMapIndexRelation that = (InMapIndexRelation) o;
+        return Objects.equals(main, that.main) &&
+            Objects.equals(other, that.other) &&
+            Objects.equals(underlyingList, that.underlyingList);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(main, other, underlyingList);
+    }
 }
@@ -25,6 +25,8 @@ import com.scottlogic.datahelix.generator.core.profile.constraints.Constraint;
 
 import java.math.BigDecimal;
 
+import java.util.Objects;
+
 public class InMapRelation implements FieldSpecRelation
 {
     private final Field main;
@@ -46,7 +48,7 @@ public class InMapRelation implements FieldSpecRelation
     public FieldSpec createModifierFromOtherValue(DataBagValue otherFieldGeneratedValue) {
         BigDecimal value = (BigDecimal) otherFieldGeneratedValue.getValue();
 
-        DistributedList<Object> newList = DistributedList.singleton(underlyingList.list().get(value.intValue()));
+        DistributedList<Object> newList = DistributedList.singleton(underlyingList.get(value.intValue()));
         return FieldSpecFactory.fromList(newList);
     }
 
@@ -73,4 +75,19 @@ public class InMapRelation implements FieldSpecRelation
     public Constraint negate() {
         throw new UnsupportedOperationException("in map relations cannot currently be negated");
     }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        InMapRelation that = (InMapRelation) o;
+        return Objects.equals(main, that.main) &&
+            Objects.equals(other, that.other) &&
+            Objects.equals(underlyingList, that.underlyingList);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(main, other, underlyingList);
+    }
 }
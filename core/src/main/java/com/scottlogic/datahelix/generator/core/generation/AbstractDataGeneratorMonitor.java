@@ -20,12 +20,16 @@ import com.google.inject.Inject;
 
 import java.io.PrintWriter;
 import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
+import java.util.function.Supplier;
 
 public abstract class AbstractDataGeneratorMonitor implements DataGeneratorMonitor {
     final PrintWriter writer;
 
-    private List<String> linesToPrintAtEndOfGeneration = new ArrayList<>();
+    private List<Supplier<String>> linesToPrintAtEndOfGeneration = new ArrayList<>();
+    private final Set<String> statisticNames = new HashSet<>();
 
     @Inject
     AbstractDataGeneratorMonitor(PrintWriter writer) {
@@ -33,10 +37,22 @@ public abstract class AbstractDataGeneratorMonitor implements DataGeneratorMonit
     }
 
     public void endGeneration() {
-        linesToPrintAtEndOfGeneration.forEach(writer::println);
+        linesToPrintAtEndOfGeneration.forEach(line -> writer.println(line.get()));
     }
 
     public void addLineToPrintAtEndOfGeneration(String line) {
+        linesToPrintAtEndOfGeneration.add(() -> line);
+    }
+
+    @Override
+    public void addLineToPrintAtEndOfGeneration(Supplier<String> line) {
         linesToPrintAtEndOfGeneration.add(line);
     }
+
+    @Override
+    public synchronized void addStatisticToPrintAtEndOfGeneration(String name, Supplier<String> value) {
+        if (statisticNames.add(name)) {
+            addLineToPrintAtEndOfGeneration(() -> name + ": " + value.get());
+        }
+    }
 }
\ No newline at end of file
@@ -18,9 +18,22 @@ package com.scottlogic.datahelix.generator.core.generation;
 
 import com.scottlogic.datahelix.generator.common.output.GeneratedObject;
 
+import java.util.function.Supplier;
+
 public interface DataGeneratorMonitor {
     default void generationStarting() {}
     default void rowEmitted(GeneratedObject row) {}
     default void endGeneration() {}
     void addLineToPrintAtEndOfGeneration(String line);
+    /**
+     * Adds a diagnostic line whose text is only worked out when generation ends, e.g. a statistic that is still
+     * changing. Quiet monitors drop these.
+     */
+    default void addLineToPrintAtEndOfGeneration(Supplier<String> line) {}
+    /**
+     * Adds a named statistic, worked out when generation ends, unless one with the same name has already been added,
+     * so that statistics of shared caches are printed once however many times data is generated. Quiet monitors drop
+     * these.
+     */
+    default void addStatisticToPrintAtEndOfGeneration(String name, Supplier<String> value) {}
 }
@@ -26,10 +26,12 @@ import com.scottlogic.datahelix.generator.core.decisiontree.treepartitioning.Tre
 import com.scottlogic.datahelix.generator.core.generation.combinationstrategies.CombinationStrategy;
 import com.scottlogic.datahelix.generator.core.generation.databags.DataBag;
 import com.scottlogic.datahelix.generator.core.generation.relationships.RelationshipsDataGenerator;
+import com.scottlogic.datahelix.generator.core.generation.string.AutomatonCache;
 import com.scottlogic.datahelix.generator.core.generation.visualiser.Visualiser;
 import com.scottlogic.datahelix.generator.core.generation.visualiser.VisualiserFactory;
 import com.scottlogic.datahelix.generator.core.profile.Profile;
 import com.scottlogic.datahelix.generator.core.walker.DecisionTreeWalker;
+import com.scottlogic.datahelix.generator.core.walker.decisionbased.NoGoodCache;
 
 import java.util.function.Supplier;
 import java.util.stream.Stream;
@@ -46,6 +48,7 @@ public class DecisionTreeDataGenerator implements DataGenerator {
     private final UpfrontTreePruner upfrontTreePruner;
     private final VisualiserFactory visualiserFactory;
     private final RelationshipsDataGenerator relationshipsDataGenerator;
+    private final NoGoodCache noGoodCache;
 
     @Inject
     public DecisionTreeDataGenerator(
@@ -57,7 +60,8 @@ public class DecisionTreeDataGenerator implements DataGenerator {
         CombinationStrategy combinationStrategy,
         UpfrontTreePruner upfrontTreePruner,
         VisualiserFactory visualiserFactory,
-        RelationshipsDataGenerator relationshipsDataGenerator) {
+        RelationshipsDataGenerator relationshipsDataGenerator,
+        NoGoodCache noGoodCache) {
         this.decisionTreeGenerator = decisionTreeGenerator;
         this.treePartitioner = treePartitioner;
         this.treeOptimiser = optimiser;
@@ -67,6 +71,7 @@ public class DecisionTreeDataGenerator implements DataGenerator {
         this.upfrontTreePruner = upfrontTreePruner;
         this.visualiserFactory = visualiserFactory;
         this.relationshipsDataGenerator = relationshipsDataGenerator;
+        this.noGoodCache = noGoodCache;
     }
 
     @Override
@@ -80,6 +85,8 @@ public class DecisionTreeDataGenerator implements DataGenerator {
             return Stream.empty();
         }
 
+        monitor.addStatisticToPrintAtEndOfGeneration("No-good cache", noGoodCache::toString);
+        monitor.addStatisticToPrintAtEndOfGeneration("Regex automaton cache", AutomatonCache::getStatistics);
         Stream<Supplier<Stream<DataBag>>> partitionedDataBags = treePartitioner
             .splitTreeIntoPartitions(decisionTree)
             .map(treeOptimiser::optimiseTree)
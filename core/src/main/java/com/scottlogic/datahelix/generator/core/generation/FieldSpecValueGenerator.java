@@ -17,6 +17,7 @@
 package com.scottlogic.datahelix.generator.core.generation;
 
 import com.google.inject.Inject;
+import com.google.inject.name.Named;
 import com.scottlogic.datahelix.generator.common.RandomNumberGenerator;
 import com.scottlogic.datahelix.generator.common.profile.Field;
 import com.scottlogic.datahelix.generator.core.config.detail.DataGenerationType;
@@ -30,18 +31,30 @@ import java.util.stream.Stream;
 public class FieldSpecValueGenerator {
     private final DataGenerationType dataType;
     private final RandomNumberGenerator randomNumberGenerator;
+    private final boolean shuffleUnique;
 
     @Inject
     public FieldSpecValueGenerator(DataGenerationType dataGenerationType,
-                                   JavaUtilRandomNumberGenerator randomNumberGenerator) {
-        this.dataType = dataGenerationType;
-        this.randomNumberGenerator = randomNumberGenerator;
+                                   JavaUtilRandomNumberGenerator randomNumberGenerator,
+                                   @Named("config:shuffleUnique") boolean shuffleUnique) {
+        this(dataGenerationType, (RandomNumberGenerator) randomNumberGenerator, shuffleUnique);
     }
 
     public FieldSpecValueGenerator(DataGenerationType dataGenerationType,
                                    RandomNumberGenerator randomNumberGenerator) {
+        this(dataGenerationType, randomNumberGenerator, false);
+    }
+
+    /**
+     * @param shuffleUnique whether unique fields generated in random mode take their values in a shuffled order
+     *                      rather than in sequence
+     */
+    public FieldSpecValueGenerator(DataGenerationType dataGenerationType,
+                                   RandomNumberGenerator randomNumberGenerator,
+                                   boolean shuffleUnique) {
         this.dataType = dataGenerationType;
         this.randomNumberGenerator = randomNumberGenerator;
+        this.shuffleUnique = shuffleUnique;
     }
 
     public boolean isRandom() {
@@ -49,16 +62,24 @@ public class FieldSpecValueGenerator {
     }
 
     public Stream<DataBagValue> generate(Field field, FieldSpec spec) {
-        FieldValueSource fieldValueSource = spec.getFieldValueSource();
-
-        return getDataValues(fieldValueSource, field.isUnique())
+        return generateValues(field, spec.getFieldValueSource())
             .map(DataBagValue::new);
     }
 
+    /**
+     * Generates values from a value source that has already been built from the field's spec, so that callers
+     * generating repeatedly for the same spec only build the source once
+     */
+    public Stream<Object> generateValues(Field field, FieldValueSource fieldValueSource) {
+        return getDataValues(fieldValueSource, field.isUnique());
+    }
+
     private Stream<Object> getDataValues(FieldValueSource source, boolean unique) {
         if (unique) {
-            return source.generateAllValues();
-        } 
+            return shuffleUnique && dataType == DataGenerationType.RANDOM
+                ? source.generateRandomUniqueValues(randomNumberGenerator)
+                : source.generateAllValues();
+        }
 
         switch (dataType) {
             case FULL_SEQUENTIAL:
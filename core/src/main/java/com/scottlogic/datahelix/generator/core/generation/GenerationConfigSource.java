@@ -28,6 +28,11 @@ public interface GenerationConfigSource  {
     CombinationStrategyType getCombinationStrategyType();
     Long getMaxRows();
     boolean getInfiniteOutput();
+    int getThreads();
+    int getShards();
+    boolean getShuffleUnique();
+    int getUniqueCombinationsMemory();
+    Long getSeed();
 
     MonitorType getMonitorType();
 
@@ -17,10 +17,16 @@
 package com.scottlogic.datahelix.generator.core.generation;
 
 import java.io.PrintWriter;
+import java.util.function.Supplier;
 
 public class NoopDataGeneratorMonitor extends AbstractDataGeneratorMonitor {
     public NoopDataGeneratorMonitor() {
         super(new PrintWriter(System.err));
     }
     // don't override any of the default no-op implementations from the interface
+
+    @Override
+    public void addLineToPrintAtEndOfGeneration(Supplier<String> line) {
+        // statistics are not reported when running quietly
+    }
 }
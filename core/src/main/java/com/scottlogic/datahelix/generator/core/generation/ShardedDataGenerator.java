@@ -0,0 +1,99 @@
+/*
+ * Copyright 2019 Scott Logic Ltd
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.scottlogic.datahelix.generator.core.generation;
+
+import com.scottlogic.datahelix.generator.common.output.GeneratedObject;
+import com.scottlogic.datahelix.generator.common.profile.Field;
+import com.scottlogic.datahelix.generator.common.util.ConcurrentBufferedIterator;
+import com.scottlogic.datahelix.generator.common.util.DaemonExecutors;
+import com.scottlogic.datahelix.generator.core.profile.Profile;
+
+import java.util.*;
+import java.util.concurrent.ExecutorService;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Runs several independent generators over the same profile, each on its own thread, and interleaves their output.
+ *
+ * Each shard is expected to own its random number generator, and the output is taken from the shards in a fixed
+ * round-robin order, so the merged stream is reproducible for a given set of shard seeds. Every shard generates all
+ * of its partitions itself, so the order in which a shard draws from its generator does not depend on thread timing.
+ */
+public class ShardedDataGenerator implements DataGenerator {
+    static final int SHARD_QUEUE_SIZE = 1024;
+
+    private final List<DataGenerator> shards;
+    private final ExecutorService executor;
+
+    //created by DataGeneratorProvider
+    public ShardedDataGenerator(List<DataGenerator> shards) {
+        this.shards = shards;
+        this.executor = DaemonExecutors.newFixedThreadPool(shards.size(), "generation-shard");
+    }
+
+    @Override
+    public Stream<GeneratedObject> generateData(Profile profile) {
+        if (profile.getFields().stream().anyMatch(Field::isUnique)) {
+            // every shard would produce the same sequence of unique values, so only one shard can be used
+            return shards.get(0).generateData(profile);
+        }
+
+        // the profile is analysed on the calling thread, and only the resulting rows are generated on the shard threads
+        List<Iterator<GeneratedObject>> shardIterators = shards.stream()
+            .map(shard -> shard.generateData(profile))
+            .map(rows -> ConcurrentBufferedIterator.stream(() -> rows, executor, SHARD_QUEUE_SIZE))
+            .map(Stream::iterator)
+            .collect(Collectors.toList());
+
+        Iterable<GeneratedObject> iterable = () -> new RoundRobinIterator<>(shardIterators);
+        return StreamSupport.stream(iterable.spliterator(), false);
+    }
+
+    static class RoundRobinIterator<T> implements Iterator<T> {
+        private final List<Iterator<T>> remainingShards;
+        private int nextShard = 0;
+
+        RoundRobinIterator(List<Iterator<T>> shards) {
+            this.remainingShards = new ArrayList<>(shards);
+        }
+
+        @Override
+        public boolean hasNext() {
+            while (!remainingShards.isEmpty()) {
+                if (nextShard >= remainingShards.size()) {
+                    nextShard = 0;
+                }
+
+                if (remainingShards.get(nextShard).hasNext()) {
+                    return true;
+                }
+                remainingShards.remove(nextShard);
+            }
+            return false;
+        }
+
+        @Override
+        public T next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            return remainingShards.get(nextShard++).next();
+        }
+    }
+}
@@ -0,0 +1,168 @@
+/*
+ * Copyright 2019 Scott Logic Ltd
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.scottlogic.datahelix.generator.core.generation;
+
+import com.scottlogic.datahelix.generator.common.output.GeneratedObject;
+import com.scottlogic.datahelix.generator.common.profile.Field;
+import com.scottlogic.datahelix.generator.core.generation.uniqueness.FingerprintSet;
+import com.scottlogic.datahelix.generator.core.profile.Profile;
+
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Drops rows that repeat the values of any of the profile's unique combinations of fields. Each combination is
+ * reduced to a 64-bit fingerprint of its formatted values and tracked in an off-heap {@link FingerprintSet}; in
+ * random mode the rows dropped are replaced by the next ones generated, until too many in a row are duplicates, when
+ * generation stops and the monitor is told which combination ran out.
+ */
+public class UniqueCombinationsDataGenerator implements DataGenerator {
+    private static final long FNV_OFFSET = 0xcbf29ce484222325L;
+    private static final long FNV_PRIME = 0x100000001b3L;
+
+    private final DataGenerator dataGenerator;
+    private final long memoryBudgetBytes;
+    private final Path spillDirectory;
+    private final long maxConsecutiveDuplicates;
+    private final DataGeneratorMonitor monitor;
+
+    //created by DataGeneratorProvider
+    public UniqueCombinationsDataGenerator(
+        DataGenerator dataGenerator,
+        long memoryBudgetBytes,
+        Path spillDirectory,
+        long maxConsecutiveDuplicates,
+        DataGeneratorMonitor monitor) {
+        this.dataGenerator = dataGenerator;
+        this.memoryBudgetBytes = memoryBudgetBytes;
+        this.spillDirectory = spillDirectory;
+        this.maxConsecutiveDuplicates = maxConsecutiveDuplicates;
+        this.monitor = monitor;
+    }
+
+    @Override
+    public Stream<GeneratedObject> generateData(Profile profile) {
+        List<List<Field>> combinations = profile.getUniqueCombinations();
+        if (combinations.isEmpty()) {
+            return dataGenerator.generateData(profile);
+        }
+
+        Stream<GeneratedObject> data = dataGenerator.generateData(profile);
+        UniqueRowSpliterator uniqueRows = new UniqueRowSpliterator(data.spliterator(), combinations);
+        return StreamSupport.stream(uniqueRows, false)
+            .onClose(uniqueRows::close)
+            .onClose(data::close);
+    }
+
+    static long fingerprint(GeneratedObject row, List<Field> combination) {
+        long hash = FNV_OFFSET;
+        for (Field field : combination) {
+            Object value = row.getFormattedValue(field);
+            String text = value == null ? "" : value.toString();
+            for (int i = 0; i < text.length(); i++) {
+                hash = (hash ^ text.charAt(i)) * FNV_PRIME;
+            }
+            // terminate each value so that ("ab", "c") and ("a", "bc") differ, and null differs from ""
+            hash = (hash ^ (value == null ? -1 : text.length())) * FNV_PRIME;
+        }
+        hash = (hash ^ (hash >>> 33)) * 0xff51afd7ed558ccdL;
+        hash = (hash ^ (hash >>> 33)) * 0xc4ceb9fe1a85ec53L;
+        return hash ^ (hash >>> 33);
+    }
+
+    private class UniqueRowSpliterator extends Spliterators.AbstractSpliterator<GeneratedObject> {
+        private final Spliterator<GeneratedObject> rows;
+        private final List<List<Field>> combinations;
+        private final FingerprintSet[] seen;
+        private final long[] fingerprints;
+        private GeneratedObject row;
+        private int duplicatedCombination;
+        private long rowsProduced;
+        private boolean exhausted;
+
+        UniqueRowSpliterator(Spliterator<GeneratedObject> rows, List<List<Field>> combinations) {
+            super(Long.MAX_VALUE, Spliterator.ORDERED | Spliterator.NONNULL);
+            this.rows = rows;
+            this.combinations = combinations;
+            this.seen = new FingerprintSet[combinations.size()];
+            this.fingerprints = new long[combinations.size()];
+            for (int i = 0; i < seen.length; i++) {
+                seen[i] = new FingerprintSet(memoryBudgetBytes / seen.length, spillDirectory);
+            }
+        }
+
+        @Override
+        public boolean tryAdvance(Consumer<? super GeneratedObject> action) {
+            if (exhausted) {
+                return false;
+            }
+
+            for (long duplicates = 0; duplicates < maxConsecutiveDuplicates; duplicates++) {
+                if (!rows.tryAdvance(next -> row = next)) {
+                    return false;
+                }
+                if (addIfUnique(row)) {
+                    rowsProduced++;
+                    action.accept(row);
+                    return true;
+                }
+            }
+
+            exhausted = true;
+            reportExhausted();
+            return false;
+        }
+
+        private void reportExhausted() {
+            String combination = combinations.get(duplicatedCombination).stream()
+                .map(Field::getName)
+                .collect(Collectors.joining(", "));
+            monitor.addLineToPrintAtEndOfGeneration(String.format(
+                "Generation stopped after %d rows, as the last %d rows generated repeated a unique combination, most " +
+                    "recently of %s",
+                rowsProduced,
+                maxConsecutiveDuplicates,
+                combination));
+        }
+
+        private boolean addIfUnique(GeneratedObject row) {
+            for (int i = 0; i < seen.length; i++) {
+                fingerprints[i] = fingerprint(row, combinations.get(i));
+                if (seen[i].contains(fingerprints[i])) {
+                    duplicatedCombination = i;
+                    return false;
+                }
+            }
+            for (int i = 0; i < seen.length; i++) {
+                seen[i].add(fingerprints[i]);
+            }
+            return true;
+        }
+
+        void close() {
+            for (FingerprintSet set : seen) {
+                set.close();
+            }
+        }
+    }
+}
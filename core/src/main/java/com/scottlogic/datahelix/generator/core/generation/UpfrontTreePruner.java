@@ -49,6 +49,7 @@ public class UpfrontTreePruner {
                     f -> FieldSpecFactory.fromType(f.getType())));
 
         Merged<ConstraintNode> prunedNode = treePruner.pruneConstraintNode(tree.getRootNode(), fieldSpecs);
+        monitor.addStatisticToPrintAtEndOfGeneration("Tree prune cache", () -> treePruner.getPruneCache().toString());
         DecisionTree markedTree = validator.markContradictions(tree);
 
         if (prunedNode.isContradictory()) {
@@ -0,0 +1,582 @@
+/*
+ * Copyright 2019 Scott Logic Ltd
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.scottlogic.datahelix.generator.core.generation.combinationstrategies;
+
+import com.scottlogic.datahelix.generator.core.generation.databags.DataBag;
+
+import java.util.*;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Combines the data bags of several partitions into rows. Every partition's supplier is invoked once where
+ * possible: the exhaustive combination records the values of all but the first partition as they are first
+ * streamed, up to a limit on the total number of bags held. Once every one of them has been recorded in full, rows
+ * are addressed by a mixed-radix index over the recorded values so that a run can be split by index range. A
+ * partition that would take the total over the limit is streamed again from its supplier each time it is needed.
+ */
+final class CombinationEngine {
+    static final int DEFAULT_MATERIALISE_LIMIT = 1_000_000;
+
+    private static final int CHARACTERISTICS = Spliterator.ORDERED | Spliterator.NONNULL;
+    private static final int OUTER_BATCH_SIZE = 1024;
+
+    private final Stream<Supplier<Stream<DataBag>>> sequences;
+
+    CombinationEngine(Stream<Supplier<Stream<DataBag>>> sequences) {
+        this.sequences = sequences;
+    }
+
+    /**
+     * @param materialiseLimit the most data bags to hold in memory across all but the first sequence
+     */
+    Stream<DataBag> exhaustive(int materialiseLimit) {
+        return StreamSupport.stream(
+            () -> exhaustiveSpliterator(sequences.collect(Collectors.toList()), materialiseLimit),
+            CHARACTERISTICS,
+            false);
+    }
+
+    Stream<DataBag> pinning() {
+        return StreamSupport.stream(
+            () -> Spliterators.spliteratorUnknownSize(new PinningIterator(iterators()), CHARACTERISTICS),
+            CHARACTERISTICS,
+            false);
+    }
+
+    Stream<DataBag> minimal() {
+        return StreamSupport.stream(
+            () -> Spliterators.spliteratorUnknownSize(new MinimalIterator(iterators()), CHARACTERISTICS),
+            CHARACTERISTICS,
+            false);
+    }
+
+    private List<Iterator<DataBag>> iterators() {
+        return sequences
+            .map(sequence -> sequence.get().iterator())
+            .collect(Collectors.toList());
+    }
+
+    private static Spliterator<DataBag> exhaustiveSpliterator(
+        List<Supplier<Stream<DataBag>>> sequences,
+        int materialiseLimit) {
+        if (sequences.isEmpty()) {
+            return Spliterators.spliterator(new DataBag[]{DataBag.empty}, CHARACTERISTICS);
+        }
+
+        Budget budget = new Budget(materialiseLimit);
+        Partition[] inner = new Partition[sequences.size() - 1];
+        for (int i = 0; i < inner.length; i++) {
+            inner[i] = new Partition(sequences.get(i + 1), budget);
+        }
+
+        return new ExhaustiveSpliterator(sequences.get(0).get().iterator(), inner);
+    }
+
+    private static long multiplyWithinLong(long count, int size) {
+        return count > Long.MAX_VALUE / size ? -1 : count * size;
+    }
+
+    /**
+     * The number of data bags that partitions may still hold in memory between them
+     */
+    private static class Budget {
+        private int remaining;
+
+        Budget(int remaining) {
+            this.remaining = remaining;
+        }
+
+        boolean take() {
+            if (remaining == 0) {
+                return false;
+            }
+            remaining--;
+            return true;
+        }
+
+        void giveBack(int count) {
+            remaining += count;
+        }
+    }
+
+    /**
+     * The values of one partition, recorded the first time they are streamed and held in memory once they are known
+     * to be few enough.
+     */
+    private static class Partition {
+        private final Supplier<Stream<DataBag>> supplier;
+        private final Budget budget;
+        private List<DataBag> values;
+        private boolean overBudget;
+        private boolean recording;
+
+        Partition(Supplier<Stream<DataBag>> supplier, Budget budget) {
+            this.supplier = supplier;
+            this.budget = budget;
+        }
+
+        /**
+         * @return true once every value has been recorded, so the values can be read by index
+         */
+        boolean isMaterialised() {
+            return values != null;
+        }
+
+        int size() {
+            return values.size();
+        }
+
+        DataBag get(int index) {
+            return values.get(index);
+        }
+
+        Iterator<DataBag> iterator() {
+            if (isMaterialised()) {
+                return values.iterator();
+            }
+            if (overBudget || recording) {
+                return supplier.get().iterator();
+            }
+            recording = true;
+            return new RecordingIterator(supplier.get().iterator());
+        }
+
+        /**
+         * Streams the values without combining them, until they have all been recorded or there are too many
+         */
+        void record() {
+            if (isMaterialised() || overBudget || recording) {
+                return;
+            }
+            Iterator<DataBag> iterator = iterator();
+            while (!overBudget && iterator.hasNext()) {
+                iterator.next();
+            }
+        }
+
+        private class RecordingIterator implements Iterator<DataBag> {
+            private final Iterator<DataBag> underlying;
+            private List<DataBag> recorded = new ArrayList<>();
+
+            RecordingIterator(Iterator<DataBag> underlying) {
+                this.underlying = underlying;
+            }
+
+            @Override
+            public boolean hasNext() {
+                if (underlying.hasNext()) {
+                    return true;
+                }
+                if (recorded != null) {
+                    values = recorded;
+                    recorded = null;
+                }
+                return false;
+            }
+
+            @Override
+            public DataBag next() {
+                DataBag bag = underlying.next();
+                if (recorded == null) {
+                    return bag;
+                }
+                if (budget.take()) {
+                    recorded.add(bag);
+                } else {
+                    budget.giveBack(recorded.size());
+                    recorded = null;
+                    overBudget = true;
+                }
+                return bag;
+            }
+        }
+    }
+
+    /**
+     * Streams the combinations for the first value of the first partition, recording the inner partitions as it goes.
+     * Once that is done, or when asked to split before any rows are taken, the inner partitions are either all held
+     * in memory, in which case later values of the first partition are combined by index and can be split into
+     * batches as {@link IndexRangeSpliterator}s, or some are not and the remaining rows are streamed.
+     */
+    private static class ExhaustiveSpliterator implements Spliterator<DataBag> {
+        private final Iterator<DataBag> outer;
+        private final Partition[] inner;
+        private Iterator<DataBag> streamed;
+        private boolean decided;
+        private long innerCount;
+        private IndexRangeSpliterator current;
+
+        ExhaustiveSpliterator(Iterator<DataBag> outer, Partition[] inner) {
+            this.outer = outer;
+            this.inner = inner;
+        }
+
+        @Override
+        public boolean tryAdvance(Consumer<? super DataBag> action) {
+            if (!decided) {
+                if (streamed == null) {
+                    if (!outer.hasNext()) {
+                        return false;
+                    }
+                    streamed = new OdometerIterator(Collections.singletonList(outer.next()).iterator(), inner);
+                }
+                if (streamed.hasNext()) {
+                    action.accept(streamed.next());
+                    return true;
+                }
+                decide();
+            }
+
+            if (streamed != null) {
+                if (!streamed.hasNext()) {
+                    return false;
+                }
+                action.accept(streamed.next());
+                return true;
+            }
+
+            while (current == null || !current.tryAdvance(action)) {
+                if (innerCount == 0 || !outer.hasNext()) {
+                    return false;
+                }
+                current = new IndexRangeSpliterator(new DataBag[]{outer.next()}, inner, innerCount, 0, innerCount);
+            }
+            return true;
+        }
+
+        /**
+         * Chooses between indexed and streamed combination once the inner partitions have each been streamed in full
+         * or found to be too large to hold
+         */
+        private void decide() {
+            decided = true;
+            innerCount = 1;
+            for (Partition partition : inner) {
+                if (!partition.isMaterialised()) {
+                    streamed = new OdometerIterator(outer, inner);
+                    return;
+                }
+                if (partition.size() == 0) {
+                    innerCount = 0;
+                    streamed = null;
+                    return;
+                }
+                innerCount = multiplyWithinLong(innerCount, partition.size());
+                if (innerCount < 0) {
+                    streamed = new OdometerIterator(outer, inner);
+                    return;
+                }
+            }
+            streamed = null;
+        }
+
+        @Override
+        public Spliterator<DataBag> trySplit() {
+            if (!decided) {
+                if (streamed != null) {
+                    return null;
+                }
+                // a split is only asked for when all the rows are wanted, so the inner partitions can be recorded now
+                for (Partition partition : inner) {
+                    partition.record();
+                }
+                decide();
+            }
+            if (streamed != null || innerCount == 0) {
+                return null;
+            }
+
+            if (current != null && current.estimateSize() > 0) {
+                Spliterator<DataBag> prefix = current;
+                current = null;
+                return prefix;
+            }
+
+            long batchSize = Math.min(OUTER_BATCH_SIZE, Long.MAX_VALUE / innerCount);
+            List<DataBag> batch = new ArrayList<>();
+            while (batch.size() < batchSize && outer.hasNext()) {
+                batch.add(outer.next());
+            }
+            if (batch.isEmpty()) {
+                return null;
+            }
+
+            return new IndexRangeSpliterator(
+                batch.toArray(new DataBag[0]), inner, innerCount, 0, batch.size() * innerCount);
+        }
+
+        @Override
+        public long estimateSize() {
+            return Long.MAX_VALUE;
+        }
+
+        @Override
+        public int characteristics() {
+            return CHARACTERISTICS;
+        }
+    }
+
+    /**
+     * The rows with indexes in a range over some first partition values and all combinations of the inner
+     * partitions. Row {@code i} takes first partition value {@code i / innerCount} and decodes {@code i % innerCount}
+     * as a mixed-radix number with one digit per inner partition.
+     */
+    private static class IndexRangeSpliterator implements Spliterator<DataBag> {
+        private final DataBag[] outer;
+        private final Partition[] inner;
+        private final long innerCount;
+        private long index;
+        private final long end;
+
+        IndexRangeSpliterator(DataBag[] outer, Partition[] inner, long innerCount, long index, long end) {
+            this.outer = outer;
+            this.inner = inner;
+            this.innerCount = innerCount;
+            this.index = index;
+            this.end = end;
+        }
+
+        @Override
+        public boolean tryAdvance(Consumer<? super DataBag> action) {
+            if (index >= end) {
+                return false;
+            }
+            action.accept(row(index++));
+            return true;
+        }
+
+        private DataBag row(long rowIndex) {
+            DataBag[] bags = new DataBag[inner.length + 1];
+            bags[0] = outer[(int) (rowIndex / innerCount)];
+
+            long remainder = rowIndex % innerCount;
+            for (int i = inner.length - 1; i >= 0; i--) {
+                int size = inner[i].size();
+                bags[i + 1] = inner[i].get((int) (remainder % size));
+                remainder /= size;
+            }
+            return DataBag.merge(bags);
+        }
+
+        @Override
+        public Spliterator<DataBag> trySplit() {
+            long middle = index + (end - index) / 2;
+            if (middle <= index) {
+                return null;
+            }
+
+            IndexRangeSpliterator prefix = new IndexRangeSpliterator(outer, inner, innerCount, index, middle);
+            index = middle;
+            return prefix;
+        }
+
+        @Override
+        public long estimateSize() {
+            return end - index;
+        }
+
+        @Override
+        public int characteristics() {
+            return CHARACTERISTICS | Spliterator.SIZED | Spliterator.SUBSIZED;
+        }
+    }
+
+    /**
+     * Combines every first partition value with every combination of the inner partitions while they cannot be read
+     * by index, restarting an inner partition each time it runs out and advancing the one before it.
+     */
+    private static class OdometerIterator implements Iterator<DataBag> {
+        private final Iterator<DataBag> outer;
+        private final Partition[] inner;
+        private final Iterator<DataBag>[] iterators;
+        private final DataBag[] current;
+        private boolean started;
+        private boolean hasNext;
+
+        @SuppressWarnings("unchecked")
+        OdometerIterator(Iterator<DataBag> outer, Partition[] inner) {
+            this.outer = outer;
+            this.inner = inner;
+            this.iterators = new Iterator[inner.length];
+            this.current = new DataBag[inner.length + 1];
+        }
+
+        @Override
+        public boolean hasNext() {
+            if (!started) {
+                started = true;
+                hasNext = start();
+            }
+            return hasNext;
+        }
+
+        private boolean start() {
+            if (!outer.hasNext()) {
+                return false;
+            }
+            current[0] = outer.next();
+            for (int i = 0; i < inner.length; i++) {
+                if (!restart(i)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        private boolean restart(int partition) {
+            iterators[partition] = inner[partition].iterator();
+            if (!iterators[partition].hasNext()) {
+                return false;
+            }
+            current[partition + 1] = iterators[partition].next();
+            return true;
+        }
+
+        @Override
+        public DataBag next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+
+            DataBag row = DataBag.merge(current);
+            hasNext = advance();
+            return row;
+        }
+
+        private boolean advance() {
+            for (int i = inner.length - 1; i >= 0; i--) {
+                if (iterators[i].hasNext()) {
+                    current[i + 1] = iterators[i].next();
+                    return true;
+                }
+                if (!restart(i)) {
+                    return false;
+                }
+            }
+
+            if (!outer.hasNext()) {
+                return false;
+            }
+            current[0] = outer.next();
+            return true;
+        }
+    }
+
+    /**
+     * Emits the first value of every partition, then varies each partition in turn through its remaining values
+     * while the others keep their first value.
+     */
+    private static class PinningIterator implements Iterator<DataBag> {
+        private final List<Iterator<DataBag>> iterators;
+        private final DataBag[] baselines;
+        private DataBag baselinesExceptVaried;
+        private int varied = -1;
+
+        PinningIterator(List<Iterator<DataBag>> iterators) {
+            this.iterators = iterators;
+            this.baselines = new DataBag[iterators.size()];
+            for (int i = 0; i < baselines.length; i++) {
+                if (!iterators.get(i).hasNext()) {
+                    varied = baselines.length;
+                    return;
+                }
+                baselines[i] = iterators.get(i).next();
+            }
+        }
+
+        @Override
+        public boolean hasNext() {
+            if (varied < 0) {
+                return true;
+            }
+            while (varied < baselines.length && !iterators.get(varied).hasNext()) {
+                varied++;
+                baselinesExceptVaried = null;
+            }
+            return varied < baselines.length;
+        }
+
+        @Override
+        public DataBag next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            if (varied < 0) {
+                varied = 0;
+                return DataBag.merge(baselines);
+            }
+
+            if (baselinesExceptVaried == null) {
+                DataBag[] others = baselines.clone();
+                others[varied] = DataBag.empty;
+                baselinesExceptVaried = DataBag.merge(others);
+            }
+            return DataBag.merge(baselinesExceptVaried, iterators.get(varied).next());
+        }
+    }
+
+    /**
+     * Advances every partition together, keeping the last value of partitions that have run out, until all of them
+     * have run out or one whose values are unique has.
+     */
+    private static class MinimalIterator implements Iterator<DataBag> {
+        private final List<Iterator<DataBag>> iterators;
+        private final DataBag[] lastValues;
+        private final boolean anyEmpty;
+
+        MinimalIterator(List<Iterator<DataBag>> iterators) {
+            this.iterators = iterators;
+            this.lastValues = new DataBag[iterators.size()];
+            this.anyEmpty = iterators.stream().anyMatch(iterator -> !iterator.hasNext());
+        }
+
+        @Override
+        public boolean hasNext() {
+            if (anyEmpty) {
+                return false;
+            }
+
+            boolean anyHasNext = false;
+            for (int i = 0; i < lastValues.length; i++) {
+                boolean hasNext = iterators.get(i).hasNext();
+                if (!hasNext && lastValues[i] != null && lastValues[i].isUnique()) {
+                    return false;
+                }
+                anyHasNext |= hasNext;
+            }
+            return anyHasNext;
+        }
+
+        @Override
+        public DataBag next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+
+            for (int i = 0; i < lastValues.length; i++) {
+                if (iterators.get(i).hasNext()) {
+                    lastValues[i] = iterators.get(i).next();
+                }
+            }
+            return DataBag.merge(lastValues);
+        }
+    }
+}
@@ -18,33 +18,26 @@ package com.scottlogic.datahelix.generator.core.generation.combinationstrategies
 
 import com.scottlogic.datahelix.generator.core.generation.databags.DataBag;
 
-import java.util.*;
 import java.util.function.Supplier;
 import java.util.stream.Stream;
 
-import static com.scottlogic.datahelix.generator.common.util.FlatMappingSpliterator.flatMap;
-
 public class ExhaustiveCombinationStrategy implements CombinationStrategy {
-    @Override
-    public Stream<DataBag> permute(Stream<Supplier<Stream<DataBag>>> dataBagSequences) {
-        return flatten(dataBagSequences.iterator()).get();
-    }
-
-    public Supplier<Stream<DataBag>> flatten(Iterator<Supplier<Stream<DataBag>>> remainingBags) {
-        Supplier<Stream<DataBag>> firstDataBagStream = remainingBags.next();
+    private final int materialiseLimit;
 
-        if (!remainingBags.hasNext()){
-            return firstDataBagStream;
-        }
-
-        Supplier<Stream<DataBag>> otherDataBags = flatten(remainingBags);
+    public ExhaustiveCombinationStrategy() {
+        this(CombinationEngine.DEFAULT_MATERIALISE_LIMIT);
+    }
 
-        return ()-> flatMap(
-            firstDataBagStream.get(),
-            currentBag ->
-                otherDataBags.get()
-                    .map(subBag ->
-                        DataBag.merge(currentBag, subBag)));
+    /**
+     * @param materialiseLimit the most data bags to hold in memory across all but the first sequence; sequences
+     *                         beyond it are regenerated each time they are combined
+     */
+    ExhaustiveCombinationStrategy(int materialiseLimit) {
+        this.materialiseLimit = materialiseLimit;
+    }
 
+    @Override
+    public Stream<DataBag> permute(Stream<Supplier<Stream<DataBag>>> dataBagSequences) {
+        return new CombinationEngine(dataBagSequences).exhaustive(materialiseLimit);
     }
 }
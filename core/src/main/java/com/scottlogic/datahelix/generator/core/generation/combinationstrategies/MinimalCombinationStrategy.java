@@ -16,64 +16,14 @@
 
 package com.scottlogic.datahelix.generator.core.generation.combinationstrategies;
 
-import com.scottlogic.datahelix.generator.core.generation.databags.*;
+import com.scottlogic.datahelix.generator.core.generation.databags.DataBag;
 
-import java.util.*;
 import java.util.function.Supplier;
-import java.util.stream.*;
+import java.util.stream.Stream;
 
 public class MinimalCombinationStrategy implements CombinationStrategy {
     @Override
     public Stream<DataBag> permute(Stream<Supplier<Stream<DataBag>>> dataBagSequences) {
-        List<Iterator<DataBag>> iterators = dataBagSequences
-            .map(Supplier::get)
-            .map(BaseStream::iterator)
-            .collect(Collectors.toList());
-
-        return iterators.stream()
-            .allMatch(Iterator::hasNext)
-            ? StreamSupport.stream(iterable(iterators).spliterator(), false)
-            : Stream.empty();
-    }
-
-    private Iterable<DataBag> iterable(List<Iterator<DataBag>> iterators) {
-        return () -> new InternalIterator(iterators);
-    }
-
-    static class InternalIterator implements Iterator<DataBag> {
-        private final List<Iterator<DataBag>> iterators;
-        private final Map<Iterator<DataBag>, DataBag> lastValues;
-
-        InternalIterator(List<Iterator<DataBag>> iterators) {
-            this.iterators = iterators;
-            this.lastValues = new HashMap<>();
-        }
-
-        @Override
-        public boolean hasNext() {
-            return uniqueHasNext() && anyHasNext();
-        }
-
-        private boolean uniqueHasNext() {
-            return lastValues.entrySet().stream()
-                .filter(entry -> entry.getValue().isUnique())
-                .allMatch(entry -> entry.getKey().hasNext());
-        }
-
-        private boolean anyHasNext() {
-            return iterators
-                .stream()
-                .anyMatch(Iterator::hasNext);
-        }
-
-        @Override
-        public DataBag next() {
-            iterators
-                .stream()
-                .filter(Iterator::hasNext)
-                .forEach(iterator -> lastValues.put(iterator, iterator.next()));
-
-            return DataBag.merge(lastValues.values().toArray(new DataBag[0]));
-        }
+        return new CombinationEngine(dataBagSequences).minimal();
     }
 }
@@ -19,19 +19,56 @@ package com.scottlogic.datahelix.generator.core.generation.databags;
 import com.scottlogic.datahelix.generator.common.output.GeneratedObject;
 import com.scottlogic.datahelix.generator.common.profile.Field;
 import com.scottlogic.datahelix.generator.common.profile.FieldType;
-import com.scottlogic.datahelix.generator.common.util.FlatMappingSpliterator;
+import com.scottlogic.datahelix.generator.common.profile.Fields;
 
 import java.math.BigDecimal;
 import java.util.*;
 
-
+/**
+ * The values generated for some of a profile's fields. Each value is held in the slot given by its field's
+ * {@link Fields#indexOf(Field) index} in the profile the bag was built for, so that reading a value and merging
+ * partial rows needs no per-row maps. Fields without a free slot of their own, such as those outside the profile, are
+ * held after the profile's slots and found by scanning, as is the value of a bag holding a single field.
+ */
 public class DataBag implements GeneratedObject {
-    public static final DataBag empty = new DataBag(new HashMap<>());
+    public static final DataBag empty = new DataBag(null, new Field[0], new DataBagValue[0]);
 
-    private final Map<Field, DataBagValue> fieldToValue;
+    // the fields whose indexes give the slots, or null if the bag was built outside a profile
+    private final Fields profileFields;
+    private final Field[] fields;
+    private final DataBagValue[] values;
 
     public DataBag(Map<Field, DataBagValue> fieldToValue) {
-        this.fieldToValue = fieldToValue;
+        this(null, fieldToValue);
+    }
+
+    public DataBag(Fields profileFields, Map<Field, DataBagValue> fieldToValue) {
+        Slots slots = new Slots(profileFields);
+        fieldToValue.forEach(slots::add);
+        this.profileFields = profileFields;
+        this.fields = slots.fields;
+        this.values = slots.values;
+    }
+
+    private DataBag(Fields profileFields, Field[] fields, DataBagValue[] values) {
+        this.profileFields = profileFields;
+        this.fields = fields;
+        this.values = values;
+    }
+
+    /**
+     * @return a bag of one value, built outside a profile
+     */
+    public static DataBag of(Field field, Object value) {
+        return of(null, field, value);
+    }
+
+    /**
+     * @return a bag of one value, held in a single slot rather than at the field's index, whose merges with other
+     * bags hold their values at the indexes of the given profile fields
+     */
+    public static DataBag of(Fields profileFields, Field field, Object value) {
+        return new DataBag(profileFields, new Field[]{ field }, new DataBagValue[]{ new DataBagValue(value) });
     }
 
     @Override
@@ -69,11 +106,26 @@ public class DataBag implements GeneratedObject {
     }
 
     public DataBagValue getDataBagValue(Field field) {
-        if (!fieldToValue.containsKey(field)) {
+        int slot = find(profileFields, fields, field);
+        if (slot < 0) {
             throw new IllegalStateException("DataBag has no value stored for " + field);
         }
 
-        return fieldToValue.get(field);
+        return values[slot];
+    }
+
+    private static int find(Fields profileFields, Field[] fields, Field field) {
+        int index = profileFields == null ? -1 : profileFields.indexOf(field);
+        if (index >= 0 && index < fields.length && field.equals(fields[index])) {
+            return index;
+        }
+
+        for (int slot = 0; slot < fields.length; slot++) {
+            if (field.equals(fields[slot])) {
+                return slot;
+            }
+        }
+        return -1;
     }
 
     @Override
@@ -81,39 +133,118 @@ public class DataBag implements GeneratedObject {
         if (this == o) return true;
         if (o == null || getClass() != o.getClass()) return false;
         DataBag generatedObject = (DataBag) o;
-        return Objects.equals(fieldToValue, generatedObject.fieldToValue);
+        if (size() != generatedObject.size()) return false;
+        for (int slot = 0; slot < fields.length; slot++) {
+            if (fields[slot] == null) {
+                continue;
+            }
+            int otherSlot = find(generatedObject.profileFields, generatedObject.fields, fields[slot]);
+            if (otherSlot < 0 || !values[slot].equals(generatedObject.values[otherSlot])) {
+                return false;
+            }
+        }
+        return true;
     }
 
     @Override
     public int hashCode() {
-        return Objects.hash(fieldToValue);
+        // as a map's hash code, so that it does not depend on which slots the fields were given
+        int hashCode = 0;
+        for (int slot = 0; slot < fields.length; slot++) {
+            if (fields[slot] != null) {
+                hashCode += fields[slot].hashCode() ^ values[slot].hashCode();
+            }
+        }
+        return hashCode;
+    }
+
+    private int size() {
+        int size = 0;
+        for (Field field : fields) {
+            if (field != null) {
+                size++;
+            }
+        }
+        return size;
     }
 
     public static DataBag merge(DataBag... bags) {
-        Map<Field, DataBagValue> newFieldToValue = new HashMap<>();
+        Fields profileFields = null;
+        for (DataBag bag : bags) {
+            if (bag.profileFields != null) {
+                profileFields = bag.profileFields;
+                break;
+            }
+        }
+
+        Slots slots = new Slots(profileFields);
+        for (DataBag bag : bags) {
+            for (int slot = 0; slot < bag.fields.length; slot++) {
+                if (bag.fields[slot] != null) {
+                    slots.add(bag.fields[slot], bag.values[slot]);
+                }
+            }
+        }
 
-        FlatMappingSpliterator.flatMap(Arrays.stream(bags)
-            .map(r -> r.fieldToValue.entrySet().stream()),
-            entrySetStream -> entrySetStream)
-            .forEach(entry -> {
-                if (newFieldToValue.containsKey(entry.getKey()))
-                    throw new IllegalArgumentException("Databags can't be merged because they overlap on field " + entry.getKey().getName());
+        return new DataBag(profileFields, slots.fields, slots.values);
+    }
 
-                newFieldToValue.put(entry.getKey(), entry.getValue());
-            });
+    /**
+     * Places fields in their own slots where those are free, and after the profile's slots otherwise
+     */
+    private static class Slots {
+        private final Fields profileFields;
+        private Field[] fields;
+        private DataBagValue[] values;
+        private final int profileSlots;
+
+        Slots(Fields profileFields) {
+            this.profileFields = profileFields;
+            this.profileSlots = profileFields == null ? 0 : profileFields.size();
+            this.fields = new Field[profileSlots];
+            this.values = new DataBagValue[profileSlots];
+        }
 
-        return new DataBag(newFieldToValue);
+        void add(Field field, DataBagValue value) {
+            int index = profileFields == null ? -1 : profileFields.indexOf(field);
+            boolean ownSlotFree = index >= 0 && index < profileSlots && fields[index] == null;
+            // every field before the extra slots is in its own slot, so while there are none a free slot means the
+            // field is not yet held
+            boolean mayBeHeld = !ownSlotFree || fields.length > profileSlots;
+            if (mayBeHeld && find(profileFields, fields, field) >= 0) {
+                throw new IllegalArgumentException("Databags can't be merged because they overlap on field " + field.getName());
+            }
+
+            int slot = index;
+            if (!ownSlotFree) {
+                slot = fields.length;
+                fields = Arrays.copyOf(fields, slot + 1);
+                values = Arrays.copyOf(values, slot + 1);
+            }
+            fields[slot] = field;
+            values[slot] = value;
+        }
     }
 
     @Override
     public String toString() {
+        StringJoiner joiner = new StringJoiner(", ", "{", "}");
+        for (int i = 0; i < fields.length; i++) {
+            if (fields[i] != null) {
+                joiner.add(fields[i] + "=" + values[i].getValue());
+            }
+        }
         return "DataBag{" +
-            "fieldToValue=" + fieldToValue +
+            "fieldToValue=" + joiner +
             '}';
     }
 
     public boolean isUnique(){
-        return fieldToValue.keySet().stream()
-            .anyMatch(Field::isUnique);
+        for (Field field : fields) {
+            if (field != null && field.isUnique()) {
+                return true;
+            }
+        }
+        return false;
     }
 }
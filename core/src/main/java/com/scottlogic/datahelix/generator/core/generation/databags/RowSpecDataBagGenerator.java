@@ -22,7 +22,9 @@ import com.scottlogic.datahelix.generator.core.generation.combinationstrategies.
 import com.scottlogic.datahelix.generator.core.generation.grouped.FieldSpecGroupValueGenerator;
 import com.scottlogic.datahelix.generator.core.generation.grouped.RowSpecGrouper;
 
+import java.util.List;
 import java.util.function.Supplier;
+import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
 public class RowSpecDataBagGenerator {
@@ -40,9 +42,17 @@ public class RowSpecDataBagGenerator {
     public Stream<DataBag> createDataBags(RowSpec rowSpec) {
         Stream<Supplier<Stream<DataBag>>> dataBagsForGroups =
             RowSpecGrouper.createGroups(rowSpec).stream()
-                .map(group -> () -> generator.generate(group));
+                .map(group -> () -> generator.generate(group, rowSpec.getFields()));
 
         return combinationStrategy.permute(dataBagsForGroups);
     }
 
+    public RowSpecGenerationPlan createPlan(RowSpec rowSpec) {
+        List<Supplier<Stream<DataBag>>> groups = RowSpecGrouper.createGroups(rowSpec).stream()
+            .map(group -> generator.plan(group, rowSpec.getFields()))
+            .collect(Collectors.toList());
+
+        return new RowSpecGenerationPlan(rowSpec, groups, combinationStrategy);
+    }
+
 }
@@ -0,0 +1,49 @@
+/*
+ * Copyright 2019 Scott Logic Ltd
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.scottlogic.datahelix.generator.core.generation.databags;
+
+import com.scottlogic.datahelix.generator.core.fieldspecs.RowSpec;
+import com.scottlogic.datahelix.generator.core.generation.combinationstrategies.CombinationStrategy;
+
+import java.util.List;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+/**
+ * Everything needed to generate data bags for one row spec that does not depend on the values generated: its field
+ * groups, which field of each group is generated first and the value sources built from their specs. Drawing rows
+ * from a plan only draws values, so a walker that reuses row specs should keep their plans too.
+ */
+public class RowSpecGenerationPlan {
+    private final RowSpec rowSpec;
+    private final List<Supplier<Stream<DataBag>>> groups;
+    private final CombinationStrategy combinationStrategy;
+
+    RowSpecGenerationPlan(RowSpec rowSpec, List<Supplier<Stream<DataBag>>> groups, CombinationStrategy combinationStrategy) {
+        this.rowSpec = rowSpec;
+        this.groups = groups;
+        this.combinationStrategy = combinationStrategy;
+    }
+
+    public RowSpec getRowSpec() {
+        return rowSpec;
+    }
+
+    public Stream<DataBag> createDataBags() {
+        return combinationStrategy.permute(groups.stream());
+    }
+}
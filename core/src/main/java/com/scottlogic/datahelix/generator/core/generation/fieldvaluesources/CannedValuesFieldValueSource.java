@@ -18,6 +18,7 @@ package com.scottlogic.datahelix.generator.core.generation.fieldvaluesources;
 
 import com.scottlogic.datahelix.generator.common.whitelist.DistributedList;
 import com.scottlogic.datahelix.generator.common.RandomNumberGenerator;
+import com.scottlogic.datahelix.generator.common.util.IndexPermutation;
 
 import java.util.Objects;
 import java.util.stream.Stream;
@@ -39,6 +40,12 @@ public class CannedValuesFieldValueSource implements FieldValueSource {
         return Stream.generate(() -> pickFromDistribution(randomNumberGenerator));
     }
 
+    @Override
+    public Stream<Object> generateRandomUniqueValues(RandomNumberGenerator randomNumberGenerator) {
+        return new IndexPermutation(allValues.size(), randomNumberGenerator).permutedIndexes()
+            .mapToObj(index -> allValues.get((int) index));
+    }
+
     private Object pickFromDistribution(RandomNumberGenerator random) {
         return allValues.pickRandomly(random);
     }
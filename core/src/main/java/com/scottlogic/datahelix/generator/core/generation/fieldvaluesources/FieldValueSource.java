@@ -24,5 +24,13 @@ public interface FieldValueSource<T> {
     Stream<T> generateAllValues();
 
     Stream<T> generateRandomValues(RandomNumberGenerator randomNumberGenerator);
+
+    /**
+     * Generates every value once, in an order drawn from the random number generator. Sources that can't address
+     * their values by index generate them in order.
+     */
+    default Stream<T> generateRandomUniqueValues(RandomNumberGenerator randomNumberGenerator) {
+        return generateAllValues();
+    }
 }
 
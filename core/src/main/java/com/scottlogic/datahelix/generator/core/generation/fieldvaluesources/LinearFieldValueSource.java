@@ -18,8 +18,11 @@ package com.scottlogic.datahelix.generator.core.generation.fieldvaluesources;
 
 import com.scottlogic.datahelix.generator.core.restrictions.linear.LinearRestrictions;
 import com.scottlogic.datahelix.generator.common.RandomNumberGenerator;
+import com.scottlogic.datahelix.generator.common.profile.Granularity;
+import com.scottlogic.datahelix.generator.common.util.IndexPermutation;
 
 import java.util.Objects;
+import java.util.OptionalLong;
 import java.util.Set;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
@@ -53,6 +56,25 @@ public class LinearFieldValueSource<T extends Comparable<T>> implements FieldVal
             .filter(this::notInBlacklist);
     }
 
+    @Override
+    public Stream<T> generateRandomUniqueValues(RandomNumberGenerator randomNumberGenerator) {
+        T min = restrictions.getMin();
+        T max = restrictions.getMax();
+        if (min.compareTo(max) > 0) {
+            return Stream.empty();
+        }
+
+        Granularity<T> granularity = restrictions.getGranularity();
+        OptionalLong steps = granularity.getStepsBetween(min, max);
+        if (!steps.isPresent() || steps.getAsLong() == Long.MAX_VALUE) {
+            return generateAllValues();
+        }
+
+        return new IndexPermutation(steps.getAsLong() + 1, randomNumberGenerator).permutedIndexes()
+            .mapToObj(index -> granularity.getValueAfterSteps(min, index))
+            .filter(this::notInBlacklist);
+    }
+
     // we call this instead of .contains because .contains doesn't treat 2 and 2.0 as equal
     private boolean notInBlacklist(T t) {
         return blacklist.stream().noneMatch(x->x.compareTo(t)==0);
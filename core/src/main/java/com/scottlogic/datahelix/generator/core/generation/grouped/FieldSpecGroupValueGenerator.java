@@ -20,6 +20,7 @@ package com.scottlogic.datahelix.generator.core.generation.grouped;
 import com.google.inject.Inject;
 import com.scottlogic.datahelix.generator.common.ValidationException;
 import com.scottlogic.datahelix.generator.common.profile.Field;
+import com.scottlogic.datahelix.generator.common.profile.Fields;
 import com.scottlogic.datahelix.generator.core.config.detail.CombinationStrategyType;
 import com.scottlogic.datahelix.generator.core.fieldspecs.FieldSpec;
 import com.scottlogic.datahelix.generator.core.fieldspecs.FieldSpecGroup;
@@ -27,9 +28,11 @@ import com.scottlogic.datahelix.generator.core.fieldspecs.FieldSpecMerger;
 import com.scottlogic.datahelix.generator.core.fieldspecs.relations.FieldSpecRelation;
 import com.scottlogic.datahelix.generator.core.generation.FieldSpecValueGenerator;
 import com.scottlogic.datahelix.generator.core.generation.databags.*;
+import com.scottlogic.datahelix.generator.core.generation.fieldvaluesources.FieldValueSource;
 import com.scottlogic.datahelix.generator.common.SetUtils;
 
 import java.util.*;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
@@ -46,22 +49,32 @@ public class FieldSpecGroupValueGenerator {
         this.combinationStrategy = combinationStrategy;
     }
 
-    public Stream<DataBag> generate(FieldSpecGroup group) {
+    public Stream<DataBag> generate(FieldSpecGroup group, Fields profileFields) {
+        return plan(group, profileFields).get();
+    }
+
+    /**
+     * Works out everything about generating the group that does not depend on the values generated: which field is
+     * generated first, its spec once the group's relations are applied, and its value source. The returned supplier
+     * only has to draw values. The data bags hold their values at the indexes of the given profile fields.
+     */
+    public Supplier<Stream<DataBag>> plan(FieldSpecGroup group, Fields profileFields) {
         Field first = getFirst(group);
 
         if (group.fieldSpecs().size() == 1) {
-            return underlyingGenerator.generate(first, group.fieldSpecs().get(first))
-                .map(val -> toDataBag(first, val));
+            FieldValueSource source = group.fieldSpecs().get(first).getFieldValueSource();
+            return () -> underlyingGenerator.generateValues(first, source)
+                .map(val -> DataBag.of(profileFields, first, val));
         }
 
         FieldSpec firstSpec = updateFirstSpecFromRelations(first, group);
+        FieldValueSource firstSource = firstSpec.getFieldValueSource();
+        FieldSpecGroup remainingGroup = removeSpecFromGroup(first, group);
 
-        Stream<DataBag> firstDataBagValues = underlyingGenerator.generate(first, firstSpec)
-            .map(value -> toDataBag(first, value));
-
-        return flatMap(
-            firstDataBagValues,
-            dataBag -> generateRemainingData(first, dataBag, removeSpecFromGroup(first, group)));
+        return () -> flatMap(
+            underlyingGenerator.generateValues(first, firstSource)
+                .map(value -> DataBag.of(profileFields, first, value)),
+            dataBag -> generateRemainingData(first, dataBag, remainingGroup, profileFields));
     }
 
     private Field getFirst(FieldSpecGroup keySet) {
@@ -69,12 +82,19 @@ public class FieldSpecGroupValueGenerator {
             keySet.relations().stream(),
             keySet.relations().stream().map(FieldSpecRelation::inverse)
         );
-        List<Map.Entry<Field, Integer>> list = new ArrayList<>(relations
+        Map<Field, Integer> relationCounts = relations
             .collect(Collectors.toMap(
                 FieldSpecRelation::other,
-                r -> 1, Integer::sum)).entrySet());
-        list.sort(Comparator.comparing(Map.Entry::getValue, Comparator.reverseOrder()));
-        return list.isEmpty() ? SetUtils.firstIteratorElement(keySet.fieldSpecs().keySet()) : list.get(0).getKey();
+                r -> 1, Integer::sum));
+
+        // ties go to the earliest field in the group, which is in profile order, so seeded runs pick the same field
+        Field first = SetUtils.firstIteratorElement(keySet.fieldSpecs().keySet());
+        for (Field field : keySet.fieldSpecs().keySet()) {
+            if (relationCounts.getOrDefault(field, 0) > relationCounts.getOrDefault(first, 0)) {
+                first = field;
+            }
+        }
+        return first;
     }
 
     private FieldSpec updateFirstSpecFromRelations(Field first, FieldSpecGroup group) {
@@ -110,19 +130,22 @@ public class FieldSpecGroupValueGenerator {
         return relation.createModifierFromOtherFieldSpec(otherFieldSpec);
     }
 
-    private Stream<DataBag> generateRemainingData(Field generatedField, DataBag dataBag, FieldSpecGroup group) {
+    private Stream<DataBag> generateRemainingData(Field generatedField,
+                                                  DataBag dataBag,
+                                                  FieldSpecGroup group,
+                                                  Fields profileFields) {
         FieldSpecGroup newGroup = updateRelatedFieldSpecs(generatedField, dataBag.getDataBagValue(generatedField), group);
 
-        Stream<DataBag> dataBagStream = generate(newGroup)
+        Stream<DataBag> dataBagStream = generate(newGroup, profileFields)
             .map(otherData -> DataBag.merge(dataBag, otherData));
 
         return applyCombinationStrategy(dataBagStream);
     }
 
     private FieldSpecGroup updateRelatedFieldSpecs(Field generatedField, DataBagValue generatedValue, FieldSpecGroup group) {
-        Set<FieldSpecRelation> nonUpdatedRelations = group.relations().stream()
+        List<FieldSpecRelation> nonUpdatedRelations = group.relations().stream()
             .filter(relation -> !isRelatedToField(generatedField, relation))
-            .collect(Collectors.toSet());
+            .collect(Collectors.toList());
 
         List<FieldSpecRelation> updatableRelations = group.relations().stream()
             .filter(relation -> isRelatedToField(generatedField, relation))
@@ -139,7 +162,9 @@ public class FieldSpecGroupValueGenerator {
         Map<Field, FieldSpec> newFieldSpecsDefaultGranularities = group.fieldSpecs().entrySet().stream()
             .collect(Collectors.toMap(
                 Map.Entry::getKey,
-                e -> updateSpec(e.getKey(), e.getValue(), fieldUpdates)));
+                e -> updateSpec(e.getKey(), e.getValue(), fieldUpdates),
+                (a, b) -> a,
+                LinkedHashMap::new));
 
         Map<Field, FieldSpec> newFieldSpecs = applyGranularitiesToFieldSpecs(group.fieldSpecs(), newFieldSpecsDefaultGranularities);
 
@@ -152,7 +177,7 @@ public class FieldSpecGroupValueGenerator {
             .map(entry -> new AbstractMap.SimpleEntry<>(entry.getKey(), applyGranularityToFieldSpec(
                 withoutGranularities.get(entry.getKey()),
                 original.get(entry.getKey()))))
-            .collect(Collectors.toMap(Map.Entry::getKey, Map.Entry::getValue));
+            .collect(Collectors.toMap(Map.Entry::getKey, Map.Entry::getValue, (a, b) -> a, LinkedHashMap::new));
     }
 
     private FieldSpec applyGranularityToFieldSpec(FieldSpec original, FieldSpec withoutGranularity) {
@@ -191,14 +216,8 @@ public class FieldSpecGroupValueGenerator {
         }
     }
 
-    private DataBag toDataBag(Field field, DataBagValue value) {
-        Map<Field, DataBagValue> map = new HashMap<>();
-        map.put(field, value);
-        return new DataBag(map);
-    }
-
     private FieldSpecGroup removeSpecFromGroup(Field first, FieldSpecGroup group) {
-        HashMap<Field, FieldSpec> newFieldSpecs = new HashMap<>(group.fieldSpecs());
+        Map<Field, FieldSpec> newFieldSpecs = new LinkedHashMap<>(group.fieldSpecs());
         newFieldSpecs.remove(first);
         return new FieldSpecGroup(newFieldSpecs, group.relations());
     }
@@ -33,9 +33,25 @@ public class RowSpecGrouper {
             .map(relation -> new FieldPair(relation.main(), relation.other()))
             .collect(Collectors.toList());
 
-        return findGroups(rowSpec.getFields().asList(), pairs)
-            .stream().map(fs->createFieldSpecGroups(fs.fields(), rowSpec))
-            .collect(Collectors.toSet());
+        // groups and their fields are kept in profile order, so that seeded runs draw values in the same order
+        List<Field> profileFields = rowSpec.getFields().asList();
+        Map<Field, Integer> profileIndexes = new HashMap<>();
+        for (int i = 0; i < profileFields.size(); i++) {
+            profileIndexes.put(profileFields.get(i), i);
+        }
+        Comparator<Field> profileOrder = Comparator.comparingInt(profileIndexes::get);
+
+        return findGroups(profileFields, pairs)
+            .stream().map(fs -> inProfileOrder(fs.fields(), profileOrder))
+            .sorted(Comparator.comparing(fields -> fields.get(0), profileOrder))
+            .map(fields -> createFieldSpecGroups(fields, rowSpec))
+            .collect(Collectors.toCollection(LinkedHashSet::new));
+    }
+
+    private static List<Field> inProfileOrder(List<Field> fields, Comparator<Field> profileOrder) {
+        List<Field> ordered = new ArrayList<>(fields);
+        ordered.sort(profileOrder);
+        return ordered;
     }
 
     private static Set<FieldGroup> findGroups(List<Field> fields, List<FieldPair> pairs) {
@@ -106,12 +122,13 @@ public class RowSpecGrouper {
     }
 
     private static FieldSpecGroup createFieldSpecGroups(List<Field> fields, RowSpec rowSpec){
+        Set<Field> groupFields = new HashSet<>(fields);
         List<FieldSpecRelation> relations = rowSpec.getRelations().stream()
-            .filter(relation -> fields.contains(relation.main()) || fields.contains(relation.other()))
+            .filter(relation -> groupFields.contains(relation.main()) || groupFields.contains(relation.other()))
             .collect(Collectors.toList());
 
         Map<Field, FieldSpec> fieldSpecMap = fields.stream()
-            .collect(Collectors.toMap(field -> field, rowSpec::getSpecForField));
+            .collect(Collectors.toMap(field -> field, rowSpec::getSpecForField, (a, b) -> a, LinkedHashMap::new));
 
         return new FieldSpecGroup(fieldSpecMap, relations);
     }
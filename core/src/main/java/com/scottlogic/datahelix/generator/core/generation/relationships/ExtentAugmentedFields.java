@@ -56,6 +56,11 @@ public class ExtentAugmentedFields implements Fields {
         return underlying.size();
     }
 
+    @Override
+    public int indexOf(Field field) {
+        return underlying.indexOf(field);
+    }
+
     @Override
     public Stream<Field> stream() {
         return Stream.concat(
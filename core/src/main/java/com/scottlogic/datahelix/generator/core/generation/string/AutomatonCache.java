@@ -0,0 +1,133 @@
+/*
+ * Copyright 2019 Scott Logic Ltd
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.scottlogic.datahelix.generator.core.generation.string;
+
+import com.scottlogic.datahelix.generator.common.util.BoundedCache;
+import dk.brics.automaton.Automaton;
+
+import java.util.Collection;
+import java.util.Optional;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+/**
+ * Process-wide cache of determinised automata, keyed on a canonical expression describing how each one was built:
+ * a single regex, or an intersection, complement or blacklist of other cached expressions. Holds at most
+ * {@link #MAX_AUTOMATA} automata, and as many of their {@link CompiledAutomaton compiled forms},
+ * {@link LengthBoundedAutomaton length bounded forms} and {@link AutomatonRanker rankers}, evicting the least
+ * recently used.
+ * <p>
+ * brics operations renumber the states of the automata they read, so automata are only ever derived while holding
+ * the cache's lock; once cached an automaton must be treated as read-only.
+ */
+public final class AutomatonCache {
+    static final int MAX_AUTOMATA = 1024;
+
+    private static final BoundedCache<String, Automaton> automata = new BoundedCache<>(MAX_AUTOMATA);
+    private static final BoundedCache<String, CompiledAutomaton> compiledAutomata = new BoundedCache<>(MAX_AUTOMATA);
+    private static final BoundedCache<String, LengthBoundedAutomaton> lengthBoundedAutomata =
+        new BoundedCache<>(MAX_AUTOMATA);
+    private static final BoundedCache<String, Optional<AutomatonRanker>> finiteLanguageRankers =
+        new BoundedCache<>(MAX_AUTOMATA);
+    private static final Object derivationLock = new Object();
+
+    private AutomatonCache() {
+        throw new UnsupportedOperationException("No instantiation of static class");
+    }
+
+    /**
+     * @param key    the canonical expression for the automaton, built with the key methods on this class
+     * @param derive creates the automaton when it is not cached; must not modify any cached automaton
+     * @return the cached automaton for the key
+     */
+    public static Automaton get(String key, Supplier<Automaton> derive) {
+        return automata.get(key, k -> {
+            synchronized (derivationLock) {
+                return derive.get();
+            }
+        });
+    }
+
+    /**
+     * @param key       the canonical expression the automaton is cached under
+     * @param automaton the automaton cached under the key
+     * @return the automaton compiled into transition tables, compiled once per key
+     */
+    public static CompiledAutomaton getCompiled(String key, Automaton automaton) {
+        return compiledAutomata.get(key, k -> CompiledAutomaton.compile(automaton));
+    }
+
+    /**
+     * @param key       the canonical expression the automaton is cached under
+     * @param automaton the automaton cached under the key
+     * @return the compiled automaton restricted to the given lengths
+     */
+    public static LengthBoundedAutomaton getLengthBounded(String key, Automaton automaton, StringLengths lengths) {
+        return lengthBoundedAutomata.get(
+            intersectionKey(key, lengthsKey(lengths)),
+            k -> new LengthBoundedAutomaton(getCompiled(key, automaton), lengths));
+    }
+
+    /**
+     * @param key       the canonical expression the automaton is cached under
+     * @param automaton the automaton cached under the key
+     * @return a ranker over all the strings of the given lengths the automaton accepts, or empty if it accepts
+     * infinitely many strings
+     */
+    public static Optional<AutomatonRanker> getFiniteLanguageRanker(String key, Automaton automaton,
+                                                                    StringLengths lengths) {
+        return finiteLanguageRankers.get(
+            lengths.isUnrestricted() ? key : intersectionKey(key, lengthsKey(lengths)),
+            k -> AutomatonRanker.forFiniteLanguage(getCompiled(key, automaton), lengths));
+    }
+
+    public static String regexKey(String regex, boolean matchFullString) {
+        return (matchFullString ? "matching" : "containing") + "(" + quote(regex) + ")";
+    }
+
+    /**
+     * Intersection is commutative, so the operands are ordered to give the same key either way round
+     */
+    public static String intersectionKey(String left, String right) {
+        return left.compareTo(right) <= 0
+            ? "intersect(" + left + ", " + right + ")"
+            : "intersect(" + right + ", " + left + ")";
+    }
+
+    public static String complementKey(String key) {
+        return "complement(" + key + ")";
+    }
+
+    public static String lengthsKey(StringLengths lengths) {
+        return "lengths(" + lengths + ")";
+    }
+
+    public static String blacklistKey(Collection<String> blacklist) {
+        return blacklist.stream()
+            .sorted()
+            .map(AutomatonCache::quote)
+            .collect(Collectors.joining(", ", "noneOf(", ")"));
+    }
+
+    public static String getStatistics() {
+        return automata.toString();
+    }
+
+    private static String quote(String literal) {
+        return "\"" + literal.replace("\\", "\\\\").replace("\"", "\\\"") + "\"";
+    }
+}
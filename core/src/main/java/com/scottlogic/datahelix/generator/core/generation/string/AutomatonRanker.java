@@ -0,0 +1,418 @@
+/*
+ * Copyright 2019 Scott Logic Ltd
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.scottlogic.datahelix.generator.core.generation.string;
+
+import com.scottlogic.datahelix.generator.common.RandomNumberGenerator;
+
+import java.math.BigInteger;
+import java.util.Arrays;
+import java.util.Optional;
+import java.util.OptionalInt;
+
+/**
+ * Numbers the strings an automaton accepts, up to a maximum length and optionally only of certain
+ * {@link StringLengths lengths}, in lexicographic order (a string comes before
+ * its extensions), so that the n-th string can be built directly and a string's position can be found.
+ * <p>
+ * Holds, for every remaining length and state, the number of accepted strings that can still be completed from
+ * that state. Building or ranking a string of length n then takes O(n &times; transitions per state). When the
+ * whole language is finite the counts do not depend on the remaining length, so only one row is kept. The counts are
+ * also kept as longs when the whole language fits in a long, so the common case avoids BigInteger arithmetic.
+ */
+public final class AutomatonRanker {
+    private static final BigInteger LONG_MAX = BigInteger.valueOf(Long.MAX_VALUE);
+
+    private final CompiledAutomaton automaton;
+    private final StringLengths lengths;
+    private final int maxLength;
+    /**
+     * counts[k][s] is the number of accepted strings of permitted lengths that can be completed by reading at most k
+     * more characters from state s, having read maxLength - k; see {@link #row(int)}
+     */
+    private final BigInteger[][] counts;
+    /**
+     * The same counts as longs, or null if they do not fit
+     */
+    private final long[][] longCounts;
+
+    /**
+     * Ranks the accepted strings of at most maxLength characters, which need not be all of them
+     */
+    public AutomatonRanker(CompiledAutomaton automaton, int maxLength) {
+        this(automaton, StringLengths.unrestricted(), checkNotNegative(maxLength));
+    }
+
+    private AutomatonRanker(CompiledAutomaton automaton, StringLengths lengths, int maxLength) {
+        this(automaton, lengths, maxLength, countStrings(automaton, lengths, maxLength));
+    }
+
+    private AutomatonRanker(CompiledAutomaton automaton, StringLengths lengths, int maxLength, BigInteger[][] counts) {
+        this.automaton = automaton;
+        this.lengths = lengths;
+        this.maxLength = maxLength;
+        this.counts = counts;
+        this.longCounts = counts[row(maxLength)][automaton.getInitialState()].compareTo(LONG_MAX) <= 0
+            ? toLongs(counts)
+            : null;
+    }
+
+    /**
+     * @return a ranker over the whole language, or empty if the automaton accepts infinitely many strings
+     */
+    public static Optional<AutomatonRanker> forFiniteLanguage(CompiledAutomaton automaton) {
+        return countFiniteLanguage(automaton)
+            .map(counts -> new AutomatonRanker(
+                automaton,
+                StringLengths.unrestricted(),
+                Integer.MAX_VALUE,
+                new BigInteger[][]{ counts }));
+    }
+
+    /**
+     * @return a ranker over the strings of the permitted lengths, or empty if the automaton accepts infinitely many
+     * strings
+     */
+    public static Optional<AutomatonRanker> forFiniteLanguage(CompiledAutomaton automaton, StringLengths lengths) {
+        if (lengths.isUnrestricted()) {
+            return forFiniteLanguage(automaton);
+        }
+
+        // only as many rows as the longest accepted string are needed, however long the lengths permit
+        OptionalInt longest = findLongestString(automaton);
+        if (!longest.isPresent()) {
+            return Optional.empty();
+        }
+        int maxLength = lengths.getMax() == null
+            ? longest.getAsInt()
+            : Math.max(0, Math.min(lengths.getMax(), longest.getAsInt()));
+        return Optional.of(new AutomatonRanker(automaton, lengths, maxLength));
+    }
+
+    private static int checkNotNegative(int maxLength) {
+        if (maxLength < 0) {
+            throw new IllegalArgumentException("maxLength must not be negative, but was " + maxLength);
+        }
+        return maxLength;
+    }
+
+    /**
+     * @return the row of counts for strings of at most the given length; a single row holds the counts for any length
+     */
+    private int row(int length) {
+        return counts.length == 1 ? 0 : length;
+    }
+
+    /**
+     * @return the number of strings ranked
+     */
+    public BigInteger size() {
+        return counts[row(maxLength)][automaton.getInitialState()];
+    }
+
+    /**
+     * @param index from 0 to {@link #size()} - 1
+     * @return the string at the given position
+     */
+    public String unrank(BigInteger index) {
+        if (index.signum() < 0 || index.compareTo(size()) >= 0) {
+            throw new IndexOutOfBoundsException("index " + index + " is outside a language of size " + size());
+        }
+        if (longCounts != null) {
+            return unrankLong(index.longValue());
+        }
+
+        StringBuilder builder = new StringBuilder();
+        int state = automaton.getInitialState();
+        BigInteger remaining = index;
+        for (int length = maxLength; ; length--) {
+            if (acceptsWithRemaining(length, state)) {
+                if (remaining.signum() == 0) {
+                    return builder.toString();
+                }
+                remaining = remaining.subtract(BigInteger.ONE);
+            }
+
+            for (int transition = automaton.getTransitionStart(state); ; transition++) {
+                BigInteger perCharacter = counts[row(length - 1)][automaton.getDestination(transition)];
+                BigInteger block = perCharacter.multiply(BigInteger.valueOf(automaton.getTransitionWidth(transition)));
+                if (remaining.compareTo(block) < 0) {
+                    BigInteger[] offsetAndRest = remaining.divideAndRemainder(perCharacter);
+                    builder.append((char) (automaton.getMinCharacter(transition) + offsetAndRest[0].intValue()));
+                    remaining = offsetAndRest[1];
+                    state = automaton.getDestination(transition);
+                    break;
+                }
+                remaining = remaining.subtract(block);
+            }
+        }
+    }
+
+    /**
+     * @param index from 0 to {@link #size()} - 1
+     * @return the string at the given position
+     */
+    public String unrank(long index) {
+        if (longCounts == null) {
+            return unrank(BigInteger.valueOf(index));
+        }
+        if (index < 0 || index >= longCounts[row(maxLength)][automaton.getInitialState()]) {
+            throw new IndexOutOfBoundsException("index " + index + " is outside a language of size " + size());
+        }
+        return unrankLong(index);
+    }
+
+    private String unrankLong(long index) {
+        StringBuilder builder = new StringBuilder();
+        int state = automaton.getInitialState();
+        long remaining = index;
+        for (int length = maxLength; ; length--) {
+            if (acceptsWithRemaining(length, state)) {
+                if (remaining == 0) {
+                    return builder.toString();
+                }
+                remaining--;
+            }
+
+            for (int transition = automaton.getTransitionStart(state); ; transition++) {
+                long perCharacter = longCounts[row(length - 1)][automaton.getDestination(transition)];
+                long block = perCharacter * automaton.getTransitionWidth(transition);
+                if (remaining < block) {
+                    builder.append((char) (automaton.getMinCharacter(transition) + remaining / perCharacter));
+                    remaining %= perCharacter;
+                    state = automaton.getDestination(transition);
+                    break;
+                }
+                remaining -= block;
+            }
+        }
+    }
+
+    /**
+     * @return the position of the string, or empty if it is not accepted or is longer than the maximum length
+     */
+    public Optional<BigInteger> rank(String string) {
+        if (string.length() > maxLength) {
+            return Optional.empty();
+        }
+
+        BigInteger rank = BigInteger.ZERO;
+        int state = automaton.getInitialState();
+        for (int position = 0; position < string.length(); position++) {
+            int length = maxLength - position;
+            char character = string.charAt(position);
+            int chosen = automaton.findTransitionFor(state, character);
+            if (chosen < 0) {
+                return Optional.empty();
+            }
+
+            if (acceptsWithRemaining(length, state)) {
+                rank = rank.add(BigInteger.ONE);
+            }
+            for (int transition = automaton.getTransitionStart(state); transition < chosen; transition++) {
+                rank = rank.add(counts[row(length - 1)][automaton.getDestination(transition)]
+                    .multiply(BigInteger.valueOf(automaton.getTransitionWidth(transition))));
+            }
+            rank = rank.add(counts[row(length - 1)][automaton.getDestination(chosen)]
+                .multiply(BigInteger.valueOf(character - automaton.getMinCharacter(chosen))));
+            state = automaton.getDestination(chosen);
+        }
+
+        return acceptsWithRemaining(maxLength - string.length(), state) ? Optional.of(rank) : Optional.empty();
+    }
+
+    /**
+     * @return a string chosen uniformly at random from all those ranked, or empty if there are none
+     */
+    public Optional<String> sample(RandomNumberGenerator random) {
+        BigInteger size = size();
+        if (size.signum() == 0) {
+            return Optional.empty();
+        }
+        if (longCounts != null) {
+            return Optional.of(unrankLong(randomIndex(random, size.longValue())));
+        }
+
+        // rejection sampling from the smallest power of two covering the indexes, building the index 30 bits at a time
+        int bitLength = size.subtract(BigInteger.ONE).bitLength();
+        BigInteger index;
+        do {
+            index = BigInteger.ZERO;
+            for (int bits = bitLength; bits > 0; bits -= 30) {
+                int chunk = Math.min(bits, 30);
+                index = index.shiftLeft(chunk).or(BigInteger.valueOf(random.nextInt(1 << chunk)));
+            }
+        } while (index.compareTo(size) >= 0);
+        return Optional.of(unrank(index));
+    }
+
+    /**
+     * @return an index from 0 to size - 1, each equally likely
+     */
+    private static long randomIndex(RandomNumberGenerator random, long size) {
+        if (size <= Integer.MAX_VALUE) {
+            return random.nextInt((int) size);
+        }
+
+        // as the BigInteger case, since drawing a long through a double cannot reach every index above 2^53
+        int bitLength = 64 - Long.numberOfLeadingZeros(size - 1);
+        long index;
+        do {
+            index = 0;
+            for (int bits = bitLength; bits > 0; bits -= 30) {
+                int chunk = Math.min(bits, 30);
+                index = (index << chunk) | random.nextInt(1 << chunk);
+            }
+        } while (index >= size);
+        return index;
+    }
+
+    /**
+     * @param remaining the number of characters that may still be read, so maxLength - remaining have been
+     */
+    private boolean acceptsWithRemaining(int remaining, int state) {
+        return automaton.isAccept(state) && lengths.permits(maxLength - remaining);
+    }
+
+    private static BigInteger[][] countStrings(CompiledAutomaton automaton, StringLengths lengths, int maxLength) {
+        int states = automaton.getStateCount();
+        BigInteger[][] counts = new BigInteger[maxLength + 1][states];
+        for (int length = 0; length <= maxLength; length++) {
+            boolean permitted = lengths.permits(maxLength - length);
+            for (int state = 0; state < states; state++) {
+                BigInteger count = permitted && automaton.isAccept(state) ? BigInteger.ONE : BigInteger.ZERO;
+                if (length == 0) {
+                    counts[length][state] = count;
+                    continue;
+                }
+                for (int transition = automaton.getTransitionStart(state);
+                     transition < automaton.getTransitionEnd(state);
+                     transition++) {
+                    count = count.add(counts[length - 1][automaton.getDestination(transition)]
+                        .multiply(BigInteger.valueOf(automaton.getTransitionWidth(transition))));
+                }
+                counts[length][state] = count;
+            }
+        }
+        return counts;
+    }
+
+    private static long[][] toLongs(BigInteger[][] counts) {
+        long[][] longs = new long[counts.length][];
+        for (int length = 0; length < counts.length; length++) {
+            longs[length] = new long[counts[length].length];
+            for (int state = 0; state < counts[length].length; state++) {
+                longs[length][state] = counts[length][state].longValue();
+            }
+        }
+        return longs;
+    }
+
+    /**
+     * @return the number of accepted strings from each state, or empty if a cycle can be followed on the way to an
+     * accepting state, so that some state accepts infinitely many strings
+     */
+    private static Optional<BigInteger[]> countFiniteLanguage(CompiledAutomaton automaton) {
+        int[] order = orderLiveStates(automaton);
+        if (order == null) {
+            return Optional.empty();
+        }
+
+        BigInteger[] counts = new BigInteger[automaton.getStateCount()];
+        Arrays.fill(counts, BigInteger.ZERO);
+        for (int state : order) {
+            BigInteger count = automaton.isAccept(state) ? BigInteger.ONE : BigInteger.ZERO;
+            for (int transition = automaton.getTransitionStart(state); transition < automaton.getTransitionEnd(state); transition++) {
+                count = count.add(counts[automaton.getDestination(transition)]
+                    .multiply(BigInteger.valueOf(automaton.getTransitionWidth(transition))));
+            }
+            counts[state] = count;
+        }
+        return Optional.of(counts);
+    }
+
+    /**
+     * @return the length of the longest accepted string, or empty if there is no longest
+     */
+    private static OptionalInt findLongestString(CompiledAutomaton automaton) {
+        int[] order = orderLiveStates(automaton);
+        if (order == null) {
+            return OptionalInt.empty();
+        }
+
+        int[] longest = new int[automaton.getStateCount()];
+        for (int state : order) {
+            int length = 0;
+            for (int transition = automaton.getTransitionStart(state); transition < automaton.getTransitionEnd(state); transition++) {
+                int destination = automaton.getDestination(transition);
+                if (automaton.isLive(destination)) {
+                    length = Math.max(length, longest[destination] + 1);
+                }
+            }
+            longest[state] = length;
+        }
+        return OptionalInt.of(longest[automaton.getInitialState()]);
+    }
+
+    private static final byte IN_PROGRESS = 1;
+    private static final byte DONE = 2;
+
+    /**
+     * Depth first search over the live states reachable from the initial state, kept on an explicit stack so that
+     * long chains of states cannot overflow the call stack
+     *
+     * @return the live states, each after all of its live successors, or null if a cycle is found, as a live
+     * successor still in progress
+     */
+    private static int[] orderLiveStates(CompiledAutomaton automaton) {
+        int states = automaton.getStateCount();
+        int[] order = new int[states];
+        int ordered = 0;
+        byte[] visit = new byte[states];
+        int[] stack = new int[states];
+        int[] nextTransition = new int[states];
+        int depth = 0;
+
+        int initial = automaton.getInitialState();
+        if (automaton.isLive(initial)) {
+            visit[initial] = IN_PROGRESS;
+            nextTransition[initial] = automaton.getTransitionStart(initial);
+            stack[depth++] = initial;
+        }
+
+        while (depth > 0) {
+            int state = stack[depth - 1];
+            if (nextTransition[state] == automaton.getTransitionEnd(state)) {
+                visit[state] = DONE;
+                order[ordered++] = state;
+                depth--;
+                continue;
+            }
+
+            int destination = automaton.getDestination(nextTransition[state]++);
+            if (!automaton.isLive(destination) || visit[destination] == DONE) {
+                continue;
+            }
+            if (visit[destination] == IN_PROGRESS) {
+                return null;
+            }
+            visit[destination] = IN_PROGRESS;
+            nextTransition[destination] = automaton.getTransitionStart(destination);
+            stack[depth++] = destination;
+        }
+        return Arrays.copyOf(order, ordered);
+    }
+}
@@ -49,17 +49,16 @@ public class AutomatonUtils {
     }
 
     /**
-     * Create an automaton and store its instance in the cache, keyed on the given regex
-     * The cache will vary based on &lt;matchFullString&gt;.
+     * Create an automaton for the given regex.
      * <p>
-     * The creation of an automaton is a time-consuming process, especially for more complex expressions.
+     * The creation of an automaton is a time-consuming process, especially for more complex expressions, so callers
+     * should go through {@link AutomatonCache}.
      *
      * @param regexStr        The string to create the automaton from
      * @param matchFullString Whether the string represents a matchingRegex (true) or containingRegex (false) expression
-     * @param cache           The cache to store the automaton instance in
      * @return The created automaton
      */
-    public static Automaton createAutomaton(String regexStr, boolean matchFullString, Map<String, Automaton> cache) {
+    public static Automaton createAutomaton(String regexStr, boolean matchFullString) {
         final String anchoredStr = convertEndAnchors(regexStr, matchFullString);
         final String requotedStr = escapeCharacters(anchoredStr);
         final RegExp bricsRegExp = expandShorthandClasses(requotedStr);
@@ -74,7 +73,6 @@ public class AutomatonUtils {
         // https://en.wikipedia.org/wiki/Nondeterministic_finite_automaton#Equivalence_to_DFA
         // for details.
         generatedAutomaton.determinize();
-        cache.put(regexStr, generatedAutomaton);
         return generatedAutomaton;
     }
 
@@ -0,0 +1,301 @@
+/*
+ * Copyright 2019 Scott Logic Ltd
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.scottlogic.datahelix.generator.core.generation.string;
+
+import dk.brics.automaton.Automaton;
+import dk.brics.automaton.State;
+import dk.brics.automaton.Transition;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * An automaton flattened into primitive arrays so it can be walked without allocating. States are numbered from 0
+ * in breadth first order from the initial state, and each state's transitions are stored contiguously, sorted by
+ * character, with surrogate characters removed (see {@link StringUtils#isCharValidUtf8(char)}).
+ * <p>
+ * The characters leaving a state are indexed from 0 to {@link #getWidth(int)} - 1 in transition order, so a
+ * uniformly random character index picks a uniformly random outgoing character.
+ */
+public final class CompiledAutomaton {
+    private final int initialState;
+    private final boolean[] accept;
+    /**
+     * The transitions of state s are at indices firstTransition[s] (inclusive) to firstTransition[s + 1] (exclusive)
+     */
+    private final int[] firstTransition;
+    private final char[] minCharacter;
+    private final char[] maxCharacter;
+    private final int[] destination;
+    /**
+     * The number of characters on the state's earlier transitions, i.e. the character index of each transition's
+     * first character
+     */
+    private final int[] widthBefore;
+    private final int[] width;
+    /**
+     * Whether an accept state can be reached from each state
+     */
+    private final boolean[] live;
+
+    private CompiledAutomaton(int initialState, boolean[] accept, int[] firstTransition, char[] minCharacter,
+                              char[] maxCharacter, int[] destination, int[] widthBefore, int[] width) {
+        this.initialState = initialState;
+        this.accept = accept;
+        this.firstTransition = firstTransition;
+        this.minCharacter = minCharacter;
+        this.maxCharacter = maxCharacter;
+        this.destination = destination;
+        this.widthBefore = widthBefore;
+        this.width = width;
+        this.live = findLiveStates();
+    }
+
+    private boolean[] findLiveStates() {
+        int states = accept.length;
+        int[] predecessorCount = new int[states + 1];
+        for (int transition = 0; transition < destination.length; transition++) {
+            predecessorCount[destination[transition] + 1]++;
+        }
+        for (int state = 0; state < states; state++) {
+            predecessorCount[state + 1] += predecessorCount[state];
+        }
+        int[] predecessors = new int[destination.length];
+        int[] filled = Arrays.copyOf(predecessorCount, states);
+        for (int state = 0; state < states; state++) {
+            for (int transition = firstTransition[state]; transition < firstTransition[state + 1]; transition++) {
+                predecessors[filled[destination[transition]]++] = state;
+            }
+        }
+
+        boolean[] isLive = new boolean[states];
+        Deque<Integer> toVisit = new ArrayDeque<>();
+        for (int state = 0; state < states; state++) {
+            if (accept[state]) {
+                isLive[state] = true;
+                toVisit.add(state);
+            }
+        }
+        while (!toVisit.isEmpty()) {
+            int state = toVisit.remove();
+            for (int index = predecessorCount[state]; index < predecessorCount[state + 1]; index++) {
+                if (!isLive[predecessors[index]]) {
+                    isLive[predecessors[index]] = true;
+                    toVisit.add(predecessors[index]);
+                }
+            }
+        }
+        return isLive;
+    }
+
+    /**
+     * Reads the automaton without modifying it, so it is safe to compile automata held by {@link AutomatonCache}
+     */
+    public static CompiledAutomaton compile(Automaton automaton) {
+        List<State> states = new ArrayList<>();
+        Map<State, Integer> numbers = new IdentityHashMap<>();
+        Deque<State> toNumber = new ArrayDeque<>();
+        State initial = automaton.getInitialState();
+        numbers.put(initial, 0);
+        states.add(initial);
+        toNumber.add(initial);
+        while (!toNumber.isEmpty()) {
+            for (Transition transition : toNumber.remove().getTransitions()) {
+                if (!numbers.containsKey(transition.getDest())) {
+                    numbers.put(transition.getDest(), states.size());
+                    states.add(transition.getDest());
+                    toNumber.add(transition.getDest());
+                }
+            }
+        }
+
+        TransitionTableBuilder table = new TransitionTableBuilder(states.size());
+        for (int state = 0; state < states.size(); state++) {
+            table.startState(state, states.get(state).isAccept());
+            for (Transition transition : states.get(state).getSortedTransitions(false)) {
+                int dest = numbers.get(transition.getDest());
+                addWithoutSurrogates(table, transition.getMin(), transition.getMax(), dest);
+            }
+        }
+        return table.build();
+    }
+
+    private static void addWithoutSurrogates(TransitionTableBuilder table, char min, char max, int dest) {
+        if (max < Character.MIN_SURROGATE || min > Character.MAX_SURROGATE) {
+            table.add(min, max, dest);
+            return;
+        }
+        if (min < Character.MIN_SURROGATE) {
+            table.add(min, (char) (Character.MIN_SURROGATE - 1), dest);
+        }
+        if (max > Character.MAX_SURROGATE) {
+            table.add((char) (Character.MAX_SURROGATE + 1), max, dest);
+        }
+    }
+
+    public int getInitialState() {
+        return initialState;
+    }
+
+    public int getStateCount() {
+        return accept.length;
+    }
+
+    public boolean isAccept(int state) {
+        return accept[state];
+    }
+
+    /**
+     * @return whether an accept state can be reached from the state
+     */
+    public boolean isLive(int state) {
+        return live[state];
+    }
+
+    /**
+     * @return the number of distinct characters leaving the state; 0 if no string can be extended from it
+     */
+    public int getWidth(int state) {
+        return width[state];
+    }
+
+    /**
+     * @param characterIndex from 0 to {@link #getWidth(int)} - 1
+     * @return the transition of the state that carries the indexed character
+     */
+    public int findTransition(int state, int characterIndex) {
+        int low = firstTransition[state];
+        int high = firstTransition[state + 1] - 1;
+        while (low < high) {
+            int middle = (low + high + 1) >>> 1;
+            if (widthBefore[middle] <= characterIndex) {
+                low = middle;
+            } else {
+                high = middle - 1;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * @param transition     the transition found for the character index by {@link #findTransition(int, int)}
+     * @param characterIndex from 0 to {@link #getWidth(int)} - 1
+     */
+    public char getCharacter(int transition, int characterIndex) {
+        return (char) (minCharacter[transition] + characterIndex - widthBefore[transition]);
+    }
+
+    public int getDestination(int transition) {
+        return destination[transition];
+    }
+
+    /**
+     * The state's transitions are numbered from this (inclusive) to {@link #getTransitionEnd(int)} (exclusive), in
+     * character order
+     */
+    public int getTransitionStart(int state) {
+        return firstTransition[state];
+    }
+
+    public int getTransitionEnd(int state) {
+        return firstTransition[state + 1];
+    }
+
+    public char getMinCharacter(int transition) {
+        return minCharacter[transition];
+    }
+
+    public int getTransitionWidth(int transition) {
+        return maxCharacter[transition] - minCharacter[transition] + 1;
+    }
+
+    /**
+     * @return the transition of the state that carries the character, or -1 if none does
+     */
+    public int findTransitionFor(int state, char character) {
+        int low = firstTransition[state];
+        int high = firstTransition[state + 1] - 1;
+        while (low <= high) {
+            int middle = (low + high) >>> 1;
+            if (maxCharacter[middle] < character) {
+                low = middle + 1;
+            } else if (minCharacter[middle] > character) {
+                high = middle - 1;
+            } else {
+                return middle;
+            }
+        }
+        return -1;
+    }
+
+    private static class TransitionTableBuilder {
+        private final boolean[] accept;
+        private final int[] firstTransition;
+        private final int[] width;
+        private char[] minCharacter = new char[16];
+        private char[] maxCharacter = new char[16];
+        private int[] destination = new int[16];
+        private int[] widthBefore = new int[16];
+        private int transitions;
+        private int currentState;
+
+        TransitionTableBuilder(int stateCount) {
+            accept = new boolean[stateCount];
+            firstTransition = new int[stateCount + 1];
+            width = new int[stateCount];
+        }
+
+        void startState(int state, boolean isAccept) {
+            currentState = state;
+            accept[state] = isAccept;
+            firstTransition[state] = transitions;
+        }
+
+        void add(char min, char max, int dest) {
+            if (transitions == minCharacter.length) {
+                minCharacter = Arrays.copyOf(minCharacter, transitions * 2);
+                maxCharacter = Arrays.copyOf(maxCharacter, transitions * 2);
+                destination = Arrays.copyOf(destination, transitions * 2);
+                widthBefore = Arrays.copyOf(widthBefore, transitions * 2);
+            }
+            minCharacter[transitions] = min;
+            maxCharacter[transitions] = max;
+            destination[transitions] = dest;
+            widthBefore[transitions] = width[currentState];
+            width[currentState] += max - min + 1;
+            transitions++;
+        }
+
+        CompiledAutomaton build() {
+            firstTransition[accept.length] = transitions;
+            return new CompiledAutomaton(
+                0,
+                accept,
+                firstTransition,
+                Arrays.copyOf(minCharacter, transitions),
+                Arrays.copyOf(maxCharacter, transitions),
+                Arrays.copyOf(destination, transitions),
+                Arrays.copyOf(widthBefore, transitions),
+                width);
+        }
+    }
+}
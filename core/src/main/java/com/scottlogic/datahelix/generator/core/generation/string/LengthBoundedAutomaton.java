@@ -0,0 +1,109 @@
+/*
+ * Copyright 2019 Scott Logic Ltd
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.scottlogic.datahelix.generator.core.generation.string;
+
+import java.util.BitSet;
+
+/**
+ * A compiled automaton restricted to strings of certain {@link StringLengths lengths}, without building the product
+ * of the automaton with one for the lengths. Knows, for each position and state, whether an accepted string of a
+ * permitted length can still be completed, so that generation can avoid walking into dead ends.
+ */
+public final class LengthBoundedAutomaton {
+    private final CompiledAutomaton automaton;
+    private final StringLengths lengths;
+    /**
+     * finishable[p] holds the states from which, with p characters read, a string of a permitted length can be
+     * completed. With no maximum length every position from the last entry on behaves the same, so it stands for them
+     * all.
+     */
+    private final BitSet[] finishable;
+
+    public LengthBoundedAutomaton(CompiledAutomaton automaton, StringLengths lengths) {
+        this.automaton = automaton;
+        this.lengths = lengths;
+        this.finishable = findFinishableStates(automaton, lengths);
+    }
+
+    private static BitSet[] findFinishableStates(CompiledAutomaton automaton, StringLengths lengths) {
+        int states = automaton.getStateCount();
+        int last = lengths.getMax() == null ? lengths.getContiguousFrom() : lengths.getMax();
+        BitSet[] finishable = new BitSet[Math.max(last, 0) + 1];
+
+        BitSet lastFinishable = new BitSet(states);
+        for (int state = 0; state < states; state++) {
+            boolean canFinish = lengths.getMax() == null
+                ? automaton.isLive(state)
+                : automaton.isAccept(state) && lengths.permits(last);
+            lastFinishable.set(state, canFinish);
+        }
+        finishable[finishable.length - 1] = lastFinishable;
+
+        for (int position = finishable.length - 2; position >= 0; position--) {
+            BitSet next = finishable[position + 1];
+            BitSet current = new BitSet(states);
+            for (int state = 0; state < states; state++) {
+                if ((automaton.isAccept(state) && lengths.permits(position)) || anyDestinationIn(automaton, state, next)) {
+                    current.set(state);
+                }
+            }
+            finishable[position] = current;
+        }
+        return finishable;
+    }
+
+    private static boolean anyDestinationIn(CompiledAutomaton automaton, int state, BitSet states) {
+        for (int transition = automaton.getTransitionStart(state); transition < automaton.getTransitionEnd(state); transition++) {
+            if (states.get(automaton.getDestination(transition))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public CompiledAutomaton getAutomaton() {
+        return automaton;
+    }
+
+    public StringLengths getLengths() {
+        return lengths;
+    }
+
+    /**
+     * @return whether a string of a permitted length can be completed from the state, with position characters read
+     */
+    public boolean canFinish(int position, int state) {
+        if (lengths.getMax() != null && position > lengths.getMax()) {
+            return false;
+        }
+        return finishable[Math.min(position, finishable.length - 1)].get(state);
+    }
+
+    /**
+     * @return whether the string read so far is accepted, having reached the state with position characters read
+     */
+    public boolean acceptsAt(int position, int state) {
+        return automaton.isAccept(state) && lengths.permits(position);
+    }
+
+    /**
+     * @return whether no string of a permitted length is accepted
+     */
+    public boolean isEmpty() {
+        return !canFinish(0, automaton.getInitialState());
+    }
+}
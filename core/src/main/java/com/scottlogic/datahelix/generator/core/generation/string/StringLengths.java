@@ -0,0 +1,145 @@
+/*
+ * Copyright 2019 Scott Logic Ltd
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.scottlogic.datahelix.generator.core.generation.string;
+
+import java.util.Collections;
+import java.util.Objects;
+import java.util.Set;
+import java.util.SortedSet;
+import java.util.TreeSet;
+
+/**
+ * The lengths a string may have: from a minimum, up to an optional maximum, less any excluded lengths. Carried
+ * alongside an automaton rather than built into it, as intersecting with an automaton for /.{0,1000}/ multiplies
+ * its states by a thousand.
+ */
+public final class StringLengths {
+    private static final StringLengths UNRESTRICTED = new StringLengths(0, null, Collections.emptySortedSet());
+
+    private final int min;
+    private final Integer max;
+    private final SortedSet<Integer> excluded;
+
+    private StringLengths(int min, Integer max, SortedSet<Integer> excluded) {
+        this.min = min;
+        this.max = max;
+        this.excluded = excluded;
+    }
+
+    public static StringLengths unrestricted() {
+        return UNRESTRICTED;
+    }
+
+    /**
+     * @param max      the longest permitted length, or null if there is no longest
+     * @param excluded lengths that are not permitted; those outside min to max are ignored
+     */
+    public static StringLengths of(int min, Integer max, Set<Integer> excluded) {
+        SortedSet<Integer> inRange = new TreeSet<>();
+        for (int length : excluded) {
+            if (length >= min && (max == null || length <= max)) {
+                inRange.add(length);
+            }
+        }
+
+        // trim excluded lengths from the ends, so min and max are themselves permitted, unless min passes max
+        // because every length is excluded
+        int trimmedMin = min;
+        while (inRange.remove(trimmedMin)) {
+            trimmedMin++;
+        }
+        Integer trimmedMax = max;
+        while (trimmedMax != null && inRange.remove(trimmedMax)) {
+            trimmedMax--;
+        }
+
+        StringLengths lengths = new StringLengths(trimmedMin, trimmedMax, Collections.unmodifiableSortedSet(inRange));
+        return lengths.equals(UNRESTRICTED) ? UNRESTRICTED : lengths;
+    }
+
+    public boolean permits(int length) {
+        return length >= min && (max == null || length <= max) && !excluded.contains(length);
+    }
+
+    /**
+     * @return whether at least one length is permitted
+     */
+    public boolean permitsAny() {
+        return max == null || min <= max;
+    }
+
+    public boolean isUnrestricted() {
+        return this == UNRESTRICTED;
+    }
+
+    public int getMin() {
+        return min;
+    }
+
+    /**
+     * @return the longest permitted length, or null if there is no longest
+     */
+    public Integer getMax() {
+        return max;
+    }
+
+    /**
+     * @return the excluded lengths between min and max, in ascending order
+     */
+    public SortedSet<Integer> getExcluded() {
+        return excluded;
+    }
+
+    /**
+     * @return the shortest length from which every length up to the maximum is permitted
+     */
+    public int getContiguousFrom() {
+        return excluded.isEmpty() ? min : excluded.last() + 1;
+    }
+
+    public StringLengths intersect(StringLengths other) {
+        if (isUnrestricted()) {
+            return other;
+        }
+        if (other.isUnrestricted()) {
+            return this;
+        }
+
+        Set<Integer> mergedExcluded = new TreeSet<>(excluded);
+        mergedExcluded.addAll(other.excluded);
+        Integer mergedMax = max == null ? other.max : other.max == null ? max : Integer.valueOf(Math.min(max, other.max));
+        return of(Math.max(min, other.min), mergedMax, mergedExcluded);
+    }
+
+    @Override
+    public String toString() {
+        return min + ".." + (max == null ? "" : max) + (excluded.isEmpty() ? "" : " not " + excluded);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        StringLengths that = (StringLengths) o;
+        return min == that.min && Objects.equals(max, that.max) && excluded.equals(that.excluded);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(min, max, excluded);
+    }
+}
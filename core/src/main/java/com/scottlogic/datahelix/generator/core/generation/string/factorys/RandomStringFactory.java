@@ -17,70 +17,132 @@
 package com.scottlogic.datahelix.generator.core.generation.string.factorys;
 
 import com.scottlogic.datahelix.generator.common.ValidationException;
-import com.scottlogic.datahelix.generator.core.generation.string.StringUtils;
+import com.scottlogic.datahelix.generator.core.generation.string.CompiledAutomaton;
+import com.scottlogic.datahelix.generator.core.generation.string.LengthBoundedAutomaton;
 import com.scottlogic.datahelix.generator.common.RandomNumberGenerator;
-import dk.brics.automaton.State;
-import dk.brics.automaton.Transition;
 
-import java.util.LinkedList;
-import java.util.List;
+import java.util.Arrays;
 
+/**
+ * Walks an automaton at random, writing characters into buffers that are reused between strings. Not thread safe;
+ * use one factory per stream of strings.
+ */
 public class RandomStringFactory {
-    public String createRandomString(State state, RandomNumberGenerator random) {
-        List<Integer> validIndices = new LinkedList<>();
+    private char[] characters = new char[16];
+    private int[] acceptedLengths = new int[16];
 
-        StringBuilder builder = new StringBuilder();
+    /**
+     * Picks a uniformly random outgoing character from each state until reaching a state with none, then returns a
+     * uniformly random one of the accepted prefixes of the walk
+     */
+    public String createRandomString(CompiledAutomaton automaton, RandomNumberGenerator random) {
+        int state = automaton.getInitialState();
+        int length = 0;
+        int accepted = 0;
 
-        if (state.isAccept()) {
-            validIndices.add(0);
+        if (automaton.isAccept(state)) {
+            acceptedLengths[accepted++] = 0;
         }
 
-        for (int i = 1; !finishCreating(state); i++) {
-            List<Transition> transitions = state.getSortedTransitions(false);
-            Transition randomTransition = transitions.get(random.nextInt(transitions.size()));
-            builder.append(getRandomChar(random, randomTransition));
-            state = randomTransition.getDest();
-            if (state.isAccept()) {
-                validIndices.add(i);
+        while (automaton.getWidth(state) > 0) {
+            int characterIndex = random.nextInt(automaton.getWidth(state));
+            int transition = automaton.findTransition(state, characterIndex);
+            if (length == characters.length) {
+                characters = Arrays.copyOf(characters, length * 2);
+            }
+            characters[length++] = automaton.getCharacter(transition, characterIndex);
+            state = automaton.getDestination(transition);
+
+            if (automaton.isAccept(state)) {
+                if (accepted == acceptedLengths.length) {
+                    acceptedLengths = Arrays.copyOf(acceptedLengths, accepted * 2);
+                }
+                acceptedLengths[accepted++] = length;
             }
         }
 
-        if (validIndices.isEmpty()) {
+        if (accepted == 0) {
             throw new ValidationException("No possible states from the current regex");
         }
 
-        int randomIndex = random.nextInt(validIndices.size());
-        return builder.toString().substring(0, validIndices.get(randomIndex));
+        return new String(characters, 0, acceptedLengths[random.nextInt(accepted)]);
     }
 
-    private boolean finishCreating(State state) {
-        return state.getTransitions().isEmpty();
+    /**
+     * As {@link #createRandomString(CompiledAutomaton, RandomNumberGenerator)}, but only following characters from
+     * which a string of a permitted length can still be completed, and stopping at the maximum length
+     */
+    public String createRandomString(LengthBoundedAutomaton bounded, RandomNumberGenerator random) {
+        CompiledAutomaton automaton = bounded.getAutomaton();
+        Integer maxLength = bounded.getLengths().getMax();
+        int state = automaton.getInitialState();
+        int length = 0;
+        int accepted = 0;
+
+        while (true) {
+            if (bounded.acceptsAt(length, state)) {
+                if (accepted == acceptedLengths.length) {
+                    acceptedLengths = Arrays.copyOf(acceptedLengths, accepted * 2);
+                }
+                acceptedLengths[accepted++] = length;
+            }
+            if (maxLength != null && length == maxLength) {
+                break;
+            }
+
+            int characterIndex = chooseFinishableCharacter(bounded, length, state, random);
+            if (characterIndex < 0) {
+                break;
+            }
+            int transition = automaton.findTransition(state, characterIndex);
+            if (length == characters.length) {
+                characters = Arrays.copyOf(characters, length * 2);
+            }
+            characters[length++] = automaton.getCharacter(transition, characterIndex);
+            state = automaton.getDestination(transition);
+        }
+
+        if (accepted == 0) {
+            throw new ValidationException("No possible states from the current regex");
+        }
+
+        return new String(characters, 0, acceptedLengths[random.nextInt(accepted)]);
     }
 
     /**
-     * <p>
-     * We have to surround this functionality in a loop checking for invalid
-     * UTF-8 characters until the automaton library is updated.
-     * </p>
-     * <p>
-     * FIXME - This check will be removed if/when the dk.brics.automaton
-     * library is fixed to support surrogate pairs,
-     * </p>
-     * <p>
-     * issue #15 (https://github.com/cs-au-dk/dk.brics.automaton/issues/15)
-     * has been raised on the dk.brics.automaton library
-     * </p>
-     * <p>
-     * issue #537 has been created to track when the dk.brics.automaton library
-     * is updated.
-     * </p>
+     * Picks a uniformly random character among the state's transitions whose destinations can still finish
+     *
+     * @return the index of the character among all the state's characters, or -1 if no transition can finish
      */
-    private char getRandomChar(RandomNumberGenerator random, Transition randomTransition) {
-        char randomChar;
-        do {
-            int diff = randomTransition.getMax() - randomTransition.getMin() + 1;
-            randomChar = (char) (random.nextInt(diff) + randomTransition.getMin());
-        } while (!StringUtils.isCharValidUtf8(randomChar));
-        return randomChar;
+    private static int chooseFinishableCharacter(LengthBoundedAutomaton bounded, int length, int state,
+                                                 RandomNumberGenerator random) {
+        CompiledAutomaton automaton = bounded.getAutomaton();
+        int finishableWidth = 0;
+        for (int transition = automaton.getTransitionStart(state); transition < automaton.getTransitionEnd(state); transition++) {
+            if (bounded.canFinish(length + 1, automaton.getDestination(transition))) {
+                finishableWidth += automaton.getTransitionWidth(transition);
+            }
+        }
+        if (finishableWidth == 0) {
+            return -1;
+        }
+
+        int finishableIndex = random.nextInt(finishableWidth);
+        if (finishableWidth == automaton.getWidth(state)) {
+            return finishableIndex;
+        }
+
+        int skippedWidth = 0;
+        for (int transition = automaton.getTransitionStart(state); ; transition++) {
+            int width = automaton.getTransitionWidth(transition);
+            if (!bounded.canFinish(length + 1, automaton.getDestination(transition))) {
+                skippedWidth += width;
+            } else if (finishableIndex < width) {
+                return skippedWidth + finishableIndex;
+            } else {
+                finishableIndex -= width;
+                skippedWidth += width;
+            }
+        }
     }
 }
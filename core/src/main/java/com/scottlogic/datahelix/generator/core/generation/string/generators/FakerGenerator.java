@@ -18,22 +18,24 @@ package com.scottlogic.datahelix.generator.core.generation.string.generators;
 
 import com.github.javafaker.Faker;
 import com.scottlogic.datahelix.generator.common.RandomNumberGenerator;
+import com.scottlogic.datahelix.generator.common.util.DelegatingRandom;
 import com.scottlogic.datahelix.generator.common.util.OrderedRandom;
 
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.stream.Stream;
 
 public class FakerGenerator implements StringGenerator {
 
     private final StringGenerator underlyingRegexGenerator;
     private final String fakerSpec;
-    private final Faker randomFaker;
-    private final Faker orderedFaker;
+    // building a Faker loads its locale files, so each one is kept for the life of the generator
+    private final Map<RandomNumberGenerator, Faker> randomFakers = new ConcurrentHashMap<>();
+    private Faker orderedFaker;
 
     public FakerGenerator(StringGenerator underlyingRegexGenerator, String fakerSpec) {
         this.underlyingRegexGenerator = underlyingRegexGenerator;
         this.fakerSpec = fakerSpec;
-        randomFaker = new Faker();
-        orderedFaker = new Faker(new OrderedRandom());
     }
 
     @Override
@@ -60,17 +62,31 @@ public class FakerGenerator implements StringGenerator {
 
     @Override
     public Stream<String> generateAllValues() {
+        Faker orderedFaker = getOrderedFaker();
         return Stream.generate(() -> getFakerValue(orderedFaker))
             .filter(underlyingRegexGenerator::validate);
     }
 
     @Override
     public Stream<String> generateRandomValues(RandomNumberGenerator randomNumberGenerator) {
+        Faker randomFaker = randomFakers.computeIfAbsent(
+            randomNumberGenerator,
+            random -> new Faker(new DelegatingRandom(random)));
         return Stream.generate(() -> getFakerValue(randomFaker))
             .filter(underlyingRegexGenerator::validate);
     }
 
+    private synchronized Faker getOrderedFaker() {
+        if (orderedFaker == null) {
+            orderedFaker = new Faker(new OrderedRandom());
+        }
+        return orderedFaker;
+    }
+
     private String getFakerValue(Faker faker) {
-        return faker.expression("#{" + this.fakerSpec + "}");
+        // a Faker may be shared by streams on several threads
+        synchronized (faker) {
+            return faker.expression("#{" + this.fakerSpec + "}");
+        }
     }
 }
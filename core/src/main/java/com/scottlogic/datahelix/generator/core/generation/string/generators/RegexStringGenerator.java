@@ -18,8 +18,14 @@ package com.scottlogic.datahelix.generator.core.generation.string.generators;
 
 import com.scottlogic.datahelix.generator.common.RandomNumberGenerator;
 import com.scottlogic.datahelix.generator.common.profile.FieldType;
+import com.scottlogic.datahelix.generator.common.util.IndexPermutation;
 import com.scottlogic.datahelix.generator.core.fieldspecs.FieldSpecFactory;
+import com.scottlogic.datahelix.generator.core.generation.string.AutomatonCache;
+import com.scottlogic.datahelix.generator.core.generation.string.AutomatonRanker;
 import com.scottlogic.datahelix.generator.core.generation.string.AutomatonUtils;
+import com.scottlogic.datahelix.generator.core.generation.string.CompiledAutomaton;
+import com.scottlogic.datahelix.generator.core.generation.string.LengthBoundedAutomaton;
+import com.scottlogic.datahelix.generator.core.generation.string.StringLengths;
 import com.scottlogic.datahelix.generator.core.generation.string.factorys.RandomStringFactory;
 import com.scottlogic.datahelix.generator.core.generation.string.iterators.FiniteStringAutomatonIterator;
 import com.scottlogic.datahelix.generator.core.restrictions.string.StringRestrictions;
@@ -27,40 +33,59 @@ import dk.brics.automaton.Automaton;
 
 import java.util.*;
 import java.util.stream.Collectors;
+import java.util.stream.LongStream;
 import java.util.stream.Stream;
 import java.util.stream.StreamSupport;
 
+/**
+ * Generates strings accepted by an automaton, optionally only of certain {@link StringLengths lengths}. Lengths are
+ * honoured while walking the automaton rather than by intersecting it with an automaton for the lengths, as that
+ * would multiply its states by the longest length.
+ */
 public class RegexStringGenerator implements StringGenerator {
-    /**
-     * Cache of all matching regex automatons, keyed on their regex
-     */
-    private static final Map<String, Automaton> matchingRegexAutomatonCache = new HashMap<>();
-
-    /**
-     * Cache of all containing regex automatons, keyed on their regex
-     */
-    private static final Map<String, Automaton> containingRegexAutomatonCache = new HashMap<>();
+    private static final String ANY_STRING_KEY = AutomatonCache.regexKey(".*", true);
 
     private static final RegexStringGenerator DEFAULT = (RegexStringGenerator) ((StringRestrictions) FieldSpecFactory.fromType(FieldType.STRING).getRestrictions()).createGenerator();
 
     private Automaton automaton;
 
-    private RandomStringFactory randomStringFactory = new RandomStringFactory();
+    /**
+     * Canonical expression the automaton is cached under, see {@link AutomatonCache}
+     */
+    private final String automatonKey;
+
+    private final StringLengths lengths;
+
     private final RegexPattern regexPattern;
 
-    private RegexStringGenerator(Automaton automaton, RegexPattern regexPattern) {
+    private RegexStringGenerator(Automaton automaton, String automatonKey, StringLengths lengths,
+                                 RegexPattern regexPattern) {
         this.automaton = automaton;
+        this.automatonKey = automatonKey;
+        this.lengths = lengths;
         this.regexPattern = regexPattern;
     }
 
     public RegexStringGenerator(String regexStr, boolean matchFullString) {
-        Map<String, Automaton> cache = matchFullString ? matchingRegexAutomatonCache : containingRegexAutomatonCache;
-        Automaton generatedAutomaton = cache.containsKey(regexStr)
-            ? cache.get(regexStr)
-            : AutomatonUtils.createAutomaton(regexStr, matchFullString, cache);
-
+        this.automatonKey = AutomatonCache.regexKey(regexStr, matchFullString);
+        this.lengths = StringLengths.unrestricted();
         this.regexPattern = new SingleRegexPattern(regexStr, matchFullString);
-        this.automaton = generatedAutomaton;
+        this.automaton = AutomatonCache.get(
+            automatonKey,
+            () -> AutomatonUtils.createAutomaton(regexStr, matchFullString));
+    }
+
+    /**
+     * Create a generator for any string of the given lengths
+     *
+     * @param describingRegex a regex matching the same strings, used to describe and validate them
+     */
+    public static RegexStringGenerator forLengths(String describingRegex, StringLengths lengths) {
+        return new RegexStringGenerator(
+            AutomatonCache.get(ANY_STRING_KEY, () -> AutomatonUtils.createAutomaton(".*", true)),
+            ANY_STRING_KEY,
+            lengths,
+            new SingleRegexPattern(describingRegex, true));
     }
 
     @Override
@@ -79,13 +104,19 @@ public class RegexStringGenerator implements StringGenerator {
     }
 
     public static RegexStringGenerator createFromBlacklist(Set<String> blacklist) {
-        String[] blacklistStrings = blacklist.toArray(new String[0]);
-        Automaton automaton = Automaton.makeStringUnion(blacklistStrings).complement();
+        String key = AutomatonCache.blacklistKey(blacklist);
+        Automaton automaton = AutomatonCache.get(
+            key,
+            () -> Automaton.makeStringUnion(blacklist.toArray(new String[0])).complement());
         List<RegexPattern> constraints = blacklist.stream()
             .map(regex -> new SingleRegexPattern(regex, true))
             .collect(Collectors.toList());
 
-        return new RegexStringGenerator(automaton, new NegatedRegexPattern(new AnyRegexPatterns(constraints)));
+        return new RegexStringGenerator(
+            automaton,
+            key,
+            StringLengths.unrestricted(),
+            new NegatedRegexPattern(new AnyRegexPatterns(constraints)));
     }
 
     @Override
@@ -99,9 +130,27 @@ public class RegexStringGenerator implements StringGenerator {
         }
 
         RegexStringGenerator otherRegexGenerator = (RegexStringGenerator) otherGenerator;
-        Automaton b = otherRegexGenerator.automaton;
-        Automaton merged = automaton.intersection(b);
-        if (merged.isEmpty()) {
+        StringLengths mergedLengths = lengths.intersect(otherRegexGenerator.lengths);
+        if (!mergedLengths.permitsAny()) {
+            return new NoStringsStringGenerator("Lengths are contradictory");
+        }
+
+        // any string intersected with another automaton is that automaton, so skip building the product
+        Automaton merged;
+        String key;
+        if (automatonKey.equals(ANY_STRING_KEY)) {
+            merged = otherRegexGenerator.automaton;
+            key = otherRegexGenerator.automatonKey;
+        } else if (otherRegexGenerator.automatonKey.equals(ANY_STRING_KEY)) {
+            merged = automaton;
+            key = automatonKey;
+        } else {
+            Automaton b = otherRegexGenerator.automaton;
+            key = AutomatonCache.intersectionKey(automatonKey, otherRegexGenerator.automatonKey);
+            merged = AutomatonCache.get(key, () -> automaton.intersection(b));
+        }
+        if (merged.isEmpty()
+            || (!mergedLengths.isUnrestricted() && AutomatonCache.getLengthBounded(key, merged, mergedLengths).isEmpty())) {
             return new NoStringsStringGenerator("regex combination was contradictory");
         }
 
@@ -110,28 +159,87 @@ public class RegexStringGenerator implements StringGenerator {
                 this.regexPattern,
                 otherRegexGenerator.regexPattern));
 
-        return new RegexStringGenerator(merged, intersectedPatterns);
+        return new RegexStringGenerator(merged, key, mergedLengths, intersectedPatterns);
     }
 
     @Override
     public StringGenerator complement() {
+        if (lengths.isUnrestricted()) {
+            String key = AutomatonCache.complementKey(automatonKey);
+            return new RegexStringGenerator(
+                AutomatonCache.get(key, () -> this.automaton.clone().complement().intersection(DEFAULT.automaton)),
+                key,
+                DEFAULT.lengths,
+                this.regexPattern.complement());
+        }
+
+        // the complement of restricted lengths is not itself a set of lengths, so they are built into the automaton
+        String boundedKey = AutomatonCache.intersectionKey(automatonKey, AutomatonCache.lengthsKey(lengths));
+        Automaton bounded = AutomatonCache.get(boundedKey, () -> automaton.intersection(createLengthsAutomaton(lengths)));
+        String key = AutomatonCache.complementKey(boundedKey);
         return new RegexStringGenerator(
-            this.automaton.clone().complement().intersection(DEFAULT.automaton),
+            AutomatonCache.get(key, () -> bounded.clone().complement().intersection(DEFAULT.automaton)),
+            key,
+            DEFAULT.lengths,
             this.regexPattern.complement());
     }
 
+    private static Automaton createLengthsAutomaton(StringLengths lengths) {
+        Automaton anyCharacter = AutomatonUtils.createAutomaton(".", true);
+        Automaton automaton = lengths.getMax() == null
+            ? anyCharacter.repeat(lengths.getMin())
+            : anyCharacter.repeat(lengths.getMin(), lengths.getMax());
+        for (int excludedLength : lengths.getExcluded()) {
+            automaton = automaton.minus(anyCharacter.repeat(excludedLength, excludedLength));
+        }
+        return automaton;
+    }
+
     @Override
     public Stream<String> generateAllValues() {
-        Iterator<String> iterator = new FiniteStringAutomatonIterator(automaton);
+        Optional<AutomatonRanker> ranker = AutomatonCache.getFiniteLanguageRanker(automatonKey, automaton, lengths);
+        if (ranker.isPresent() && ranker.get().size().bitLength() < Long.SIZE) {
+            // values are built from their index, so the stream can be split or skipped into without walking to it
+            return LongStream.range(0, ranker.get().size().longValue()).mapToObj(ranker.get()::unrank);
+        }
+
+        Iterator<String> iterator = new FiniteStringAutomatonIterator(
+            AutomatonCache.getLengthBounded(automatonKey, automaton, lengths));
         return StreamSupport.stream(Spliterators.spliteratorUnknownSize(iterator, Spliterator.SORTED), false);
     }
 
+    @Override
+    public Stream<String> generateRandomUniqueValues(RandomNumberGenerator randomNumberGenerator) {
+        Optional<AutomatonRanker> ranker = AutomatonCache.getFiniteLanguageRanker(automatonKey, automaton, lengths);
+        if (ranker.isPresent() && ranker.get().size().bitLength() < Long.SIZE) {
+            return new IndexPermutation(ranker.get().size().longValue(), randomNumberGenerator).permutedIndexes()
+                .mapToObj(ranker.get()::unrank);
+        }
+
+        return generateAllValues();
+    }
+
     @Override
     public Stream<String> generateRandomValues(RandomNumberGenerator randomNumberGenerator) {
-        return Stream.generate(
-            () -> randomStringFactory.createRandomString(
-                automaton.getInitialState(),
-                randomNumberGenerator));
+        Optional<AutomatonRanker> ranker = AutomatonCache.getFiniteLanguageRanker(automatonKey, automaton, lengths);
+        if (ranker.isPresent() && ranker.get().size().bitLength() < Long.SIZE) {
+            // every string is equally likely, where a random walk of the automaton favours those with fewer siblings
+            return ranker.get().size().signum() == 0
+                ? Stream.empty()
+                : Stream.generate(() -> ranker.get().sample(randomNumberGenerator).get());
+        }
+
+        RandomStringFactory randomStringFactory = new RandomStringFactory();
+        if (lengths.isUnrestricted()) {
+            CompiledAutomaton compiledAutomaton = AutomatonCache.getCompiled(automatonKey, automaton);
+            return Stream.generate(
+                () -> randomStringFactory.createRandomString(
+                    compiledAutomaton,
+                    randomNumberGenerator));
+        }
+
+        LengthBoundedAutomaton bounded = AutomatonCache.getLengthBounded(automatonKey, automaton, lengths);
+        return Stream.generate(() -> randomStringFactory.createRandomString(bounded, randomNumberGenerator));
     }
 
     public boolean validate(String input) {
@@ -139,7 +247,7 @@ public class RegexStringGenerator implements StringGenerator {
     }
 
     public boolean matches(String subject) {
-        return automaton.run(subject);
+        return lengths.permits(subject.length()) && automaton.run(subject);
     }
 
     public boolean equals(Object o) {
@@ -147,11 +255,12 @@ public class RegexStringGenerator implements StringGenerator {
         if (o == null || getClass() != o.getClass())
             return false;
         RegexStringGenerator constraint = (RegexStringGenerator) o;
-        return this.automaton.equals(constraint.automaton);
+        // compared by key, as comparing the automata minimises and renumbers them, and they are shared through the cache
+        return this.automatonKey.equals(constraint.automatonKey) && this.lengths.equals(constraint.lengths);
     }
 
     public int hashCode() {
-        return Objects.hash(this.automaton, this.getClass());
+        return Objects.hash(this.automatonKey, this.lengths, this.getClass());
     }
 }
 
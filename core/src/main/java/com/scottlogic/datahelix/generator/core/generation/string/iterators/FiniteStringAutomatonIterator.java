@@ -14,75 +14,96 @@
  * limitations under the License.
  */
 
+
 package com.scottlogic.datahelix.generator.core.generation.string.iterators;
 
-import dk.brics.automaton.Automaton;
-import dk.brics.automaton.State;
+import com.scottlogic.datahelix.generator.core.generation.string.CompiledAutomaton;
+import com.scottlogic.datahelix.generator.core.generation.string.LengthBoundedAutomaton;
 
 import java.util.*;
 
+/**
+ * Iterates the accepted strings of permitted lengths in lexicographic order (a string comes before its extensions),
+ * by a depth first walk that never enters a state from which no such string can be completed.
+ */
 public class FiniteStringAutomatonIterator implements Iterator<String> {
-    private StringBuilder stringBuilder;
+    private final LengthBoundedAutomaton bounded;
+    private final CompiledAutomaton automaton;
+    private char[] characters = new char[16];
+    /**
+     * For each depth of the walk: the state reached, the transition being followed out of it and the offset of the
+     * character being followed within that transition
+     */
+    private int[] states = new int[17];
+    private int[] transitions = new int[17];
+    private int[] offsets = new int[17];
+    private int depth;
     private String nextValue;
-    private Deque<Deque<TransitionIterator>> stateTree;
-    private boolean atAcceptedRootState;
 
-    public FiniteStringAutomatonIterator(Automaton automaton) {
-        stateTree = new ArrayDeque<>();
-        atAcceptedRootState = automaton.getInitialState().isAccept();
-        stateTree.push(getTransitionsStack(automaton.getInitialState()));
-        stringBuilder = new StringBuilder();
-        nextValue = null;
+    public FiniteStringAutomatonIterator(LengthBoundedAutomaton bounded) {
+        this.bounded = bounded;
+        this.automaton = bounded.getAutomaton();
+        if (bounded.isEmpty()) {
+            depth = -1;
+            return;
+        }
+
+        enter(automaton.getInitialState());
+        if (bounded.acceptsAt(0, automaton.getInitialState())) {
+            nextValue = "";
+        }
     }
 
-    private Deque<TransitionIterator> getTransitionsStack(State state) {
-        Deque<TransitionIterator> transitions = new ArrayDeque<>();
-        state
-            .getSortedTransitions(true)
-            .iterator()
-            .forEachRemaining(transition -> transitions.addLast(new TransitionIterator(transition)));
-        return transitions;
+    private void enter(int state) {
+        states[depth] = state;
+        transitions[depth] = automaton.getTransitionStart(state);
+        offsets[depth] = -1;
     }
 
     @Override
     public boolean hasNext() {
-        if (atAcceptedRootState) {
-            atAcceptedRootState = false;
-            nextValue = "";
-        }
-
-        while (true) {
-            if (nextValue != null) {
-                return true;
-            } if (stateTree.isEmpty()) {
-                return false;
-            } else {
-                Deque<TransitionIterator> stateNode = stateTree.peek();
-                if (stateNode.isEmpty()) {
-                    stateTree.pop();
-                    if (stringBuilder.length() != 0) {
-                        stringBuilder.deleteCharAt(stringBuilder.length() - 1);
-                    }
-                } else {
-                    TransitionIterator topTransitionIterator = stateNode.peek();
-
-                    if (topTransitionIterator.hasNext() && !topTransitionIterator.hasTransitions()) {
-                        StringBuilder stringBuilderCopy = new StringBuilder(stringBuilder);
-                        nextValue = stringBuilderCopy.append(topTransitionIterator.next()).toString();
-                    } else if (topTransitionIterator.hasNext() && topTransitionIterator.hasTransitions()) {
-                        stringBuilder.append(topTransitionIterator.next());
-                        stateTree.push(getTransitionsStack(topTransitionIterator.getState()));
+        while (nextValue == null && depth >= 0) {
+            if (!advance()) {
+                depth--;
+                continue;
+            }
 
-                        if (topTransitionIterator.isAccept()) {
-                            topTransitionIterator.markAccept();
-                            nextValue = stringBuilder.toString();
-                        }
-                    } else if (!topTransitionIterator.hasNext()) {
-                        stateNode.pop();
-                    }
-                }
+            int transition = transitions[depth];
+            if (depth == characters.length) {
+                characters = Arrays.copyOf(characters, depth * 2);
+                states = Arrays.copyOf(states, depth * 2 + 1);
+                transitions = Arrays.copyOf(transitions, depth * 2 + 1);
+                offsets = Arrays.copyOf(offsets, depth * 2 + 1);
             }
+            characters[depth] = (char) (automaton.getMinCharacter(transition) + offsets[depth]);
+            depth++;
+            int state = automaton.getDestination(transition);
+            enter(state);
+            if (bounded.acceptsAt(depth, state)) {
+                nextValue = new String(characters, 0, depth);
+            }
+        }
+        return nextValue != null;
+    }
+
+    /**
+     * Moves to the next character out of the state at the current depth whose destination can still finish
+     *
+     * @return false if there is none
+     */
+    private boolean advance() {
+        int state = states[depth];
+        int transition = transitions[depth];
+        int offset = offsets[depth] + 1;
+        while (transition < automaton.getTransitionEnd(state)
+            && (offset >= automaton.getTransitionWidth(transition)
+                || !bounded.canFinish(depth + 1, automaton.getDestination(transition)))) {
+            transition++;
+            offset = 0;
         }
+        transitions[depth] = transition;
+        offsets[depth] = offset;
+        return transition < automaton.getTransitionEnd(state);
     }
 
     @Override
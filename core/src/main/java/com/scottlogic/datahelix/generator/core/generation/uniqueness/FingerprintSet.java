@@ -0,0 +1,298 @@
+/*
+ * Copyright 2019 Scott Logic Ltd
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.scottlogic.datahelix.generator.core.generation.uniqueness;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.LongBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.function.Consumer;
+
+/**
+ * A set of 64-bit fingerprints held outside the Java heap, in an open-addressing hash table with linear probing.
+ * The table is held in direct memory while it fits within the memory budget, and in a memory-mapped temporary file
+ * once it does not, so hundreds of millions of fingerprints need neither a large heap nor that much physical memory.
+ * <p>
+ * Growing the table holds the old and the new table at once, so a direct table is only used while both fit within
+ * the budget together. Mapped tables are not counted, as their pages are backed by the file. A table's memory is
+ * released as soon as it is replaced or the set is closed, rather than when its buffers are garbage collected.
+ *
+ * Not thread safe.
+ */
+public class FingerprintSet implements AutoCloseable {
+    private static final long EMPTY = 0L;
+    private static final int SEGMENT_BITS = 24;
+    private static final long INITIAL_CAPACITY = 1L << 16;
+
+    private final long memoryBudgetBytes;
+    private final Path spillDirectory;
+
+    private Table table;
+    private boolean containsEmpty;
+    private long size;
+
+    public FingerprintSet(long memoryBudgetBytes, Path spillDirectory) {
+        this.memoryBudgetBytes = memoryBudgetBytes;
+        this.spillDirectory = spillDirectory;
+        this.table = allocate(INITIAL_CAPACITY, 0);
+    }
+
+    public boolean contains(long fingerprint) {
+        if (fingerprint == EMPTY) {
+            return containsEmpty;
+        }
+        return table.get(findSlot(table, fingerprint)) == fingerprint;
+    }
+
+    /**
+     * @return true if the fingerprint was added, false if the set already contained it
+     */
+    public boolean add(long fingerprint) {
+        if (fingerprint == EMPTY) {
+            boolean added = !containsEmpty;
+            containsEmpty = true;
+            size += added ? 1 : 0;
+            return added;
+        }
+
+        long slot = findSlot(table, fingerprint);
+        if (table.get(slot) == fingerprint) {
+            return false;
+        }
+
+        table.set(slot, fingerprint);
+        size++;
+        if (size > table.capacity >>> 1) {
+            grow();
+        }
+        return true;
+    }
+
+    public long size() {
+        return size;
+    }
+
+    public boolean isSpilled() {
+        return table.channel != null;
+    }
+
+    @Override
+    public void close() {
+        table.close();
+    }
+
+    private void grow() {
+        Table grown = allocate(table.capacity << 1, table.directBytes());
+        for (long slot = 0; slot < table.capacity; slot++) {
+            long fingerprint = table.get(slot);
+            if (fingerprint != EMPTY) {
+                grown.set(findSlot(grown, fingerprint), fingerprint);
+            }
+        }
+        table.close();
+        table = grown;
+    }
+
+    private static long findSlot(Table table, long fingerprint) {
+        long slot = (fingerprint ^ (fingerprint >>> 32)) & table.mask;
+        long stored;
+        while ((stored = table.get(slot)) != EMPTY && stored != fingerprint) {
+            slot = (slot + 1) & table.mask;
+        }
+        return slot;
+    }
+
+    /**
+     * @param heldDirectBytes the direct memory that will still be held alongside the new table
+     */
+    private Table allocate(long capacity, long heldDirectBytes) {
+        if (capacity * Long.BYTES <= memoryBudgetBytes - heldDirectBytes) {
+            try {
+                return Table.direct(capacity);
+            } catch (OutOfMemoryError e) {
+                // direct memory is exhausted; fall back to a file as if over budget
+            }
+        }
+        return Table.mapped(capacity, spillDirectory);
+    }
+
+    private static class Table {
+        private final ByteBuffer[] buffers;
+        private final LongBuffer[] segments;
+        private final long capacity;
+        private final long mask;
+        private final int segmentMask;
+        private final FileChannel channel;
+        private boolean closed;
+
+        private Table(ByteBuffer[] buffers, long capacity, FileChannel channel) {
+            this.buffers = buffers;
+            this.segments = new LongBuffer[buffers.length];
+            for (int i = 0; i < buffers.length; i++) {
+                segments[i] = buffers[i].order(ByteOrder.nativeOrder()).asLongBuffer();
+            }
+            this.capacity = capacity;
+            this.mask = capacity - 1;
+            this.segmentMask = (int) Math.min(capacity, 1L << SEGMENT_BITS) - 1;
+            this.channel = channel;
+        }
+
+        static Table direct(long capacity) {
+            ByteBuffer[] buffers = new ByteBuffer[segmentCount(capacity)];
+            int segmentBytes = segmentSize(capacity) * Long.BYTES;
+            try {
+                for (int i = 0; i < buffers.length; i++) {
+                    buffers[i] = ByteBuffer.allocateDirect(segmentBytes);
+                }
+            } catch (OutOfMemoryError e) {
+                release(buffers);
+                throw e;
+            }
+            return new Table(buffers, capacity, null);
+        }
+
+        static Table mapped(long capacity, Path directory) {
+            try {
+                Path file = Files.createTempFile(directory, "datahelix-unique-", ".bin");
+                FileChannel channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE);
+                ByteBuffer[] buffers = new ByteBuffer[segmentCount(capacity)];
+                try {
+                    long segmentBytes = (long) segmentSize(capacity) * Long.BYTES;
+                    for (int i = 0; i < buffers.length; i++) {
+                        buffers[i] = channel.map(FileChannel.MapMode.READ_WRITE, i * segmentBytes, segmentBytes);
+                    }
+                    return new Table(buffers, capacity, channel);
+                } catch (IOException | RuntimeException | Error e) {
+                    release(buffers);
+                    channel.close();
+                    throw e;
+                } finally {
+                    deleteWhenUnused(file);
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException("Unable to spill unique combinations to " + directory, e);
+            }
+        }
+
+        long get(long slot) {
+            return segments[(int) (slot >>> SEGMENT_BITS)].get((int) slot & segmentMask);
+        }
+
+        void set(long slot, long value) {
+            segments[(int) (slot >>> SEGMENT_BITS)].put((int) slot & segmentMask, value);
+        }
+
+        long directBytes() {
+            return channel == null ? capacity * Long.BYTES : 0;
+        }
+
+        void close() {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            release(buffers);
+            if (channel == null) {
+                return;
+            }
+            try {
+                channel.close();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        private static void release(ByteBuffer[] buffers) {
+            for (ByteBuffer buffer : buffers) {
+                if (buffer != null) {
+                    BufferRelease.release(buffer);
+                }
+            }
+        }
+
+        private static int segmentSize(long capacity) {
+            return (int) Math.min(capacity, 1L << SEGMENT_BITS);
+        }
+
+        private static int segmentCount(long capacity) {
+            return (int) (capacity / segmentSize(capacity));
+        }
+
+        private static void deleteWhenUnused(Path file) {
+            // mappings outlive the directory entry where the platform allows it to be removed while open
+            try {
+                Files.delete(file);
+            } catch (IOException e) {
+                file.toFile().deleteOnExit();
+            }
+        }
+    }
+
+    /**
+     * Frees the memory behind a direct or mapped buffer straight away. The buffer must not be used afterwards.
+     */
+    private static final class BufferRelease {
+        private static final Consumer<ByteBuffer> RELEASE = findRelease();
+
+        private BufferRelease() {
+        }
+
+        static void release(ByteBuffer buffer) {
+            try {
+                RELEASE.accept(buffer);
+            } catch (RuntimeException e) {
+                // the buffer is left for the garbage collector to free
+            }
+        }
+
+        private static Consumer<ByteBuffer> findRelease() {
+            try {
+                // Java 9 and later
+                Class<?> unsafeClass = Class.forName("sun.misc.Unsafe");
+                Method invokeCleaner = unsafeClass.getMethod("invokeCleaner", ByteBuffer.class);
+                Field theUnsafe = unsafeClass.getDeclaredField("theUnsafe");
+                theUnsafe.setAccessible(true);
+                Object unsafe = theUnsafe.get(null);
+                return buffer -> invoke(invokeCleaner, unsafe, buffer);
+            } catch (ReflectiveOperationException | RuntimeException e) {
+                // fall through to the Java 8 cleaner
+            }
+            try {
+                Method cleaner = Class.forName("sun.nio.ch.DirectBuffer").getMethod("cleaner");
+                Method clean = Class.forName("sun.misc.Cleaner").getMethod("clean");
+                return buffer -> invoke(clean, invoke(cleaner, buffer));
+            } catch (ReflectiveOperationException | RuntimeException e) {
+                return buffer -> { };
+            }
+        }
+
+        private static Object invoke(Method method, Object target, Object... arguments) {
+            try {
+                return method.invoke(target, arguments);
+            } catch (ReflectiveOperationException e) {
+                throw new IllegalStateException("Unable to release buffer", e);
+            }
+        }
+    }
+}
@@ -17,36 +17,69 @@
 package com.scottlogic.datahelix.generator.core.guice;
 
 import com.google.inject.Inject;
+import com.google.inject.Injector;
 import com.google.inject.Provider;
 import com.google.inject.name.Named;
+import com.scottlogic.datahelix.generator.core.config.detail.DataGenerationType;
 import com.scottlogic.datahelix.generator.core.config.detail.MonitorType;
 import com.scottlogic.datahelix.generator.core.generation.*;
 
 import javax.annotation.Nullable;
+import java.nio.file.Paths;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 
 public class DataGeneratorProvider implements Provider<DataGenerator> {
-    private final DataGenerator coreGenerator;
+    private static final long MAX_CONSECUTIVE_DUPLICATES = 100_000;
+
+    private final Injector injector;
+    private final long seed;
     private final Long maxRows;
     private final MonitorType monitorType;
     private final DataGeneratorMonitor monitor;
+    private final DataGenerationType generationType;
+    private final int shards;
+    private final int uniqueCombinationsMemory;
 
     @Inject
     public DataGeneratorProvider(
-        DecisionTreeDataGenerator coreGenerator,
+        Injector injector,
+        @Named("config:seed") long seed,
         @Nullable @Named("config:maxRows") Long maxRows,
         MonitorType monitorType,
-        DataGeneratorMonitor monitor) {
-        this.coreGenerator = coreGenerator;
+        DataGeneratorMonitor monitor,
+        DataGenerationType generationType,
+        @Named("config:shards") int shards,
+        @Named("config:uniqueCombinationsMemory") int uniqueCombinationsMemory) {
+        this.injector = injector;
+        this.seed = seed;
         this.maxRows = maxRows;
         this.monitorType = monitorType;
         this.monitor = monitor;
+        this.generationType = generationType;
+        this.shards = shards;
+        this.uniqueCombinationsMemory = uniqueCombinationsMemory;
     }
 
     @Override
     public DataGenerator get() {
+        DataGenerator coreGenerator = generationType == DataGenerationType.RANDOM && shards > 1
+            ? new ShardedDataGenerator(createRandomShards())
+            : createShard(seed);
+
+        // an exhausted set of combinations would otherwise leave a random stream searching for a new one forever
+        DataGenerator uniqueGenerator = new UniqueCombinationsDataGenerator(
+            coreGenerator,
+            uniqueCombinationsMemory * 1024L * 1024L,
+            Paths.get(System.getProperty("java.io.tmpdir")),
+            generationType == DataGenerationType.RANDOM ? MAX_CONSECUTIVE_DUPLICATES : Long.MAX_VALUE,
+            monitor);
+
         DataGenerator limitingGenerator = maxRows == null
-            ? coreGenerator
-            : new LimitingDataGenerator(coreGenerator, maxRows);
+            ? uniqueGenerator
+            : new LimitingDataGenerator(uniqueGenerator, maxRows);
 
         if (monitorType == MonitorType.QUIET){
             return limitingGenerator;
@@ -56,4 +89,18 @@ public class DataGeneratorProvider implements Provider<DataGenerator> {
             limitingGenerator,
             monitor);
     }
+
+    private List<DataGenerator> createRandomShards() {
+        // consecutive seeds give java.util.Random streams that start out correlated, so the shard seeds are mixed
+        SplittableRandom shardSeeds = new SplittableRandom(seed);
+        return IntStream.range(0, shards)
+            .mapToObj(shardIndex -> createShard(shardSeeds.nextLong()))
+            .collect(Collectors.toList());
+    }
+
+    private DataGenerator createShard(long shardSeed) {
+        // each shard is built in its own child injector, so everything in it draws from the generator seeded here
+        return injector.createChildInjector(new ShardModule(shardSeed))
+            .getInstance(DecisionTreeDataGenerator.class);
+    }
 }
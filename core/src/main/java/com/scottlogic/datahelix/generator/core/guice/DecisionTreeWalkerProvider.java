@@ -18,32 +18,56 @@ package com.scottlogic.datahelix.generator.core.guice;
 
 import com.google.inject.Inject;
 import com.google.inject.Provider;
+import com.google.inject.name.Named;
 import com.scottlogic.datahelix.generator.core.config.detail.DataGenerationType;
 import com.scottlogic.datahelix.generator.core.generation.GenerationConfigSource;
 import com.scottlogic.datahelix.generator.core.walker.DecisionTreeWalker;
+import com.scottlogic.datahelix.generator.core.walker.ParallelDecisionTreeWalker;
 import com.scottlogic.datahelix.generator.core.walker.rowspec.RandomRowSpecDecisionTreeWalker;
 import com.scottlogic.datahelix.generator.core.walker.rowspec.RowSpecDecisionTreeWalker;
 
 public class DecisionTreeWalkerProvider implements Provider<DecisionTreeWalker> {
     private final RowSpecDecisionTreeWalker rowSpecDecisionTreeWalker;
-    private final RandomRowSpecDecisionTreeWalker randomRowSpecDecisionTreeWalker;
+    private final Provider<RandomRowSpecDecisionTreeWalker> randomRowSpecDecisionTreeWalkerProvider;
     private final GenerationConfigSource configSource;
+    private final int threads;
+    private final int shards;
 
     @Inject
     public DecisionTreeWalkerProvider(
         RowSpecDecisionTreeWalker rowSpecDecisionTreeWalker,
-        RandomRowSpecDecisionTreeWalker randomRowSpecDecisionTreeWalker,
-        GenerationConfigSource configSource) {
+        Provider<RandomRowSpecDecisionTreeWalker> randomRowSpecDecisionTreeWalkerProvider,
+        GenerationConfigSource configSource,
+        @Named("config:threads") int threads,
+        @Named("config:shards") int shards) {
         this.rowSpecDecisionTreeWalker = rowSpecDecisionTreeWalker;
-        this.randomRowSpecDecisionTreeWalker = randomRowSpecDecisionTreeWalker;
+        this.randomRowSpecDecisionTreeWalkerProvider = randomRowSpecDecisionTreeWalkerProvider;
         this.configSource = configSource;
+        this.threads = threads;
+        this.shards = shards;
     }
 
     @Override
     public DecisionTreeWalker get() {
+        DecisionTreeWalker walker = getUnderlyingWalker();
+
+        // when sharding, each shard already runs on its own thread and its partitions share its random number
+        // generator, so partitions are not walked in parallel as well
+        if (threads > 1 && !isSharded()) {
+            return new ParallelDecisionTreeWalker(walker, threads);
+        }
+
+        return walker;
+    }
+
+    private DecisionTreeWalker getUnderlyingWalker() {
         if (configSource.getGenerationType() == DataGenerationType.RANDOM)
-            return randomRowSpecDecisionTreeWalker;
+            return randomRowSpecDecisionTreeWalkerProvider.get();
 
         return rowSpecDecisionTreeWalker;
     }
+
+    private boolean isSharded() {
+        return configSource.getGenerationType() == DataGenerationType.RANDOM && shards > 1;
+    }
 }
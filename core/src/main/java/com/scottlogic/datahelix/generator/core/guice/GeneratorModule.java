@@ -25,9 +25,8 @@ import com.scottlogic.datahelix.generator.core.config.detail.DataGenerationType;
 import com.scottlogic.datahelix.generator.core.config.detail.MonitorType;
 import com.scottlogic.datahelix.generator.core.generation.*;
 import com.scottlogic.datahelix.generator.core.generation.combinationstrategies.CombinationStrategy;
-import com.scottlogic.datahelix.generator.core.utils.JavaUtilRandomNumberGenerator;
-import com.scottlogic.datahelix.generator.core.walker.DecisionTreeWalker;
-import com.scottlogic.datahelix.generator.core.walker.decisionbased.OptionPicker;
+import com.scottlogic.datahelix.generator.core.walker.decisionbased.NoGoodCache;
+import com.scottlogic.datahelix.generator.core.walker.pruner.TreePruner;
 
 import java.time.OffsetDateTime;
 
@@ -50,10 +49,9 @@ public class GeneratorModule extends AbstractModule {
         bind(GenerationConfigSource.class).toInstance(generationConfigSource);
 
         // Bind providers - used to retrieve implementations based on user input
-        bind(DecisionTreeWalker.class).toProvider(DecisionTreeWalkerProvider.class);
         bind(AbstractDataGeneratorMonitor.class).toProvider(MonitorProvider.class).in(Singleton.class);
         bind(CombinationStrategy.class).toProvider(CombinationStrategyProvider.class);
-        bind(OptionPicker.class).toProvider(OptionPickerProvider.class);
+        // the tree walker, option picker and random number generator are bound for each shard by ShardModule
 
         // bind config directly
         bind(DataGenerationType.class).toInstance(generationConfigSource.getGenerationType());
@@ -66,12 +64,32 @@ public class GeneratorModule extends AbstractModule {
         bind(MonitorType.class)
             .toInstance(generationConfigSource.getMonitorType());
 
+        bind(int.class)
+            .annotatedWith(Names.named("config:threads"))
+            .toInstance(generationConfigSource.getThreads());
+
+        bind(int.class)
+            .annotatedWith(Names.named("config:shards"))
+            .toInstance(generationConfigSource.getShards());
+
+        bind(boolean.class)
+            .annotatedWith(Names.named("config:shuffleUnique"))
+            .toInstance(generationConfigSource.getShuffleUnique());
+
+        bind(int.class)
+            .annotatedWith(Names.named("config:uniqueCombinationsMemory"))
+            .toInstance(generationConfigSource.getUniqueCombinationsMemory());
+
         // Bind known implementations - no user input required
         bind(DataGeneratorMonitor.class).to(AbstractDataGeneratorMonitor.class);
         bind(DataGenerator.class).toProvider(DataGeneratorProvider.class);
+        // shared so every walk reuses the same prune and no-good caches
+        bind(TreePruner.class).in(Singleton.class);
+        bind(NoGoodCache.class).in(Singleton.class);
 
-        bind(JavaUtilRandomNumberGenerator.class)
-            .toInstance(new JavaUtilRandomNumberGenerator(OffsetDateTime.now().getNano()));
+        bind(long.class)
+            .annotatedWith(Names.named("config:seed"))
+            .toInstance(getSeed(generationConfigSource));
         bind(int.class)
             .annotatedWith(Names.named("config:internalRandomRowSpecStorage"))
             .toInstance(256);
@@ -85,6 +103,14 @@ public class GeneratorModule extends AbstractModule {
             : requestedMaxRows;
     }
 
+    private static long getSeed(GenerationConfigSource generationConfigSource) {
+        Long requestedSeed = generationConfigSource.getSeed();
+
+        return requestedSeed == null
+            ? OffsetDateTime.now().getNano()
+            : requestedSeed;
+    }
+
     private static Long getDefaultMaxRows(GenerationConfigSource generationConfigSource) {
         if (generationConfigSource.getInfiniteOutput()){
             return null;
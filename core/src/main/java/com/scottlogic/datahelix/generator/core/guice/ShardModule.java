@@ -0,0 +1,43 @@
+/*
+ * Copyright 2019 Scott Logic Ltd
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.scottlogic.datahelix.generator.core.guice;
+
+import com.google.inject.AbstractModule;
+import com.scottlogic.datahelix.generator.core.utils.JavaUtilRandomNumberGenerator;
+import com.scottlogic.datahelix.generator.core.walker.DecisionTreeWalker;
+import com.scottlogic.datahelix.generator.core.walker.decisionbased.OptionPicker;
+
+/**
+ * Bindings for one generator of a run, installed in a child injector by {@link DataGeneratorProvider}.
+ *
+ * Every object that draws random numbers is created in the child injector, so it is given the random number generator
+ * seeded for this shard rather than one shared with the other shards.
+ */
+public class ShardModule extends AbstractModule {
+    private final long seed;
+
+    public ShardModule(long seed) {
+        this.seed = seed;
+    }
+
+    @Override
+    protected void configure() {
+        bind(JavaUtilRandomNumberGenerator.class).toInstance(new JavaUtilRandomNumberGenerator(seed));
+        bind(DecisionTreeWalker.class).toProvider(DecisionTreeWalkerProvider.class);
+        bind(OptionPicker.class).toProvider(OptionPickerProvider.class);
+    }
+}
@@ -24,6 +24,7 @@ import com.scottlogic.datahelix.generator.core.restrictions.linear.LinearRestric
 import com.scottlogic.datahelix.generator.core.utils.GeneratorDefaults;
 
 import java.time.LocalTime;
+import java.util.Objects;
 
 public class AfterConstantTimeConstraint implements AtomicConstraint {
     public final Field field;
@@ -51,4 +52,17 @@ public class AfterConstantTimeConstraint implements AtomicConstraint {
             LinearRestrictionsFactory.createTimeRestrictions(min, GeneratorDefaults.TIME_MAX_LIMIT);
         return FieldSpecFactory.fromRestriction(timeRestrictions);
     }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        AfterConstantTimeConstraint constraint = (AfterConstantTimeConstraint) o;
+        return Objects.equals(field, constraint.field) && Objects.equals(referenceValue, constraint.referenceValue);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(field, referenceValue);
+    }
 }
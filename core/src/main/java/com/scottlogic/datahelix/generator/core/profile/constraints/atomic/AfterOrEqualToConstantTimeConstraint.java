@@ -24,6 +24,7 @@ import com.scottlogic.datahelix.generator.core.restrictions.linear.LinearRestric
 import com.scottlogic.datahelix.generator.core.utils.GeneratorDefaults;
 
 import java.time.LocalTime;
+import java.util.Objects;
 
 public class AfterOrEqualToConstantTimeConstraint implements AtomicConstraint{
     public final Field field;
@@ -51,4 +52,17 @@ public class AfterOrEqualToConstantTimeConstraint implements AtomicConstraint{
             LinearRestrictionsFactory.createTimeRestrictions(min, GeneratorDefaults.TIME_MAX_LIMIT);
         return FieldSpecFactory.fromRestriction(timeRestrictions);
     }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        AfterOrEqualToConstantTimeConstraint constraint = (AfterOrEqualToConstantTimeConstraint) o;
+        return Objects.equals(field, constraint.field) && Objects.equals(referenceValue, constraint.referenceValue);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(field, referenceValue);
+    }
 }
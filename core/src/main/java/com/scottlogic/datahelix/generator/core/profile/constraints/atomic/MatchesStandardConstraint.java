@@ -81,7 +81,7 @@ public class MatchesStandardConstraint implements AtomicConstraint {
 
     @Override
     public int hashCode(){
-        return Objects.hash(field, standard);
+        return Objects.hash(field, standard.name());
     }
 }
 
@@ -41,9 +41,12 @@ public class ConstraintReducer {
     }
 
     public Optional<RowSpec> reduceConstraintsToRowSpec(Fields fields, ConstraintNode node) {
-        Set<AtomicConstraint> constraints = node.getAtomicConstraints();
-        Set<FieldSpecRelation> relations = node.getRelations();
+        return reduceConstraintsToRowSpec(fields, node.getAtomicConstraints(), node.getRelations());
+    }
 
+    public Optional<RowSpec> reduceConstraintsToRowSpec(Fields fields,
+                                                        Collection<AtomicConstraint> constraints,
+                                                        Collection<FieldSpecRelation> relations) {
         final Map<Field, Set<AtomicConstraint>> fieldToConstraints = constraints.stream()
             .collect(
                 Collectors.groupingBy(
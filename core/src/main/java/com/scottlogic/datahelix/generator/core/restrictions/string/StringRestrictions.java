@@ -18,6 +18,7 @@ package com.scottlogic.datahelix.generator.core.restrictions.string;
 
 import com.scottlogic.datahelix.generator.common.SetUtils;
 import com.scottlogic.datahelix.generator.core.generation.fieldvaluesources.FieldValueSource;
+import com.scottlogic.datahelix.generator.core.generation.string.StringLengths;
 import com.scottlogic.datahelix.generator.core.generation.string.generators.FakerGenerator;
 import com.scottlogic.datahelix.generator.core.generation.string.generators.NoStringsStringGenerator;
 import com.scottlogic.datahelix.generator.core.generation.string.generators.RegexStringGenerator;
@@ -28,7 +29,6 @@ import java.util.*;
 import java.util.function.Function;
 import java.util.regex.Pattern;
 import java.util.stream.Collectors;
-import java.util.stream.IntStream;
 import java.util.stream.Stream;
 
 public class StringRestrictions implements TypedRestrictions<String>
@@ -41,6 +41,11 @@ public class StringRestrictions implements TypedRestrictions<String>
     private final Set<Pattern> notMatchingRegex;
     private final Set<Pattern> notContainingRegex;
     private StringGenerator generator;
+    /**
+     * The intersection of the regex restrictions only, kept so that merging restrictions intersects the two patterns
+     * rather than every regex again; null until created, or if there are no regex restrictions
+     */
+    private StringGenerator patternGenerator;
     private String fakerSpec;
 
     public StringRestrictions(
@@ -111,12 +116,33 @@ public class StringRestrictions implements TypedRestrictions<String>
             SetUtils.union(notContainingRegex, other.notContainingRegex),
             combineFaker(fakerSpec, other.fakerSpec)
         );
+        merged.patternGenerator = mergePatternGenerators(other);
 
         return merged.isContradictory()
             ? Optional.empty()
             : Optional.of(merged);
     }
 
+    private StringGenerator mergePatternGenerators(StringRestrictions other) {
+        if (other.hasOnlyPatternsOf(this)) {
+            return getPatternGenerator();
+        }
+        if (hasOnlyPatternsOf(other)) {
+            return other.getPatternGenerator();
+        }
+        return getPatternGenerator().intersect(other.getPatternGenerator());
+    }
+
+    /**
+     * @return whether every regex restriction of this is also one of the other's
+     */
+    private boolean hasOnlyPatternsOf(StringRestrictions other) {
+        return other.matchingRegex.containsAll(matchingRegex)
+            && other.containingRegex.containsAll(containingRegex)
+            && other.notMatchingRegex.containsAll(notMatchingRegex)
+            && other.notContainingRegex.containsAll(notContainingRegex);
+    }
+
     private <T> boolean permittedFunctions(T left, T right) {
         if (left != null && right != null) {
             return left.equals(right);
@@ -190,29 +216,45 @@ public class StringRestrictions implements TypedRestrictions<String>
             return generator;
         }
 
-        int minLength = this.minLength != null ? this.minLength : 0;
+        StringLengths lengths = StringLengths.of(minLength != null ? minLength : 0, maxLength, excludedLengths);
 
         //detect contradictions
-        if (maxLength != null && (minLength > maxLength
-            || allLengthsAreExcluded(minLength, maxLength, excludedLengths))) {
+        if (!lengths.permitsAny()) {
             return generator = new NoStringsStringGenerator("Lengths are contradictory");
         }
 
-        //produce a regex, and a generator for it, that can produce ANY string within the given bounds
-        //emits /.{&lt;shortest&gt;,&lt;longest&gt;}/
-        //can also emit /.{&lt;0&gt;,&lt;5&gt;}|.{&lt;7&gt;,&lt;255&gt;}/ if 6 is an excluded length
-        StringGenerator lengthConstrainingGenerator = minLength == 0 && maxLength == null && excludedLengths.isEmpty()
-            ? null
-            : new RegexStringGenerator(
-                createStringLengthRestrictionRegex(minLength, maxLength),
-                true);
-
-        //combine (merge/intersect) each non-length related constraint to produce a single string generator
-        //e.g. would combine /[a-z]{0,9}/ with /.{0,255}/ (lengthConstrainingGenerator) to produce a single generator
-        //that looks like /[a-z]{0,9} ∩ .{0,255}/, which is equivalent to /[a-z]{0,9}/
-        StringGenerator localGenerator = getPatternConstraints()
+        StringGenerator patternGenerator = getPatternGenerator();
+        if (lengths.isUnrestricted()) {
+            return generator = patternGenerator;
+        }
+
+        //lengths are carried by the generator and honoured as it walks the pattern, rather than built into an automaton,
+        //so /[a-z]{0,9}/ with lengths 0 to 255 walks the automaton for /[a-z]{0,9}/ stopping at 255 characters
+        //the generator is described by a regex for the lengths, /.{&lt;shortest&gt;,&lt;longest&gt;}/
+        //or /.{&lt;0&gt;,&lt;5&gt;}|.{&lt;7&gt;,&lt;255&gt;}/ if 6 is an excluded length
+        StringGenerator lengthConstrainingGenerator = RegexStringGenerator.forLengths(
+            createStringLengthRestrictionRegex(lengths),
+            lengths);
+
+        return generator = patternGenerator == null
+            ? lengthConstrainingGenerator
+            : lengthConstrainingGenerator.intersect(patternGenerator);
+    }
+
+    /**
+     * Create (once) a StringGenerator for the intersection of every regex restriction in this type
+     *
+     * @return the generator, or null if there are no regex restrictions
+     */
+    private StringGenerator getPatternGenerator() {
+        if (patternGenerator != null) {
+            return patternGenerator;
+        }
+
+        //combine (merge/intersect) each regex constraint to produce a single string generator
+        return patternGenerator = getPatternConstraints()
             .reduce(
-                lengthConstrainingGenerator,
+                null,
                 (prev, current) -> {
                     if (prev == null){
                         return current;
@@ -225,27 +267,6 @@ public class StringRestrictions implements TypedRestrictions<String>
                     return prev.intersect(current);
                 },
                 (a, b) -> null);
-        return generator = localGenerator;
-    }
-
-    /**
-     * Detect if the list of excluded lengths represents all possible string-lengths that could be produced
-     *
-     * @param minLength The minimum string length
-     * @param maxLength The maximum string length if one is defined, will always return false if this is null
-     * @param excludedLengths The set of excluded lengths
-     * @return Whether excludedLengths represents all possible string lengths, and therefore no strings could be created
-     */
-    private static boolean allLengthsAreExcluded(int minLength, Integer maxLength, Set<Integer> excludedLengths) {
-        if (maxLength == null){
-            return false; //cannot determine for unbounded lengths
-        }
-
-        long permittedLengths = IntStream.range(minLength, maxLength + 1)
-            .filter(length -> !excludedLengths.contains(length))
-            .count();
-
-        return permittedLengths == 0;
     }
 
     /**
@@ -279,79 +300,40 @@ public class StringRestrictions implements TypedRestrictions<String>
     /**
      * Produce a regular expression that permits any character, but restricts the length of the generated string
      * Will either:
-     * 1. Return a regex like /.{nnn}/ where nnn is the defined length constraint, or the shorterThan and longerThan represent the same string length
+     * 1. Return a regex like /.{nnn}/ where nnn is the only permitted length
      * 2. Return a regex like /.{aaa,bbb}/ where aaa is the shortest length and bbb is the longest length
      * 3. Return a regex like /.{0,aaa}|.{bbb,ccc}/ where
      *      aaa is the last length before an excluded length
      *      bbb is the first length after the previously excluded length
      *      ccc is the appropriate maximum length for the string
      *
-     * @param minLength the minimum length for the string
-     * @param maxLength the maximum length for the string
+     * @param lengths the permitted lengths, at least one of which must be permitted
      */
-    private String createStringLengthRestrictionRegex(int minLength, Integer maxLength) {
-        if (maxLength != null && maxLength.equals(minLength)){
-            return restrictStringLength(minLength);
-        }
-
-        //if there are no excluded lengths, then return a regex that represents the shortest/longest string
-        if (excludedLengths.isEmpty()) {
-            return restrictStringLength(minLength, maxLength);
-        }
-
-        List<Integer> orderedExcludedLengths = excludedLengths.stream().sorted().collect(Collectors.toList()); //ensure the excluded lengths are ordered
+    private static String createStringLengthRestrictionRegex(StringLengths lengths) {
         List<String> patterns = new ArrayList<>();
-        Integer lastExcludedLength = null;
-        for (int excludedLength : orderedExcludedLengths) {
-            if ((maxLength != null && excludedLength > maxLength) || excludedLength < minLength){
-                continue; //the excluded length is beyond the permitted length, ignore it
-            }
-            if (maxLength != null && excludedLength == maxLength){
-                maxLength--; //the excluded length is the same as the longest, reduce the max-length
+        int from = lengths.getMin();
+        for (int excludedLength : lengths.getExcluded()) {
+            if (from < excludedLength) {
+                patterns.add(restrictStringLength(from, excludedLength - 1));
             }
-            if (excludedLength == minLength){
-                lastExcludedLength = excludedLength;
-                continue;
-            }
-
-            if (lastExcludedLength == null) {
-                if (minLength < excludedLength - 1) {
-                    patterns.add(String.format(".{%d,%d}", minLength, excludedLength - 1));
-                }
-            } else {
-                patterns.add(String.format(".{%d,%d}", lastExcludedLength + 1, excludedLength - 1));
-            }
-
-            lastExcludedLength = excludedLength;
-        }
-
-        if (patterns.isEmpty()) {
-            //if no lengths have been excluded, i.e. each excluded length is either > maxLength or
-            // the same maxLength -1 (at which point appropriateMaxLength will have been modified)
-            return restrictStringLength(lastExcludedLength != null ? lastExcludedLength + 1 : minLength, maxLength);
-        }
-
-        if (maxLength != null && lastExcludedLength + 1 < maxLength - 1) {
-            patterns.add(String.format(".{%d,%d}", lastExcludedLength + 1, maxLength));
-        } else if (maxLength == null){
-            patterns.add(String.format(".{%d,}", lastExcludedLength + 1));
+            from = excludedLength + 1;
         }
+        patterns.add(restrictStringLength(from, lengths.getMax()));
 
         return String.format(
             patterns.size() == 1 ? "^%s$" : "^(%s)$",
             String.join("|", patterns));
     }
 
-    private String restrictStringLength(int length){
-        return String.format("^.{%d}$", length);
-    }
-
-    private String restrictStringLength(int min, Integer max){
+    private static String restrictStringLength(int min, Integer max){
         if (max == null) {
-            return String.format("^.{%d,}$", min);
+            return String.format(".{%d,}", min);
+        }
+        if (max == min) {
+            return String.format(".{%d}", min);
         }
 
-        return String.format("^.{%d,%d}$", min, max);
+        return String.format(".{%d,%d}", min, max);
     }
 
     @Override
@@ -387,7 +369,7 @@ public class StringRestrictions implements TypedRestrictions<String>
             && matchingRegex.equals(that.matchingRegex)
             && notContainingRegex.equals(that.notContainingRegex)
             && notMatchingRegex.equals(that.notMatchingRegex)
-            && (fakerSpec == null && that.fakerSpec == null) || (fakerSpec != null && fakerSpec.equals(that.fakerSpec));
+            && Objects.equals(fakerSpec, that.fakerSpec);
     }
 
     @Override
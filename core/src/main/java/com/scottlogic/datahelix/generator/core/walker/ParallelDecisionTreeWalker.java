@@ -0,0 +1,50 @@
+/*
+ * Copyright 2019 Scott Logic Ltd
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.scottlogic.datahelix.generator.core.walker;
+
+import com.scottlogic.datahelix.generator.common.util.ConcurrentBufferedIterator;
+import com.scottlogic.datahelix.generator.common.util.DaemonExecutors;
+import com.scottlogic.datahelix.generator.core.decisiontree.DecisionTree;
+import com.scottlogic.datahelix.generator.core.generation.databags.DataBag;
+
+import java.util.concurrent.ExecutorService;
+import java.util.stream.Stream;
+
+/**
+ * Walks each tree on a worker thread, so that independent partitions of a profile are generated concurrently.
+ * Each walk is buffered through its own bounded queue, and the order of the data bags within a walk is preserved.
+ */
+public class ParallelDecisionTreeWalker implements DecisionTreeWalker {
+    static final int PARTITION_QUEUE_SIZE = 1024;
+
+    private final DecisionTreeWalker underlyingWalker;
+    private final ExecutorService executor;
+
+    //created by DecisionTreeWalkerProvider
+    public ParallelDecisionTreeWalker(DecisionTreeWalker underlyingWalker, int threads) {
+        this.underlyingWalker = underlyingWalker;
+        this.executor = DaemonExecutors.newFixedThreadPool(threads, "partition-walker");
+    }
+
+    @Override
+    public Stream<DataBag> walk(DecisionTree tree) {
+        return ConcurrentBufferedIterator.stream(
+            () -> underlyingWalker.walk(tree),
+            executor,
+            PARTITION_QUEUE_SIZE);
+    }
+}
@@ -0,0 +1,195 @@
+/*
+ * Copyright 2019 Scott Logic Ltd
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.scottlogic.datahelix.generator.core.walker.decisionbased;
+
+import com.google.inject.Inject;
+import com.scottlogic.datahelix.generator.common.profile.Field;
+import com.scottlogic.datahelix.generator.common.util.BoundedCache;
+import com.scottlogic.datahelix.generator.core.decisiontree.ConstraintNode;
+import com.scottlogic.datahelix.generator.core.profile.constraints.atomic.AtomicConstraint;
+import com.scottlogic.datahelix.generator.core.reducer.ConstraintReducer;
+
+import java.util.*;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Remembers why options turned out to be contradictory, so later walks can skip them without merging and pruning.
+ * <p>
+ * When an option contradicts the constraints already chosen, the smallest set of chosen atomic constraints that still
+ * contradicts the option on one field is recorded as a no-good for that option. Any later root node containing all of
+ * those constraints cannot accept the option either. Contradictions that only appear once deeper decisions are pruned
+ * are not recorded.
+ * <p>
+ * The outcome of each search is remembered for the option and the root constraints on the option's fields, so an
+ * option that keeps contradicting for reasons the search cannot find is only searched once.
+ */
+public class NoGoodCache {
+    private static final int MAX_OPTIONS = 10_000;
+    private static final int MAX_NO_GOODS_PER_OPTION = 16;
+    private static final int MAX_SEARCHES = 10_000;
+
+    private final ConstraintReducer constraintReducer;
+    private final Map<ConstraintNode, List<Set<AtomicConstraint>>> noGoodsByOption =
+        new LinkedHashMap<ConstraintNode, List<Set<AtomicConstraint>>>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<ConstraintNode, List<Set<AtomicConstraint>>> eldest) {
+                return size() > MAX_OPTIONS;
+            }
+        };
+    private final BoundedCache<ConflictSearch, Optional<Set<AtomicConstraint>>> searches =
+        new BoundedCache<>(MAX_SEARCHES);
+    private final AtomicLong optionsChecked = new AtomicLong();
+    private final AtomicLong optionsSkipped = new AtomicLong();
+    private final AtomicLong noGoodsLearned = new AtomicLong();
+
+    @Inject
+    public NoGoodCache(ConstraintReducer constraintReducer) {
+        this.constraintReducer = constraintReducer;
+    }
+
+    /**
+     * @return true if the option is known to contradict the given root node
+     */
+    public boolean rejects(ConstraintNode rootNode, ConstraintNode option) {
+        optionsChecked.incrementAndGet();
+
+        List<Set<AtomicConstraint>> noGoods;
+        synchronized (noGoodsByOption) {
+            noGoods = noGoodsByOption.get(option);
+        }
+        if (noGoods == null) {
+            return false;
+        }
+
+        Set<AtomicConstraint> rootConstraints = rootNode.getAtomicConstraints();
+        for (Set<AtomicConstraint> noGood : noGoods) {
+            if (rootConstraints.containsAll(noGood)) {
+                optionsSkipped.incrementAndGet();
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Records why an option contradicted the given root node, if the contradiction is between atomic constraints
+     */
+    public void learn(ConstraintNode rootNode, ConstraintNode option) {
+        Optional<Set<AtomicConstraint>> conflict = searches.get(
+            new ConflictSearch(rootNode, option),
+            search -> findMinimalConflict(search.rootConstraints, option));
+        if (!conflict.isPresent()) {
+            return;
+        }
+
+        synchronized (noGoodsByOption) {
+            List<Set<AtomicConstraint>> existing = noGoodsByOption.getOrDefault(option, Collections.emptyList());
+            if (existing.contains(conflict.get())) {
+                return;
+            }
+
+            // lists are replaced rather than modified so readers can use them outside the lock
+            List<Set<AtomicConstraint>> noGoods = new ArrayList<>(existing);
+            if (noGoods.size() == MAX_NO_GOODS_PER_OPTION) {
+                noGoods.remove(0);
+            }
+            noGoods.add(conflict.get());
+            noGoodsByOption.put(option, noGoods);
+        }
+        noGoodsLearned.incrementAndGet();
+    }
+
+    private Optional<Set<AtomicConstraint>> findMinimalConflict(Set<AtomicConstraint> relevantRootConstraints, ConstraintNode option) {
+        Map<Field, List<AtomicConstraint>> optionConstraints = groupByField(option.getAtomicConstraints().stream());
+        Map<Field, List<AtomicConstraint>> rootConstraints = groupByField(relevantRootConstraints.stream());
+
+        for (Map.Entry<Field, List<AtomicConstraint>> fieldConstraints : optionConstraints.entrySet()) {
+            Field field = fieldConstraints.getKey();
+            List<AtomicConstraint> rootFieldConstraints = rootConstraints.getOrDefault(field, Collections.emptyList());
+            if (!contradicts(field, fieldConstraints.getValue(), rootFieldConstraints)) {
+                continue;
+            }
+
+            // drop each root constraint that is not needed for the contradiction
+            List<AtomicConstraint> conflict = new ArrayList<>(rootFieldConstraints);
+            for (AtomicConstraint constraint : rootFieldConstraints) {
+                conflict.remove(constraint);
+                if (!contradicts(field, fieldConstraints.getValue(), conflict)) {
+                    conflict.add(constraint);
+                }
+            }
+            return Optional.of(new HashSet<>(conflict));
+        }
+
+        return Optional.empty();
+    }
+
+    private boolean contradicts(Field field, List<AtomicConstraint> optionConstraints, List<AtomicConstraint> rootConstraints) {
+        List<AtomicConstraint> constraints = new ArrayList<>(optionConstraints);
+        constraints.addAll(rootConstraints);
+        return !constraintReducer.reduceConstraintsToFieldSpec(field, constraints).isPresent();
+    }
+
+    private static Map<Field, List<AtomicConstraint>> groupByField(Stream<AtomicConstraint> constraints) {
+        return constraints.collect(Collectors.groupingBy(AtomicConstraint::getField));
+    }
+
+    /**
+     * An option together with the root node's constraints on the option's fields, which are all a search looks at
+     */
+    private static class ConflictSearch {
+        private final ConstraintNode option;
+        private final Set<AtomicConstraint> rootConstraints;
+        private final int hashCode;
+
+        ConflictSearch(ConstraintNode rootNode, ConstraintNode option) {
+            Set<Field> optionFields = option.getAtomicConstraints().stream()
+                .map(AtomicConstraint::getField)
+                .collect(Collectors.toSet());
+            this.option = option;
+            this.rootConstraints = rootNode.getAtomicConstraints().stream()
+                .filter(constraint -> optionFields.contains(constraint.getField()))
+                .collect(Collectors.toSet());
+            // options are interned, so are compared by identity
+            this.hashCode = 31 * System.identityHashCode(option) + rootConstraints.hashCode();
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (o == null || getClass() != o.getClass()) return false;
+            ConflictSearch that = (ConflictSearch) o;
+            return option == that.option && hashCode == that.hashCode && rootConstraints.equals(that.rootConstraints);
+        }
+
+        @Override
+        public int hashCode() {
+            return hashCode;
+        }
+    }
+
+    @Override
+    public String toString() {
+        return String.format(
+            "%d of %d options skipped, %d no-goods learned",
+            optionsSkipped.get(),
+            optionsChecked.get(),
+            noGoodsLearned.get());
+    }
+}
@@ -41,14 +41,17 @@ public class RowSpecTreeSolver {
     private final ConstraintReducer constraintReducer;
     private final TreePruner treePruner;
     private final OptionPicker optionPicker;
+    private final NoGoodCache noGoodCache;
 
     @Inject
     public RowSpecTreeSolver(ConstraintReducer constraintReducer,
                              TreePruner treePruner,
-                             OptionPicker optionPicker) {
+                             OptionPicker optionPicker,
+                             NoGoodCache noGoodCache) {
         this.constraintReducer = constraintReducer;
         this.treePruner = treePruner;
         this.optionPicker = optionPicker;
+        this.noGoodCache = noGoodCache;
     }
 
     public Stream<RowSpec> createRowSpecs(DecisionTree tree) {
@@ -73,7 +76,14 @@ public class RowSpecTreeSolver {
         ConstraintNode rootWithoutDecision = rootNode.builder().removeDecision(decisionNode).build();
 
         Stream<ConstraintNode> rootOnlyConstraintNodes = optionPicker.streamOptions(decisionNode)
-            .map(option -> combineWithRootNode(rootWithoutDecision, option))
+            .filter(option -> !noGoodCache.rejects(rootWithoutDecision, option))
+            .map(option -> {
+                Merged<ConstraintNode> newNode = combineWithRootNode(rootWithoutDecision, option);
+                if (newNode.isContradictory()) {
+                    noGoodCache.learn(rootWithoutDecision, option);
+                }
+                return newNode;
+            })
             .filter(newNode -> !newNode.isContradictory())
             .map(Merged::get);
 
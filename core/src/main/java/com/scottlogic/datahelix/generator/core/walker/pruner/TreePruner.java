@@ -18,8 +18,10 @@ package com.scottlogic.datahelix.generator.core.walker.pruner;
 
 import com.google.inject.Inject;
 import com.scottlogic.datahelix.generator.common.profile.Field;
+import com.scottlogic.datahelix.generator.common.util.BoundedCache;
 import com.scottlogic.datahelix.generator.core.decisiontree.ConstraintNode;
 import com.scottlogic.datahelix.generator.core.decisiontree.DecisionNode;
+import com.scottlogic.datahelix.generator.core.decisiontree.NodeInterner;
 import com.scottlogic.datahelix.generator.core.fieldspecs.FieldSpec;
 import com.scottlogic.datahelix.generator.core.fieldspecs.FieldSpecHelper;
 import com.scottlogic.datahelix.generator.core.fieldspecs.FieldSpecMerger;
@@ -30,9 +32,12 @@ import com.scottlogic.datahelix.generator.core.reducer.ConstraintReducer;
 import java.util.*;
 
 public class TreePruner {
+    private static final int PRUNE_CACHE_SIZE = 10_000;
+
     private final FieldSpecMerger merger;
     private final ConstraintReducer constraintReducer;
     private final FieldSpecHelper fieldSpecHelper;
+    private final BoundedCache<PruneKey, Merged<ConstraintNode>> pruneCache = new BoundedCache<>(PRUNE_CACHE_SIZE);
 
     @Inject
     public TreePruner(FieldSpecMerger merger, ConstraintReducer constraintReducer, FieldSpecHelper fieldSpecHelper) {
@@ -48,12 +53,31 @@ public class TreePruner {
      * @return A pruned tree if the new tree is valid, Merged.contradictory otherwise
      */
     public Merged<ConstraintNode> pruneConstraintNode(ConstraintNode constraintNode, Field field, DataBagValue value) {
-        Map<Field, FieldSpec> fieldToSpec = new HashMap<>();
-        fieldToSpec.put(field, fieldSpecHelper.getFieldSpecForValue(value));
-        return pruneConstraintNode(constraintNode, fieldToSpec);
+        return pruneConstraintNode(
+            constraintNode,
+            Collections.singletonMap(field, fieldSpecHelper.getFieldSpecForValue(value)));
     }
 
+    /**
+     * Prunes a tree of any branches that are contradictory to the given field specs. Results are memoised, so pruning
+     * the same subtree against equal field specs again returns the previous result.
+     * @param fieldSpecs the field specs to prune for, which must not be changed afterwards as they may be cached
+     */
     public Merged<ConstraintNode> pruneConstraintNode(ConstraintNode constraintNode, Map<Field, FieldSpec> fieldSpecs) {
+        return pruneConstraintNode(constraintNode, new HashedFieldSpecs(fieldSpecs));
+    }
+
+    private Merged<ConstraintNode> pruneConstraintNode(ConstraintNode constraintNode, HashedFieldSpecs fieldSpecs) {
+        return pruneCache.get(
+            new PruneKey(constraintNode, fieldSpecs),
+            key -> prune(key.constraintNode, key.fieldSpecs.fieldSpecs));
+    }
+
+    public BoundedCache<?, ?> getPruneCache() {
+        return pruneCache;
+    }
+
+    private Merged<ConstraintNode> prune(ConstraintNode constraintNode, Map<Field, FieldSpec> fieldSpecs) {
         Merged<Map<Field, FieldSpec>> newFieldSpecs = combineConstraintsWithParent(constraintNode, fieldSpecs);
         if (newFieldSpecs.isContradictory()){
             return Merged.contradictory();
@@ -81,15 +105,17 @@ public class TreePruner {
     private Merged<DecisionNode> pruneDecisionNode(DecisionNode decisionNode,  Map<Field, FieldSpec> fieldSpecs) {
         Set<ConstraintNode> newConstraintNodes = new HashSet<>();
 
+        // every option is pruned against the same field specs, so they are only hashed once
+        HashedFieldSpecs hashedFieldSpecs = new HashedFieldSpecs(fieldSpecs);
         for (ConstraintNode constraintNode : decisionNode.getOptions()) {
-            pruneConstraintNode(constraintNode, fieldSpecs).ifPresent(newConstraintNodes::add);
+            pruneConstraintNode(constraintNode, hashedFieldSpecs).ifPresent(newConstraintNodes::add);
         }
 
         if (newConstraintNodes.isEmpty()) {
             return Merged.contradictory();
         }
 
-        return Merged.of(new DecisionNode(newConstraintNodes));
+        return Merged.of(NodeInterner.intern(new DecisionNode(newConstraintNodes)));
     }
 
     private Merged<Map<Field, FieldSpec>> combineConstraintsWithParent(ConstraintNode constraintNode, Map<Field, FieldSpec> parentFieldSpecs) {
@@ -149,4 +175,50 @@ public class TreePruner {
         map.get(constraint.getField())
             .add(constraint);
     }
+
+    /**
+     * Field specs with their hash code worked out once, however many subtrees are pruned against them
+     */
+    private static class HashedFieldSpecs {
+        private final Map<Field, FieldSpec> fieldSpecs;
+        private final int hashCode;
+
+        HashedFieldSpecs(Map<Field, FieldSpec> fieldSpecs) {
+            this.fieldSpecs = fieldSpecs;
+            this.hashCode = fieldSpecs.hashCode();
+        }
+
+        boolean sameAs(HashedFieldSpecs other) {
+            return this == other || (hashCode == other.hashCode && fieldSpecs.equals(other.fieldSpecs));
+        }
+    }
+
+    /**
+     * Identifies the subtree by identity, as nodes are interned, so neither the subtree nor the field specs are
+     * hashed again when the key is built
+     */
+    private static class PruneKey {
+        private final ConstraintNode constraintNode;
+        private final HashedFieldSpecs fieldSpecs;
+        private final int hashCode;
+
+        PruneKey(ConstraintNode constraintNode, HashedFieldSpecs fieldSpecs) {
+            this.constraintNode = constraintNode;
+            this.fieldSpecs = fieldSpecs;
+            this.hashCode = 31 * System.identityHashCode(constraintNode) + fieldSpecs.hashCode;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (o == null || getClass() != o.getClass()) return false;
+            PruneKey that = (PruneKey) o;
+            return constraintNode == that.constraintNode && fieldSpecs.sameAs(that.fieldSpecs);
+        }
+
+        @Override
+        public int hashCode() {
+            return hashCode;
+        }
+    }
 }
@@ -17,10 +17,14 @@
 package com.scottlogic.datahelix.generator.core.walker.rowspec;
 
 import com.google.inject.Inject;
+import com.scottlogic.datahelix.generator.common.util.BoundedCache;
 import com.scottlogic.datahelix.generator.core.decisiontree.DecisionTree;
+import com.scottlogic.datahelix.generator.core.fieldspecs.FieldSpecMerger;
 import com.scottlogic.datahelix.generator.core.fieldspecs.RowSpec;
 import com.scottlogic.datahelix.generator.core.generation.databags.DataBag;
 import com.scottlogic.datahelix.generator.core.generation.databags.RowSpecDataBagGenerator;
+import com.scottlogic.datahelix.generator.core.generation.databags.RowSpecGenerationPlan;
+import com.scottlogic.datahelix.generator.core.reducer.ConstraintReducer;
 import com.scottlogic.datahelix.generator.core.utils.JavaUtilRandomNumberGenerator;
 import com.scottlogic.datahelix.generator.core.walker.DecisionTreeWalker;
 import com.scottlogic.datahelix.generator.core.walker.decisionbased.RowSpecTreeSolver;
@@ -31,20 +35,28 @@ import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
 public class RandomRowSpecDecisionTreeWalker implements DecisionTreeWalker {
+    private static final int GENERATION_PLAN_CACHE_SIZE = 4096;
+
     private final RowSpecTreeSolver rowSpecTreeSolver;
     private final RowSpecDataBagGenerator rowSpecDataBagGenerator;
     private PotentialRowSpecCount potentialRowSpecCount;
     private final JavaUtilRandomNumberGenerator random;
+    private final ConstraintReducer constraintReducer;
+    private final FieldSpecMerger fieldSpecMerger;
 
     @Inject
     public RandomRowSpecDecisionTreeWalker(RowSpecTreeSolver rowSpecTreeSolver,
                                            RowSpecDataBagGenerator rowSpecDataBagGenerator,
                                            PotentialRowSpecCount potentialRowSpecCount,
-                                           JavaUtilRandomNumberGenerator random) {
+                                           JavaUtilRandomNumberGenerator random,
+                                           ConstraintReducer constraintReducer,
+                                           FieldSpecMerger fieldSpecMerger) {
         this.rowSpecTreeSolver = rowSpecTreeSolver;
         this.rowSpecDataBagGenerator = rowSpecDataBagGenerator;
         this.potentialRowSpecCount = potentialRowSpecCount;
         this.random = random;
+        this.constraintReducer = constraintReducer;
+        this.fieldSpecMerger = fieldSpecMerger;
     }
 
     @Override
@@ -53,13 +65,15 @@ public class RandomRowSpecDecisionTreeWalker implements DecisionTreeWalker {
             return generateWithoutRestarting(tree);
         }
         boolean useCache = potentialRowSpecCount.lessThanMax(tree);
-        Stream<RowSpec> rowSpecStream = useCache  ? getFromCachedRowSpecs(tree): getRowSpecAndRestart(tree);
+        Stream<RowSpecGenerationPlan> planStream = useCache  ? getFromCachedRowSpecs(tree): getFromSampler(tree);
 
-        return rowSpecStream.map(this::createDataBag);
+        return planStream.map(this::createDataBag);
     }
 
-    private Stream<RowSpec> getFromCachedRowSpecs(DecisionTree tree) {
-        List<RowSpec> rowSpecCache = rowSpecTreeSolver.createRowSpecs(tree).collect(Collectors.toList());
+    private Stream<RowSpecGenerationPlan> getFromCachedRowSpecs(DecisionTree tree) {
+        List<RowSpecGenerationPlan> rowSpecCache = rowSpecTreeSolver.createRowSpecs(tree)
+            .map(rowSpecDataBagGenerator::createPlan)
+            .collect(Collectors.toList());
         return Stream.generate(() -> getRandomRowSpec(rowSpecCache));
     }
 
@@ -68,25 +82,32 @@ public class RandomRowSpecDecisionTreeWalker implements DecisionTreeWalker {
         return rowSpecDataBagGenerator.createDataBags(rowSpec);
     }
 
-    private Stream<RowSpec> getRowSpecAndRestart(DecisionTree tree) {
-        Optional<RowSpec> firstRowSpecOpt = getFirstRowSpec(tree);
+    private Stream<RowSpecGenerationPlan> getFromSampler(DecisionTree tree) {
+        RandomRowSpecSampler sampler = new RandomRowSpecSampler(tree, constraintReducer, fieldSpecMerger, random);
+        Optional<RowSpec> firstRowSpecOpt = sampler.sample();
         if (!firstRowSpecOpt.isPresent()) {
             return Stream.empty();
         }
 
-        return Stream.generate(() -> getFirstRowSpec(tree))
-            .map(Optional::get);
+        // the sampler hands back the same row spec instance for the same choices, so plans can be looked up by it
+        BoundedCache<RowSpec, RowSpecGenerationPlan> plans = new BoundedCache<>(GENERATION_PLAN_CACHE_SIZE);
+        return Stream.concat(
+            Stream.of(firstRowSpecOpt.get()),
+            Stream.generate(sampler::sample)
+                .filter(Optional::isPresent)
+                .map(Optional::get))
+            .map(rowSpec -> plans.get(rowSpec, rowSpecDataBagGenerator::createPlan));
     }
 
     private Optional<RowSpec> getFirstRowSpec(DecisionTree tree) {
         return rowSpecTreeSolver.createRowSpecs(tree).findFirst();
     }
 
-    private RowSpec getRandomRowSpec(List<RowSpec> rowSpecCache) {
+    private RowSpecGenerationPlan getRandomRowSpec(List<RowSpecGenerationPlan> rowSpecCache) {
         return rowSpecCache.get(random.nextInt(rowSpecCache.size()));
     }
 
-    private DataBag createDataBag(RowSpec rowSpec) {
-        return rowSpecDataBagGenerator.createDataBags(rowSpec).findFirst().get();
+    private DataBag createDataBag(RowSpecGenerationPlan plan) {
+        return plan.createDataBags().findFirst().get();
     }
 }
@@ -0,0 +1,277 @@
+/*
+ * Copyright 2019 Scott Logic Ltd
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.scottlogic.datahelix.generator.core.walker.rowspec;
+
+import com.scottlogic.datahelix.generator.common.RandomNumberGenerator;
+import com.scottlogic.datahelix.generator.common.profile.Field;
+import com.scottlogic.datahelix.generator.common.profile.Fields;
+import com.scottlogic.datahelix.generator.common.util.BoundedCache;
+import com.scottlogic.datahelix.generator.core.decisiontree.ConstraintNode;
+import com.scottlogic.datahelix.generator.core.decisiontree.DecisionNode;
+import com.scottlogic.datahelix.generator.core.decisiontree.DecisionTree;
+import com.scottlogic.datahelix.generator.core.fieldspecs.FieldSpec;
+import com.scottlogic.datahelix.generator.core.fieldspecs.FieldSpecMerger;
+import com.scottlogic.datahelix.generator.core.fieldspecs.RowSpec;
+import com.scottlogic.datahelix.generator.core.fieldspecs.relations.FieldSpecRelation;
+import com.scottlogic.datahelix.generator.core.profile.constraints.atomic.AtomicConstraint;
+import com.scottlogic.datahelix.generator.core.reducer.ConstraintReducer;
+
+import java.util.*;
+import java.util.stream.Collectors;
+
+/**
+ * Draws random row specs from a decision tree without re-pruning it for every row.
+ * <p>
+ * The tree is compiled once: each constraint node's own atomic constraints are reduced to field specs up front, and
+ * options whose own constraints are contradictory are dropped. Drawing a row spec then picks a random option for each
+ * decision in turn, merging its field specs into those chosen so far and backtracking to another option when they
+ * contradict. The constraints of the chosen nodes are reduced into a row spec at the end.
+ */
+class RandomRowSpecSampler {
+    private static final int ROW_SPEC_CACHE_SIZE = 4096;
+
+    private final Fields fields;
+    private final ConstraintReducer constraintReducer;
+    private final FieldSpecMerger fieldSpecMerger;
+    private final RandomNumberGenerator random;
+    private final CompiledNode root;
+    private final BoundedCache<Set<ConstraintNode>, Optional<RowSpec>> rowSpecs = new BoundedCache<>(ROW_SPEC_CACHE_SIZE);
+
+    RandomRowSpecSampler(DecisionTree tree,
+                         ConstraintReducer constraintReducer,
+                         FieldSpecMerger fieldSpecMerger,
+                         RandomNumberGenerator random) {
+        this.fields = tree.fields;
+        this.constraintReducer = constraintReducer;
+        this.fieldSpecMerger = fieldSpecMerger;
+        this.random = random;
+        this.root = compile(tree.rootNode, new HashMap<>());
+    }
+
+    /**
+     * @return a random row spec consistent with the tree, or empty if the tree cannot produce one. The same choices
+     * give back the same row spec instance while it is cached.
+     */
+    Optional<RowSpec> sample() {
+        if (root == null) {
+            return Optional.empty();
+        }
+
+        SampleState state = new SampleState();
+        state.apply(root);
+        if (!resolve(PendingDecisions.push(null, root.decisions), state)) {
+            return Optional.empty();
+        }
+
+        return state.toRowSpec();
+    }
+
+    private boolean resolve(PendingDecisions pending, SampleState state) {
+        if (pending == null) {
+            return true;
+        }
+
+        CompiledNode[] options = pending.decision.options;
+        int first = random.nextInt(options.length);
+        if (tryOption(options[first], pending.next, state)) {
+            return true;
+        }
+
+        // the first pick contradicted something already chosen; try the rest in a random order
+        int[] remaining = new int[options.length - 1];
+        for (int i = 0, j = 0; i < options.length; i++) {
+            if (i != first) {
+                remaining[j++] = i;
+            }
+        }
+        for (int i = remaining.length; i > 0; i--) {
+            int pick = random.nextInt(i);
+            int option = remaining[pick];
+            remaining[pick] = remaining[i - 1];
+            if (tryOption(options[option], pending.next, state)) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    private boolean tryOption(CompiledNode option, PendingDecisions rest, SampleState state) {
+        int mark = state.mark();
+        if (state.apply(option) && resolve(PendingDecisions.push(rest, option.decisions), state)) {
+            return true;
+        }
+
+        state.undo(mark);
+        return false;
+    }
+
+    /**
+     * @return the compiled node, or null if the node can never be satisfied
+     */
+    private CompiledNode compile(ConstraintNode node, Map<ConstraintNode, Optional<CompiledNode>> compiled) {
+        Optional<CompiledNode> existing = compiled.get(node);
+        if (existing != null) {
+            return existing.orElse(null);
+        }
+
+        CompiledNode result = compileUncached(node, compiled);
+        compiled.put(node, Optional.ofNullable(result));
+        return result;
+    }
+
+    private CompiledNode compileUncached(ConstraintNode node, Map<ConstraintNode, Optional<CompiledNode>> compiled) {
+        Map<Field, List<AtomicConstraint>> constraintsByField = node.getAtomicConstraints().stream()
+            .collect(Collectors.groupingBy(AtomicConstraint::getField));
+
+        Field[] specFields = new Field[constraintsByField.size()];
+        FieldSpec[] specs = new FieldSpec[constraintsByField.size()];
+        int index = 0;
+        for (Map.Entry<Field, List<AtomicConstraint>> entry : constraintsByField.entrySet()) {
+            Optional<FieldSpec> spec = constraintReducer.reduceConstraintsToFieldSpec(entry.getKey(), entry.getValue());
+            if (!spec.isPresent()) {
+                return null;
+            }
+            specFields[index] = entry.getKey();
+            specs[index] = spec.get();
+            index++;
+        }
+
+        CompiledDecision[] decisions = new CompiledDecision[node.getDecisions().size()];
+        index = 0;
+        for (DecisionNode decision : node.getDecisions()) {
+            CompiledNode[] options = decision.getOptions().stream()
+                .map(option -> compile(option, compiled))
+                .filter(Objects::nonNull)
+                .toArray(CompiledNode[]::new);
+            if (options.length == 0) {
+                return null;
+            }
+            decisions[index++] = new CompiledDecision(options);
+        }
+
+        return new CompiledNode(node, specFields, specs, decisions);
+    }
+
+    private static class CompiledNode {
+        private final ConstraintNode node;
+        private final Field[] specFields;
+        private final FieldSpec[] specs;
+        private final CompiledDecision[] decisions;
+
+        CompiledNode(ConstraintNode node, Field[] specFields, FieldSpec[] specs, CompiledDecision[] decisions) {
+            this.node = node;
+            this.specFields = specFields;
+            this.specs = specs;
+            this.decisions = decisions;
+        }
+    }
+
+    private static class CompiledDecision {
+        private final CompiledNode[] options;
+
+        CompiledDecision(CompiledNode[] options) {
+            this.options = options;
+        }
+    }
+
+    /**
+     * An immutable stack of the decisions still to be resolved, so backtracking only has to drop back to an earlier
+     * stack rather than undo changes to it.
+     */
+    private static class PendingDecisions {
+        private final CompiledDecision decision;
+        private final PendingDecisions next;
+
+        private PendingDecisions(CompiledDecision decision, PendingDecisions next) {
+            this.decision = decision;
+            this.next = next;
+        }
+
+        static PendingDecisions push(PendingDecisions stack, CompiledDecision[] decisions) {
+            PendingDecisions result = stack;
+            for (int i = decisions.length - 1; i >= 0; i--) {
+                result = new PendingDecisions(decisions[i], result);
+            }
+            return result;
+        }
+    }
+
+    /**
+     * The field specs and nodes chosen so far, with an undo log so a contradictory choice can be rolled back.
+     */
+    private class SampleState {
+        private final Map<Field, FieldSpec> fieldSpecs = new HashMap<>();
+        private final List<CompiledNode> chosenNodes = new ArrayList<>();
+        private final List<Field> changedFields = new ArrayList<>();
+        private final List<FieldSpec> previousSpecs = new ArrayList<>();
+
+        int mark() {
+            return changedFields.size();
+        }
+
+        boolean apply(CompiledNode node) {
+            chosenNodes.add(node);
+            for (int i = 0; i < node.specFields.length; i++) {
+                Field field = node.specFields[i];
+                FieldSpec previous = fieldSpecs.get(field);
+                FieldSpec next = node.specs[i];
+                if (previous != null) {
+                    Optional<FieldSpec> merged = fieldSpecMerger.merge(previous, next, false);
+                    if (!merged.isPresent()) {
+                        return false;
+                    }
+                    next = merged.get();
+                }
+
+                changedFields.add(field);
+                previousSpecs.add(previous);
+                fieldSpecs.put(field, next);
+            }
+            return true;
+        }
+
+        void undo(int mark) {
+            for (int i = changedFields.size() - 1; i >= mark; i--) {
+                Field field = changedFields.remove(i);
+                FieldSpec previous = previousSpecs.remove(i);
+                if (previous == null) {
+                    fieldSpecs.remove(field);
+                } else {
+                    fieldSpecs.put(field, previous);
+                }
+            }
+            chosenNodes.remove(chosenNodes.size() - 1);
+        }
+
+        Optional<RowSpec> toRowSpec() {
+            Set<ConstraintNode> nodes = chosenNodes.stream().map(chosen -> chosen.node).collect(Collectors.toSet());
+            return rowSpecs.get(nodes, this::reduce);
+        }
+
+        private Optional<RowSpec> reduce(Set<ConstraintNode> nodes) {
+            Set<AtomicConstraint> constraints = new HashSet<>();
+            Set<FieldSpecRelation> relations = new HashSet<>();
+            for (ConstraintNode node : nodes) {
+                constraints.addAll(node.getAtomicConstraints());
+                relations.addAll(node.getRelations());
+            }
+
+            return constraintReducer.reduceConstraintsToRowSpec(fields, constraints, relations);
+        }
+    }
+}
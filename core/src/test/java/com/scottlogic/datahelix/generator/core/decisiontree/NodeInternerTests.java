@@ -0,0 +1,114 @@
+/*
+ * Copyright 2019 Scott Logic Ltd
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.scottlogic.datahelix.generator.core.decisiontree;
+
+import com.scottlogic.datahelix.generator.common.profile.Field;
+import com.scottlogic.datahelix.generator.core.profile.constraints.atomic.AtomicConstraint;
+import com.scottlogic.datahelix.generator.core.profile.constraints.atomic.IsNullConstraint;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static com.scottlogic.datahelix.generator.common.profile.FieldBuilder.createField;
+import static com.scottlogic.datahelix.generator.core.builders.TestConstraintNodeBuilder.constraintNode;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.sameInstance;
+
+class NodeInternerTests {
+    private static final Field A = createField("A");
+    private static final Field B = createField("B");
+
+    @Test
+    void build_structurallyIdenticalConstraintNodes_returnsSameInstance() {
+        ConstraintNode first = constraintNode()
+            .where(A).isInSet("a1", "a2")
+            .withDecision(
+                constraintNode().where(B).isNull(),
+                constraintNode().where(B).isNotNull())
+            .build();
+        ConstraintNode second = constraintNode()
+            .where(A).isInSet("a1", "a2")
+            .withDecision(
+                constraintNode().where(B).isNull(),
+                constraintNode().where(B).isNotNull())
+            .build();
+
+        assertThat(second, sameInstance(first));
+    }
+
+    @Test
+    void build_structurallyDifferentConstraintNodes_returnsDifferentInstances() {
+        ConstraintNode first = constraintNode().where(A).isInSet("a1").build();
+        ConstraintNode second = constraintNode().where(A).isInSet("a2").build();
+
+        assertThat(second, not(sameInstance(first)));
+    }
+
+    @Test
+    void intern_equalDecisionNodes_returnsFirstInstance() {
+        ConstraintNode option = constraintNode().where(A).isNull().build();
+        DecisionNode first = NodeInterner.intern(new DecisionNode(Collections.singleton(option)));
+        DecisionNode second = NodeInterner.intern(new DecisionNode(Collections.singleton(option)));
+
+        assertThat(second, sameInstance(first));
+    }
+
+    @Test
+    void intern_equalAtomicConstraints_returnsFirstInstance() {
+        AtomicConstraint first = NodeInterner.intern(new IsNullConstraint(A));
+        AtomicConstraint second = NodeInterner.intern(new IsNullConstraint(A));
+
+        assertThat(second, sameInstance(first));
+    }
+
+    @Test
+    void intern_equalAtomicConstraintsOnSeveralThreads_returnsOneInstance() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<AtomicConstraint>> results = new ArrayList<>();
+            for (int i = 0; i < 16; i++) {
+                results.add(executor.submit(() -> NodeInterner.intern(new IsNullConstraint(B))));
+            }
+
+            AtomicConstraint first = results.get(0).get();
+            for (Future<AtomicConstraint> result : results) {
+                assertThat(result.get(), sameInstance(first));
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    void markNode_internedDecisionNode_doesNotReplaceUnmarkedNode() {
+        ConstraintNode option = constraintNode().where(B).isNull().build();
+        DecisionNode unmarked = NodeInterner.intern(new DecisionNode(Collections.singleton(option)));
+        unmarked.markNode(NodeMarking.CONTRADICTORY);
+
+        DecisionNode reinterned = NodeInterner.intern(new DecisionNode(Collections.singleton(option)));
+
+        assertThat(reinterned, sameInstance(unmarked));
+        assertThat(reinterned.hasMarking(NodeMarking.CONTRADICTORY), is(false));
+    }
+}
@@ -29,6 +29,7 @@ import com.scottlogic.datahelix.generator.common.whitelist.DistributedList;
 import com.scottlogic.datahelix.generator.core.generation.databags.DataBag;
 import com.scottlogic.datahelix.generator.core.generation.databags.RowSpecDataBagGenerator;
 import com.scottlogic.datahelix.generator.core.reducer.ConstraintReducer;
+import com.scottlogic.datahelix.generator.core.walker.decisionbased.NoGoodCache;
 import com.scottlogic.datahelix.generator.core.walker.decisionbased.RowSpecTreeSolver;
 import com.scottlogic.datahelix.generator.core.walker.decisionbased.SequentialOptionPicker;
 import com.scottlogic.datahelix.generator.core.walker.pruner.TreePruner;
@@ -52,7 +53,8 @@ class RowSpecTreeSolverTests {
     private final RowSpecTreeSolver dTreeWalker = new RowSpecTreeSolver(
         constraintReducer,
         new TreePruner(new FieldSpecMerger(), constraintReducer, new FieldSpecHelper()),
-        new SequentialOptionPicker());
+        new SequentialOptionPicker(),
+        new NoGoodCache(constraintReducer));
 
     private final DecisionTreeFactory dTreeGenerator = new DecisionTreeFactory();
 
@@ -0,0 +1,79 @@
+/*
+ * Copyright 2019 Scott Logic Ltd
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.scottlogic.datahelix.generator.core.fieldspecs;
+
+import com.scottlogic.datahelix.generator.common.whitelist.DistributedList;
+import com.scottlogic.datahelix.generator.common.whitelist.WeightedElement;
+import com.scottlogic.datahelix.generator.core.restrictions.linear.Limit;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static com.scottlogic.datahelix.generator.core.restrictions.linear.LinearRestrictionsFactory.createNumericRestrictions;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+
+class FieldSpecMergerTests {
+    private final FieldSpecMerger merger = new FieldSpecMerger();
+
+    @Test
+    void merge_twoSets_keepsCommonElementsInLeftOrderWithCombinedWeights() {
+        WhitelistFieldSpec left = FieldSpecFactory.fromList(new DistributedList<>(Arrays.asList(
+            new WeightedElement<>("a", 1.0D),
+            new WeightedElement<>("b", 1.0D),
+            new WeightedElement<>("c", 2.0D))));
+        WhitelistFieldSpec right = FieldSpecFactory.fromList(new DistributedList<>(Arrays.asList(
+            new WeightedElement<>("c", 1.0D),
+            new WeightedElement<>("d", 1.0D),
+            new WeightedElement<>("a", 1.0D))));
+
+        WhitelistFieldSpec merged = (WhitelistFieldSpec) merger.merge(left, right, false).get();
+
+        assertThat(merged.getWhitelist().list(), contains("a", "c"));
+        assertThat(merged.getWhitelist().distributedList().get(1).weight(),
+            greaterThan(merged.getWhitelist().distributedList().get(0).weight()));
+    }
+
+    @Test
+    void merge_twoSetsWithNothingInCommon_isNullOnly() {
+        FieldSpec left = FieldSpecFactory.fromList(DistributedList.uniform(Arrays.asList("a", "b")));
+        FieldSpec right = FieldSpecFactory.fromList(DistributedList.uniform(Arrays.asList("c", "d")));
+
+        FieldSpec merged = merger.merge(left, right, false).get();
+
+        assertThat(merged, instanceOf(NullOnlyFieldSpec.class));
+    }
+
+    @Test
+    void merge_largeSetWithRestrictions_keepsPermittedElementsInOrder() {
+        List<Object> values = IntStream.range(0, 100_000)
+            .mapToObj(BigDecimal::valueOf)
+            .collect(Collectors.toList());
+        FieldSpec set = FieldSpecFactory.fromList(DistributedList.uniform(values));
+        FieldSpec restrictions = FieldSpecFactory.fromRestriction(createNumericRestrictions(
+            new Limit<>(BigDecimal.valueOf(90_000), true),
+            new Limit<>(BigDecimal.valueOf(1_000_000), true)));
+
+        WhitelistFieldSpec merged = (WhitelistFieldSpec) merger.merge(set, restrictions, false).get();
+
+        assertThat(merged.getWhitelist().list(), equalTo(values.subList(90_000, 100_000)));
+    }
+}
@@ -29,6 +29,7 @@ import com.scottlogic.datahelix.generator.core.generation.visualiser.Visualiser;
 import com.scottlogic.datahelix.generator.core.generation.visualiser.VisualiserFactory;
 import com.scottlogic.datahelix.generator.core.profile.Profile;
 import com.scottlogic.datahelix.generator.core.walker.DecisionTreeWalker;
+import com.scottlogic.datahelix.generator.core.walker.decisionbased.NoGoodCache;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Nested;
 import org.junit.jupiter.api.Test;
@@ -69,7 +70,8 @@ class DecisionTreeDataGeneratorTests {
             combinationStrategy,
             upfrontTreePruner,
             visualiserFactory,
-            Mockito.mock(RelationshipsDataGenerator.class)
+            Mockito.mock(RelationshipsDataGenerator.class),
+            Mockito.mock(NoGoodCache.class)
         );
     }
 
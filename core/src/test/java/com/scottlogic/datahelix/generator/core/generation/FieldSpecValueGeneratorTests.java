@@ -17,6 +17,7 @@
 package com.scottlogic.datahelix.generator.core.generation;
 
 import com.scottlogic.datahelix.generator.common.profile.Field;
+import com.scottlogic.datahelix.generator.common.profile.NumericGranularity;
 import com.scottlogic.datahelix.generator.common.profile.StandardSpecificFieldType;
 import com.scottlogic.datahelix.generator.common.whitelist.DistributedList;
 import com.scottlogic.datahelix.generator.core.fieldspecs.FieldSpec;
@@ -34,6 +35,7 @@ import org.junit.jupiter.api.Test;
 import java.math.BigDecimal;
 import java.util.Arrays;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Set;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
@@ -43,6 +45,8 @@ import static com.scottlogic.datahelix.generator.core.config.detail.DataGenerati
 import static com.scottlogic.datahelix.generator.core.config.detail.DataGenerationType.RANDOM;
 import static com.shazam.shazamcrest.MatcherAssert.assertThat;
 import static com.shazam.shazamcrest.matcher.Matchers.sameBeanAs;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
 import static org.mockito.Mockito.*;
 
 class FieldSpecValueGeneratorTests {
@@ -97,6 +101,32 @@ class FieldSpecValueGeneratorTests {
         assertThat(result, sameBeanAs(expectedDataBags));
     }
 
+    @Test
+    void generate_uniqueIntegerFieldWithShuffleUnique_returnsEveryValueOnceOutOfOrder() {
+        FieldSpec fieldSpec = FieldSpecFactory.fromRestriction(
+                LinearRestrictionsFactory.createNumericRestrictions(
+                    new Limit<>(new BigDecimal(1), true),
+                    new Limit<>(new BigDecimal(1000), true),
+                    NumericGranularity.INTEGER_DEFAULT))
+            .withNotNull();
+        FieldSpecValueGenerator fieldSpecFulfiller = new FieldSpecValueGenerator(
+            RANDOM,
+            new JavaUtilRandomNumberGenerator(0),
+            true);
+
+        List<Object> result = fieldSpecFulfiller
+            .generateValues(
+                new Field(null, StandardSpecificFieldType.INTEGER.toSpecificFieldType(), true, null, false, false, null),
+                fieldSpec.getFieldValueSource())
+            .collect(Collectors.toList());
+
+        FieldValueSource<?> source = fieldSpec.getFieldValueSource();
+        List<?> sequential = source.generateAllValues().collect(Collectors.toList());
+        assertEquals(1000, result.size());
+        assertEquals(new HashSet<>(sequential), new HashSet<>(result));
+        assertNotEquals(sequential, result);
+    }
+
     @Nested
     class GetDataValuesTests {
         FieldSpec fieldSpec;
@@ -112,6 +142,35 @@ class FieldSpecValueGeneratorTests {
             when(fieldSpec.getFieldValueSource()).thenReturn(fieldValueSource);
             when(fieldValueSource.generateAllValues()).thenReturn(Stream.empty());
             when(fieldValueSource.generateRandomValues(randomNumberGenerator)).thenReturn(Stream.empty());
+            when(fieldValueSource.generateRandomUniqueValues(randomNumberGenerator)).thenReturn(Stream.empty());
+        }
+
+        @Test
+        void generateRandom_uniqueFieldSpecWithShuffleUnique_returnsRandomUniqueValues() {
+            FieldSpecValueGenerator fieldSpecFulfiller = new FieldSpecValueGenerator(
+                RANDOM,
+                randomNumberGenerator,
+                true
+            );
+
+            fieldSpecFulfiller.generate(new Field(null, StandardSpecificFieldType.STRING.toSpecificFieldType(), true, null, false, false, null), fieldSpec).collect(Collectors.toSet());
+
+            verify(fieldValueSource, times(0)).generateAllValues();
+            verify(fieldValueSource, times(1)).generateRandomUniqueValues(randomNumberGenerator);
+        }
+
+        @Test
+        void generateSequential_uniqueFieldSpecWithShuffleUnique_returnsAllValues() {
+            FieldSpecValueGenerator fieldSpecFulfiller = new FieldSpecValueGenerator(
+                FULL_SEQUENTIAL,
+                randomNumberGenerator,
+                true
+            );
+
+            fieldSpecFulfiller.generate(new Field(null, StandardSpecificFieldType.STRING.toSpecificFieldType(), true, null, false, false, null), fieldSpec).collect(Collectors.toSet());
+
+            verify(fieldValueSource, times(1)).generateAllValues();
+            verify(fieldValueSource, times(0)).generateRandomUniqueValues(randomNumberGenerator);
         }
 
         @Test
@@ -0,0 +1,90 @@
+/*
+ * Copyright 2019 Scott Logic Ltd
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.scottlogic.datahelix.generator.core.generation;
+
+import com.scottlogic.datahelix.generator.common.profile.Field;
+import com.scottlogic.datahelix.generator.common.profile.StandardSpecificFieldType;
+import com.scottlogic.datahelix.generator.core.builders.DataBagBuilder;
+import com.scottlogic.datahelix.generator.core.profile.Profile;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static com.scottlogic.datahelix.generator.common.profile.FieldBuilder.createField;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class ShardedDataGeneratorTests {
+    private final Field field = createField("foo");
+    private final Profile profile = new Profile(
+        Collections.singletonList(field),
+        Collections.emptyList(),
+        Collections.emptyList());
+
+    @Test
+    void generateData_withSeveralShards_interleavesShardsInOrder() {
+        ShardedDataGenerator generator = new ShardedDataGenerator(Arrays.asList(
+            shard("a1", "a2", "a3"),
+            shard("b1", "b2", "b3")));
+
+        List<Object> values = generator.generateData(profile).map(row -> row.getValue(field)).collect(Collectors.toList());
+
+        assertEquals(Arrays.asList("a1", "b1", "a2", "b2", "a3", "b3"), values);
+    }
+
+    @Test
+    void generateData_whenOneShardIsExhausted_continuesWithRemainingShards() {
+        ShardedDataGenerator generator = new ShardedDataGenerator(Arrays.asList(
+            shard("a1"),
+            shard("b1", "b2", "b3"),
+            shard("c1", "c2")));
+
+        List<Object> values = generator.generateData(profile).map(row -> row.getValue(field)).collect(Collectors.toList());
+
+        assertEquals(Arrays.asList("a1", "b1", "c1", "b2", "c2", "b3"), values);
+    }
+
+    @Test
+    void generateData_whenAllShardsAreEmpty_returnsEmptyStream() {
+        ShardedDataGenerator generator = new ShardedDataGenerator(Arrays.asList(shard(), shard()));
+
+        assertEquals(0, generator.generateData(profile).count());
+    }
+
+    @Test
+    void generateData_withUniqueField_usesOnlyFirstShard() {
+        Field uniqueField = new Field("foo", StandardSpecificFieldType.STRING.toSpecificFieldType(), true, null, false, false, null);
+        Profile uniqueProfile = new Profile(
+            Collections.singletonList(uniqueField),
+            Collections.emptyList(),
+            Collections.emptyList());
+        ShardedDataGenerator generator = new ShardedDataGenerator(Arrays.asList(
+            shard("a1", "a2"),
+            shard("b1", "b2")));
+
+        List<Object> values = generator.generateData(uniqueProfile).map(row -> row.getValue(field)).collect(Collectors.toList());
+
+        assertEquals(Arrays.asList("a1", "a2"), values);
+    }
+
+    private DataGenerator shard(String... values) {
+        return profile -> Stream.of(values).map(value -> DataBagBuilder.of(field, value));
+    }
+}
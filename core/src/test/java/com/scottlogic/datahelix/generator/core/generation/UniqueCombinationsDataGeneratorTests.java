@@ -0,0 +1,152 @@
+/*
+ * Copyright 2019 Scott Logic Ltd
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.scottlogic.datahelix.generator.core.generation;
+
+import com.scottlogic.datahelix.generator.common.output.GeneratedObject;
+import com.scottlogic.datahelix.generator.common.profile.Field;
+import com.scottlogic.datahelix.generator.common.profile.ProfileFields;
+import com.scottlogic.datahelix.generator.core.builders.DataBagBuilder;
+import com.scottlogic.datahelix.generator.core.profile.Profile;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static com.scottlogic.datahelix.generator.common.profile.FieldBuilder.createField;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+
+class UniqueCombinationsDataGeneratorTests {
+    private final Field book = createField("book");
+    private final Field tradeId = createField("tradeId");
+    private final Field price = createField("price");
+
+    private final List<String> messages = new ArrayList<>();
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void generateData_withRepeatedCombination_dropsLaterRows() {
+        DataGenerator rows = profile -> Stream.of(
+            row("A", 1, 10),
+            row("A", 2, 10),
+            row("A", 1, 20),
+            row("B", 1, 30));
+
+        List<Object> prices = generate(rows, Arrays.asList(book, tradeId), Long.MAX_VALUE);
+
+        assertEquals(Arrays.asList(10, 10, 30), prices);
+    }
+
+    @Test
+    void generateData_withSeveralCombinations_dropsRowsRepeatingAnyOfThem() {
+        DataGenerator rows = profile -> Stream.of(
+            row("A", 1, 10),
+            row("B", 2, 10),
+            row("C", 3, 20),
+            row("A", 4, 30));
+
+        Profile profile = profile(Arrays.asList(Arrays.asList(book, tradeId), Collections.singletonList(price)));
+        List<Object> books = new UniqueCombinationsDataGenerator(rows, 1024 * 1024, tempDir, Long.MAX_VALUE, messages::add)
+            .generateData(profile)
+            .map(row -> row.getValue(book))
+            .collect(Collectors.toList());
+
+        assertEquals(Arrays.asList("A", "C", "A"), books);
+    }
+
+    @Test
+    void generateData_afterTooManyConsecutiveDuplicates_stops() {
+        DataGenerator rows = profile -> Stream.iterate(0, i -> i + 1).map(i -> row("A", i < 3 ? i : 0, i));
+
+        List<Object> prices = generate(rows, Collections.singletonList(tradeId), 100);
+
+        assertEquals(Arrays.asList(0, 1, 2), prices);
+    }
+
+    @Test
+    void generateData_afterTooManyConsecutiveDuplicates_reportsCombinationAndRowsProduced() {
+        DataGenerator rows = profile -> Stream.iterate(0, i -> i + 1).map(i -> row("A", i < 3 ? i : 0, i));
+
+        generate(rows, Collections.singletonList(tradeId), 100);
+
+        assertEquals(
+            Collections.singletonList("Generation stopped after 3 rows, as the last 100 rows generated repeated a " +
+                "unique combination, most recently of tradeId"),
+            messages);
+    }
+
+    @Test
+    void generateData_withoutUniqueCombinations_returnsEveryRow() {
+        DataGenerator rows = profile -> Stream.of(row("A", 1, 10), row("A", 1, 10));
+
+        long count = new UniqueCombinationsDataGenerator(rows, 1024 * 1024, tempDir, Long.MAX_VALUE, messages::add)
+            .generateData(profile(Collections.emptyList()))
+            .count();
+
+        assertEquals(2, count);
+        assertEquals(Collections.emptyList(), messages);
+    }
+
+    @Test
+    void fingerprint_withValuesSplitDifferently_differs() {
+        Field other = createField("other");
+        List<Field> combination = Arrays.asList(book, other);
+        GeneratedObject first = new DataBagBuilder().set(book, "ab").set(other, "c").build();
+        GeneratedObject second = new DataBagBuilder().set(book, "a").set(other, "bc").build();
+        GeneratedObject withNull = new DataBagBuilder().set(book, (Object) null).set(other, "c").build();
+        GeneratedObject withEmpty = new DataBagBuilder().set(book, "").set(other, "c").build();
+
+        assertNotEquals(
+            UniqueCombinationsDataGenerator.fingerprint(first, combination),
+            UniqueCombinationsDataGenerator.fingerprint(second, combination));
+        assertNotEquals(
+            UniqueCombinationsDataGenerator.fingerprint(withNull, combination),
+            UniqueCombinationsDataGenerator.fingerprint(withEmpty, combination));
+    }
+
+    private List<Object> generate(DataGenerator rows, List<Field> combination, long maxConsecutiveDuplicates) {
+        return new UniqueCombinationsDataGenerator(rows, 1024 * 1024, tempDir, maxConsecutiveDuplicates, messages::add)
+            .generateData(profile(Collections.singletonList(combination)))
+            .map(row -> row.getValue(price))
+            .collect(Collectors.toList());
+    }
+
+    private Profile profile(List<List<Field>> uniqueCombinations) {
+        return new Profile(
+            null,
+            new ProfileFields(Arrays.asList(book, tradeId, price)),
+            Collections.emptyList(),
+            Collections.emptyList(),
+            uniqueCombinations);
+    }
+
+    private GeneratedObject row(String bookValue, int tradeIdValue, int priceValue) {
+        return new DataBagBuilder()
+            .set(book, bookValue)
+            .set(tradeId, tradeIdValue)
+            .set(price, priceValue)
+            .build();
+    }
+}
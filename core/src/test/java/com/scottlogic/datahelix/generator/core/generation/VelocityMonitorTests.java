@@ -48,4 +48,22 @@ public class VelocityMonitorTests {
         Mockito.verify(mockWriter, times(5)).println(args.capture());
         assertEquals(expectedStrings, args.getAllValues().subList(3, 5));
     }
+
+    @Test
+    public void endGeneration_printsStatisticAddedTwiceOnce() {
+        //Arrange
+        PrintWriter mockWriter = Mockito.mock(PrintWriter.class);
+        VelocityMonitor monitor = new VelocityMonitor(mockWriter);
+
+        //Act
+        monitor.generationStarting();
+        monitor.addStatisticToPrintAtEndOfGeneration("Cache", () -> "1 hit");
+        monitor.addStatisticToPrintAtEndOfGeneration("Cache", () -> "2 hits");
+        monitor.endGeneration();
+
+        //Assert
+        ArgumentCaptor<String> args = ArgumentCaptor.forClass(String.class);
+        Mockito.verify(mockWriter, times(4)).println(args.capture());
+        assertEquals("Cache: 1 hit", args.getAllValues().get(3));
+    }
 }
@@ -16,12 +16,22 @@
 
 package com.scottlogic.datahelix.generator.core.generation.combinationstrategies;
 
+import com.scottlogic.datahelix.generator.common.profile.Field;
+import com.scottlogic.datahelix.generator.core.generation.databags.DataBag;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 import java.util.stream.Stream;
 
+import static com.scottlogic.datahelix.generator.common.profile.FieldBuilder.createField;
 import static com.scottlogic.datahelix.generator.core.generation.combinationstrategies.CombinationStrategyTester.bag;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 class ExhaustiveCombinationStrategyTests {
     private CombinationStrategyTester tester;
@@ -91,4 +101,79 @@ class ExhaustiveCombinationStrategyTests {
 
         tester.expectEmpty();
     }
+
+    @Test
+    void shouldCombineExhaustivelyWhenSequencesExceedMaterialiseLimit() {
+        tester = new CombinationStrategyTester(new ExhaustiveCombinationStrategy(2));
+        tester.given(
+            ()->Stream.of(bag("X")),
+            ()->Stream.of(bag("A"), bag("B")),
+            ()->Stream.of(bag("1"), bag("2"), bag("3")));
+
+        tester.expect(
+            Stream.of(
+                bag("X", "A", "1"),
+                bag("X", "A", "2"),
+                bag("X", "A", "3"),
+                bag("X", "B", "1"),
+                bag("X", "B", "2"),
+                bag("X", "B", "3")));
+    }
+
+    @Test
+    void shouldGenerateEachSequenceOnceWhenWithinMaterialiseLimit() {
+        AtomicInteger invocations = new AtomicInteger();
+        Supplier<Stream<DataBag>> inner = () -> {
+            invocations.incrementAndGet();
+            return Stream.of(bag("1"), bag("2"), bag("3"));
+        };
+
+        long count = new ExhaustiveCombinationStrategy()
+            .permute(Stream.of(()->Stream.of(bag("A"), bag("B"), bag("C")), inner))
+            .count();
+
+        assertEquals(9, count);
+        assertEquals(1, invocations.get());
+    }
+
+    @Test
+    void shouldOnlyStreamInnerValuesAsRowsAreTaken() {
+        Field innerField = createField("inner");
+        AtomicInteger streamed = new AtomicInteger();
+        Supplier<Stream<DataBag>> endless = () -> IntStream.iterate(0, i -> i + 1)
+            .mapToObj(i -> DataBag.of(innerField, i))
+            .peek(bag -> streamed.incrementAndGet());
+
+        long count = new ExhaustiveCombinationStrategy()
+            .permute(Stream.of(()->Stream.of(bag("A")), endless))
+            .limit(3)
+            .count();
+
+        assertEquals(3, count);
+        assertTrue(streamed.get() <= 4);
+    }
+
+    @Test
+    void shouldGiveSameRowsInSameOrderWhenSplitAcrossThreads() {
+        Field outerField = createField("outer");
+        Field middleField = createField("middle");
+        Field innerField = createField("inner");
+
+        List<DataBag> sequential = new ExhaustiveCombinationStrategy()
+            .permute(Stream.of(values(outerField, 5000), values(middleField, 3), values(innerField, 7)))
+            .collect(Collectors.toList());
+        List<DataBag> parallel = new ExhaustiveCombinationStrategy()
+            .permute(Stream.of(values(outerField, 5000), values(middleField, 3), values(innerField, 7)))
+            .parallel()
+            .collect(Collectors.toList());
+
+        assertEquals(5000 * 3 * 7, sequential.size());
+        assertEquals(DataBag.merge(DataBag.of(outerField, 0), DataBag.of(middleField, 1), DataBag.of(innerField, 0)),
+            sequential.get(7));
+        assertEquals(sequential, parallel);
+    }
+
+    private static Supplier<Stream<DataBag>> values(Field field, int count) {
+        return () -> IntStream.range(0, count).mapToObj(i -> DataBag.of(field, i));
+    }
 }
@@ -17,11 +17,15 @@
 package com.scottlogic.datahelix.generator.core.generation.databags;
 
 import com.scottlogic.datahelix.generator.common.profile.Field;
+import com.scottlogic.datahelix.generator.common.profile.Fields;
+import com.scottlogic.datahelix.generator.common.profile.ProfileFields;
 import com.scottlogic.datahelix.generator.core.builders.DataBagBuilder;
 import org.junit.Assert;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
 
+import java.util.Arrays;
+
 import static org.hamcrest.Matchers.equalTo;
 import static com.scottlogic.datahelix.generator.common.profile.FieldBuilder.createField;
 
@@ -109,4 +113,50 @@ class DataBagTests {
             IllegalArgumentException.class,
             () -> DataBag.merge(dataBag1, dataBag2));
     }
+
+    @Test
+    void getShouldReturnValueStoredForEqualField() {
+        // ARRANGE
+        DataBag objectUnderTest = DataBag.of(createField("id"), 3);
+
+        // ACT / ASSERT
+        Assert.assertThat(
+            objectUnderTest.getValue(createField("id")),
+            equalTo(3));
+    }
+
+    @Test
+    void mergedDataBagsShouldNotDependOnOrderOfInputs() {
+        // ARRANGE
+        Field idField = createField("id");
+        Field priceField = createField("price");
+        Field nameField = createField("name");
+
+        DataBag dataBag1 = DataBag.of(idField, 3);
+        DataBag dataBag2 = DataBag.of(priceField, null);
+        DataBag dataBag3 = DataBag.of(nameField, "foo");
+
+        // ACT / ASSERT
+        Assert.assertThat(
+            DataBag.merge(dataBag3, DataBag.merge(dataBag1, dataBag2)),
+            equalTo(DataBag.merge(dataBag2, dataBag1, dataBag3)));
+    }
+
+    @Test
+    void mergedDataBagsShouldContainValuesOfProfileFields() {
+        // ARRANGE
+        Field idField = createField("id");
+        Field priceField = createField("price");
+        Fields profileFields = new ProfileFields(Arrays.asList(idField, priceField));
+
+        // ACT
+        DataBag mergedDataBag = DataBag.merge(
+            DataBag.of(profileFields, priceField, 4),
+            DataBag.of(profileFields, idField, 3));
+
+        // ASSERT
+        Assert.assertThat(mergedDataBag.getValue(idField), equalTo(3));
+        Assert.assertThat(mergedDataBag.getValue(priceField), equalTo(4));
+        Assert.assertThat(mergedDataBag, equalTo(new DataBagBuilder().set(idField, 3).set(priceField, 4).build()));
+    }
 }
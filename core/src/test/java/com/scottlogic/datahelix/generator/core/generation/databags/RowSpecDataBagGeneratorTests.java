@@ -60,12 +60,12 @@ class RowSpecDataBagGeneratorTests {
         Map<Field, FieldSpec> map = new HashMap<Field, FieldSpec>() {{ put(field, fieldSpec); }};
         RowSpec rowSpec = new RowSpec(fields, map, Collections.emptyList());
 
-        when(mockGeneratorFactory.generate(any())).thenReturn(Stream.of(dataBagValue));
+        when(mockGeneratorFactory.generate(any(), any())).thenReturn(Stream.of(dataBagValue));
 
         List<DataBag> actual = factory.createDataBags(rowSpec)
             .collect(Collectors.toList());
 
-        verify(mockGeneratorFactory, times(1)).generate(any());
+        verify(mockGeneratorFactory, times(1)).generate(any(), any());
 
         List<DataBag> expected = Arrays.asList(dataBagValue);
 
@@ -85,13 +85,13 @@ class RowSpecDataBagGeneratorTests {
             map,
             Collections.emptyList());
 
-        when(mockGeneratorFactory.generate(any()))
+        when(mockGeneratorFactory.generate(any(), any()))
             .thenReturn(Stream.of(dataBagValue), Stream.of(dataBagValue1), Stream.of(dataBagValue2));
 
         factory.createDataBags(rowSpec)
             .collect(Collectors.toList());
 
-        verify(mockGeneratorFactory, times(3)).generate(any());
+        verify(mockGeneratorFactory, times(3)).generate(any(), any());
     }
 
     @Test
@@ -105,4 +105,21 @@ class RowSpecDataBagGeneratorTests {
 
         verify(mockCombinationStrategy, times(1)).permute(any());
     }
+
+    @Test
+    void createPlan_drawnFromRepeatedly_plansEachGroupOnce() {
+        RowSpecDataBagGenerator factory =
+            new RowSpecDataBagGenerator(mockGeneratorFactory, exhaustiveCombinationStrategy);
+        Map<Field, FieldSpec> map = new HashMap<Field, FieldSpec>() {{ put(field, fieldSpec); }};
+        RowSpec rowSpec = new RowSpec(fields, map, Collections.emptyList());
+
+        when(mockGeneratorFactory.plan(any(), any())).thenReturn(() -> Stream.of(dataBagValue));
+
+        RowSpecGenerationPlan plan = factory.createPlan(rowSpec);
+        List<DataBag> actual = Stream.concat(plan.createDataBags(), plan.createDataBags())
+            .collect(Collectors.toList());
+
+        verify(mockGeneratorFactory, times(1)).plan(any(), any());
+        assertThat(actual, sameBeanAs(Arrays.asList(dataBagValue, dataBagValue)));
+    }
 }
\ No newline at end of file
@@ -16,6 +16,7 @@
 package com.scottlogic.datahelix.generator.core.generation.grouped;
 
 import com.scottlogic.datahelix.generator.common.profile.Field;
+import com.scottlogic.datahelix.generator.common.profile.ProfileFields;
 import com.scottlogic.datahelix.generator.core.config.detail.CombinationStrategyType;
 import com.scottlogic.datahelix.generator.core.fieldspecs.FieldSpec;
 import com.scottlogic.datahelix.generator.core.fieldspecs.FieldSpecFactory;
@@ -23,6 +24,7 @@ import com.scottlogic.datahelix.generator.core.fieldspecs.FieldSpecGroup;
 import com.scottlogic.datahelix.generator.core.generation.FieldSpecValueGenerator;
 import com.scottlogic.datahelix.generator.core.generation.databags.DataBag;
 import com.scottlogic.datahelix.generator.core.generation.databags.DataBagValue;
+import com.scottlogic.datahelix.generator.core.generation.fieldvaluesources.FieldValueSource;
 import org.junit.jupiter.api.Test;
 
 import java.util.Collections;
@@ -33,7 +35,6 @@ import java.util.stream.Stream;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Matchers.any;
-import static org.mockito.Matchers.eq;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.when;
 import static com.scottlogic.datahelix.generator.common.profile.FieldBuilder.createField;
@@ -44,18 +45,18 @@ class FieldSpecGroupValueGeneratorTest {
         Map<Field, FieldSpec> specMap = new HashMap<>();
         Field firstField = createField("first");
         FieldSpec firstSpec = FieldSpecFactory.fromType(firstField.getType());
-        specMap.put(firstField, FieldSpecFactory.fromType(firstField.getType()));
+        specMap.put(firstField, firstSpec);
 
         FieldSpecValueGenerator underlyingGenerator = mock(FieldSpecValueGenerator.class);
         String result = "result";
         DataBagValue firstValue = new DataBagValue(result);
-        when(underlyingGenerator.generate(any(Field.class), eq(firstSpec))).thenReturn(Stream.of(firstValue));
+        when(underlyingGenerator.generateValues(any(Field.class), any(FieldValueSource.class))).thenReturn(Stream.of(result));
 
         FieldSpecGroupValueGenerator generator = new FieldSpecGroupValueGenerator(underlyingGenerator, CombinationStrategyType.MINIMAL);
 
         FieldSpecGroup group = new FieldSpecGroup(specMap, Collections.emptyList());
 
-        Stream<DataBag> stream = generator.generate(group);
+        Stream<DataBag> stream = generator.generate(group, new ProfileFields(Collections.singletonList(firstField)));
 
         Map<Field, DataBagValue> dataBag = new HashMap<>();
         dataBag.put(firstField, firstValue);
@@ -0,0 +1,67 @@
+/*
+ * Copyright 2019 Scott Logic Ltd
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.scottlogic.datahelix.generator.core.generation.string;
+
+import dk.brics.automaton.Automaton;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+
+class AutomatonCacheTests {
+    @Test
+    void get_sameKeyTwice_derivesOnce() {
+        AtomicInteger derivations = new AtomicInteger();
+        String key = AutomatonCache.regexKey("get_sameKeyTwice_derivesOnce", true);
+
+        Automaton first = AutomatonCache.get(key, () -> {
+            derivations.incrementAndGet();
+            return Automaton.makeString("a");
+        });
+        Automaton second = AutomatonCache.get(key, () -> {
+            derivations.incrementAndGet();
+            return Automaton.makeString("b");
+        });
+
+        assertThat(second, sameInstance(first));
+        assertThat(derivations.get(), is(1));
+    }
+
+    @Test
+    void intersectionKey_operandsSwapped_givesSameKey() {
+        String left = AutomatonCache.regexKey("[a-z]+", true);
+        String right = AutomatonCache.regexKey("(a|b){1,10}", true);
+
+        assertThat(AutomatonCache.intersectionKey(left, right), equalTo(AutomatonCache.intersectionKey(right, left)));
+    }
+
+    @Test
+    void regexKey_matchingAndContaining_giveDifferentKeys() {
+        assertThat(AutomatonCache.regexKey("abc", true), not(equalTo(AutomatonCache.regexKey("abc", false))));
+    }
+
+    @Test
+    void blacklistKey_stringsContainingSeparators_doesNotCollide() {
+        String joined = AutomatonCache.blacklistKey(Arrays.asList("a\", \"b"));
+        String separate = AutomatonCache.blacklistKey(Arrays.asList("a", "b"));
+
+        assertThat(joined, not(equalTo(separate)));
+    }
+}
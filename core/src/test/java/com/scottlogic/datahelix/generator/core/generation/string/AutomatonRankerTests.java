@@ -0,0 +1,121 @@
+/*
+ * Copyright 2019 Scott Logic Ltd
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.scottlogic.datahelix.generator.core.generation.string;
+
+import com.scottlogic.datahelix.generator.core.utils.JavaUtilRandomNumberGenerator;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+
+class AutomatonRankerTests {
+    @Test
+    void unrank_finiteLanguage_listsStringsInLexicographicOrder() {
+        AutomatonRanker ranker = finiteRanker("(a|b){1,2}");
+
+        List<String> strings = new ArrayList<>();
+        for (long index = 0; index < ranker.size().longValue(); index++) {
+            strings.add(ranker.unrank(index));
+        }
+
+        assertThat(strings, contains("a", "aa", "ab", "b", "ba", "bb"));
+    }
+
+    @Test
+    void rank_everyString_isInverseOfUnrank() {
+        AutomatonRanker ranker = finiteRanker("[a-c]x?|d[0-9]{2}");
+
+        for (long index = 0; index < ranker.size().longValue(); index++) {
+            assertThat(ranker.rank(ranker.unrank(index)), equalTo(Optional.of(BigInteger.valueOf(index))));
+        }
+    }
+
+    @Test
+    void rank_stringNotInLanguage_isEmpty() {
+        AutomatonRanker ranker = finiteRanker("[a-c]x?");
+
+        assertThat(ranker.rank("ax").isPresent(), is(true));
+        assertThat(ranker.rank("ay").isPresent(), is(false));
+        assertThat(ranker.rank("axx").isPresent(), is(false));
+        assertThat(ranker.rank("").isPresent(), is(false));
+    }
+
+    @Test
+    void forFiniteLanguage_infiniteLanguage_isEmpty() {
+        CompiledAutomaton compiled = CompiledAutomaton.compile(AutomatonUtils.createAutomaton("a[0-9]+", true));
+
+        assertThat(AutomatonRanker.forFiniteLanguage(compiled).isPresent(), is(false));
+    }
+
+    @Test
+    void size_infiniteLanguageWithMaxLength_countsStringsUpToMaxLength() {
+        CompiledAutomaton compiled = CompiledAutomaton.compile(AutomatonUtils.createAutomaton("[a-z]+", true));
+
+        AutomatonRanker ranker = new AutomatonRanker(compiled, 3);
+
+        assertThat(ranker.size(), equalTo(BigInteger.valueOf(26 + 26 * 26 + 26 * 26 * 26)));
+        assertThat(ranker.unrank(ranker.size().longValue() - 1), equalTo("zzz"));
+    }
+
+    @Test
+    void unrank_languageLargerThanLong_roundTripsThroughRank() {
+        AutomatonRanker ranker = finiteRanker("[a-z]{15}");
+        BigInteger index = ranker.size().subtract(BigInteger.valueOf(12345));
+
+        String string = ranker.unrank(index);
+
+        assertThat(ranker.size().bitLength(), greaterThan(Long.SIZE));
+        assertThat(string.length(), is(15));
+        assertThat(ranker.rank(string), equalTo(Optional.of(index)));
+    }
+
+    @Test
+    void sample_smallLanguage_returnsEveryString() {
+        AutomatonRanker ranker = finiteRanker("[ab]");
+        JavaUtilRandomNumberGenerator random = new JavaUtilRandomNumberGenerator(0);
+
+        Set<String> samples = new HashSet<>();
+        for (int i = 0; i < 100; i++) {
+            samples.add(ranker.sample(random).get());
+        }
+
+        assertThat(samples, containsInAnyOrder("a", "b"));
+    }
+
+    @Test
+    void sample_languageLargerThanLong_returnsStringsInLanguage() {
+        AutomatonRanker ranker = finiteRanker("[a-z]{15}");
+        JavaUtilRandomNumberGenerator random = new JavaUtilRandomNumberGenerator(0);
+
+        for (int i = 0; i < 100; i++) {
+            String sample = ranker.sample(random).get();
+            assertThat(sample, matchesPattern("[a-z]{15}"));
+        }
+    }
+
+    private static AutomatonRanker finiteRanker(String regex) {
+        return AutomatonRanker.forFiniteLanguage(
+            CompiledAutomaton.compile(AutomatonUtils.createAutomaton(regex, true))).get();
+    }
+}
@@ -19,9 +19,6 @@ package com.scottlogic.datahelix.generator.core.generation.string;
 import dk.brics.automaton.Automaton;
 import org.junit.jupiter.api.Test;
 
-import java.util.HashMap;
-import java.util.Map;
-
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
@@ -29,9 +26,8 @@ class AutomatonUtilsTests {
     @Test
     public void createAutomaton_withValidString_shouldAcceptValidCharacters(){
         String validRegex = ".*";
-        Map<String, Automaton> dummyCache = new HashMap<>();
 
-        Automaton automaton = AutomatonUtils.createAutomaton(validRegex, true, dummyCache);
+        Automaton automaton = AutomatonUtils.createAutomaton(validRegex, true);
 
         assertTrue(automaton.run("a"));
     }
@@ -39,9 +35,8 @@ class AutomatonUtilsTests {
     @Test
     public void createAutomaton_withValidString_shouldRejectInvalidCharacters(){
         String validRegex = ".*";
-        Map<String, Automaton> dummyCache = new HashMap<>();
 
-        Automaton automaton = AutomatonUtils.createAutomaton(validRegex, true, dummyCache);
+        Automaton automaton = AutomatonUtils.createAutomaton(validRegex, true);
 
         assertFalse(automaton.run("汉字"));
     }
@@ -49,9 +44,8 @@ class AutomatonUtilsTests {
     @Test
     public void createAutomaton_withInValidString_shouldCreateEmptyAutomaton(){
         String validRegex = "汉字*";
-        Map<String, Automaton> dummyCache = new HashMap<>();
 
-        Automaton automaton = AutomatonUtils.createAutomaton(validRegex, true, dummyCache);
+        Automaton automaton = AutomatonUtils.createAutomaton(validRegex, true);
 
         assertTrue(automaton.isEmpty());
     }
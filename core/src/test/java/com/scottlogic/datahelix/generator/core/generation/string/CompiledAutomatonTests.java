@@ -0,0 +1,68 @@
+/*
+ * Copyright 2019 Scott Logic Ltd
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.scottlogic.datahelix.generator.core.generation.string;
+
+import dk.brics.automaton.Automaton;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+
+class CompiledAutomatonTests {
+    @Test
+    void compile_characterRanges_indexesEveryOutgoingCharacterOnce() {
+        CompiledAutomaton compiled = CompiledAutomaton.compile(AutomatonUtils.createAutomaton("[a-c]|[x-z]", true));
+        int initial = compiled.getInitialState();
+
+        Set<Character> characters = new HashSet<>();
+        for (int index = 0; index < compiled.getWidth(initial); index++) {
+            characters.add(compiled.getCharacter(compiled.findTransition(initial, index), index));
+        }
+
+        assertThat(compiled.getWidth(initial), is(6));
+        assertThat(characters, containsInAnyOrder('a', 'b', 'c', 'x', 'y', 'z'));
+    }
+
+    @Test
+    void compile_rangeSpanningSurrogates_leavesOutSurrogates() {
+        CompiledAutomaton compiled = CompiledAutomaton.compile(Automaton.makeCharRange('\uD7FF', '\uE000'));
+        int initial = compiled.getInitialState();
+
+        char first = compiled.getCharacter(compiled.findTransition(initial, 0), 0);
+        char second = compiled.getCharacter(compiled.findTransition(initial, 1), 1);
+
+        assertThat(compiled.getWidth(initial), is(2));
+        assertThat(first, is('\uD7FF'));
+        assertThat(second, is('\uE000'));
+    }
+
+    @Test
+    void compile_acceptingPath_followsDestinationsToAcceptState() {
+        CompiledAutomaton compiled = CompiledAutomaton.compile(AutomatonUtils.createAutomaton("ab", true));
+        int state = compiled.getInitialState();
+
+        state = compiled.getDestination(compiled.findTransition(state, 0));
+        assertThat(compiled.isAccept(state), is(false));
+        state = compiled.getDestination(compiled.findTransition(state, 0));
+
+        assertThat(compiled.isAccept(state), is(true));
+        assertThat(compiled.getWidth(state), is(0));
+    }
+}
@@ -16,6 +16,7 @@
 
 package com.scottlogic.datahelix.generator.core.generation.string;
 
+import com.scottlogic.datahelix.generator.core.generation.string.generators.NoStringsStringGenerator;
 import com.scottlogic.datahelix.generator.core.generation.string.generators.RegexStringGenerator;
 import com.scottlogic.datahelix.generator.core.generation.string.generators.StringGenerator;
 import com.scottlogic.datahelix.generator.core.restrictions.string.StringRestrictionsFactory;
@@ -375,4 +376,70 @@ class RegexStringGeneratorTests {
 
         assertThat(match, is(false));
     }
+
+    @Test
+    void generateAllValues_withLengthsIntersected_generatesOnlyStringsOfPermittedLengths() {
+        StringLengths lengths = StringLengths.of(1, 3, Collections.singleton(2));
+        StringGenerator generator = RegexStringGenerator.forLengths("^(.{1}|.{3})$", lengths)
+            .intersect(new RegexStringGenerator("[ab]+", true));
+
+        List<String> results = generator.generateAllValues().collect(Collectors.toList());
+
+        assertThat(results, contains("a", "aaa", "aab", "aba", "abb", "b", "baa", "bab", "bba", "bbb"));
+    }
+
+    @Test
+    void generateRandomValues_finiteLanguage_drawsEveryStringWithEqualLikelihood() {
+        StringGenerator generator = new RegexStringGenerator("a|b[a-z]", true);
+
+        List<String> results = generator.generateRandomValues(new JavaUtilRandomNumberGenerator(0))
+            .limit(2700)
+            .collect(Collectors.toList());
+
+        // 1 of the 27 strings is "a", where choosing each branch of the regex equally would make it half of them
+        assertThat(results.stream().filter("a"::equals).count(), lessThan(300L));
+        assertThat(new HashSet<>(results).size(), Is.is(27));
+    }
+
+    @Test
+    void generateRandomValues_withLengthsIntersectedWithInfiniteRegex_generatesOnlyStringsOfPermittedLengths() {
+        StringLengths lengths = StringLengths.of(2, 500, Collections.singleton(3));
+        StringGenerator generator = RegexStringGenerator.forLengths("^(.{2}|.{4,500})$", lengths)
+            .intersect(new RegexStringGenerator("x[a-z]*", true));
+
+        List<String> results = generator.generateRandomValues(new JavaUtilRandomNumberGenerator(0))
+            .limit(1000)
+            .collect(Collectors.toList());
+
+        assertThat(results, everyItem(matchesPattern("^x[a-z]*$")));
+        assertTrue(results.stream().allMatch(value -> value.length() == 2 || (value.length() >= 4 && value.length() <= 500)));
+    }
+
+    @Test
+    void intersect_withLengthsNoStringOfWhichMatches_isContradictory() {
+        StringGenerator generator = RegexStringGenerator.forLengths("^.{4}$", StringLengths.of(4, 4, Collections.emptySet()))
+            .intersect(new RegexStringGenerator("[a-z]{1,3}|[a-z]{5}", true));
+
+        assertThat(generator, instanceOf(NoStringsStringGenerator.class));
+    }
+
+    @Test
+    void complement_withLengths_generatesStringsOfOtherLengths() {
+        StringGenerator generator = RegexStringGenerator.forLengths("^.{0,998}$", StringLengths.of(0, 998, Collections.emptySet()))
+            .complement();
+
+        List<String> results = generator.generateAllValues().limit(5).collect(Collectors.toList());
+
+        assertTrue(results.stream().allMatch(value -> value.length() == 999 || value.length() == 1000));
+    }
+
+    @Test
+    void match_withStringOfExcludedLength_shouldNotMatch() {
+        RegexStringGenerator generator = RegexStringGenerator.forLengths(
+            "^(.{0,1}|.{3,10})$",
+            StringLengths.of(0, 10, Collections.singleton(2)));
+
+        assertThat(generator.matches("aa"), is(false));
+        assertThat(generator.matches("aaa"), is(true));
+    }
 }
@@ -0,0 +1,68 @@
+/*
+ * Copyright 2019 Scott Logic Ltd
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.scottlogic.datahelix.generator.core.generation.string;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+
+class StringLengthsTests {
+    @Test
+    void of_withExcludedLengthsAtEnds_trimsThemIntoMinAndMax() {
+        StringLengths lengths = StringLengths.of(0, 10, new HashSet<>(Arrays.asList(0, 1, 5, 10, 20)));
+
+        assertThat(lengths.getMin(), is(2));
+        assertThat(lengths.getMax(), is(9));
+        assertThat(lengths.getExcluded(), contains(5));
+    }
+
+    @Test
+    void of_withEveryLengthExcluded_permitsNone() {
+        StringLengths lengths = StringLengths.of(3, 5, new HashSet<>(Arrays.asList(3, 4, 5)));
+
+        assertThat(lengths.permitsAny(), is(false));
+        assertThat(lengths.permits(4), is(false));
+    }
+
+    @Test
+    void of_withNoRestriction_isUnrestricted() {
+        assertThat(StringLengths.of(0, null, Collections.singleton(-1)).isUnrestricted(), is(true));
+    }
+
+    @Test
+    void intersect_withOverlappingLengths_permitsOnlyLengthsBothPermit() {
+        StringLengths left = StringLengths.of(2, null, Collections.singleton(6));
+        StringLengths right = StringLengths.of(0, 8, Collections.singleton(4));
+
+        StringLengths merged = left.intersect(right);
+
+        assertThat(merged, equalTo(StringLengths.of(2, 8, new HashSet<>(Arrays.asList(4, 6)))));
+    }
+
+    @Test
+    void getContiguousFrom_withUnboundedMax_isAfterLastExcludedLength() {
+        StringLengths lengths = StringLengths.of(1, null, new HashSet<>(Arrays.asList(3, 7)));
+
+        assertThat(lengths.getContiguousFrom(), is(8));
+        assertThat(lengths.permits(100), is(true));
+    }
+}
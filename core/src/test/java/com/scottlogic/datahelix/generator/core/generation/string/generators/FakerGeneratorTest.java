@@ -74,4 +74,22 @@ class FakerGeneratorTest {
 
         assertTrue(results.allMatch(str -> str.length() <= length));
     }
+
+    @Test
+    void generateRandomValues_withSameSeed_producesSameValues() {
+        StringRestrictions restrictions = StringRestrictionsFactory.forMaxLength(Defaults.MAX_STRING_LENGTH);
+        RegexStringGenerator regex = (RegexStringGenerator) restrictions.createGenerator();
+        FakerGenerator generator = new FakerGenerator(regex, "name.firstName");
+
+        final int size = 10;
+
+        List<String> first = generator.generateRandomValues(new JavaUtilRandomNumberGenerator(42))
+            .limit(size)
+            .collect(Collectors.toList());
+        List<String> second = generator.generateRandomValues(new JavaUtilRandomNumberGenerator(42))
+            .limit(size)
+            .collect(Collectors.toList());
+
+        assertEquals(first, second);
+    }
 }
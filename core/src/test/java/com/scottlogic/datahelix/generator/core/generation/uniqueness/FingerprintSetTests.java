@@ -0,0 +1,109 @@
+/*
+ * Copyright 2019 Scott Logic Ltd
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.scottlogic.datahelix.generator.core.generation.uniqueness;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class FingerprintSetTests {
+    private static final long MEGABYTE = 1024 * 1024;
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void add_withRepeatedFingerprint_returnsFalse() {
+        try (FingerprintSet set = new FingerprintSet(MEGABYTE, tempDir)) {
+            assertTrue(set.add(42L));
+            assertFalse(set.add(42L));
+            assertTrue(set.contains(42L));
+            assertFalse(set.contains(43L));
+            assertEquals(1, set.size());
+        }
+    }
+
+    @Test
+    void add_withZeroFingerprint_isTrackedLikeAnyOther() {
+        try (FingerprintSet set = new FingerprintSet(MEGABYTE, tempDir)) {
+            assertFalse(set.contains(0L));
+            assertTrue(set.add(0L));
+            assertFalse(set.add(0L));
+            assertTrue(set.contains(0L));
+            assertEquals(1, set.size());
+        }
+    }
+
+    @Test
+    void add_beyondInitialCapacity_keepsEveryFingerprint() {
+        try (FingerprintSet set = new FingerprintSet(16 * MEGABYTE, tempDir)) {
+            for (long i = 0; i < 500_000; i++) {
+                assertTrue(set.add(i * 0x9e3779b97f4a7c15L));
+            }
+
+            for (long i = 0; i < 500_000; i++) {
+                assertFalse(set.add(i * 0x9e3779b97f4a7c15L));
+            }
+            assertEquals(500_000, set.size());
+            assertFalse(set.isSpilled());
+        }
+    }
+
+    @Test
+    void add_beyondMemoryBudget_spillsToFileAndKeepsEveryFingerprint() {
+        try (FingerprintSet set = new FingerprintSet(MEGABYTE, tempDir)) {
+            for (long i = 1; i <= 200_000; i++) {
+                assertTrue(set.add(i));
+            }
+
+            assertTrue(set.isSpilled());
+            for (long i = 1; i <= 200_000; i++) {
+                assertTrue(set.contains(i));
+            }
+            assertFalse(set.contains(200_001));
+            assertEquals(200_000, set.size());
+        }
+    }
+
+    @Test
+    void add_whenOldAndGrownTablesTogetherExceedBudget_spillsToFile() {
+        // the initial table takes half a megabyte, and growing it holds a megabyte table alongside it
+        try (FingerprintSet set = new FingerprintSet(MEGABYTE, tempDir)) {
+            for (long i = 1; i <= 40_000; i++) {
+                assertTrue(set.add(i));
+            }
+
+            assertTrue(set.isSpilled());
+            assertTrue(set.contains(40_000));
+        }
+    }
+
+    @Test
+    void close_calledTwice_doesNotThrow() {
+        FingerprintSet set = new FingerprintSet(MEGABYTE, tempDir);
+        set.add(42L);
+        set.close();
+
+        assertDoesNotThrow(set::close);
+    }
+}
@@ -0,0 +1,77 @@
+/*
+ * Copyright 2019 Scott Logic Ltd
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.scottlogic.datahelix.generator.core.guice;
+
+import com.scottlogic.datahelix.generator.core.config.detail.DataGenerationType;
+import com.scottlogic.datahelix.generator.core.generation.GenerationConfigSource;
+import com.scottlogic.datahelix.generator.core.walker.DecisionTreeWalker;
+import com.scottlogic.datahelix.generator.core.walker.ParallelDecisionTreeWalker;
+import com.scottlogic.datahelix.generator.core.walker.rowspec.RandomRowSpecDecisionTreeWalker;
+import com.scottlogic.datahelix.generator.core.walker.rowspec.RowSpecDecisionTreeWalker;
+import org.junit.jupiter.api.Test;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.instanceOf;
+import static org.hamcrest.Matchers.sameInstance;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class DecisionTreeWalkerProviderTests {
+    private final RowSpecDecisionTreeWalker rowSpecWalker = mock(RowSpecDecisionTreeWalker.class);
+    private final RandomRowSpecDecisionTreeWalker randomRowSpecWalker = mock(RandomRowSpecDecisionTreeWalker.class);
+    private final GenerationConfigSource configSource = mock(GenerationConfigSource.class);
+
+    @Test
+    void get_withOneThread_returnsUnderlyingWalker() {
+        when(configSource.getGenerationType()).thenReturn(DataGenerationType.FULL_SEQUENTIAL);
+
+        DecisionTreeWalker walker = createProvider(1, 1).get();
+
+        assertThat(walker, sameInstance(rowSpecWalker));
+    }
+
+    @Test
+    void get_withSeveralThreads_returnsParallelWalker() {
+        when(configSource.getGenerationType()).thenReturn(DataGenerationType.FULL_SEQUENTIAL);
+
+        DecisionTreeWalker walker = createProvider(4, 1).get();
+
+        assertThat(walker, instanceOf(ParallelDecisionTreeWalker.class));
+    }
+
+    @Test
+    void get_withSeveralThreadsAndShardedRandomGeneration_returnsRandomWalker() {
+        when(configSource.getGenerationType()).thenReturn(DataGenerationType.RANDOM);
+
+        DecisionTreeWalker walker = createProvider(4, 4).get();
+
+        assertThat(walker, sameInstance(randomRowSpecWalker));
+    }
+
+    @Test
+    void get_withSeveralThreadsAndUnshardedRandomGeneration_returnsParallelWalker() {
+        when(configSource.getGenerationType()).thenReturn(DataGenerationType.RANDOM);
+
+        DecisionTreeWalker walker = createProvider(4, 1).get();
+
+        assertThat(walker, instanceOf(ParallelDecisionTreeWalker.class));
+    }
+
+    private DecisionTreeWalkerProvider createProvider(int threads, int shards) {
+        return new DecisionTreeWalkerProvider(rowSpecWalker, () -> randomRowSpecWalker, configSource, threads, shards);
+    }
+}
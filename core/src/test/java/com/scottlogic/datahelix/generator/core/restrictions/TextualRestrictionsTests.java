@@ -523,7 +523,7 @@ class TextualRestrictionsTests {
     @Test
     void createGenerator_withNotOfLengthSameAsMaxLength_shouldPermitStringsUpToMaxLengthLess1() {
         Optional<StringRestrictions> result =
-            maxLength(5)
+            maxLength(4)
                 .intersect(ofLength(4, true));
 
         StringGenerator generator = ((StringRestrictions)result.get()).createGenerator();
@@ -531,6 +531,29 @@ class TextualRestrictionsTests {
         Assert.assertThat(generator.toString(), equalTo("/^.{0,3}$/"));
     }
 
+    @Test
+    void createGenerator_withNotOfLengthOneLessThanMaxLength_shouldPermitStringsOfMaxLength() {
+        Optional<StringRestrictions> result =
+            maxLength(5)
+                .intersect(ofLength(4, true));
+
+        StringGenerator generator = ((StringRestrictions)result.get()).createGenerator();
+
+        Assert.assertThat(generator.toString(), equalTo("/^(.{0,3}|.{5})$/"));
+    }
+
+    @Test
+    void createGenerator_withConsecutiveNotOfLengths_shouldPermitStringsEitherSideOfThem() {
+        Optional<StringRestrictions> result =
+            maxLength(10)
+                .intersect(ofLength(4, true)).get()
+                .intersect(ofLength(5, true));
+
+        StringGenerator generator = ((StringRestrictions)result.get()).createGenerator();
+
+        Assert.assertThat(generator.toString(), equalTo("/^(.{0,3}|.{6,10})$/"));
+    }
+
     @Test
     void intersect_withStringRestrictionLengthNotSet_shouldReturnUnsuccessful() {
         StringRestrictions left = setLength(0, 0);
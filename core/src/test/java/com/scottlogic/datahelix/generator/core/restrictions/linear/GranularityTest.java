@@ -27,6 +27,7 @@ import java.time.ZoneOffset;
 import static com.shazam.shazamcrest.MatcherAssert.assertThat;
 import static com.shazam.shazamcrest.matcher.Matchers.sameBeanAs;
 import static java.time.temporal.ChronoUnit.MILLIS;
+import static java.time.temporal.ChronoUnit.MONTHS;
 import static java.time.temporal.ChronoUnit.YEARS;
 
 class GranularityTest {
@@ -96,5 +97,25 @@ class GranularityTest {
         assertThat(result, sameBeanAs(expectedResult));
     }
 
+    @Test
+    public void dateTimeRestrictionsWorkingDays_getValueAfterSteps_skipsWeekends(){
+        DateTimeGranularity granularity = DateTimeGranularity.create("working days");
+        OffsetDateTime friday = OffsetDateTime.of(2020, 1, 3, 0, 0, 0, 0, ZoneOffset.UTC);
+
+        OffsetDateTime result = granularity.getValueAfterSteps(friday, 3);
+        OffsetDateTime expectedResult = OffsetDateTime.of(2020, 1, 8, 0, 0, 0, 0, ZoneOffset.UTC);
+
+        assertThat(result, sameBeanAs(expectedResult));
+    }
 
-}
\ No newline at end of file
+    @Test
+    public void dateTimeRestrictionsMonths_getValueAfterStepsFromUnalignedValue_matchesSteppingThroughEachValue(){
+        DateTimeGranularity granularity = new DateTimeGranularity(MONTHS);
+        OffsetDateTime offsetDateTime = OffsetDateTime.of(2020, 1, 31, 0, 0, 0, 0, ZoneOffset.UTC);
+
+        OffsetDateTime result = granularity.getValueAfterSteps(offsetDateTime, 2);
+        OffsetDateTime expectedResult = granularity.getNext(granularity.getNext(offsetDateTime));
+
+        assertThat(result, sameBeanAs(expectedResult));
+    }
+}
@@ -0,0 +1,117 @@
+/*
+ * Copyright 2019 Scott Logic Ltd
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.scottlogic.datahelix.generator.core.walker;
+
+import com.scottlogic.datahelix.generator.common.profile.Field;
+import com.scottlogic.datahelix.generator.common.profile.ProfileFields;
+import com.scottlogic.datahelix.generator.core.decisiontree.DecisionTree;
+import com.scottlogic.datahelix.generator.core.fieldspecs.FieldSpecHelper;
+import com.scottlogic.datahelix.generator.core.fieldspecs.FieldSpecMerger;
+import com.scottlogic.datahelix.generator.core.generation.FieldSpecValueGenerator;
+import com.scottlogic.datahelix.generator.core.generation.combinationstrategies.ExhaustiveCombinationStrategy;
+import com.scottlogic.datahelix.generator.core.generation.databags.DataBag;
+import com.scottlogic.datahelix.generator.core.generation.databags.RowSpecDataBagGenerator;
+import com.scottlogic.datahelix.generator.core.generation.grouped.FieldSpecGroupValueGenerator;
+import com.scottlogic.datahelix.generator.core.reducer.ConstraintReducer;
+import com.scottlogic.datahelix.generator.core.utils.JavaUtilRandomNumberGenerator;
+import com.scottlogic.datahelix.generator.core.walker.decisionbased.NoGoodCache;
+import com.scottlogic.datahelix.generator.core.walker.decisionbased.RowSpecTreeSolver;
+import com.scottlogic.datahelix.generator.core.walker.decisionbased.SequentialOptionPicker;
+import com.scottlogic.datahelix.generator.core.walker.pruner.TreePruner;
+import com.scottlogic.datahelix.generator.core.walker.rowspec.RowSpecDecisionTreeWalker;
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static com.scottlogic.datahelix.generator.common.profile.FieldBuilder.createField;
+import static com.scottlogic.datahelix.generator.core.builders.TestConstraintNodeBuilder.constraintNode;
+import static com.scottlogic.datahelix.generator.core.config.detail.CombinationStrategyType.EXHAUSTIVE;
+import static com.scottlogic.datahelix.generator.core.config.detail.DataGenerationType.FULL_SEQUENTIAL;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+
+class ParallelDecisionTreeWalkerTests {
+    private final Field fieldA = createField("A");
+    private final Field fieldB = createField("B");
+    private final DecisionTree tree = new DecisionTree(
+        constraintNode()
+            .where(fieldA).isInSet("x", "y")
+            .withDecision(
+                constraintNode().where(fieldB).isNull(),
+                constraintNode().where(fieldB).isInSet("1", "2", "3"))
+            .build(),
+        new ProfileFields(Arrays.asList(fieldA, fieldB)));
+    private final DecisionTreeWalker sequentialWalker = createSequentialWalker();
+
+    @Test
+    void walk_fullSequential_producesSameRowsInSameOrderAsUnderlyingWalker() {
+        List<DataBag> expected = sequentialWalker.walk(tree).collect(Collectors.toList());
+
+        List<DataBag> actual = new ParallelDecisionTreeWalker(sequentialWalker, 4).walk(tree)
+            .collect(Collectors.toList());
+
+        assertThat(actual.size(), is(expected.size()));
+        assertThat(actual, equalTo(expected));
+    }
+
+    @Test
+    void walk_severalTreesConcurrently_producesSameRowCountAndRowSetForEach() {
+        Set<DataBag> expected = sequentialWalker.walk(tree).collect(Collectors.toSet());
+        long expectedCount = sequentialWalker.walk(tree).count();
+        ParallelDecisionTreeWalker parallelWalker = new ParallelDecisionTreeWalker(sequentialWalker, 4);
+
+        List<Iterator<DataBag>> walks = Stream.generate(() -> parallelWalker.walk(tree).iterator())
+            .limit(8)
+            .collect(Collectors.toList());
+        List<List<DataBag>> results = new ArrayList<>();
+        walks.forEach(walk -> results.add(new ArrayList<>()));
+        boolean anyRemaining = true;
+        while (anyRemaining) {
+            anyRemaining = false;
+            for (int i = 0; i < walks.size(); i++) {
+                if (walks.get(i).hasNext()) {
+                    results.get(i).add(walks.get(i).next());
+                    anyRemaining = true;
+                }
+            }
+        }
+
+        for (List<DataBag> result : results) {
+            assertThat((long) result.size(), is(expectedCount));
+            assertThat(new HashSet<>(result), equalTo(expected));
+        }
+    }
+
+    private static DecisionTreeWalker createSequentialWalker() {
+        FieldSpecMerger fieldSpecMerger = new FieldSpecMerger();
+        ConstraintReducer constraintReducer = new ConstraintReducer(fieldSpecMerger);
+        RowSpecTreeSolver rowSpecTreeSolver = new RowSpecTreeSolver(
+            constraintReducer,
+            new TreePruner(fieldSpecMerger, constraintReducer, new FieldSpecHelper()),
+            new SequentialOptionPicker(),
+            new NoGoodCache(constraintReducer));
+        RowSpecDataBagGenerator rowSpecDataBagGenerator = new RowSpecDataBagGenerator(
+            new FieldSpecGroupValueGenerator(
+                new FieldSpecValueGenerator(FULL_SEQUENTIAL, new JavaUtilRandomNumberGenerator(0)),
+                EXHAUSTIVE),
+            new ExhaustiveCombinationStrategy());
+        return new RowSpecDecisionTreeWalker(rowSpecTreeSolver, rowSpecDataBagGenerator);
+    }
+}
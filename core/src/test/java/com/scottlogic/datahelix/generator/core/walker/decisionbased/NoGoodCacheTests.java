@@ -0,0 +1,93 @@
+/*
+ * Copyright 2019 Scott Logic Ltd
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.scottlogic.datahelix.generator.core.walker.decisionbased;
+
+import com.scottlogic.datahelix.generator.common.profile.Field;
+import com.scottlogic.datahelix.generator.core.decisiontree.ConstraintNode;
+import com.scottlogic.datahelix.generator.core.fieldspecs.FieldSpecMerger;
+import com.scottlogic.datahelix.generator.core.reducer.ConstraintReducer;
+import org.junit.jupiter.api.Test;
+
+import static com.scottlogic.datahelix.generator.common.profile.FieldBuilder.createField;
+import static com.scottlogic.datahelix.generator.core.builders.TestConstraintNodeBuilder.constraintNode;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.*;
+
+class NoGoodCacheTests {
+    private final Field a = createField("a");
+    private final Field b = createField("b");
+    private final NoGoodCache noGoodCache = new NoGoodCache(new ConstraintReducer(new FieldSpecMerger()));
+
+    @Test
+    void rejects_rootContainingLearnedConflict_isTrue() {
+        ConstraintNode option = constraintNode().where(a).isInSet("x").build();
+        noGoodCache.learn(constraintNode().where(a).isInSet("y").where(a).isNotNull().build(), option);
+
+        ConstraintNode laterRoot = constraintNode()
+            .where(a).isInSet("y")
+            .where(a).isNotNull()
+            .where(b).isInSet("z")
+            .build();
+
+        assertThat(noGoodCache.rejects(laterRoot, option), is(true));
+    }
+
+    @Test
+    void rejects_rootMissingPartOfLearnedConflict_isFalse() {
+        ConstraintNode option = constraintNode().where(a).isInSet("x").build();
+        noGoodCache.learn(constraintNode().where(a).isInSet("y").where(a).isNotNull().build(), option);
+
+        ConstraintNode laterRoot = constraintNode().where(a).isInSet("y").build();
+
+        assertThat(noGoodCache.rejects(laterRoot, option), is(false));
+    }
+
+    @Test
+    void learn_rootWithConstraintsNotNeededForConflict_learnsOnlyTheNeededConstraints() {
+        ConstraintNode option = constraintNode().where(a).isInSet("x").where(a).isNotNull().build();
+        noGoodCache.learn(
+            constraintNode().where(a).isInSet("y").where(a).isNotInSet("w").where(b).isInSet("z").build(),
+            option);
+
+        ConstraintNode laterRoot = constraintNode().where(a).isInSet("y").build();
+
+        assertThat(noGoodCache.rejects(laterRoot, option), is(true));
+    }
+
+    @Test
+    void learn_optionNotContradictingRootOnAnyField_learnsNothing() {
+        ConstraintNode option = constraintNode().where(a).isInSet("x").build();
+        ConstraintNode root = constraintNode().where(b).isInSet("z").build();
+        noGoodCache.learn(root, option);
+
+        assertThat(noGoodCache.rejects(root, option), is(false));
+    }
+
+    @Test
+    void learn_sameSearchFailingTwice_searchesOnce() {
+        ConstraintReducer reducer = spy(new ConstraintReducer(new FieldSpecMerger()));
+        NoGoodCache cache = new NoGoodCache(reducer);
+        ConstraintNode option = constraintNode().where(a).isInSet("x").build();
+
+        cache.learn(constraintNode().where(b).isInSet("z").build(), option);
+        cache.learn(constraintNode().where(b).isInSet("w").build(), option);
+
+        verify(reducer, times(1)).reduceConstraintsToFieldSpec(any(), any());
+    }
+}
@@ -43,7 +43,7 @@ class RowSpecTreeSolverTests {
     private ConstraintReducer constraintReducer = new ConstraintReducer(fieldSpecMerger);
     private TreePruner pruner = new TreePruner(fieldSpecMerger, constraintReducer, new FieldSpecHelper());
     private OptionPicker optionPicker = new SequentialOptionPicker();
-    private RowSpecTreeSolver rowSpecTreeSolver = new RowSpecTreeSolver(constraintReducer, pruner, optionPicker);
+    private RowSpecTreeSolver rowSpecTreeSolver = new RowSpecTreeSolver(constraintReducer, pruner, optionPicker, new NoGoodCache(constraintReducer));
 
     @Test
     void createRowSpecs_whenRootNodeHasNoDecisions_returnsRowSpecOfRoot() {
@@ -40,6 +40,7 @@ import static com.scottlogic.datahelix.generator.core.builders.TestConstraintNod
 import static com.shazam.shazamcrest.MatcherAssert.assertThat;
 import static com.shazam.shazamcrest.matcher.Matchers.sameBeanAs;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
 import static org.mockito.Matchers.any;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.when;
@@ -413,6 +414,32 @@ class TreePrunerTests {
         assertThat(actual, sameBeanAs(expected));
     }
 
+    // Same subtree pruned twice against equal field specs -> second prune is served from the cache
+    @Test
+    public void pruneConstraintNode_samePruneRepeated_returnsCachedResult() {
+        //Arrange
+        ConstraintNode tree =
+            constraintNode()
+                .withDecision(
+                    constraintNode().where(field).isInSet("valid"),
+                    constraintNode().where(field).isInSet("invalid"))
+                .build();
+        FieldSpec inputFieldSpec = FieldSpecFactory.fromList(DistributedList.uniform(Collections.singleton("valid")))
+            .withNotNull();
+
+        when(fieldSpecHelper.getFieldSpecForValue(any())).thenReturn(inputFieldSpec);
+
+        //Act
+        Merged<ConstraintNode> first = treePruner.pruneConstraintNode(tree, field, fieldValue());
+        long missesAfterFirstPrune = treePruner.getPruneCache().getMisses();
+        Merged<ConstraintNode> second = treePruner.pruneConstraintNode(tree, field, fieldValue());
+
+        //Assert
+        assertSame(first, second);
+        assertEquals(1, treePruner.getPruneCache().getHits());
+        assertEquals(missesAfterFirstPrune, treePruner.getPruneCache().getMisses());
+    }
+
     private DataBagValue fieldValue() {
         return new DataBagValue("TODO");
     }
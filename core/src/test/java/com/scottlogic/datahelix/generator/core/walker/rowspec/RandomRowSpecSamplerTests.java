@@ -0,0 +1,115 @@
+/*
+ * Copyright 2019 Scott Logic Ltd
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.scottlogic.datahelix.generator.core.walker.rowspec;
+
+import com.scottlogic.datahelix.generator.common.profile.Field;
+import com.scottlogic.datahelix.generator.common.profile.Fields;
+import com.scottlogic.datahelix.generator.common.profile.ProfileFields;
+import com.scottlogic.datahelix.generator.core.decisiontree.ConstraintNode;
+import com.scottlogic.datahelix.generator.core.decisiontree.DecisionTree;
+import com.scottlogic.datahelix.generator.core.fieldspecs.FieldSpecMerger;
+import com.scottlogic.datahelix.generator.core.fieldspecs.RowSpec;
+import com.scottlogic.datahelix.generator.core.fieldspecs.WhitelistFieldSpec;
+import com.scottlogic.datahelix.generator.core.reducer.ConstraintReducer;
+import com.scottlogic.datahelix.generator.core.utils.JavaUtilRandomNumberGenerator;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Optional;
+import java.util.Set;
+
+import static com.scottlogic.datahelix.generator.common.profile.FieldBuilder.createField;
+import static com.scottlogic.datahelix.generator.core.builders.TestConstraintNodeBuilder.constraintNode;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.containsInAnyOrder;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+
+class RandomRowSpecSamplerTests {
+    private final Field a = createField("a");
+    private final Field b = createField("b");
+    private final Fields fields = new ProfileFields(Arrays.asList(a, b));
+
+    @Test
+    void sample_withContradictoryOptions_onlyReturnsConsistentRowSpecs() {
+        ConstraintNode root = constraintNode()
+            .where(a).isNotNull()
+            .withDecision(
+                constraintNode().where(a).isInSet("1"),
+                constraintNode().where(a).isInSet("2"))
+            .withDecision(
+                constraintNode().where(a).isInSet("2", "3").where(b).isInSet("x"),
+                constraintNode().where(a).isInSet("3"))
+            .build();
+        RandomRowSpecSampler sampler = sampler(root);
+
+        for (int i = 0; i < 50; i++) {
+            RowSpec rowSpec = sampler.sample().get();
+
+            assertThat(values(rowSpec, a), equalTo(Collections.singleton("2")));
+            assertThat(values(rowSpec, b), equalTo(Collections.singleton("x")));
+        }
+    }
+
+    @Test
+    void sample_withIndependentOptions_returnsEveryOption() {
+        ConstraintNode root = constraintNode()
+            .where(b).isInSet("x")
+            .withDecision(
+                constraintNode().where(a).isInSet("1"),
+                constraintNode().where(a).isInSet("2"),
+                constraintNode().where(a).isInSet("3"))
+            .build();
+        RandomRowSpecSampler sampler = sampler(root);
+
+        Set<Object> sampledValues = new HashSet<>();
+        for (int i = 0; i < 100; i++) {
+            sampledValues.addAll(values(sampler.sample().get(), a));
+        }
+
+        assertThat(sampledValues, containsInAnyOrder("1", "2", "3"));
+    }
+
+    @Test
+    void sample_withNoConsistentRowSpec_returnsEmpty() {
+        ConstraintNode root = constraintNode()
+            .where(a).isInSet("1")
+            .where(a).isNotNull()
+            .withDecision(
+                constraintNode().where(a).isInSet("2"),
+                constraintNode().where(a).isInSet("3").where(b).isInSet("x"))
+            .build();
+
+        Optional<RowSpec> rowSpec = sampler(root).sample();
+
+        assertThat(rowSpec.isPresent(), is(false));
+    }
+
+    private RandomRowSpecSampler sampler(ConstraintNode root) {
+        return new RandomRowSpecSampler(
+            new DecisionTree(root, fields),
+            new ConstraintReducer(new FieldSpecMerger()),
+            new FieldSpecMerger(),
+            new JavaUtilRandomNumberGenerator(0));
+    }
+
+    private static Set<Object> values(RowSpec rowSpec, Field field) {
+        return new HashSet<>(((WhitelistFieldSpec) rowSpec.getSpecForField(field)).getWhitelist().list());
+    }
+}
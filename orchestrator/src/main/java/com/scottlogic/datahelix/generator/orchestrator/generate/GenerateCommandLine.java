@@ -26,7 +26,9 @@ import com.scottlogic.datahelix.generator.core.config.detail.VisualiserLevel;
 import com.scottlogic.datahelix.generator.orchestrator.CommonOptionInfo;
 import com.scottlogic.datahelix.generator.orchestrator.guice.AllConfigSource;
 import com.scottlogic.datahelix.generator.orchestrator.guice.AllModule;
+import com.scottlogic.datahelix.generator.orchestrator.validator.GenerationOptionsValidator;
 import com.scottlogic.datahelix.generator.common.output.OutputFormat;
+import com.scottlogic.datahelix.generator.output.compression.OutputCompression;
 import com.scottlogic.datahelix.generator.profile.ProfileConfiguration;
 import picocli.CommandLine;
 
@@ -52,6 +54,8 @@ import static com.scottlogic.datahelix.generator.common.output.OutputFormat.CSV;
 public class GenerateCommandLine implements AllConfigSource, Callable<Integer> {
     @Override
     public Integer call() throws Exception {
+        new GenerationOptionsValidator(this).validateCommandLine();
+
         Module container = new AllModule(this);
         Injector injector = Guice.createInjector(container);
 
@@ -123,6 +127,36 @@ public class GenerateCommandLine implements AllConfigSource, Callable<Integer> {
         description = "Permits infinite generation of data")
     private boolean infiniteGeneration = false;
 
+    @SuppressWarnings("FieldCanBeLocal")
+    @CommandLine.Option(
+        names = {"--threads"},
+        description = "Defines the number of threads used to generate independent groups of fields concurrently")
+    private int threads = 1;
+
+    @SuppressWarnings("FieldCanBeLocal")
+    @CommandLine.Option(
+        names = {"--shards"},
+        description = "Defines the number of independently seeded copies of the generator to run concurrently in random mode")
+    private int shards = 1;
+
+    @SuppressWarnings("FieldCanBeLocal")
+    @CommandLine.Option(
+        names = {"--shuffle-unique"},
+        description = "Generates the values of unique fields in a shuffled order in random mode, instead of in sequence")
+    private boolean shuffleUnique = false;
+
+    @SuppressWarnings("FieldCanBeLocal")
+    @CommandLine.Option(
+        names = {"--unique-combinations-memory"},
+        description = "Defines the megabytes of memory outside the heap to track unique combinations of fields in, beyond which they are tracked in a temporary file")
+    private int uniqueCombinationsMemory = 512;
+
+    @SuppressWarnings("FieldCanBeLocal")
+    @CommandLine.Option(
+        names = {"--seed"},
+        description = "Seeds the random number generator, so that repeated runs produce the same data")
+    private Long seed = null;
+
     @SuppressWarnings("FieldCanBeLocal")
     @CommandLine.Option(
         names = {"--quiet"},
@@ -140,6 +174,41 @@ public class GenerateCommandLine implements AllConfigSource, Callable<Integer> {
         description = "Output format (${COMPLETION-CANDIDATES})")
     private OutputFormat outputFormat = CSV;
 
+    @SuppressWarnings("FieldCanBeLocal")
+    @CommandLine.Option(
+        names = {"--output-queue-depth"},
+        description = "Defines the number of batches of rows that can wait to be written, 0 writes rows on the generating thread")
+    private int outputQueueDepth = 8;
+
+    @SuppressWarnings("FieldCanBeLocal")
+    @CommandLine.Option(
+        names = {"--output-batch-size"},
+        description = "Defines the number of rows passed to the output writer at a time")
+    private int outputBatchSize = 256;
+
+    @CommandLine.Option(
+        names = {"--output-compression"},
+        description = "Compresses the output (${COMPLETION-CANDIDATES}), defaults to the compression matching the output path's extension")
+    private OutputCompression outputCompression;
+
+    @SuppressWarnings("FieldCanBeLocal")
+    @CommandLine.Option(
+        names = {"--max-rows-per-file"},
+        description = "Splits the output into numbered files of at most this many rows, 0 writes a single file")
+    private long maxRowsPerFile = 0;
+
+    @SuppressWarnings("FieldCanBeLocal")
+    @CommandLine.Option(
+        names = {"--max-bytes-per-file"},
+        description = "Splits the output into numbered files of about this many bytes, 0 writes a single file")
+    private long maxBytesPerFile = 0;
+
+    @SuppressWarnings("FieldCanBeLocal")
+    @CommandLine.Option(
+        names = {"--output-file-writers"},
+        description = "Defines the number of numbered output files written concurrently")
+    private int outputFileWriters = 1;
+
     @SuppressWarnings("FieldCanBeLocal")
     @CommandLine.Option(
         names = {"--set-from-file-directory"},
@@ -208,10 +277,65 @@ public class GenerateCommandLine implements AllConfigSource, Callable<Integer> {
         return infiniteGeneration;
     }
 
+    @Override
+    public int getThreads() {
+        return threads;
+    }
+
+    @Override
+    public int getShards() {
+        return shards;
+    }
+
+    @Override
+    public boolean getShuffleUnique() {
+        return shuffleUnique;
+    }
+
+    @Override
+    public int getUniqueCombinationsMemory() {
+        return uniqueCombinationsMemory;
+    }
+
+    @Override
+    public Long getSeed() {
+        return seed;
+    }
+
     public OutputFormat getOutputFormat() {
         return outputFormat;
     }
 
+    @Override
+    public OutputCompression getOutputCompression() {
+        return outputCompression;
+    }
+
+    @Override
+    public int getOutputQueueDepth() {
+        return outputQueueDepth;
+    }
+
+    @Override
+    public int getOutputBatchSize() {
+        return outputBatchSize;
+    }
+
+    @Override
+    public long getMaxRowsPerFile() {
+        return maxRowsPerFile;
+    }
+
+    @Override
+    public long getMaxBytesPerFile() {
+        return maxBytesPerFile;
+    }
+
+    @Override
+    public int getOutputFileWriters() {
+        return outputFileWriters;
+    }
+
     @Override
     public String fromFilePath() {
         return fromFilePath;
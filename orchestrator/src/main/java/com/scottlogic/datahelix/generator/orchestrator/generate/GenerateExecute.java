@@ -23,6 +23,7 @@ import com.scottlogic.datahelix.generator.core.generation.DataGenerator;
 import com.scottlogic.datahelix.generator.core.generation.DataGeneratorMonitor;
 import com.scottlogic.datahelix.generator.core.profile.Profile;
 import com.scottlogic.datahelix.generator.output.outputtarget.SingleDatasetOutputTarget;
+import com.scottlogic.datahelix.generator.output.writer.AsyncDataSetWriter;
 import com.scottlogic.datahelix.generator.output.writer.DataSetWriter;
 import com.scottlogic.datahelix.generator.profile.reader.ProfileReader;
 
@@ -36,6 +37,8 @@ public class GenerateExecute {
     private final DataGenerator dataGenerator;
     private final DataGeneratorMonitor monitor;
     private final File profileFile;
+    private final int outputQueueDepth;
+    private final int outputBatchSize;
 
     @Inject
     GenerateExecute(
@@ -43,12 +46,16 @@ public class GenerateExecute {
         SingleDatasetOutputTarget singleDatasetOutputTarget,
         ProfileReader profileReader,
         DataGeneratorMonitor monitor,
-        @Named("config:profileFile") File profileFile) {
+        @Named("config:profileFile") File profileFile,
+        @Named("config:outputQueueDepth") int outputQueueDepth,
+        @Named("config:outputBatchSize") int outputBatchSize) {
         this.dataGenerator = dataGenerator;
         this.singleDatasetOutputTarget = singleDatasetOutputTarget;
         this.profileReader = profileReader;
         this.monitor = monitor;
         this.profileFile = profileFile;
+        this.outputQueueDepth = outputQueueDepth;
+        this.outputBatchSize = outputBatchSize;
     }
 
     public void execute() throws IOException {
@@ -61,7 +68,25 @@ public class GenerateExecute {
     private void outputData(Profile profile, Stream<GeneratedObject> generatedDataItems) throws IOException {
         singleDatasetOutputTarget.validate();
 
-        try (DataSetWriter writer = singleDatasetOutputTarget.openWriter(profile.getFields())) {
+        DataSetWriter writer = singleDatasetOutputTarget.openWriter(profile.getFields());
+        if (writer instanceof AsyncDataSetWriter || outputQueueDepth > 0) {
+            // targets writing several files at once already hand rows to their own writer threads
+            AsyncDataSetWriter asyncWriter = writer instanceof AsyncDataSetWriter
+                ? (AsyncDataSetWriter) writer
+                : new AsyncDataSetWriter(writer, outputQueueDepth, outputBatchSize);
+            writeRows(asyncWriter, generatedDataItems);
+            monitor.addLineToPrintAtEndOfGeneration(String.format(
+                "Generation waited %dms for output, output waited %dms for generation",
+                asyncWriter.getGeneratorStallMillis(),
+                asyncWriter.getWriterStallMillis()));
+        } else {
+            writeRows(writer, generatedDataItems);
+        }
+        monitor.endGeneration();
+    }
+
+    private static void writeRows(DataSetWriter dataSetWriter, Stream<GeneratedObject> generatedDataItems) throws IOException {
+        try (DataSetWriter writer = dataSetWriter) {
             generatedDataItems.forEach(row -> {
                 try {
                     writer.writeRow(row);
@@ -70,6 +95,5 @@ public class GenerateExecute {
                 }
             });
         }
-        monitor.endGeneration();
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,56 @@
+/*
+ * Copyright 2019 Scott Logic Ltd
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.scottlogic.datahelix.generator.orchestrator.validator;
+
+import com.scottlogic.datahelix.generator.common.ValidationException;
+import com.scottlogic.datahelix.generator.orchestrator.guice.AllConfigSource;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Class used to determine whether the numeric command line options are within their permitted ranges
+ */
+public class GenerationOptionsValidator {
+    private final AllConfigSource configSource;
+
+    public GenerationOptionsValidator(AllConfigSource configSource) {
+        this.configSource = configSource;
+    }
+
+    public void validateCommandLine() {
+        List<String> errors = new ArrayList<>();
+        checkAtLeast(errors, "--threads", configSource.getThreads(), 1);
+        checkAtLeast(errors, "--shards", configSource.getShards(), 1);
+        checkAtLeast(errors, "--unique-combinations-memory", configSource.getUniqueCombinationsMemory(), 1);
+        checkAtLeast(errors, "--output-queue-depth", configSource.getOutputQueueDepth(), 0);
+        checkAtLeast(errors, "--output-batch-size", configSource.getOutputBatchSize(), 1);
+        checkAtLeast(errors, "--output-file-writers", configSource.getOutputFileWriters(), 1);
+        checkAtLeast(errors, "--max-rows-per-file", configSource.getMaxRowsPerFile(), 0);
+        checkAtLeast(errors, "--max-bytes-per-file", configSource.getMaxBytesPerFile(), 0);
+
+        if (!errors.isEmpty()) {
+            throw new ValidationException(errors);
+        }
+    }
+
+    private static void checkAtLeast(List<String> errors, String option, long value, long minimum) {
+        if (value < minimum) {
+            errors.add(String.format("Invalid Option - %s must be at least %d, but was %d", option, minimum, value));
+        }
+    }
+}
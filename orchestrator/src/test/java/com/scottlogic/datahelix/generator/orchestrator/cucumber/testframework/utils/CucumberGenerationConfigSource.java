@@ -23,6 +23,7 @@ import com.scottlogic.datahelix.generator.core.config.detail.MonitorType;
 import com.scottlogic.datahelix.generator.core.config.detail.VisualiserLevel;
 import com.scottlogic.datahelix.generator.orchestrator.guice.AllConfigSource;
 import com.scottlogic.datahelix.generator.common.output.OutputFormat;
+import com.scottlogic.datahelix.generator.output.compression.OutputCompression;
 
 import java.io.File;
 import java.nio.file.Path;
@@ -60,6 +61,31 @@ public class CucumberGenerationConfigSource implements AllConfigSource {
         return false;
     }
 
+    @Override
+    public int getThreads() {
+        return 1;
+    }
+
+    @Override
+    public int getShards() {
+        return 1;
+    }
+
+    @Override
+    public boolean getShuffleUnique() {
+        return false;
+    }
+
+    @Override
+    public int getUniqueCombinationsMemory() {
+        return 512;
+    }
+
+    @Override
+    public Long getSeed() {
+        return null;
+    }
+
     @Override
     public Path getOutputPath() {
         return new File("mockFilePath").toPath();
@@ -85,6 +111,36 @@ public class CucumberGenerationConfigSource implements AllConfigSource {
         return OutputFormat.JSON;
     }
 
+    @Override
+    public OutputCompression getOutputCompression() {
+        return OutputCompression.NONE;
+    }
+
+    @Override
+    public int getOutputQueueDepth() {
+        return 8;
+    }
+
+    @Override
+    public int getOutputBatchSize() {
+        return 256;
+    }
+
+    @Override
+    public long getMaxRowsPerFile() {
+        return 0;
+    }
+
+    @Override
+    public long getMaxBytesPerFile() {
+        return 0;
+    }
+
+    @Override
+    public int getOutputFileWriters() {
+        return 1;
+    }
+
     @Override
     public String fromFilePath() {
         return "";
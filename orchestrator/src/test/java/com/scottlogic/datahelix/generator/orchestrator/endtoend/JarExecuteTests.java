@@ -22,6 +22,7 @@ import java.io.BufferedReader;
 import java.io.IOException;
 import java.io.InputStreamReader;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -96,6 +97,40 @@ public class JarExecuteTests {
             p);
     }
 
+    @Test
+    void generateSameDataFromSameSeedInSeparateRuns() throws Exception {
+        // each run is a separate JVM, so hash codes that vary between runs would change the output
+        List<String> first = generateWithSeed();
+        List<String> second = generateWithSeed();
+
+        assertThat(first.size(), is(greaterThanOrEqualTo(2)));
+        assertEquals(first, second, "Two runs with the same seed produced different data");
+    }
+
+    @Test
+    void generateSameDataFromSameSeedInSeparateShardedRuns() throws Exception {
+        List<String> first = generateWithSeed("--shards=2");
+        List<String> second = generateWithSeed("--shards=2");
+
+        assertThat(first.size(), is(greaterThanOrEqualTo(2)));
+        assertEquals(first, second, "Two sharded runs with the same seed produced different data");
+    }
+
+    private List<String> generateWithSeed(String... extraArgs) throws IOException, InterruptedException {
+        ProcessBuilder pb = new ProcessBuilder(
+            "java",
+            "-jar",
+            "build/libs/datahelix.jar",
+            "-p=src/test/java/com/scottlogic/datahelix/generator/orchestrator/endtoend/seededprofile.profile.json",
+            "--seed=42",
+            "--max-rows=200",
+            "--quiet");
+        pb.command().addAll(Arrays.asList(extraArgs));
+
+        pb.redirectErrorStream(true);
+        return collectOutputAndCloseProcess(pb.start());
+    }
+
     private void assertCsvOutputs(List<String> outputs, String expectedFinalMessage, String extraErrorMessage, Process process) {
         String commandLine = commandLineMap.get(process);
 
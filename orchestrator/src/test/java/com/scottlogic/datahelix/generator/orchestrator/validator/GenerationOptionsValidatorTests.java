@@ -0,0 +1,70 @@
+/*
+ * Copyright 2019 Scott Logic Ltd
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.scottlogic.datahelix.generator.orchestrator.validator;
+
+import com.scottlogic.datahelix.generator.common.ValidationException;
+import com.scottlogic.datahelix.generator.orchestrator.guice.AllConfigSource;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class GenerationOptionsValidatorTests {
+    private final AllConfigSource configSource = mock(AllConfigSource.class);
+    private final GenerationOptionsValidator validator = new GenerationOptionsValidator(configSource);
+
+    @BeforeEach
+    void setUp() {
+        when(configSource.getThreads()).thenReturn(1);
+        when(configSource.getShards()).thenReturn(1);
+        when(configSource.getUniqueCombinationsMemory()).thenReturn(512);
+        when(configSource.getOutputQueueDepth()).thenReturn(0);
+        when(configSource.getOutputBatchSize()).thenReturn(256);
+        when(configSource.getOutputFileWriters()).thenReturn(1);
+    }
+
+    @Test
+    void validateCommandLine_withDefaultOptions_doesNotThrow() {
+        assertDoesNotThrow(validator::validateCommandLine);
+    }
+
+    @Test
+    void validateCommandLine_withZeroThreads_throwsValidationException() {
+        when(configSource.getThreads()).thenReturn(0);
+
+        ValidationException exception = assertThrows(ValidationException.class, validator::validateCommandLine);
+
+        assertThat(exception.errorMessages, contains("Invalid Option - --threads must be at least 1, but was 0"));
+    }
+
+    @Test
+    void validateCommandLine_withNegativeShardsAndBatchSize_reportsBoth() {
+        when(configSource.getShards()).thenReturn(-1);
+        when(configSource.getOutputBatchSize()).thenReturn(0);
+
+        ValidationException exception = assertThrows(ValidationException.class, validator::validateCommandLine);
+
+        assertThat(exception.errorMessages, contains(
+            "Invalid Option - --shards must be at least 1, but was -1",
+            "Invalid Option - --output-batch-size must be at least 1, but was 0"));
+    }
+}
@@ -65,7 +65,7 @@ public class ProfileValidationTests {
             new NameRetrievalService(csvReaderFactory));
         ProfileDeserialiser profileDeserialiser = new ProfileDeserialiser(
             new ConfigValidator(new FileUtils()),
-            new ConstraintDeserializerFactory(new FileReader(csvReaderFactory)));
+            new ConstraintDeserializerFactory(new FileReader()));
         CommandBus commandBus = new ProfileCommandBus(
             new FieldService(),
             constraintService,
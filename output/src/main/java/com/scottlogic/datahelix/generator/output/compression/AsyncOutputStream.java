@@ -0,0 +1,230 @@
+/*
+ * Copyright 2019 Scott Logic Ltd
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.scottlogic.datahelix.generator.output.compression;
+
+import com.scottlogic.datahelix.generator.output.writer.AsyncFailure;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Passes bytes to an underlying stream on a dedicated thread, so that expensive streams such as compressors do not
+ * slow down the thread writing the output.
+ *
+ * Bytes are copied into fixed size blocks which circulate between the two threads through a pair of bounded queues,
+ * in the same way as the rows in {@link com.scottlogic.datahelix.generator.output.writer.AsyncDataSetWriter}.
+ */
+class AsyncOutputStream extends OutputStream {
+    private static final int BLOCK_SIZE = 1 << 16;
+    private static final int QUEUE_DEPTH = 4;
+    private static final long MIN_NANOS_BETWEEN_FLUSHES = TimeUnit.SECONDS.toNanos(1);
+    private static final Block FLUSH = new Block(0);
+    private static final Block END = new Block(0);
+
+    private final OutputStream underlyingStream;
+    private final BlockingQueue<Block> freeBlocks = new ArrayBlockingQueue<>(QUEUE_DEPTH + 1);
+    // room for every block, a flush marker and the end marker
+    private final BlockingQueue<Block> fullBlocks = new ArrayBlockingQueue<>(QUEUE_DEPTH + 3);
+    private final Thread writerThread;
+
+    private Block currentBlock = new Block(BLOCK_SIZE);
+    private boolean closed;
+    // set by this thread when it queues a flush marker and cleared by the writer thread when it takes one, so that
+    // frequent flushes do not fill the queue with markers
+    private volatile boolean flushQueued;
+    private final AsyncFailure failure = new AsyncFailure();
+
+    AsyncOutputStream(OutputStream underlyingStream) {
+        this.underlyingStream = underlyingStream;
+        for (int i = 0; i < QUEUE_DEPTH; i++) {
+            freeBlocks.add(new Block(BLOCK_SIZE));
+        }
+
+        this.writerThread = new Thread(this::writeBlocks, "output-compressor");
+        writerThread.setDaemon(true);
+        writerThread.start();
+    }
+
+    @Override
+    public void write(int b) throws IOException {
+        failure.check();
+        if (currentBlock.length == BLOCK_SIZE) {
+            handOffCurrentBlock();
+        }
+        currentBlock.bytes[currentBlock.length++] = (byte) b;
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) throws IOException {
+        failure.check();
+        while (len > 0) {
+            if (currentBlock.length == BLOCK_SIZE) {
+                handOffCurrentBlock();
+            }
+
+            int toCopy = Math.min(len, BLOCK_SIZE - currentBlock.length);
+            System.arraycopy(b, off, currentBlock.bytes, currentBlock.length, toCopy);
+            currentBlock.length += toCopy;
+            off += toCopy;
+            len -= toCopy;
+        }
+    }
+
+    /**
+     * Asks the writer thread to flush the underlying stream once it has written everything before this call. Does not
+     * wait for the flush to happen.
+     *
+     * The writer thread flushes at most once a second, as flushing a compressor ends its current block and so worsens
+     * compression. A flush is held back until the writer thread has nothing left to write and a second has passed since
+     * the last one, but is never dropped.
+     */
+    @Override
+    public void flush() throws IOException {
+        failure.check();
+        if (currentBlock.length > 0) {
+            handOffCurrentBlock();
+        }
+        if (!flushQueued) {
+            flushQueued = true;
+            enqueue(FLUSH);
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        closed = true;
+
+        // not handed off through handOffCurrentBlock, which would throw a failure that close must only throw once
+        if (currentBlock.length > 0) {
+            enqueue(currentBlock);
+        }
+        enqueue(END);
+
+        try {
+            writerThread.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting for output to be compressed");
+        }
+
+        failure.checkOnClose();
+    }
+
+    private void handOffCurrentBlock() throws IOException {
+        failure.check();
+        enqueue(currentBlock);
+        try {
+            currentBlock = freeBlocks.take();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting for the output compressor");
+        }
+    }
+
+    private void enqueue(Block block) throws IOException {
+        try {
+            fullBlocks.put(block);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting for the output compressor");
+        }
+    }
+
+    private void writeBlocks() {
+        boolean flushPending = false;
+        long lastFlushed = System.nanoTime() - MIN_NANOS_BETWEEN_FLUSHES;
+        try {
+            while (true) {
+                Block block = fullBlocks.poll();
+                if (block == null && flushPending) {
+                    // a pending flush is only carried out once everything queued before it has been written
+                    long untilFlushAllowed = MIN_NANOS_BETWEEN_FLUSHES - (System.nanoTime() - lastFlushed);
+                    if (untilFlushAllowed <= 0) {
+                        flushUnderlyingStream();
+                        flushPending = false;
+                        lastFlushed = System.nanoTime();
+                        continue;
+                    }
+                    block = fullBlocks.poll(untilFlushAllowed, TimeUnit.NANOSECONDS);
+                } else if (block == null) {
+                    block = fullBlocks.take();
+                }
+
+                if (block == null) {
+                    continue;
+                }
+                if (block == END) {
+                    break;
+                }
+                if (block == FLUSH) {
+                    flushQueued = false;
+                    flushPending = true;
+                    continue;
+                }
+
+                if (!failure.hasOccurred()) {
+                    writeBlock(block);
+                }
+                block.length = 0;
+                freeBlocks.add(block);
+            }
+        } catch (InterruptedException e) {
+            failure.record(e);
+        }
+
+        try {
+            underlyingStream.close();
+        } catch (Throwable e) {
+            failure.record(e);
+        }
+    }
+
+    private void writeBlock(Block block) {
+        try {
+            underlyingStream.write(block.bytes, 0, block.length);
+        } catch (Throwable e) {
+            failure.record(e);
+        }
+    }
+
+    private void flushUnderlyingStream() {
+        if (failure.hasOccurred()) {
+            return;
+        }
+        try {
+            underlyingStream.flush();
+        } catch (Throwable e) {
+            failure.record(e);
+        }
+    }
+
+    private static class Block {
+        private final byte[] bytes;
+        private int length;
+
+        Block(int size) {
+            this.bytes = new byte[size];
+        }
+    }
+}
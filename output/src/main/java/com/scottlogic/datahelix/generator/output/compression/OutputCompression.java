@@ -0,0 +1,80 @@
+/*
+ * Copyright 2019 Scott Logic Ltd
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.scottlogic.datahelix.generator.output.compression;
+
+import com.github.luben.zstd.ZstdOutputStream;
+import net.jpountz.lz4.LZ4FrameOutputStream;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Optional;
+import java.util.zip.GZIPOutputStream;
+
+public enum OutputCompression {
+    NONE(null),
+    GZIP("gz"),
+    ZSTD("zst"),
+    LZ4("lz4");
+
+    private static final int GZIP_BUFFER_SIZE = 1 << 16;
+
+    private final String fileExtension;
+
+    OutputCompression(String fileExtension) {
+        this.fileExtension = fileExtension;
+    }
+
+    public Optional<String> getFileExtensionWithoutDot() {
+        return Optional.ofNullable(fileExtension);
+    }
+
+    /**
+     * @return the compression whose extension the file name ends with, or NONE
+     */
+    public static OutputCompression fromPath(Path path) {
+        if (path == null) {
+            return NONE;
+        }
+
+        String fileName = path.getFileName().toString();
+        return Arrays.stream(values())
+            .filter(compression -> compression.fileExtension != null)
+            .filter(compression -> fileName.endsWith("." + compression.fileExtension))
+            .findFirst()
+            .orElse(NONE);
+    }
+
+    /**
+     * Wraps the stream so that everything written to it is compressed. Compression happens on a separate thread, see
+     * {@link AsyncOutputStream}. Flushing the returned stream flushes the compressor too, at most once a second, so
+     * streamed output is not held back for long.
+     */
+    public OutputStream wrap(OutputStream stream) throws IOException {
+        switch (this) {
+            case GZIP:
+                return new AsyncOutputStream(new GZIPOutputStream(stream, GZIP_BUFFER_SIZE, true));
+            case ZSTD:
+                return new AsyncOutputStream(new ZstdOutputStream(stream));
+            case LZ4:
+                return new AsyncOutputStream(new LZ4FrameOutputStream(stream));
+            default:
+                return stream;
+        }
+    }
+}
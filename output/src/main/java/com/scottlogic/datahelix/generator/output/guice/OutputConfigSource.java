@@ -17,12 +17,19 @@
 package com.scottlogic.datahelix.generator.output.guice;
 
 import com.scottlogic.datahelix.generator.common.output.OutputFormat;
+import com.scottlogic.datahelix.generator.output.compression.OutputCompression;
 
 import java.nio.file.Path;
 
 public interface OutputConfigSource {
     OutputFormat getOutputFormat();
+    OutputCompression getOutputCompression();
     Path getOutputPath();
     boolean overwriteOutputFiles();
     boolean useStdOut();
+    int getOutputQueueDepth();
+    int getOutputBatchSize();
+    long getMaxRowsPerFile();
+    long getMaxBytesPerFile();
+    int getOutputFileWriters();
 }
@@ -21,6 +21,7 @@ import com.google.inject.name.Names;
 import com.google.inject.util.Providers;
 import com.scottlogic.datahelix.generator.common.output.OutputFormat;
 import com.scottlogic.datahelix.generator.output.OutputPath;
+import com.scottlogic.datahelix.generator.output.compression.OutputCompression;
 import com.scottlogic.datahelix.generator.output.outputtarget.SingleDatasetOutputTarget;
 import com.scottlogic.datahelix.generator.output.writer.OutputWriterFactory;
 
@@ -37,6 +38,7 @@ public class OutputModule extends AbstractModule {
 
         bind(OutputWriterFactory.class).toProvider(OutputWriterFactoryProvider.class);
         bind(SingleDatasetOutputTarget.class).toProvider(SingleDatasetOutputTargetProvider.class);
+        bind(OutputCompression.class).toProvider(OutputCompressionProvider.class);
 
         bind(OutputPath.class).toInstance(new OutputPath(outputConfigSource.getOutputPath()));
 
@@ -48,6 +50,26 @@ public class OutputModule extends AbstractModule {
             .annotatedWith(Names.named("config:streamOutput"))
             .toInstance(outputConfigSource.useStdOut());
 
+        bind(int.class)
+            .annotatedWith(Names.named("config:outputQueueDepth"))
+            .toInstance(outputConfigSource.getOutputQueueDepth());
+
+        bind(int.class)
+            .annotatedWith(Names.named("config:outputBatchSize"))
+            .toInstance(outputConfigSource.getOutputBatchSize());
+
+        bind(long.class)
+            .annotatedWith(Names.named("config:maxRowsPerFile"))
+            .toInstance(outputConfigSource.getMaxRowsPerFile());
+
+        bind(long.class)
+            .annotatedWith(Names.named("config:maxBytesPerFile"))
+            .toInstance(outputConfigSource.getMaxBytesPerFile());
+
+        bind(int.class)
+            .annotatedWith(Names.named("config:outputFileWriters"))
+            .toInstance(outputConfigSource.getOutputFileWriters());
+
         bind(OutputFormat.class)
             .toProvider(Providers.of(outputConfigSource.getOutputFormat()));
     }
@@ -19,6 +19,7 @@ package com.scottlogic.datahelix.generator.output.guice;
 import com.google.inject.Inject;
 import com.google.inject.Provider;
 import com.scottlogic.datahelix.generator.output.writer.OutputWriterFactory;
+import com.scottlogic.datahelix.generator.output.writer.arrow.ArrowOutputWriterFactory;
 import com.scottlogic.datahelix.generator.output.writer.csv.CsvOutputWriterFactory;
 import com.scottlogic.datahelix.generator.output.writer.json.JsonOutputWriterFactory;
 
@@ -26,16 +27,19 @@ public class OutputWriterFactoryProvider implements Provider<OutputWriterFactory
     private final OutputConfigSource configSource;
     private final CsvOutputWriterFactory csvOutputWriterFactory;
     private final JsonOutputWriterFactory jsonOutputWriterFactory;
+    private final ArrowOutputWriterFactory arrowOutputWriterFactory;
 
     @Inject
     public OutputWriterFactoryProvider(
         OutputConfigSource configSource,
         CsvOutputWriterFactory csvOutputWriterFactory,
-        JsonOutputWriterFactory jsonOutputWriterFactory)
+        JsonOutputWriterFactory jsonOutputWriterFactory,
+        ArrowOutputWriterFactory arrowOutputWriterFactory)
     {
         this.configSource = configSource;
         this.csvOutputWriterFactory = csvOutputWriterFactory;
         this.jsonOutputWriterFactory = jsonOutputWriterFactory;
+        this.arrowOutputWriterFactory = arrowOutputWriterFactory;
     }
 
     @Override
@@ -45,10 +49,12 @@ public class OutputWriterFactoryProvider implements Provider<OutputWriterFactory
                 return csvOutputWriterFactory;
             case JSON:
                 return jsonOutputWriterFactory;
+            case ARROW:
+                return arrowOutputWriterFactory;
         }
 
         throw new RuntimeException(String.format(
-            "Unknown output format %s, options are CSV or JSON",
+            "Unknown output format %s, options are CSV, JSON or ARROW",
             configSource.getOutputFormat()
         ));
     }
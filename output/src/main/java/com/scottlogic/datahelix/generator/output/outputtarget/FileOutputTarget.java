@@ -21,6 +21,7 @@ import com.google.inject.name.Named;
 import com.scottlogic.datahelix.generator.common.profile.Fields;
 import com.scottlogic.datahelix.generator.common.util.FileUtils;
 import com.scottlogic.datahelix.generator.output.OutputPath;
+import com.scottlogic.datahelix.generator.output.compression.OutputCompression;
 import com.scottlogic.datahelix.generator.output.writer.DataSetWriter;
 import com.scottlogic.datahelix.generator.output.writer.OutputWriterFactory;
 
@@ -33,24 +34,27 @@ public class FileOutputTarget implements SingleDatasetOutputTarget {
     private final Path filePath;
     private final boolean canOverwriteExistingFiles;
     private final OutputWriterFactory outputWriterFactory;
+    private final OutputCompression outputCompression;
     private final FileUtils fileUtils;
 
     @Inject
     public FileOutputTarget(
         OutputPath outputPath,
         OutputWriterFactory outputWriterFactory,
+        OutputCompression outputCompression,
         @Named("config:canOverwriteOutputFiles") boolean canOverwriteOutputFiles, FileUtils fileUtils) {
         this.canOverwriteExistingFiles = canOverwriteOutputFiles;
         this.outputWriterFactory = outputWriterFactory;
+        this.outputCompression = outputCompression;
         this.fileUtils = fileUtils;
         this.filePath = outputPath.getPath();
     }
 
     @Override
     public DataSetWriter openWriter(Fields fields) throws IOException {
-        final OutputStream stream = new FileOutputStream(
+        final OutputStream stream = outputCompression.wrap(new FileOutputStream(
             this.filePath.toFile(),
-            false);
+            false));
 
         try {
             return outputWriterFactory.createWriter(stream, fields);
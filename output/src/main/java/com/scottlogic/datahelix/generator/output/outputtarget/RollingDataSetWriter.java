@@ -0,0 +1,127 @@
+/*
+ * Copyright 2019 Scott Logic Ltd
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.scottlogic.datahelix.generator.output.outputtarget;
+
+import com.scottlogic.datahelix.generator.common.output.GeneratedObject;
+import com.scottlogic.datahelix.generator.common.profile.Fields;
+import com.scottlogic.datahelix.generator.output.writer.DataSetWriter;
+import com.scottlogic.datahelix.generator.output.writer.OutputWriterFactory;
+
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * Writes rows to a sequence of files, starting a new one, with its own header, once the current file holds the
+ * maximum number of rows or bytes. Bytes are counted as they leave the format writer's buffer, so files may exceed
+ * the byte limit by up to one buffer; for Arrow output that is a whole record batch.
+ */
+class RollingDataSetWriter implements DataSetWriter {
+    interface FileOpener {
+        OutputStream openNextFile() throws IOException;
+    }
+
+    private final FileOpener fileOpener;
+    private final OutputWriterFactory outputWriterFactory;
+    private final Fields fields;
+    private final long maxRowsPerFile;
+    private final long maxBytesPerFile;
+
+    private DataSetWriter currentWriter;
+    private CountingOutputStream currentStream;
+    private long rowsInCurrentFile;
+
+    /**
+     * @param maxRowsPerFile the number of rows after which to start a new file, or 0 for no limit
+     * @param maxBytesPerFile the number of bytes after which to start a new file, or 0 for no limit
+     */
+    RollingDataSetWriter(
+        FileOpener fileOpener,
+        OutputWriterFactory outputWriterFactory,
+        Fields fields,
+        long maxRowsPerFile,
+        long maxBytesPerFile) throws IOException {
+        this.fileOpener = fileOpener;
+        this.outputWriterFactory = outputWriterFactory;
+        this.fields = fields;
+        this.maxRowsPerFile = maxRowsPerFile;
+        this.maxBytesPerFile = maxBytesPerFile;
+
+        openNextFile();
+    }
+
+    @Override
+    public void writeRow(GeneratedObject row) throws IOException {
+        if (currentWriter == null) {
+            openNextFile();
+        }
+
+        currentWriter.writeRow(row);
+        rowsInCurrentFile++;
+
+        if ((maxRowsPerFile > 0 && rowsInCurrentFile >= maxRowsPerFile)
+            || (maxBytesPerFile > 0 && currentStream.bytesWritten >= maxBytesPerFile)) {
+            closeCurrentFile();
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (currentWriter != null) {
+            closeCurrentFile();
+        }
+    }
+
+    private void openNextFile() throws IOException {
+        CountingOutputStream stream = new CountingOutputStream(fileOpener.openNextFile());
+        try {
+            currentWriter = outputWriterFactory.createWriter(stream, fields);
+        } catch (Exception e) {
+            stream.close();
+            throw e;
+        }
+        currentStream = stream;
+        rowsInCurrentFile = 0;
+    }
+
+    private void closeCurrentFile() throws IOException {
+        DataSetWriter writer = currentWriter;
+        currentWriter = null;
+        currentStream = null;
+        writer.close();
+    }
+
+    private static class CountingOutputStream extends FilterOutputStream {
+        private long bytesWritten;
+
+        CountingOutputStream(OutputStream out) {
+            super(out);
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            out.write(b);
+            bytesWritten++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            out.write(b, off, len);
+            bytesWritten += len;
+        }
+    }
+}
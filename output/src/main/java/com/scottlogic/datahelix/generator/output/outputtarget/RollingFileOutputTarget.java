@@ -0,0 +1,202 @@
+/*
+ * Copyright 2019 Scott Logic Ltd
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.scottlogic.datahelix.generator.output.outputtarget;
+
+import com.google.inject.Inject;
+import com.google.inject.name.Named;
+import com.scottlogic.datahelix.generator.common.profile.Fields;
+import com.scottlogic.datahelix.generator.common.util.FileUtils;
+import com.scottlogic.datahelix.generator.output.OutputPath;
+import com.scottlogic.datahelix.generator.output.compression.OutputCompression;
+import com.scottlogic.datahelix.generator.output.writer.AsyncDataSetWriter;
+import com.scottlogic.datahelix.generator.output.writer.DataSetWriter;
+import com.scottlogic.datahelix.generator.output.writer.OutputWriterFactory;
+
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.DirectoryStream;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Splits the output across numbered files alongside the output path, so that {@code data.csv} is written as
+ * {@code data-00000.csv}, {@code data-00001.csv} and so on, and {@code data.csv.gz} as {@code data-00000.csv.gz}.
+ * Each of the file writers rolls on to the next unused number when its current file is full, and when there is more
+ * than one they share a single {@link AsyncDataSetWriter}, each writing on its own thread.
+ */
+public class RollingFileOutputTarget implements SingleDatasetOutputTarget {
+    private static final String FILE_NUMBER_FORMAT = "%s-%05d%s";
+    private static final String FILE_NUMBER_GLOB = "%s-[0-9][0-9][0-9][0-9][0-9]%s";
+
+    private final Path filePath;
+    private final OutputWriterFactory outputWriterFactory;
+    private final OutputCompression outputCompression;
+    private final boolean canOverwriteExistingFiles;
+    private final long maxRowsPerFile;
+    private final long maxBytesPerFile;
+    private final int fileWriters;
+    private final int queueDepth;
+    private final int batchSize;
+    private final FileUtils fileUtils;
+
+    @Inject
+    public RollingFileOutputTarget(
+        OutputPath outputPath,
+        OutputWriterFactory outputWriterFactory,
+        OutputCompression outputCompression,
+        @Named("config:canOverwriteOutputFiles") boolean canOverwriteOutputFiles,
+        @Named("config:maxRowsPerFile") long maxRowsPerFile,
+        @Named("config:maxBytesPerFile") long maxBytesPerFile,
+        @Named("config:outputFileWriters") int fileWriters,
+        @Named("config:outputQueueDepth") int queueDepth,
+        @Named("config:outputBatchSize") int batchSize,
+        FileUtils fileUtils) {
+        this.filePath = outputPath.getPath();
+        this.outputWriterFactory = outputWriterFactory;
+        this.outputCompression = outputCompression;
+        this.canOverwriteExistingFiles = canOverwriteOutputFiles;
+        this.maxRowsPerFile = maxRowsPerFile;
+        this.maxBytesPerFile = maxBytesPerFile;
+        this.fileWriters = fileWriters;
+        this.queueDepth = queueDepth;
+        this.batchSize = batchSize;
+        this.fileUtils = fileUtils;
+    }
+
+    @Override
+    public DataSetWriter openWriter(Fields fields) throws IOException {
+        AtomicInteger nextFileNumber = new AtomicInteger();
+        RollingDataSetWriter.FileOpener fileOpener = () -> openFile(getFilePath(nextFileNumber.getAndIncrement()));
+
+        if (fileWriters <= 1) {
+            return new RollingDataSetWriter(fileOpener, outputWriterFactory, fields, maxRowsPerFile, maxBytesPerFile);
+        }
+
+        List<DataSetWriter> writers = new ArrayList<>();
+        try {
+            for (int i = 0; i < fileWriters; i++) {
+                writers.add(new RollingDataSetWriter(fileOpener, outputWriterFactory, fields, maxRowsPerFile, maxBytesPerFile));
+            }
+        } catch (IOException e) {
+            for (DataSetWriter writer : writers) {
+                writer.close();
+            }
+            throw e;
+        }
+        // enough batches in flight for every writer thread to have one
+        return new AsyncDataSetWriter(writers, Math.max(queueDepth, fileWriters), batchSize);
+    }
+
+    @Override
+    public void validate() throws OutputTargetValidationException, IOException {
+        if (fileUtils.isDirectory(filePath)) {
+            throw new OutputTargetValidationException(
+                "target is a directory; please use a different output filename"
+            );
+        }
+        else if (!fileUtils.createDirectories(filePath.toAbsolutePath().getParent())) {
+            throw new OutputTargetValidationException(
+                "parent directory of output file already exists but is not a directory; please use a different output filename"
+            );
+        }
+
+        List<Path> existingFiles = getExistingFilePaths();
+        if (existingFiles.isEmpty()) {
+            return;
+        }
+        if (!canOverwriteExistingFiles) {
+            throw new OutputTargetValidationException(
+                "file " + existingFiles.get(0).getFileName() + " already exists; please use a different output filename or use the --replace option"
+            );
+        }
+        // otherwise files left over from a longer run would be mistaken for part of this one
+        for (Path existingFile : existingFiles) {
+            Files.delete(existingFile);
+        }
+    }
+
+    Path getFilePath(int fileNumber) {
+        FileNameParts parts = getFileNameParts();
+        return filePath.resolveSibling(String.format(FILE_NUMBER_FORMAT, parts.stem, fileNumber, parts.extension));
+    }
+
+    private List<Path> getExistingFilePaths() throws IOException {
+        FileNameParts parts = getFileNameParts();
+        String glob = String.format(FILE_NUMBER_GLOB, escapeGlob(parts.stem), escapeGlob(parts.extension));
+
+        List<Path> paths = new ArrayList<>();
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(filePath.toAbsolutePath().getParent(), glob)) {
+            for (Path file : files) {
+                if (!Files.isDirectory(file)) {
+                    paths.add(file);
+                }
+            }
+        }
+        paths.sort(null);
+        return paths;
+    }
+
+    private FileNameParts getFileNameParts() {
+        String fileName = filePath.getFileName().toString();
+        String compressionExtension = outputCompression.getFileExtensionWithoutDot()
+            .map(extension -> "." + extension)
+            .orElse("");
+        if (fileName.endsWith(compressionExtension)) {
+            fileName = fileName.substring(0, fileName.length() - compressionExtension.length());
+        }
+        int extensionStart = fileName.lastIndexOf('.');
+
+        String stem;
+        String extension;
+        if (extensionStart > 0) {
+            stem = fileName.substring(0, extensionStart);
+            extension = fileName.substring(extensionStart);
+        } else {
+            stem = fileName;
+            extension = outputWriterFactory.getFileExtensionWithoutDot().map(e -> "." + e).orElse("");
+        }
+
+        return new FileNameParts(stem, extension + compressionExtension);
+    }
+
+    private static String escapeGlob(String text) {
+        return text.replaceAll("([\\\\*?\\[\\]{},])", "\\\\$1");
+    }
+
+    private OutputStream openFile(Path path) throws IOException {
+        if (!canOverwriteExistingFiles && fileUtils.exists(path)) {
+            throw new FileAlreadyExistsException(path.toString(), null, "use a different output filename or use the --replace option");
+        }
+
+        return outputCompression.wrap(new FileOutputStream(path.toFile(), false));
+    }
+
+    private static class FileNameParts {
+        private final String stem;
+        private final String extension;
+
+        FileNameParts(String stem, String extension) {
+            this.stem = stem;
+            this.extension = extension;
+        }
+    }
+}
@@ -18,6 +18,7 @@ package com.scottlogic.datahelix.generator.output.outputtarget;
 
 import com.google.inject.Inject;
 import com.scottlogic.datahelix.generator.common.profile.Fields;
+import com.scottlogic.datahelix.generator.output.compression.OutputCompression;
 import com.scottlogic.datahelix.generator.output.writer.DataSetWriter;
 import com.scottlogic.datahelix.generator.output.writer.OutputWriterFactory;
 
@@ -25,14 +26,16 @@ import java.io.IOException;
 
 public class StdoutOutputTarget implements SingleDatasetOutputTarget{
     private final OutputWriterFactory formattingWriterFactory;
+    private final OutputCompression outputCompression;
 
     @Inject
-    public StdoutOutputTarget(OutputWriterFactory formattingWriterFactory) {
+    public StdoutOutputTarget(OutputWriterFactory formattingWriterFactory, OutputCompression outputCompression) {
         this.formattingWriterFactory = formattingWriterFactory;
+        this.outputCompression = outputCompression;
     }
 
     @Override
     public DataSetWriter openWriter(Fields fields) throws IOException {
-        return formattingWriterFactory.createWriter(System.out, fields);
+        return formattingWriterFactory.createWriter(outputCompression.wrap(System.out), fields);
     }
 }
@@ -0,0 +1,219 @@
+/*
+ * Copyright 2019 Scott Logic Ltd
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.scottlogic.datahelix.generator.output.writer;
+
+import com.scottlogic.datahelix.generator.common.output.GeneratedObject;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Hands rows to an underlying writer on a dedicated thread, so that formatting and I/O overlap with generation.
+ *
+ * Rows are collected into fixed size batches which circulate between the generating thread and the writer thread
+ * through a pair of bounded queues, so no batches are allocated once the pipeline is running. The time each side
+ * spends waiting for the other is recorded, to show whether generation or output is the bottleneck.
+ *
+ * Given several underlying writers, each gets its own thread taking batches from the same queue, so rows are shared
+ * between them in whole batches and are not kept in order across writers.
+ */
+public class AsyncDataSetWriter implements DataSetWriter {
+    private static final Batch END = new Batch(0);
+
+    private final List<DataSetWriter> underlyingWriters;
+    private final BlockingQueue<Batch> freeBatches;
+    private final BlockingQueue<Batch> fullBatches;
+    private final Thread[] writerThreads;
+
+    private Batch currentBatch;
+    private boolean closed;
+    private long generatorStallNanos;
+    private final AtomicLong writerStallNanos = new AtomicLong();
+    private final AsyncFailure failure = new AsyncFailure();
+
+    public AsyncDataSetWriter(DataSetWriter underlyingWriter, int queueDepth, int batchSize) {
+        this(Collections.singletonList(underlyingWriter), queueDepth, batchSize);
+    }
+
+    public AsyncDataSetWriter(List<DataSetWriter> underlyingWriters, int queueDepth, int batchSize) {
+        if (underlyingWriters.isEmpty()) {
+            throw new IllegalArgumentException("At least one output writer is required");
+        }
+        if (queueDepth < 1 || batchSize < 1) {
+            throw new IllegalArgumentException("Output queue depth and batch size must be at least 1");
+        }
+
+        this.underlyingWriters = underlyingWriters;
+        this.freeBatches = new ArrayBlockingQueue<>(queueDepth + 1);
+        // room for every batch plus an end marker for each writer thread
+        this.fullBatches = new ArrayBlockingQueue<>(queueDepth + 1 + underlyingWriters.size());
+        for (int i = 0; i < queueDepth; i++) {
+            freeBatches.add(new Batch(batchSize));
+        }
+        this.currentBatch = new Batch(batchSize);
+
+        this.writerThreads = new Thread[underlyingWriters.size()];
+        for (int i = 0; i < writerThreads.length; i++) {
+            DataSetWriter underlyingWriter = underlyingWriters.get(i);
+            writerThreads[i] = new Thread(() -> writeBatches(underlyingWriter), "output-writer-" + i);
+            writerThreads[i].setDaemon(true);
+            writerThreads[i].start();
+        }
+    }
+
+    @Override
+    public void writeRow(GeneratedObject row) throws IOException {
+        failure.check();
+
+        currentBatch.add(row);
+        if (currentBatch.isFull()) {
+            fullBatches.add(currentBatch);
+            currentBatch = takeFreeBatch();
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        closed = true;
+
+        try {
+            if (!currentBatch.isEmpty()) {
+                fullBatches.add(currentBatch);
+            }
+            for (int i = 0; i < writerThreads.length; i++) {
+                fullBatches.add(END);
+            }
+            for (Thread writerThread : writerThreads) {
+                writerThread.join();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting for output to be written");
+        } finally {
+            closeUnderlyingWriters();
+        }
+
+        failure.checkOnClose();
+    }
+
+    public long getGeneratorStallMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(generatorStallNanos);
+    }
+
+    public long getWriterStallMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(writerStallNanos.get());
+    }
+
+    private void closeUnderlyingWriters() throws IOException {
+        IOException closeFailure = null;
+        for (DataSetWriter underlyingWriter : underlyingWriters) {
+            try {
+                underlyingWriter.close();
+            } catch (IOException e) {
+                if (closeFailure == null) {
+                    closeFailure = e;
+                } else {
+                    closeFailure.addSuppressed(e);
+                }
+            }
+        }
+
+        if (closeFailure != null) {
+            throw closeFailure;
+        }
+    }
+
+    private Batch takeFreeBatch() throws IOException {
+        long waitStarted = System.nanoTime();
+        try {
+            return freeBatches.take();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting for the output writer");
+        } finally {
+            generatorStallNanos += System.nanoTime() - waitStarted;
+        }
+    }
+
+    private void writeBatches(DataSetWriter underlyingWriter) {
+        try {
+            while (true) {
+                long waitStarted = System.nanoTime();
+                Batch batch = fullBatches.take();
+                writerStallNanos.addAndGet(System.nanoTime() - waitStarted);
+
+                if (batch == END) {
+                    return;
+                }
+
+                if (!failure.hasOccurred()) {
+                    writeBatch(underlyingWriter, batch);
+                }
+                batch.clear();
+                freeBatches.add(batch);
+            }
+        } catch (InterruptedException e) {
+            failure.record(e);
+        }
+    }
+
+    private void writeBatch(DataSetWriter underlyingWriter, Batch batch) {
+        try {
+            for (int i = 0; i < batch.size; i++) {
+                underlyingWriter.writeRow(batch.rows[i]);
+            }
+        } catch (IOException | RuntimeException e) {
+            failure.record(e);
+        }
+    }
+
+    private static class Batch {
+        private final GeneratedObject[] rows;
+        private int size;
+
+        Batch(int capacity) {
+            this.rows = new GeneratedObject[capacity];
+        }
+
+        void add(GeneratedObject row) {
+            rows[size++] = row;
+        }
+
+        boolean isFull() {
+            return size == rows.length;
+        }
+
+        boolean isEmpty() {
+            return size == 0;
+        }
+
+        void clear() {
+            Arrays.fill(rows, 0, size, null);
+            size = 0;
+        }
+    }
+}
@@ -0,0 +1,79 @@
+/*
+ * Copyright 2019 Scott Logic Ltd
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.scottlogic.datahelix.generator.output.writer;
+
+import java.io.IOException;
+
+/**
+ * Holds the first failure of a background output thread until the thread handing it work can report it.
+ *
+ * The failure itself is thrown the first time it is checked for, and every later check throws a new exception caused
+ * by it, so that output handed over after a failure is never silently dropped. Closing only throws a failure that has
+ * not already been thrown, as try-with-resources cannot suppress an exception into itself.
+ *
+ * After a failure, background threads should keep recycling their buffers without writing them, so that the thread
+ * handing them work is never left waiting for a free one.
+ */
+public class AsyncFailure {
+    private volatile Throwable failure;
+    private boolean thrown;
+
+    public synchronized void record(Throwable e) {
+        // the first failure is the one reported, whichever thread it came from
+        if (failure == null) {
+            failure = e;
+        }
+    }
+
+    public boolean hasOccurred() {
+        return failure != null;
+    }
+
+    /**
+     * Throws if a background thread has failed. Called by the thread handing over work, before each hand over.
+     */
+    public void check() throws IOException {
+        if (thrown) {
+            throw new IOException("Output writer has already failed", failure);
+        }
+        throwUnthrownFailure();
+    }
+
+    /**
+     * Throws if a background thread has failed and the failure has not already been thrown. Called when closing.
+     */
+    public void checkOnClose() throws IOException {
+        if (!thrown) {
+            throwUnthrownFailure();
+        }
+    }
+
+    private void throwUnthrownFailure() throws IOException {
+        Throwable failure = this.failure;
+        if (failure == null) {
+            return;
+        }
+        thrown = true;
+        if (failure instanceof IOException) {
+            throw (IOException) failure;
+        }
+        if (failure instanceof RuntimeException) {
+            throw (RuntimeException) failure;
+        }
+        throw new IOException(failure);
+    }
+}
@@ -0,0 +1,305 @@
+/*
+ * Copyright 2019 Scott Logic Ltd
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.scottlogic.datahelix.generator.output.writer.arrow;
+
+import com.scottlogic.datahelix.generator.common.ValidationException;
+import com.scottlogic.datahelix.generator.common.output.GeneratedObject;
+import com.scottlogic.datahelix.generator.common.profile.Field;
+import com.scottlogic.datahelix.generator.common.profile.StandardSpecificFieldType;
+import org.apache.arrow.memory.BufferAllocator;
+import org.apache.arrow.vector.BaseFixedWidthVector;
+import org.apache.arrow.vector.BitVector;
+import org.apache.arrow.vector.DateDayVector;
+import org.apache.arrow.vector.DecimalVector;
+import org.apache.arrow.vector.FieldVector;
+import org.apache.arrow.vector.TimeMilliVector;
+import org.apache.arrow.vector.TimeStampMilliTZVector;
+import org.apache.arrow.vector.VarCharVector;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalTime;
+import java.time.OffsetDateTime;
+import java.util.Objects;
+
+/**
+ * Copies the value of one field from each row into an Arrow vector of the matching type.
+ *
+ * Numeric fields become decimal columns, datetimes become UTC millisecond timestamps, and dates and times that use
+ * their type's default formatting become date and time columns. Any field with its own formatting is written as the
+ * formatted string, as it would appear in CSV.
+ *
+ * Decimal columns have the scale of the default decimal granularity, so generated decimals are never rounded.
+ * A value that cannot be written exactly at that scale and precision fails the write rather than being altered.
+ */
+abstract class ArrowColumn {
+    static final int DECIMAL_PRECISION = 38;
+    static final int INTEGER_SCALE = 0;
+    // The decimal places of the generator's default decimal granularity, leaving 18 integer digits
+    static final int DECIMAL_SCALE = 20;
+
+    private final Field field;
+
+    private ArrowColumn(Field field) {
+        this.field = field;
+    }
+
+    abstract FieldVector getVector();
+
+    abstract void setValue(int index, Object value);
+
+    abstract void setNull(int index);
+
+    void write(int index, GeneratedObject row) {
+        Object value = usesFormattedValue() ? row.getFormattedValue(field) : row.getValue(field);
+        if (value == null) {
+            setNull(index);
+        } else {
+            setValue(index, value);
+        }
+    }
+
+    boolean usesFormattedValue() {
+        return false;
+    }
+
+    static ArrowColumn create(Field field, BufferAllocator allocator, int initialCapacity) {
+        ArrowColumn column = createColumn(field, allocator);
+        FieldVector vector = column.getVector();
+        if (vector instanceof BaseFixedWidthVector) {
+            ((BaseFixedWidthVector) vector).allocateNew(initialCapacity);
+        } else {
+            vector.setInitialCapacity(initialCapacity);
+            vector.allocateNew();
+        }
+        return column;
+    }
+
+    private static ArrowColumn createColumn(Field field, BufferAllocator allocator) {
+        String name = field.getName();
+        String formatting = field.getFormatting();
+        String type = field.getSpecificType().getType();
+
+        switch (field.getType()) {
+            case NUMERIC:
+                if (formatting != null) {
+                    break;
+                }
+                int scale = type.equals(StandardSpecificFieldType.INTEGER.getType()) ? INTEGER_SCALE : DECIMAL_SCALE;
+                return new DecimalColumn(field, new DecimalVector(name, allocator, DECIMAL_PRECISION, scale));
+            case DATETIME:
+                if (formatting == null) {
+                    return new TimestampColumn(field, new TimeStampMilliTZVector(name, allocator, "UTC"));
+                }
+                if (type.equals(StandardSpecificFieldType.DATE.getType())
+                    && formatting.equals(StandardSpecificFieldType.DATE.getDefaultFormatting())) {
+                    return new DateColumn(field, new DateDayVector(name, allocator));
+                }
+                break;
+            case TIME:
+                if (Objects.equals(formatting, StandardSpecificFieldType.TIME.getDefaultFormatting())) {
+                    return new TimeColumn(field, new TimeMilliVector(name, allocator));
+                }
+                break;
+            case BOOLEAN:
+                if (formatting == null) {
+                    return new BooleanColumn(field, new BitVector(name, allocator));
+                }
+                break;
+        }
+
+        return new StringColumn(field, new VarCharVector(name, allocator));
+    }
+
+    private static class DecimalColumn extends ArrowColumn {
+        private final DecimalVector vector;
+
+        DecimalColumn(Field field, DecimalVector vector) {
+            super(field);
+            this.vector = vector;
+        }
+
+        @Override
+        FieldVector getVector() {
+            return vector;
+        }
+
+        @Override
+        void setNull(int index) {
+            vector.setNull(index);
+        }
+
+        @Override
+        void setValue(int index, Object value) {
+            BigDecimal decimal = value instanceof BigDecimal
+                ? (BigDecimal) value
+                : new BigDecimal(value.toString());
+            vector.setSafe(index, toColumnScale(decimal));
+        }
+
+        private BigDecimal toColumnScale(BigDecimal decimal) {
+            BigDecimal scaled;
+            try {
+                scaled = decimal.setScale(vector.getScale(), RoundingMode.UNNECESSARY);
+            } catch (ArithmeticException e) {
+                throw unrepresentable(decimal);
+            }
+            if (scaled.precision() > vector.getPrecision()) {
+                throw unrepresentable(decimal);
+            }
+            return scaled;
+        }
+
+        private ValidationException unrepresentable(BigDecimal decimal) {
+            return new ValidationException(String.format(
+                "Value %s of field %s cannot be written exactly as an Arrow decimal with precision %d and scale %d; " +
+                    "restrict the field's range or granularity, or give it a formatting to write it as a string",
+                decimal.toPlainString(),
+                vector.getName(),
+                vector.getPrecision(),
+                vector.getScale()));
+        }
+    }
+
+    private static class TimestampColumn extends ArrowColumn {
+        private final TimeStampMilliTZVector vector;
+
+        TimestampColumn(Field field, TimeStampMilliTZVector vector) {
+            super(field);
+            this.vector = vector;
+        }
+
+        @Override
+        FieldVector getVector() {
+            return vector;
+        }
+
+        @Override
+        void setNull(int index) {
+            vector.setNull(index);
+        }
+
+        @Override
+        void setValue(int index, Object value) {
+            vector.setSafe(index, ((OffsetDateTime) value).toInstant().toEpochMilli());
+        }
+    }
+
+    private static class DateColumn extends ArrowColumn {
+        private final DateDayVector vector;
+
+        DateColumn(Field field, DateDayVector vector) {
+            super(field);
+            this.vector = vector;
+        }
+
+        @Override
+        FieldVector getVector() {
+            return vector;
+        }
+
+        @Override
+        void setNull(int index) {
+            vector.setNull(index);
+        }
+
+        @Override
+        void setValue(int index, Object value) {
+            vector.setSafe(index, (int) ((OffsetDateTime) value).toLocalDate().toEpochDay());
+        }
+    }
+
+    private static class TimeColumn extends ArrowColumn {
+        private static final long NANOS_PER_MILLI = 1_000_000;
+        private final TimeMilliVector vector;
+
+        TimeColumn(Field field, TimeMilliVector vector) {
+            super(field);
+            this.vector = vector;
+        }
+
+        @Override
+        FieldVector getVector() {
+            return vector;
+        }
+
+        @Override
+        void setNull(int index) {
+            vector.setNull(index);
+        }
+
+        @Override
+        void setValue(int index, Object value) {
+            vector.setSafe(index, (int) (((LocalTime) value).toNanoOfDay() / NANOS_PER_MILLI));
+        }
+    }
+
+    private static class BooleanColumn extends ArrowColumn {
+        private final BitVector vector;
+
+        BooleanColumn(Field field, BitVector vector) {
+            super(field);
+            this.vector = vector;
+        }
+
+        @Override
+        FieldVector getVector() {
+            return vector;
+        }
+
+        @Override
+        void setNull(int index) {
+            vector.setNull(index);
+        }
+
+        @Override
+        void setValue(int index, Object value) {
+            vector.setSafe(index, (Boolean) value ? 1 : 0);
+        }
+    }
+
+    private static class StringColumn extends ArrowColumn {
+        private final VarCharVector vector;
+
+        StringColumn(Field field, VarCharVector vector) {
+            super(field);
+            this.vector = vector;
+        }
+
+        @Override
+        FieldVector getVector() {
+            return vector;
+        }
+
+        @Override
+        boolean usesFormattedValue() {
+            return true;
+        }
+
+        @Override
+        void setNull(int index) {
+            vector.setNull(index);
+        }
+
+        @Override
+        void setValue(int index, Object value) {
+            Object text = value instanceof BigDecimal ? ((BigDecimal) value).toPlainString() : value;
+            vector.setSafe(index, text.toString().getBytes(StandardCharsets.UTF_8));
+        }
+    }
+}
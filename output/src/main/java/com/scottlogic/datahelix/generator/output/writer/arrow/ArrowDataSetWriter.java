@@ -0,0 +1,99 @@
+/*
+ * Copyright 2019 Scott Logic Ltd
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.scottlogic.datahelix.generator.output.writer.arrow;
+
+import com.scottlogic.datahelix.generator.common.output.GeneratedObject;
+import com.scottlogic.datahelix.generator.common.profile.Fields;
+import com.scottlogic.datahelix.generator.output.writer.DataSetWriter;
+import org.apache.arrow.memory.BufferAllocator;
+import org.apache.arrow.memory.RootAllocator;
+import org.apache.arrow.vector.FieldVector;
+import org.apache.arrow.vector.VectorSchemaRoot;
+import org.apache.arrow.vector.ipc.ArrowFileWriter;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Buffers rows into one Arrow vector per field, and writes them to an Arrow IPC file as a record batch each time
+ * {@link #ROWS_PER_BATCH} rows have been collected, and on close.
+ */
+class ArrowDataSetWriter implements DataSetWriter {
+    static final int ROWS_PER_BATCH = 1 << 16;
+
+    private final BufferAllocator allocator;
+    private final ArrowColumn[] columns;
+    private final VectorSchemaRoot root;
+    private final ArrowFileWriter writer;
+    private final int rowsPerBatch;
+    private int rowsInBatch;
+
+    ArrowDataSetWriter(OutputStream stream, Fields fields, int rowsPerBatch) throws IOException {
+        this.allocator = new RootAllocator(Long.MAX_VALUE);
+        this.rowsPerBatch = rowsPerBatch;
+        this.columns = fields.getExternalStream()
+            .map(field -> ArrowColumn.create(field, allocator, rowsPerBatch))
+            .toArray(ArrowColumn[]::new);
+
+        List<FieldVector> vectors = Arrays.stream(columns)
+            .map(ArrowColumn::getVector)
+            .collect(Collectors.toList());
+        this.root = new VectorSchemaRoot(vectors);
+        this.writer = new ArrowFileWriter(root, null, Channels.newChannel(stream));
+        writer.start();
+    }
+
+    @Override
+    public void writeRow(GeneratedObject row) throws IOException {
+        for (ArrowColumn column : columns) {
+            column.write(rowsInBatch, row);
+        }
+        rowsInBatch++;
+
+        if (rowsInBatch == rowsPerBatch) {
+            writeBatch();
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            if (rowsInBatch > 0) {
+                writeBatch();
+            }
+            writer.end();
+            writer.close();
+        } finally {
+            root.close();
+            allocator.close();
+        }
+    }
+
+    private void writeBatch() throws IOException {
+        root.setRowCount(rowsInBatch);
+        writer.writeBatch();
+
+        for (ArrowColumn column : columns) {
+            column.getVector().reset();
+        }
+        rowsInBatch = 0;
+    }
+}
@@ -17,12 +17,14 @@
 package com.scottlogic.datahelix.generator.output.writer.csv;
 
 import com.scottlogic.datahelix.generator.common.output.GeneratedObject;
+import com.scottlogic.datahelix.generator.common.profile.Field;
 import com.scottlogic.datahelix.generator.common.profile.Fields;
 import com.scottlogic.datahelix.generator.output.writer.DataSetWriter;
 import org.apache.commons.csv.CSVFormat;
 import org.apache.commons.csv.CSVPrinter;
 import org.apache.commons.csv.QuoteMode;
 
+import java.io.BufferedWriter;
 import java.io.IOException;
 import java.io.OutputStream;
 import java.io.OutputStreamWriter;
@@ -30,22 +32,35 @@ import java.math.BigDecimal;
 import java.nio.charset.StandardCharsets;
 import java.time.OffsetDateTime;
 import java.time.format.DateTimeFormatter;
-import java.util.stream.Collectors;
+import java.util.concurrent.TimeUnit;
 
 class CsvDataSetWriter implements DataSetWriter {
     private static final DateTimeFormatter standardDateFormat = DateTimeFormatter.ISO_OFFSET_DATE_TIME;
     private static final CSVFormat writerFormat = CSVFormat.RFC4180;
+    private static final int BUFFER_SIZE = 1 << 16;
+    private static final long MAX_NANOS_BETWEEN_FLUSHES = TimeUnit.SECONDS.toNanos(1);
 
     private final CSVPrinter csvPrinter;
-    private final Fields fieldOrder;
+    private final Field[] fieldOrder;
+    private final Object[] values;
+    private final boolean flushEveryRow;
+    private long lastFlushed = System.nanoTime();
 
-    private CsvDataSetWriter(CSVPrinter csvPrinter, Fields fieldOrder) {
+    private CsvDataSetWriter(CSVPrinter csvPrinter, Fields fields, boolean flushEveryRow) {
         this.csvPrinter = csvPrinter;
-        this.fieldOrder = fieldOrder;
+        this.fieldOrder = fields.getExternalStream().toArray(Field[]::new);
+        this.values = new Object[fieldOrder.length];
+        this.flushEveryRow = flushEveryRow;
     }
 
-    static DataSetWriter open(OutputStream stream, Fields fields) throws IOException {
-        final Appendable outputStreamAsAppendable = new OutputStreamWriter(stream, StandardCharsets.UTF_8);
+    /**
+     * @param flushEveryRow when true every row is flushed as soon as it is written, for interactive use. Otherwise
+     *                      rows are buffered, and flushed when the buffer fills, at least once a second, and on close.
+     */
+    static DataSetWriter open(OutputStream stream, Fields fields, boolean flushEveryRow) throws IOException {
+        final Appendable outputStreamAsAppendable = new BufferedWriter(
+            new OutputStreamWriter(stream, StandardCharsets.UTF_8),
+            BUFFER_SIZE);
 
         CSVPrinter csvPrinter = writerFormat
             .withQuoteMode(QuoteMode.MINIMAL)
@@ -54,17 +69,20 @@ class CsvDataSetWriter implements DataSetWriter {
                 .toArray(String[]::new))
             .print(outputStreamAsAppendable);
 
-        return new CsvDataSetWriter(csvPrinter, fields);
+        return new CsvDataSetWriter(csvPrinter, fields, flushEveryRow);
     }
 
     @Override
     public void writeRow(GeneratedObject row) throws IOException {
-        csvPrinter.printRecord(fieldOrder.getExternalStream()
-                .map(row::getFormattedValue)
-                .map(CsvDataSetWriter::applyTypeSpecificFormatting)
-                .collect(Collectors.toList()));
+        for (int i = 0; i < fieldOrder.length; i++) {
+            values[i] = applyTypeSpecificFormatting(row.getFormattedValue(fieldOrder[i]));
+        }
+        csvPrinter.printRecord(values);
 
-        csvPrinter.flush();
+        if (flushEveryRow || System.nanoTime() - lastFlushed > MAX_NANOS_BETWEEN_FLUSHES) {
+            csvPrinter.flush();
+            lastFlushed = System.nanoTime();
+        }
     }
 
     @Override
@@ -16,6 +16,8 @@
 
 package com.scottlogic.datahelix.generator.output.writer.csv;
 
+import com.google.inject.Inject;
+import com.google.inject.name.Named;
 import com.scottlogic.datahelix.generator.common.profile.Fields;
 import com.scottlogic.datahelix.generator.output.writer.DataSetWriter;
 import com.scottlogic.datahelix.generator.output.writer.OutputWriterFactory;
@@ -25,9 +27,16 @@ import java.io.IOException;
     import java.util.Optional;
 
 public class CsvOutputWriterFactory implements OutputWriterFactory {
+    private final boolean streamOutput;
+
+    @Inject
+    public CsvOutputWriterFactory(@Named("config:streamOutput") boolean streamOutput) {
+        this.streamOutput = streamOutput;
+    }
+
     @Override
     public DataSetWriter createWriter(OutputStream stream, Fields fields) throws IOException {
-        return CsvDataSetWriter.open(stream, fields);
+        return CsvDataSetWriter.open(stream, fields, streamOutput);
     }
 
     @Override
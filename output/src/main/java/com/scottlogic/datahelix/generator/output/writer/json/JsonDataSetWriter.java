@@ -16,7 +16,9 @@
 
 package com.scottlogic.datahelix.generator.output.writer.json;
 
-import com.fasterxml.jackson.databind.SequenceWriter;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.SerializableString;
+import com.fasterxml.jackson.core.io.SerializedString;
 import com.scottlogic.datahelix.generator.common.output.GeneratedObject;
 import com.scottlogic.datahelix.generator.common.output.RelationalGeneratedObject;
 import com.scottlogic.datahelix.generator.common.output.SubGeneratedObject;
@@ -28,97 +30,104 @@ import java.io.IOException;
 import java.math.BigDecimal;
 import java.time.OffsetDateTime;
 import java.time.format.DateTimeFormatter;
-import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.stream.Collectors;
 
+/**
+ * Writes each row straight to a Jackson {@link JsonGenerator}, with the fields in profile order and their names
+ * encoded once up front.
+ */
 class JsonDataSetWriter implements DataSetWriter {
     private static final DateTimeFormatter standardDateFormat = DateTimeFormatter.ISO_OFFSET_DATE_TIME;
 
-    private final SequenceWriter writer;
-    private final List<Field> fields;
-
-    JsonDataSetWriter(SequenceWriter writer, Fields fields) {
-        this.writer = writer;
-        this.fields = fields.getExternalStream().collect(Collectors.toList());
-    }
+    private final JsonGenerator generator;
+    private final boolean wrapInArray;
+    private final boolean flushEveryRow;
+    private final Field[] fields;
+    private final SerializableString[] fieldNames;
+
+    JsonDataSetWriter(JsonGenerator generator, Fields fields, boolean wrapInArray, boolean flushEveryRow) throws IOException {
+        this.generator = generator;
+        this.wrapInArray = wrapInArray;
+        this.flushEveryRow = flushEveryRow;
+        this.fields = fields.getExternalStream().toArray(Field[]::new);
+        this.fieldNames = new SerializableString[this.fields.length];
+        for (int i = 0; i < this.fields.length; i++) {
+            fieldNames[i] = new SerializedString(this.fields[i].getName());
+        }
 
-    private JsonDataSetWriter(List<Field> fields) {
-        this.fields = fields;
-        this.writer = null;
+        if (wrapInArray) {
+            generator.writeStartArray();
+        }
     }
 
     @Override
     public void writeRow(GeneratedObject row) throws IOException {
-        Map<Field, Object> jsonObject = convertRow(row);
-
-        writer.write(jsonObject);
-    }
-
-    private Map<Field, Object> convertRow(GeneratedObject row) {
-        Map<Field, Object> jsonObject = new HashMap<>();
-
-        fields
-            .forEach(field ->
-                jsonObject.put(field, convertValue(row.getFormattedValue(field))));
-
-        if (row instanceof RelationalGeneratedObject) {
-            writeRelatedObjects(jsonObject, (RelationalGeneratedObject)row);
+        generator.writeStartObject();
+        for (int i = 0; i < fields.length; i++) {
+            generator.writeFieldName(fieldNames[i]);
+            writeValue(row.getFormattedValue(fields[i]));
         }
+        writeRelatedObjects(row);
+        generator.writeEndObject();
 
-        return jsonObject;
-    }
-
-    private void writeRelatedObjects(Map<Field, Object> jsonObject, RelationalGeneratedObject relationalGeneratedObject) {
-        relationalGeneratedObject.getSubObjects()
-            .forEach((key, value) -> writeRelatedObject(jsonObject, key, value));
+        if (flushEveryRow) {
+            generator.flush();
+        }
     }
 
-    private void writeRelatedObject(Map<Field, Object> jsonObject, String key, SubGeneratedObject value) {
-        JsonDataSetWriter subWriter = new JsonDataSetWriter(value.getFields());
-        Field fieldForRelationship = new Field(key, null, false, null, false, true, null);
-
-        if (value.isArray()) {
-            writeRelatedArray(jsonObject, value, subWriter, fieldForRelationship);
-        } else {
-            writeRelatedObject(jsonObject, value, subWriter, fieldForRelationship);
+    @Override
+    public void close() throws IOException {
+        if (wrapInArray) {
+            generator.writeEndArray();
         }
+        generator.close();
     }
 
-    private void writeRelatedObject(Map<Field, Object> jsonObject, SubGeneratedObject value, JsonDataSetWriter subWriter, Field fieldForRelationship) {
-        GeneratedObject singleSubObject = value.getData().get(0);
-        Map<Field, Object> subObject = subWriter.convertRow(singleSubObject);
-        jsonObject.put(fieldForRelationship, subObject);
+    private void writeSubObject(GeneratedObject row, List<Field> subObjectFields) throws IOException {
+        generator.writeStartObject();
+        for (Field field : subObjectFields) {
+            generator.writeFieldName(field.getName());
+            writeValue(row.getFormattedValue(field));
+        }
+        writeRelatedObjects(row);
+        generator.writeEndObject();
     }
 
-    private void writeRelatedArray(Map<Field, Object> jsonObject, SubGeneratedObject value, JsonDataSetWriter subWriter, Field fieldForRelationship) {
-        List<Map<Field, Object>> subObjectsForRelationship = value.getData()
-            .stream()
-            .map(subWriter::convertRow)
-            .collect(Collectors.toList());
-        jsonObject.put(fieldForRelationship, subObjectsForRelationship);
-    }
+    private void writeRelatedObjects(GeneratedObject row) throws IOException {
+        if (!(row instanceof RelationalGeneratedObject)) {
+            return;
+        }
 
-    @Override
-    public void close() throws IOException {
-        writer.close();
+        for (Map.Entry<String, SubGeneratedObject> relationship : ((RelationalGeneratedObject) row).getSubObjects().entrySet()) {
+            SubGeneratedObject value = relationship.getValue();
+            generator.writeFieldName(relationship.getKey());
+
+            if (value.isArray()) {
+                generator.writeStartArray();
+                for (GeneratedObject subObject : value.getData()) {
+                    writeSubObject(subObject, value.getFields());
+                }
+                generator.writeEndArray();
+            } else {
+                writeSubObject(value.getData().get(0), value.getFields());
+            }
+        }
     }
 
-
-    private static Object convertValue(Object value) {
+    private void writeValue(Object value) throws IOException {
         if (value == null) {
-            return null;
+            generator.writeNull();
         } else if (value instanceof BigDecimal) {
-            return value;
+            generator.writeNumber((BigDecimal) value);
         } else if (value instanceof Integer) {
-            return value;
+            generator.writeNumber((Integer) value);
         } else if (value instanceof String) {
-            return value;
+            generator.writeString((String) value);
         } else if (value instanceof OffsetDateTime) {
-            return standardDateFormat.format((OffsetDateTime) value);
+            generator.writeString(standardDateFormat.format((OffsetDateTime) value));
         } else {
-            return value.toString();
+            generator.writeString(value.toString());
         }
     }
 }
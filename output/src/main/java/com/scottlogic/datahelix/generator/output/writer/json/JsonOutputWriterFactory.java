@@ -16,12 +16,12 @@
 
 package com.scottlogic.datahelix.generator.output.writer.json;
 
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
 import com.fasterxml.jackson.core.PrettyPrinter;
 import com.fasterxml.jackson.core.util.DefaultPrettyPrinter;
 import com.fasterxml.jackson.core.util.MinimalPrettyPrinter;
-import com.fasterxml.jackson.databind.ObjectMapper;
-import com.fasterxml.jackson.databind.ObjectWriter;
-import com.fasterxml.jackson.databind.SequenceWriter;
 import com.google.inject.Inject;
 import com.google.inject.name.Named;
 import com.scottlogic.datahelix.generator.common.profile.Fields;
@@ -35,6 +35,7 @@ import java.util.Optional;
 public class JsonOutputWriterFactory implements OutputWriterFactory {
     private boolean streamOutput;
     private static final String NEW_LINE_DELIMITER = "\n";
+    private static final JsonFactory jsonFactory = new JsonFactory();
 
     @Inject
     public JsonOutputWriterFactory(@Named("config:streamOutput") boolean streamOutput) {
@@ -46,11 +47,10 @@ public class JsonOutputWriterFactory implements OutputWriterFactory {
         PrettyPrinter prettyPrinter = streamOutput
             ? new MinimalPrettyPrinter(NEW_LINE_DELIMITER)
             : new DefaultPrettyPrinter();
-        ObjectWriter objectWriter = new ObjectMapper().writer(prettyPrinter);
-        SequenceWriter writer = objectWriter.writeValues(stream);
-        writer.init(!streamOutput);
+        JsonGenerator generator = jsonFactory.createGenerator(stream, JsonEncoding.UTF8);
+        generator.setPrettyPrinter(prettyPrinter);
 
-        return new JsonDataSetWriter(writer, fields);
+        return new JsonDataSetWriter(generator, fields, !streamOutput, streamOutput);
     }
 
     @Override
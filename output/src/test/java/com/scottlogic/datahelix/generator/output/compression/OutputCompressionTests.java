@@ -0,0 +1,156 @@
+/*
+ * Copyright 2019 Scott Logic Ltd
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.scottlogic.datahelix.generator.output.compression;
+
+import com.github.luben.zstd.ZstdInputStream;
+import net.jpountz.lz4.LZ4FrameInputStream;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPInputStream;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.sameInstance;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class OutputCompressionTests {
+    @Test
+    void fromPath_withCompressionExtension_returnsMatchingCompression() {
+        assertThat(OutputCompression.fromPath(Paths.get("out", "data.csv.gz")), equalTo(OutputCompression.GZIP));
+        assertThat(OutputCompression.fromPath(Paths.get("data.json.zst")), equalTo(OutputCompression.ZSTD));
+        assertThat(OutputCompression.fromPath(Paths.get("data.lz4")), equalTo(OutputCompression.LZ4));
+    }
+
+    @Test
+    void fromPath_withoutCompressionExtension_returnsNone() {
+        assertThat(OutputCompression.fromPath(Paths.get("data.csv")), equalTo(OutputCompression.NONE));
+        assertThat(OutputCompression.fromPath(null), equalTo(OutputCompression.NONE));
+    }
+
+    @ParameterizedTest
+    @EnumSource(OutputCompression.class)
+    void wrap_writesDataThatDecompressesToTheOriginal(OutputCompression compression) throws IOException {
+        StringBuilder builder = new StringBuilder();
+        for (int i = 0; i < 100_000; i++) {
+            builder.append(i).append(",row\n");
+        }
+        byte[] original = builder.toString().getBytes(StandardCharsets.UTF_8);
+
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+        try (OutputStream stream = compression.wrap(compressed)) {
+            stream.write(original, 0, 10);
+            stream.write(original[10]);
+            stream.flush();
+            stream.write(original, 11, original.length - 11);
+        }
+
+        assertThat(decompress(compression, compressed.toByteArray()), equalTo(original));
+    }
+
+    @Test
+    void close_whenUnderlyingStreamFails_throwsFailure() {
+        OutputStream failingStream = new OutputStream() {
+            @Override
+            public void write(int b) throws IOException {
+                throw new IOException("disk full");
+            }
+        };
+
+        assertThrows(IOException.class, () -> {
+            try (OutputStream stream = new AsyncOutputStream(failingStream)) {
+                stream.write(new byte[1 << 20]);
+            }
+        });
+    }
+
+    @Test
+    void write_afterFailureWasThrown_throwsNewExceptionCausedByFailure() throws IOException {
+        IOException diskFull = new IOException("disk full");
+        OutputStream stream = new AsyncOutputStream(new OutputStream() {
+            @Override
+            public void write(int b) throws IOException {
+                throw diskFull;
+            }
+        });
+
+        IOException first = assertThrows(IOException.class, () -> stream.write(new byte[1 << 20]));
+        IOException second = assertThrows(IOException.class, () -> stream.write(1));
+        stream.close();
+
+        assertThat(first, sameInstance(diskFull));
+        assertThat(second.getCause(), sameInstance(diskFull));
+    }
+
+    @Test
+    void flush_twiceWithinOneSecond_flushesEveryByteToUnderlyingStream() throws Exception {
+        FlushRecordingStream underlyingStream = new FlushRecordingStream();
+        try (OutputStream stream = new AsyncOutputStream(underlyingStream)) {
+            stream.write("first,".getBytes(StandardCharsets.UTF_8));
+            stream.flush();
+            stream.write("second".getBytes(StandardCharsets.UTF_8));
+            stream.flush();
+
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+            while (!underlyingStream.flushed.equals("first,second") && System.nanoTime() < deadline) {
+                Thread.sleep(10);
+            }
+            assertThat(underlyingStream.flushed, equalTo("first,second"));
+        }
+    }
+
+    private static class FlushRecordingStream extends ByteArrayOutputStream {
+        private volatile String flushed = "";
+
+        @Override
+        public synchronized void flush() {
+            flushed = new String(toByteArray(), StandardCharsets.UTF_8);
+        }
+    }
+
+    private static byte[] decompress(OutputCompression compression, byte[] compressed) throws IOException {
+        InputStream input = new ByteArrayInputStream(compressed);
+        switch (compression) {
+            case GZIP:
+                input = new GZIPInputStream(input);
+                break;
+            case ZSTD:
+                input = new ZstdInputStream(input);
+                break;
+            case LZ4:
+                input = new LZ4FrameInputStream(input);
+                break;
+        }
+
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        byte[] buffer = new byte[8192];
+        int read;
+        while ((read = input.read(buffer)) != -1) {
+            output.write(buffer, 0, read);
+        }
+        return output.toByteArray();
+    }
+}
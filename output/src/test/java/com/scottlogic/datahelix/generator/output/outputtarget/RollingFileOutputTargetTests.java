@@ -0,0 +1,227 @@
+/*
+ * Copyright 2019 Scott Logic Ltd
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.scottlogic.datahelix.generator.output.outputtarget;
+
+import com.scottlogic.datahelix.generator.common.output.GeneratedObject;
+import com.scottlogic.datahelix.generator.common.profile.Field;
+import com.scottlogic.datahelix.generator.common.profile.ProfileFields;
+import com.scottlogic.datahelix.generator.common.profile.StandardSpecificFieldType;
+import com.scottlogic.datahelix.generator.common.util.FileUtils;
+import com.scottlogic.datahelix.generator.output.OutputPath;
+import com.scottlogic.datahelix.generator.output.compression.OutputCompression;
+import com.scottlogic.datahelix.generator.output.writer.DataSetWriter;
+import com.scottlogic.datahelix.generator.output.writer.csv.CsvOutputWriterFactory;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.Matchers.lessThan;
+import static org.hamcrest.Matchers.lessThanOrEqualTo;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class RollingFileOutputTargetTests {
+    private static final int CSV_BUFFER_SIZE = 1 << 16;
+    private static final Field FIELD = new Field(
+        "value", StandardSpecificFieldType.STRING.toSpecificFieldType(), false, null, false, false, null);
+    private static final ProfileFields FIELDS = new ProfileFields(Collections.singletonList(FIELD));
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void getFilePath_withExtension_numbersFileBeforeExtension() {
+        RollingFileOutputTarget target = createTarget(directory.resolve("data.csv"), 10, 0, 1);
+
+        assertThat(target.getFilePath(3), equalTo(directory.resolve("data-00003.csv")));
+    }
+
+    @Test
+    void getFilePath_withoutExtension_usesFormatExtension() {
+        RollingFileOutputTarget target = createTarget(directory.resolve("data"), 10, 0, 1);
+
+        assertThat(target.getFilePath(0), equalTo(directory.resolve("data-00000.csv")));
+    }
+
+    @Test
+    void getFilePath_withCompressionExtension_numbersFileBeforeExtensions() {
+        RollingFileOutputTarget target = createTarget(directory.resolve("data.csv.gz"), OutputCompression.GZIP, 10, 0, 1);
+
+        assertThat(target.getFilePath(1), equalTo(directory.resolve("data-00001.csv.gz")));
+    }
+
+    @Test
+    void openWriter_withMaxRowsPerFile_startsNewFileWithHeaderWhenFull() throws IOException {
+        write(createTarget(directory.resolve("data.csv"), 2, 0, 1), 5);
+
+        assertThat(readLines("data-00000.csv"), contains("value", "0", "1"));
+        assertThat(readLines("data-00001.csv"), contains("value", "2", "3"));
+        assertThat(readLines("data-00002.csv"), contains("value", "4"));
+        assertThat(listFiles().size(), equalTo(3));
+    }
+
+    @Test
+    void openWriter_withMaxBytesPerFile_startsNewFileOnceBufferedBytesReachLimit() throws IOException {
+        int maxBytes = 100_000;
+        String value = String.join("", Collections.nCopies(1000, "x"));
+        RollingFileOutputTarget target = createTarget(directory.resolve("data.csv"), 0, maxBytes, 1);
+
+        try (DataSetWriter writer = target.openWriter(FIELDS)) {
+            for (int i = 0; i < 300; i++) {
+                writer.writeRow(new ValueRow(value));
+            }
+        }
+
+        List<Path> files = listFiles();
+        assertThat(files.size(), greaterThan(1));
+        for (Path file : files) {
+            assertThat(Files.size(file), lessThan((long) maxBytes + CSV_BUFFER_SIZE));
+        }
+    }
+
+    @Test
+    void openWriter_withSeveralFileWriters_writesEveryRowOnce() throws IOException {
+        int rows = 1000;
+        write(createTarget(directory.resolve("data.csv"), 100, 0, 3), rows);
+
+        Set<String> values = new HashSet<>();
+        int rowCount = 0;
+        for (Path file : listFiles()) {
+            List<String> lines = Files.readAllLines(file);
+            assertThat(lines.get(0), equalTo("value"));
+            assertThat(lines.size() - 1, lessThanOrEqualTo(100));
+            values.addAll(lines.subList(1, lines.size()));
+            rowCount += lines.size() - 1;
+        }
+        assertThat(rowCount, equalTo(rows));
+        assertThat(values.size(), equalTo(rows));
+    }
+
+    @Test
+    void validate_firstFileExistsNoOverwrite_throwsException() throws IOException {
+        Files.createFile(directory.resolve("data-00000.csv"));
+        RollingFileOutputTarget target = createTarget(directory.resolve("data.csv"), 10, 0, 1);
+
+        assertThrows(OutputTargetValidationException.class, target::validate);
+    }
+
+    @Test
+    void validate_laterFileExistsNoOverwrite_throwsException() throws IOException {
+        Files.createFile(directory.resolve("data-00003.csv"));
+        RollingFileOutputTarget target = createTarget(directory.resolve("data.csv"), 10, 0, 1);
+
+        assertThrows(OutputTargetValidationException.class, target::validate);
+    }
+
+    @Test
+    void validate_filesExistWithOverwrite_deletesOnlyNumberedFiles() throws IOException {
+        for (String name : Arrays.asList("data-00000.csv", "data-00007.csv", "data.csv", "data-1.csv", "other-00000.csv")) {
+            Files.createFile(directory.resolve(name));
+        }
+        RollingFileOutputTarget target = createTarget(
+            directory.resolve("data.csv"), OutputCompression.NONE, true, 10, 0, 1);
+
+        target.validate();
+
+        assertThat(listFiles(), contains(
+            directory.resolve("data-1.csv"),
+            directory.resolve("data.csv"),
+            directory.resolve("other-00000.csv")));
+    }
+
+    private RollingFileOutputTarget createTarget(Path path, long maxRows, long maxBytes, int fileWriters) {
+        return createTarget(path, OutputCompression.NONE, maxRows, maxBytes, fileWriters);
+    }
+
+    private RollingFileOutputTarget createTarget(
+        Path path,
+        OutputCompression compression,
+        long maxRows,
+        long maxBytes,
+        int fileWriters) {
+        return createTarget(path, compression, false, maxRows, maxBytes, fileWriters);
+    }
+
+    private RollingFileOutputTarget createTarget(
+        Path path,
+        OutputCompression compression,
+        boolean canOverwrite,
+        long maxRows,
+        long maxBytes,
+        int fileWriters) {
+        return new RollingFileOutputTarget(
+            new OutputPath(path),
+            new CsvOutputWriterFactory(false),
+            compression,
+            canOverwrite,
+            maxRows,
+            maxBytes,
+            fileWriters,
+            2,
+            10,
+            new FileUtils());
+    }
+
+    private static void write(RollingFileOutputTarget target, int rows) throws IOException {
+        try (DataSetWriter writer = target.openWriter(FIELDS)) {
+            for (int i = 0; i < rows; i++) {
+                writer.writeRow(new ValueRow(String.valueOf(i)));
+            }
+        }
+    }
+
+    private List<String> readLines(String fileName) throws IOException {
+        return Files.readAllLines(directory.resolve(fileName));
+    }
+
+    private List<Path> listFiles() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.sorted().collect(Collectors.toList());
+        }
+    }
+
+    private static class ValueRow implements GeneratedObject {
+        private final String value;
+
+        ValueRow(String value) {
+            this.value = value;
+        }
+
+        @Override
+        public Object getFormattedValue(Field field) {
+            return value;
+        }
+
+        @Override
+        public Object getValue(Field field) {
+            return value;
+        }
+    }
+}
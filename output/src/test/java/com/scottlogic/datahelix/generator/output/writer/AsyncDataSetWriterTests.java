@@ -0,0 +1,161 @@
+/*
+ * Copyright 2019 Scott Logic Ltd
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.scottlogic.datahelix.generator.output.writer;
+
+import com.scottlogic.datahelix.generator.common.output.GeneratedObject;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+
+class AsyncDataSetWriterTests {
+    @Test
+    void close_afterRowsSpanningSeveralBatches_writesAllRowsInOrder() throws IOException {
+        RecordingWriter underlying = new RecordingWriter();
+        List<GeneratedObject> rows = IntStream.range(0, 25)
+            .mapToObj(i -> mock(GeneratedObject.class))
+            .collect(Collectors.toList());
+
+        AsyncDataSetWriter writer = new AsyncDataSetWriter(underlying, 2, 4);
+        for (GeneratedObject row : rows) {
+            writer.writeRow(row);
+        }
+        writer.close();
+
+        assertEquals(rows, underlying.rows);
+        assertTrue(underlying.closed);
+    }
+
+    @Test
+    void close_withSeveralUnderlyingWriters_writesEveryRowOnceInWholeBatches() throws IOException {
+        List<RecordingWriter> underlying = Arrays.asList(new RecordingWriter(), new RecordingWriter(), new RecordingWriter());
+        List<GeneratedObject> rows = IntStream.range(0, 100)
+            .mapToObj(i -> mock(GeneratedObject.class))
+            .collect(Collectors.toList());
+
+        AsyncDataSetWriter writer = new AsyncDataSetWriter(new ArrayList<>(underlying), 3, 4);
+        for (GeneratedObject row : rows) {
+            writer.writeRow(row);
+        }
+        writer.close();
+
+        Set<GeneratedObject> written = new HashSet<>();
+        for (RecordingWriter recordingWriter : underlying) {
+            assertTrue(recordingWriter.closed);
+            assertEquals(0, recordingWriter.rows.size() % 4);
+            written.addAll(recordingWriter.rows);
+        }
+        assertEquals(new HashSet<>(rows), written);
+        assertEquals(rows.size(), underlying.stream().mapToInt(recordingWriter -> recordingWriter.rows.size()).sum());
+    }
+
+    @Test
+    void close_whenUnderlyingWriterFails_rethrowsFailure() {
+        IOException failure = new IOException("disk full");
+        DataSetWriter underlying = new RecordingWriter() {
+            @Override
+            public void writeRow(GeneratedObject row) throws IOException {
+                throw failure;
+            }
+        };
+
+        AsyncDataSetWriter writer = new AsyncDataSetWriter(underlying, 1, 1);
+
+        IOException thrown = assertThrows(IOException.class, () -> {
+            for (int i = 0; i < 10; i++) {
+                writer.writeRow(mock(GeneratedObject.class));
+            }
+            writer.close();
+        });
+        assertSame(failure, thrown);
+    }
+
+    @Test
+    void writeRow_afterFailureInsideTryWithResources_throwsFailureOnce() {
+        IOException failure = new IOException("disk full");
+        DataSetWriter underlying = new FailingWriter(failure);
+
+        IOException thrown = assertThrows(IOException.class, () -> {
+            try (AsyncDataSetWriter writer = new AsyncDataSetWriter(underlying, 1, 1)) {
+                for (int i = 0; i < 10; i++) {
+                    writer.writeRow(mock(GeneratedObject.class));
+                }
+            }
+        });
+        assertSame(failure, thrown);
+        assertEquals(0, thrown.getSuppressed().length);
+    }
+
+    @Test
+    void writeRow_afterFailureWasThrown_throwsNewExceptionCausedByFailure() throws IOException {
+        IOException failure = new IOException("disk full");
+        AsyncDataSetWriter writer = new AsyncDataSetWriter(new FailingWriter(failure), 1, 1);
+
+        assertSame(failure, assertThrows(IOException.class, () -> {
+            for (int i = 0; i < 10; i++) {
+                writer.writeRow(mock(GeneratedObject.class));
+            }
+        }));
+        IOException thrown = assertThrows(IOException.class, () -> writer.writeRow(mock(GeneratedObject.class)));
+        writer.close();
+
+        assertNotSame(failure, thrown);
+        assertSame(failure, thrown.getCause());
+    }
+
+    @Test
+    void constructor_withZeroBatchSize_throwsException() {
+        assertThrows(IllegalArgumentException.class, () -> new AsyncDataSetWriter(new RecordingWriter(), 1, 0));
+    }
+
+    private static class FailingWriter extends RecordingWriter {
+        private final IOException failure;
+
+        FailingWriter(IOException failure) {
+            this.failure = failure;
+        }
+
+        @Override
+        public void writeRow(GeneratedObject row) throws IOException {
+            throw failure;
+        }
+    }
+
+    private static class RecordingWriter implements DataSetWriter {
+        private final List<GeneratedObject> rows = new ArrayList<>();
+        private boolean closed;
+
+        @Override
+        public void writeRow(GeneratedObject row) throws IOException {
+            rows.add(row);
+        }
+
+        @Override
+        public void close() {
+            closed = true;
+        }
+    }
+}
@@ -0,0 +1,184 @@
+/*
+ * Copyright 2019 Scott Logic Ltd
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.scottlogic.datahelix.generator.output.writer.arrow;
+
+import com.scottlogic.datahelix.generator.common.ValidationException;
+import com.scottlogic.datahelix.generator.common.output.GeneratedObject;
+import com.scottlogic.datahelix.generator.common.profile.Field;
+import com.scottlogic.datahelix.generator.common.profile.ProfileFields;
+import com.scottlogic.datahelix.generator.common.profile.StandardSpecificFieldType;
+import com.scottlogic.datahelix.generator.output.writer.DataSetWriter;
+import org.apache.arrow.memory.RootAllocator;
+import org.apache.arrow.vector.BitVector;
+import org.apache.arrow.vector.DateDayVector;
+import org.apache.arrow.vector.DecimalVector;
+import org.apache.arrow.vector.TimeMilliVector;
+import org.apache.arrow.vector.TimeStampMilliTZVector;
+import org.apache.arrow.vector.VarCharVector;
+import org.apache.arrow.vector.VectorSchemaRoot;
+import org.apache.arrow.vector.ipc.ArrowFileReader;
+import org.apache.arrow.vector.util.ByteArrayReadableSeekableByteChannel;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.time.LocalTime;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.nullValue;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class ArrowDataSetWriterTests {
+    private final Field integerField = createField("integer", StandardSpecificFieldType.INTEGER, null);
+    private final Field decimalField = createField("decimal", StandardSpecificFieldType.DECIMAL, null);
+    private final Field datetimeField = createField("datetime", StandardSpecificFieldType.DATETIME, null);
+    private final Field dateField = createField("date", StandardSpecificFieldType.DATE, StandardSpecificFieldType.DATE.getDefaultFormatting());
+    private final Field timeField = createField("time", StandardSpecificFieldType.TIME, StandardSpecificFieldType.TIME.getDefaultFormatting());
+    private final Field booleanField = createField("boolean", StandardSpecificFieldType.BOOLEAN, null);
+    private final Field stringField = createField("string", StandardSpecificFieldType.STRING, null);
+    private final Field formattedField = createField("formatted", StandardSpecificFieldType.DECIMAL, "%.1f");
+
+    private final ProfileFields fields = new ProfileFields(Arrays.asList(
+        integerField, decimalField, datetimeField, dateField, timeField, booleanField, stringField, formattedField));
+
+    private final OffsetDateTime datetime = OffsetDateTime.of(2020, 3, 4, 5, 6, 7, 8_000_000, ZoneOffset.UTC);
+
+    @Test
+    void writeRow_writesEachTypeAsItsNativeColumnType() throws IOException {
+        Map<Field, Object> values = new HashMap<>();
+        values.put(integerField, new BigDecimal("123"));
+        values.put(decimalField, new BigDecimal("-1.5"));
+        values.put(datetimeField, datetime);
+        values.put(dateField, datetime);
+        values.put(timeField, LocalTime.of(1, 2, 3, 4_000_000));
+        values.put(booleanField, true);
+        values.put(stringField, "héllo");
+        values.put(formattedField, new BigDecimal("2.25"));
+
+        byte[] output = write(2, new TestRow(values), new TestRow(values), new TestRow(new HashMap<>()));
+
+        try (RootAllocator allocator = new RootAllocator(Long.MAX_VALUE);
+             ArrowFileReader reader = new ArrowFileReader(new ByteArrayReadableSeekableByteChannel(output), allocator)) {
+            assertThat(reader.getRecordBlocks().size(), equalTo(2));
+
+            reader.loadNextBatch();
+            VectorSchemaRoot root = reader.getVectorSchemaRoot();
+            assertThat(root.getRowCount(), equalTo(2));
+            assertThat(((DecimalVector) root.getVector("integer")).getObject(1), equalTo(new BigDecimal("123")));
+            assertThat(((DecimalVector) root.getVector("decimal")).getObject(1).compareTo(new BigDecimal("-1.5")), equalTo(0));
+            assertThat(((TimeStampMilliTZVector) root.getVector("datetime")).get(1), equalTo(datetime.toInstant().toEpochMilli()));
+            assertThat(((DateDayVector) root.getVector("date")).get(1), equalTo((int) datetime.toLocalDate().toEpochDay()));
+            assertThat(((TimeMilliVector) root.getVector("time")).get(1), equalTo(3_723_004));
+            assertThat(((BitVector) root.getVector("boolean")).get(1), equalTo(1));
+            assertThat(((VarCharVector) root.getVector("string")).getObject(1).toString(), equalTo("héllo"));
+            assertThat(((VarCharVector) root.getVector("formatted")).getObject(1).toString(), equalTo("2.3"));
+
+            reader.loadNextBatch();
+            assertThat(root.getRowCount(), equalTo(1));
+            for (String name : Arrays.asList("integer", "datetime", "date", "time", "boolean", "string", "formatted")) {
+                assertThat(root.getVector(name).getObject(0), nullValue());
+            }
+        }
+    }
+
+    @Test
+    void writeRow_writesDecimalsAtTheDefaultGranularityExactly() throws IOException {
+        BigDecimal value = new BigDecimal("-123456789012345678.12345678901234567891");
+        Map<Field, Object> values = new HashMap<>();
+        values.put(decimalField, value);
+
+        byte[] output = write(1, new TestRow(values));
+
+        try (RootAllocator allocator = new RootAllocator(Long.MAX_VALUE);
+             ArrowFileReader reader = new ArrowFileReader(new ByteArrayReadableSeekableByteChannel(output), allocator)) {
+            reader.loadNextBatch();
+            DecimalVector vector = (DecimalVector) reader.getVectorSchemaRoot().getVector("decimal");
+            assertThat(vector.getObject(0), equalTo(value));
+        }
+    }
+
+    @Test
+    void writeRow_failsForDecimalWithMoreDecimalPlacesThanTheColumnScale() {
+        Map<Field, Object> values = new HashMap<>();
+        values.put(decimalField, new BigDecimal("0.123456789012345678901"));
+
+        assertThrows(ValidationException.class, () -> write(1, new TestRow(values)));
+    }
+
+    @Test
+    void writeRow_failsForDecimalWithMoreDigitsThanTheColumnPrecision() {
+        Map<Field, Object> values = new HashMap<>();
+        values.put(decimalField, new BigDecimal("1e20"));
+
+        assertThrows(ValidationException.class, () -> write(1, new TestRow(values)));
+    }
+
+    @Test
+    void writeRow_writesLargestIntegersExactly() throws IOException {
+        Map<Field, Object> values = new HashMap<>();
+        values.put(integerField, new BigDecimal("-1e20"));
+
+        byte[] output = write(1, new TestRow(values));
+
+        try (RootAllocator allocator = new RootAllocator(Long.MAX_VALUE);
+             ArrowFileReader reader = new ArrowFileReader(new ByteArrayReadableSeekableByteChannel(output), allocator)) {
+            reader.loadNextBatch();
+            DecimalVector vector = (DecimalVector) reader.getVectorSchemaRoot().getVector("integer");
+            assertThat(vector.getObject(0), equalTo(new BigDecimal("-100000000000000000000")));
+        }
+    }
+
+    private byte[] write(int rowsPerBatch, GeneratedObject... rows) throws IOException {
+        ByteArrayOutputStream stream = new ByteArrayOutputStream();
+        try (DataSetWriter writer = new ArrowDataSetWriter(stream, fields, rowsPerBatch)) {
+            for (GeneratedObject row : rows) {
+                writer.writeRow(row);
+            }
+        }
+        return stream.toByteArray();
+    }
+
+    private static Field createField(String name, StandardSpecificFieldType type, String formatting) {
+        return new Field(name, type.toSpecificFieldType(), false, formatting, false, true, null);
+    }
+
+    private static class TestRow implements GeneratedObject {
+        private final Map<Field, Object> values;
+
+        TestRow(Map<Field, Object> values) {
+            this.values = values;
+        }
+
+        @Override
+        public Object getFormattedValue(Field field) {
+            Object value = values.get(field);
+            return field.getFormatting() == null || value == null ? value : String.format(field.getFormatting(), value);
+        }
+
+        @Override
+        public Object getValue(Field field) {
+            return values.get(field);
+        }
+    }
+}
@@ -55,7 +55,7 @@ public class CsvDataSetWriterTest {
         Mockito.when(row.getFormattedValue(fieldOne)).thenReturn(",,");
         Mockito.when(row.getFormattedValue(fieldTwo)).thenReturn(",\"");
         try {
-            dataSetWriter = CsvDataSetWriter.open(outputStream, fields);
+            dataSetWriter = CsvDataSetWriter.open(outputStream, fields, true);
             dataSetWriter.writeRow(row);
             String output = outputStream.toString(StandardCharsets.UTF_8.toString());
             Assert.assertEquals(
@@ -66,4 +66,20 @@ public class CsvDataSetWriterTest {
             fail(e.toString());
         }
     }
-}
\ No newline at end of file
+
+    @Test
+    public void writeRow_whenNotFlushingEveryRow_writesRowsOnClose() throws IOException {
+        Mockito.when(row.getFormattedValue(fieldOne)).thenReturn("a");
+        Mockito.when(row.getFormattedValue(fieldTwo)).thenReturn("b");
+
+        DataSetWriter dataSetWriter = CsvDataSetWriter.open(outputStream, fields, false);
+        dataSetWriter.writeRow(row);
+        dataSetWriter.writeRow(row);
+        Assert.assertEquals(0, outputStream.size());
+
+        dataSetWriter.close();
+        Assert.assertEquals(
+            "one,two\r\na,b\r\na,b\r\n",
+            outputStream.toString(StandardCharsets.UTF_8.toString()));
+    }
+}
@@ -132,7 +132,7 @@ class CsvOutputWriterFactoryTests {
     private static String generateCsv(Fields fields, GeneratedObject generatedObject) throws IOException {
         ByteArrayOutputStream stream = new ByteArrayOutputStream();
 
-        try (DataSetWriter writer = new CsvOutputWriterFactory().createWriter(stream, fields)) {
+        try (DataSetWriter writer = new CsvOutputWriterFactory(false).createWriter(stream, fields)) {
             writer.writeRow(generatedObject);
         }
 
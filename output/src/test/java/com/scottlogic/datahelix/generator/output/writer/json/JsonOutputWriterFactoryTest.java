@@ -16,6 +16,9 @@
 package com.scottlogic.datahelix.generator.output.writer.json;
 
 import com.scottlogic.datahelix.generator.common.output.GeneratedObject;
+import com.scottlogic.datahelix.generator.common.output.RelationalGeneratedObject;
+import com.scottlogic.datahelix.generator.common.output.SubGeneratedObject;
+import com.scottlogic.datahelix.generator.common.profile.Field;
 import com.scottlogic.datahelix.generator.common.profile.FieldBuilder;
 import com.scottlogic.datahelix.generator.common.profile.Fields;
 import com.scottlogic.datahelix.generator.common.profile.ProfileFields;
@@ -36,6 +39,7 @@ import static com.scottlogic.datahelix.generator.common.profile.FieldBuilder.cre
 import static org.mockito.Matchers.eq;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.when;
+import static org.mockito.Mockito.withSettings;
 
 class JsonOutputWriterFactoryTest {
     @Test
@@ -73,6 +77,32 @@ class JsonOutputWriterFactoryTest {
         );
     }
 
+    @Test
+    void writeRow_withSeveralFieldsAndRelatedObjects_shouldWriteFieldsInProfileOrder() throws IOException {
+        Field first = createField("zebra");
+        Field second = createField("apple");
+        Field subField = createField("sub");
+        Fields fields = new ProfileFields(Arrays.asList(first, second));
+
+        GeneratedObject subRow = mock(GeneratedObject.class);
+        when(subRow.getFormattedValue(eq(subField))).thenReturn("x");
+        SubGeneratedObject subObject = mock(SubGeneratedObject.class);
+        when(subObject.getFields()).thenReturn(Collections.singletonList(subField));
+        when(subObject.getData()).thenReturn(Arrays.asList(subRow, subRow));
+        when(subObject.isArray()).thenReturn(true);
+
+        GeneratedObject row = mock(GeneratedObject.class, withSettings().extraInterfaces(RelationalGeneratedObject.class));
+        when(row.getFormattedValue(eq(first))).thenReturn("z");
+        when(row.getFormattedValue(eq(second))).thenReturn(1);
+        when(((RelationalGeneratedObject) row).getSubObjects()).thenReturn(Collections.singletonMap("related", subObject));
+
+        Assert.assertThat(
+            generateJson(fields, row, true),
+            Matchers.equalTo(
+                "{\"zebra\":\"z\",\"apple\":1,\"related\":[{\"sub\":\"x\"},{\"sub\":\"x\"}]}\n" +
+                "{\"zebra\":\"z\",\"apple\":1,\"related\":[{\"sub\":\"x\"},{\"sub\":\"x\"}]}"));
+    }
+
     private static void expectJson(Fields fields, boolean streamOutput, Matcher<String> matcher) throws IOException {
         // Act
         GeneratedObject mockGeneratedObject = mock(GeneratedObject.class);
@@ -24,4 +24,5 @@ public class ProfileDTO {
     public String description;
     public List<FieldDTO> fields;
     public List<ConstraintDTO> constraints;
+    public List<List<String>> uniqueCombinations;
 }
@@ -16,6 +16,7 @@
 
 package com.scottlogic.datahelix.generator.profile.dtos.constraints.atomic;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
 
@@ -28,4 +29,10 @@ public class InSetConstraintDTO extends AtomicConstraintDTO
 
     @JsonProperty(NAME)
     public List<Object> values;
+
+    /**
+     * Whether the values were read from a file, in which case they are already distinct and are read on demand
+     */
+    @JsonIgnore
+    public boolean valuesFromFile;
 }
@@ -35,7 +35,10 @@ import com.scottlogic.datahelix.generator.profile.dtos.constraints.atomic.textua
 import com.scottlogic.datahelix.generator.profile.dtos.constraints.atomic.textual.MatchesRegexConstraintDTO;
 import com.scottlogic.datahelix.generator.profile.dtos.constraints.relations.InMapConstraintDTO;
 
+import java.util.AbstractList;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.RandomAccess;
 import java.util.stream.Collectors;
 
 public abstract class AtomicConstraintFactory {
@@ -85,8 +88,7 @@ public abstract class AtomicConstraintFactory {
     {
         Field main = fields.getByName(dto.field);
         Field other = fields.getByName(dto.otherField);
-        List<Object> values = dto.values.stream().map(this::parseValue).collect(Collectors.toList());
-        return new InMapRelation(main, other, DistributedList.uniform(values));
+        return new InMapRelation(main, other, DistributedList.uniformView(new ParsedValues(dto.values)));
     }
 
     abstract Object parseValue(Object value);
@@ -107,10 +109,12 @@ public abstract class AtomicConstraintFactory {
 
     private InSetConstraint createInSetConstraint(InSetConstraintDTO dto, Field field)
     {
-        DistributedList<Object> values = DistributedList.uniform(dto.values.stream()
-            .distinct()
-            .map(this::parseValue)
-            .collect(Collectors.toList()));
+        DistributedList<Object> values = dto.valuesFromFile
+            ? DistributedList.uniformView(new ParsedValues(dto.values))
+            : DistributedList.uniform(dto.values.stream()
+                .distinct()
+                .map(this::parseValue)
+                .collect(Collectors.toList()));
         return new InSetConstraint(field, values);
     }
 
@@ -119,4 +123,30 @@ public abstract class AtomicConstraintFactory {
         IsNullConstraint isNullConstraint = new IsNullConstraint(fields.getByName(dto.field));
         return dto.isNull ? isNullConstraint : isNullConstraint.negate();
     }
+
+    /**
+     * A view of values, such as those read from a file, which parses each one as it is read rather than holding a
+     * parsed copy of them all
+     */
+    private class ParsedValues extends AbstractList<Object> implements RandomAccess
+    {
+        private final List<Object> values;
+
+        ParsedValues(List<Object> values)
+        {
+            this.values = values instanceof RandomAccess ? values : new ArrayList<>(values);
+        }
+
+        @Override
+        public Object get(int index)
+        {
+            return parseValue(values.get(index));
+        }
+
+        @Override
+        public int size()
+        {
+            return values.size();
+        }
+    }
 }
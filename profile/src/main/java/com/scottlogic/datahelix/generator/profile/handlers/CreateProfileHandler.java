@@ -33,6 +33,7 @@ import com.scottlogic.datahelix.generator.profile.custom.CustomConstraintFactory
 import com.scottlogic.datahelix.generator.profile.services.ConstraintService;
 import com.scottlogic.datahelix.generator.profile.services.FieldService;
 
+import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
 import java.util.stream.Collectors;
@@ -77,7 +78,21 @@ public class CreateProfileHandler extends CommandHandler<CreateProfile, Profile>
         constraints.addAll(createSpecificTypeConstraints(fields));
         constraints.addAll(createCustomGeneratorConstraints(fields));
 
-        return CommandResult.success(new Profile(command.profileDTO.description, fields, constraints, relationships.value));
+        return CommandResult.success(new Profile(
+            command.profileDTO.description,
+            fields,
+            constraints,
+            relationships.value,
+            createUniqueCombinations(command.profileDTO.uniqueCombinations, fields)));
+    }
+
+    private List<List<Field>> createUniqueCombinations(List<List<String>> uniqueCombinations, Fields fields)
+    {
+        if (uniqueCombinations == null) return Collections.emptyList();
+
+        return uniqueCombinations.stream()
+            .map(combination -> combination.stream().map(fields::getByName).collect(Collectors.toList()))
+            .collect(Collectors.toList());
     }
 
     private List<Constraint> createNullableConstraints(Fields fields)
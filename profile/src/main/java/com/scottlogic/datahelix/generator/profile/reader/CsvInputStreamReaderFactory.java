@@ -16,15 +16,10 @@
 
 package com.scottlogic.datahelix.generator.profile.reader;
 
-import java.io.File;
 import java.io.InputStream;
 import java.nio.file.Paths;
 
 public class CsvInputStreamReaderFactory {
-    public CsvInputReader getReaderForFile(File csvFile) {
-        return new CsvFileInputReader(csvFile);
-    }
-
     public CsvInputReader getReaderForStream(InputStream stream, String name) {
         return new CsvStreamInputReader(stream, Paths.get(name).toString());
     }
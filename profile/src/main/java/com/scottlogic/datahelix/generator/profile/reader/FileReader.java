@@ -15,39 +15,29 @@
  */
 package com.scottlogic.datahelix.generator.profile.reader;
 
-import com.google.inject.Inject;
-import com.scottlogic.datahelix.generator.common.whitelist.DistributedList;
-import com.scottlogic.datahelix.generator.common.whitelist.WeightedElement;
-
 import java.io.File;
-import java.util.stream.Collectors;
-
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Reads the values of inSet and inMap constraints from CSV files. Each file is mapped into memory and indexed once,
+ * however many constraints refer to it, and the returned lists decode each value as it is read.
+ */
 public class FileReader {
-    private final CsvInputStreamReaderFactory csvReaderFactory;
+    private final Map<Path, MappedCsvFile> files = new HashMap<>();
 
-    @Inject
-    public FileReader(CsvInputStreamReaderFactory csvReaderFactory) {
-        this.csvReaderFactory = csvReaderFactory;
+    public List<Object> setFromFile(File file) {
+        return Collections.unmodifiableList(getFile(file).getWeightedValues());
     }
 
-    public DistributedList<Object> setFromFile(File file) {
-        CsvInputReader reader = csvReaderFactory.getReaderForFile(file);
-        DistributedList<String> names = reader.retrieveLines();
-
-        return new DistributedList<>(
-            names.distributedList().stream()
-                .map(holder -> new WeightedElement<>((Object) holder.element(), holder.weight()))
-                .distinct()
-                .collect(Collectors.toList()));
+    public List<String> listFromMapFile(File file, String key) {
+        return getFile(file).getColumn(key);
     }
 
-    public DistributedList<String> listFromMapFile(File file, String key) {
-        CsvInputReader reader = csvReaderFactory.getReaderForFile(file);
-        DistributedList<String> names = reader.retrieveLines(key);
-
-        return new DistributedList<>(
-            names.distributedList().stream()
-                .map(holder -> new WeightedElement<>(holder.element(), holder.weight()))
-                .collect(Collectors.toList()));
+    private MappedCsvFile getFile(File file) {
+        return files.computeIfAbsent(file.toPath().toAbsolutePath().normalize(), path -> MappedCsvFile.open(path.toFile()));
     }
 }
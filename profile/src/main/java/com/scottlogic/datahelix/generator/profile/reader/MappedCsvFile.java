@@ -0,0 +1,373 @@
+/*
+ * Copyright 2019 Scott Logic Ltd
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.scottlogic.datahelix.generator.profile.reader;
+
+import com.scottlogic.datahelix.generator.common.ValidationException;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.RandomAccess;
+
+/**
+ * A CSV file mapped into memory and scanned once for the start of each record, so that very large files can be read
+ * without holding a parsed copy of every record. Fields are decoded from the mapped bytes each time they are read.
+ * Weighted values are indexed a second time, so that each distinct value is listed once.
+ *
+ * Records follow RFC 4180, as read by {@link org.apache.commons.csv.CSVFormat#DEFAULT}, and empty lines are skipped.
+ * The file's encoding must be ASCII compatible, as with UTF-8.
+ */
+public class MappedCsvFile {
+    private static final int SEGMENT_SHIFT = 30;
+    private static final long SEGMENT_SIZE = 1L << SEGMENT_SHIFT;
+    private static final int BYTES_PER_RECORD_ESTIMATE = 16;
+    private static final int MAX_HASH_TABLE_SIZE = 1 << 30;
+    private static final long FNV_OFFSET_BASIS = 0xcbf29ce484222325L;
+    private static final long FNV_PRIME = 0x100000001b3L;
+
+    private final String fileName;
+    private final Charset charset;
+    private final MappedByteBuffer[] segments;
+    private final long size;
+    private final long[] recordStarts;
+    private List<String> weightedValues;
+
+    private MappedCsvFile(String fileName, Charset charset, MappedByteBuffer[] segments, long size) {
+        this.fileName = fileName;
+        this.charset = charset;
+        this.segments = segments;
+        this.size = size;
+        this.recordStarts = findRecordStarts();
+    }
+
+    public static MappedCsvFile open(File file) {
+        try (FileInputStream stream = new FileInputStream(file); FileChannel channel = stream.getChannel()) {
+            long size = channel.size();
+            MappedByteBuffer[] segments = new MappedByteBuffer[(int) ((size + SEGMENT_SIZE - 1) >>> SEGMENT_SHIFT)];
+            for (int i = 0; i < segments.length; i++) {
+                long start = (long) i << SEGMENT_SHIFT;
+                segments[i] = channel.map(FileChannel.MapMode.READ_ONLY, start, Math.min(SEGMENT_SIZE, size - start));
+            }
+            return new MappedCsvFile(file.getName(), Charset.defaultCharset(), segments, size);
+        } catch (FileNotFoundException e) {
+            throw new ValidationException(e.getMessage());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * @return the distinct values of the first column, in the order they first appear, with any weighting in the
+     * second column checked to be a number
+     */
+    public List<String> getWeightedValues() {
+        if (weightedValues == null) {
+            weightedValues = new Column(0, findDistinctRecords(), true);
+        }
+        return weightedValues;
+    }
+
+    /**
+     * @return the values of the column headed by the key, without the header itself
+     */
+    public List<String> getColumn(String key) {
+        if (recordStarts.length == 0) {
+            throw new ValidationException("unable to find data for key " + key);
+        }
+
+        int index = getFields(0).indexOf(key);
+        if (index < 0) {
+            throw new ValidationException("unable to find data for key " + key);
+        }
+        return new Column(index, null, false);
+    }
+
+    private List<String> getFields(int record) {
+        List<String> fields = new ArrayList<>();
+        long position = recordStarts[record];
+        FieldReader reader = new FieldReader();
+        while (true) {
+            position = reader.read(position);
+            fields.add(reader.decode());
+            if (!reader.hasMoreFields) {
+                return fields;
+            }
+        }
+    }
+
+    private String getField(int record, int column) {
+        long position = recordStarts[record];
+        FieldReader reader = new FieldReader();
+        for (int i = 0; ; i++) {
+            if (i == column) {
+                reader.read(position);
+                return reader.decode();
+            }
+
+            position = reader.skip(position);
+            if (!reader.hasMoreFields) {
+                return null;
+            }
+        }
+    }
+
+    private long[] findRecordStarts() {
+        long[] starts = new long[(int) Math.min(Integer.MAX_VALUE - 8, size / BYTES_PER_RECORD_ESTIMATE + 1)];
+        int count = 0;
+        boolean atRecordStart = true;
+        boolean atFieldStart = true;
+        boolean inQuotes = false;
+
+        for (long position = 0; position < size; position++) {
+            byte b = byteAt(position);
+            boolean isLineBreak = b == '\n' || b == '\r';
+
+            if (atRecordStart) {
+                if (isLineBreak) {
+                    continue;
+                }
+                if (count == starts.length) {
+                    starts = Arrays.copyOf(starts, (int) Math.min(Integer.MAX_VALUE - 8, starts.length * 3L / 2 + 1));
+                }
+                starts[count++] = position;
+                atRecordStart = false;
+                atFieldStart = true;
+            }
+
+            if (inQuotes) {
+                if (b == '"') {
+                    // a doubled quote is an escaped quote, anything else after a quote ends the quoted section
+                    if (position + 1 < size && byteAt(position + 1) == '"') {
+                        position++;
+                    } else {
+                        inQuotes = false;
+                    }
+                }
+            } else if (b == '"' && atFieldStart) {
+                // quotes only have a meaning at the start of a field, elsewhere they are part of the value
+                inQuotes = true;
+                atFieldStart = false;
+            } else if (b == ',') {
+                atFieldStart = true;
+            } else if (isLineBreak) {
+                atRecordStart = true;
+            } else {
+                atFieldStart = false;
+            }
+        }
+
+        return Arrays.copyOf(starts, count);
+    }
+
+    /**
+     * Finds the first record holding each distinct value of the first column, using an open addressing table of
+     * record numbers tagged with part of the value's hash, so that values only need to be compared when their hashes
+     * match, and only the bytes of the mapped file are compared.
+     */
+    private int[] findDistinctRecords() {
+        int count = recordStarts.length;
+        int tableSize = Integer.highestOneBit(Math.max(1, Math.min(MAX_HASH_TABLE_SIZE / 2, count)) * 2 - 1) * 2;
+        if (count >= tableSize) {
+            throw new ValidationException(fileName + " has too many records to be read as a set");
+        }
+
+        long[] table = new long[tableSize];
+        int[] distinct = new int[count];
+        int distinctCount = 0;
+        FieldReader reader = new FieldReader();
+        FieldReader otherReader = new FieldReader();
+
+        for (int record = 0; record < count; record++) {
+            reader.read(recordStarts[record]);
+            long hash = reader.hash();
+            long tag = hash & 0xffffffff00000000L;
+            int slot = (int) hash & (tableSize - 1);
+
+            while (true) {
+                long entry = table[slot];
+                if (entry == 0) {
+                    // record numbers are stored one higher, so that an empty slot is zero
+                    table[slot] = tag | (record + 1L);
+                    distinct[distinctCount++] = record;
+                    break;
+                }
+                if ((entry & 0xffffffff00000000L) == tag) {
+                    otherReader.read(recordStarts[(int) (entry & 0xffffffffL) - 1]);
+                    if (reader.sameValueAs(otherReader)) {
+                        break;
+                    }
+                }
+                slot = (slot + 1) & (tableSize - 1);
+            }
+        }
+
+        return Arrays.copyOf(distinct, distinctCount);
+    }
+
+    private byte byteAt(long position) {
+        return segments[(int) (position >>> SEGMENT_SHIFT)].get((int) (position & (SEGMENT_SIZE - 1)));
+    }
+
+    private String getWeightedValue(int record) {
+        String value = getField(record, 0);
+        String weighting = getField(record, 1);
+        if (weighting != null) {
+            try {
+                Double.parseDouble(weighting);
+            } catch (NumberFormatException e) {
+                throw new RuntimeException(
+                    "Weighting '" + weighting + "' is not a valid number\n" +
+                    "CSV lines containing 2 columns must hold a weighting (double) in the second column, e.g. <value>,0.5\n" +
+                    "Value: '" + value + "', File: '" + fileName + "', Line " + (record + 1), e);
+            }
+        }
+        return value;
+    }
+
+    /** Reads one field at a time from a record, unescaping quoted fields into a reusable buffer */
+    private class FieldReader {
+        private byte[] buffer = new byte[64];
+        private int length;
+        private boolean hasMoreFields;
+
+        /** @return the position after the field and its separator */
+        long read(long position) {
+            return scan(position, true);
+        }
+
+        /** @return the position after the field and its separator */
+        long skip(long position) {
+            return scan(position, false);
+        }
+
+        String decode() {
+            return new String(buffer, 0, length, charset);
+        }
+
+        /** @return a 64-bit FNV-1a hash of the field last read */
+        long hash() {
+            long hash = FNV_OFFSET_BASIS;
+            for (int i = 0; i < length; i++) {
+                hash = (hash ^ (buffer[i] & 0xff)) * FNV_PRIME;
+            }
+            return hash;
+        }
+
+        boolean sameValueAs(FieldReader other) {
+            if (length != other.length) {
+                return false;
+            }
+            for (int i = 0; i < length; i++) {
+                if (buffer[i] != other.buffer[i]) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        private long scan(long position, boolean keep) {
+            length = 0;
+            boolean quoted = position < size && byteAt(position) == '"';
+            if (quoted) {
+                position++;
+            }
+
+            while (position < size) {
+                byte b = byteAt(position);
+                if (quoted) {
+                    if (b == '"') {
+                        if (position + 1 < size && byteAt(position + 1) == '"') {
+                            position++;
+                        } else {
+                            quoted = false;
+                            position++;
+                            continue;
+                        }
+                    }
+                } else if (b == ',') {
+                    hasMoreFields = true;
+                    return position + 1;
+                } else if (b == '\n' || b == '\r') {
+                    break;
+                }
+
+                if (keep) {
+                    append(b);
+                }
+                position++;
+            }
+
+            hasMoreFields = false;
+            return position;
+        }
+
+        private void append(byte b) {
+            if (length == buffer.length) {
+                buffer = Arrays.copyOf(buffer, buffer.length * 2);
+            }
+            buffer[length++] = b;
+        }
+    }
+
+    private class Column extends AbstractList<String> implements RandomAccess {
+        private final int column;
+        private final int[] records;
+        private final boolean weighted;
+
+        /**
+         * @param records the records holding the column's values, or null for every record after the header
+         */
+        Column(int column, int[] records, boolean weighted) {
+            this.column = column;
+            this.records = records;
+            this.weighted = weighted;
+        }
+
+        @Override
+        public String get(int index) {
+            if (index < 0 || index >= size()) {
+                throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size());
+            }
+
+            int record = records == null ? index + 1 : records[index];
+            if (weighted) {
+                return getWeightedValue(record);
+            }
+
+            String value = getField(record, column);
+            if (value == null) {
+                throw new ValidationException(
+                    "Line " + (record + 1) + " of " + fileName + " has no value in column " + (column + 1));
+            }
+            return value;
+        }
+
+        @Override
+        public int size() {
+            return records == null ? recordStarts.length - 1 : records.length;
+        }
+    }
+}
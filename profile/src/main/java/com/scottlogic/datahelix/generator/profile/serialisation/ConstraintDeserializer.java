@@ -36,8 +36,8 @@ import java.io.IOException;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
-import java.util.stream.Collectors;
 
 public class ConstraintDeserializer extends JsonDeserializer<ConstraintDTO> {
     private final FileReader fileReader;
@@ -74,7 +74,7 @@ public class ConstraintDeserializer extends JsonDeserializer<ConstraintDTO> {
 
     private InMapConstraintDTO map(InMapFromFileConstraintDTO dto)
     {
-        List<Object> values = fileReader.listFromMapFile(getFile(dto.file), dto.key).stream().collect(Collectors.toList());
+        List<Object> values = Collections.unmodifiableList(fileReader.listFromMapFile(getFile(dto.file), dto.key));
         InMapConstraintDTO inMapConstraintDTO = new InMapConstraintDTO();
         inMapConstraintDTO.field = dto.field;
         inMapConstraintDTO.otherField = dto.file;
@@ -84,10 +84,11 @@ public class ConstraintDeserializer extends JsonDeserializer<ConstraintDTO> {
 
     private InSetConstraintDTO map(InSetFromFileConstraintDTO dto)
     {
-        List<Object> values = fileReader.setFromFile(getFile(dto.file)).stream().collect(Collectors.toList());
+        List<Object> values = fileReader.setFromFile(getFile(dto.file));
         InSetConstraintDTO inSetConstraintDTO = new InSetConstraintDTO();
         inSetConstraintDTO.field = dto.field;
         inSetConstraintDTO.values = values;
+        inSetConstraintDTO.valuesFromFile = true;
         return inSetConstraintDTO;
     }
 
@@ -27,6 +27,7 @@ import com.scottlogic.datahelix.generator.profile.dtos.constraints.atomic.Atomic
 import com.scottlogic.datahelix.generator.profile.dtos.constraints.grammatical.ConditionalConstraintDTO;
 import com.scottlogic.datahelix.generator.profile.services.FieldService;
 
+import java.util.ArrayList;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
@@ -55,7 +56,8 @@ public class ProfileValidator implements Validator<ProfileDTO>
         if (!constraintsMustBeValid.isSuccess) return constraintsMustBeValid;
 
         return ValidationResult.combine(uniqueFieldsMustNotBeInIfStatements(dto),
-            uniqueFieldsMustNotBePresentUsingMinimalCombinationStrategy(dto));
+            uniqueFieldsMustNotBePresentUsingMinimalCombinationStrategy(dto),
+            uniqueCombinationsMustReferenceFields(dto));
     }
 
 
@@ -134,6 +136,35 @@ public class ProfileValidator implements Validator<ProfileDTO>
         return ValidationResult.success();
     }
 
+    private ValidationResult uniqueCombinationsMustReferenceFields(ProfileDTO dto)
+    {
+        if (dto.uniqueCombinations == null)
+        {
+            return ValidationResult.success();
+        }
+
+        Set<String> fieldNames = dto.fields.stream().map(fieldDTO -> fieldDTO.name).collect(Collectors.toSet());
+        List<String> errors = new ArrayList<>();
+        dto.uniqueCombinations.forEach(combination ->
+        {
+            if (combination == null || combination.isEmpty())
+            {
+                errors.add("Unique combinations must contain at least one field");
+                return;
+            }
+            combination.stream()
+                .filter(name -> !fieldNames.contains(name))
+                .forEach(name -> errors.add("Unique combination references " + name + " which is not a field"));
+            if (new HashSet<>(combination).size() != combination.size())
+            {
+                errors.add("Unique combination " + String.join(", ", combination) + " must not repeat a field");
+            }
+        });
+
+        return errors.isEmpty()
+            ? ValidationResult.success()
+            : ValidationResult.failure(errors);
+    }
 
     public ValidationResult constraintsMustBeValid(ProfileDTO dto)
     {
@@ -20,6 +20,7 @@ import com.scottlogic.datahelix.generator.common.validators.ValidationResult;
 import com.scottlogic.datahelix.generator.profile.dtos.FieldDTO;
 import com.scottlogic.datahelix.generator.profile.dtos.constraints.atomic.InSetConstraintDTO;
 
+import java.util.ArrayList;
 import java.util.List;
 
 public class InSetConstraintValidator extends AtomicConstraintValidator<InSetConstraintDTO>
@@ -47,6 +48,13 @@ public class InSetConstraintValidator extends AtomicConstraintValidator<InSetCon
 
     private ValidationResult fieldTypeMustBeValid(InSetConstraintDTO dto)
     {
-        return ValidationResult.combine(dto.values.stream().map(v -> fieldTypeMustMatchValueType(dto, v)));
+        // values from a file are read one at a time, so only failures are kept
+        List<ValidationResult> failures = new ArrayList<>();
+        for (Object value : dto.values)
+        {
+            ValidationResult result = fieldTypeMustMatchValueType(dto, value);
+            if (!result.isSuccess) failures.add(result);
+        }
+        return failures.isEmpty() ? ValidationResult.success() : ValidationResult.combine(failures);
     }
 }
@@ -15,24 +15,20 @@
  */
 package com.scottlogic.datahelix.generator.profile;
 
-import com.scottlogic.datahelix.generator.common.whitelist.DistributedList;
 import com.scottlogic.datahelix.generator.profile.reader.FileReader;
 
 import java.io.File;
 import java.util.Collections;
+import java.util.List;
 
 public class TestFileReader extends FileReader {
-    public TestFileReader() {
-        super(null);
-    }
-
     @Override
-    public DistributedList<Object> setFromFile(File file) {
-        return DistributedList.uniform(Collections.singleton("test"));
+    public List<Object> setFromFile(File file) {
+        return Collections.singletonList("test");
     }
     @Override
-    public DistributedList<String> listFromMapFile(File file, String key) {
-        return DistributedList.uniform(Collections.singleton("test"));
+    public List<String> listFromMapFile(File file, String key) {
+        return Collections.singletonList("test");
     }
 
 }
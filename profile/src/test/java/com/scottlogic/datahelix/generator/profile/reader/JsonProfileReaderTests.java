@@ -23,7 +23,6 @@ import com.scottlogic.datahelix.generator.common.profile.Field;
 import com.scottlogic.datahelix.generator.common.profile.FieldType;
 import com.scottlogic.datahelix.generator.common.profile.NumericGranularity;
 import com.scottlogic.datahelix.generator.common.util.FileUtils;
-import com.scottlogic.datahelix.generator.common.whitelist.DistributedList;
 import com.scottlogic.datahelix.generator.core.profile.Profile;
 import com.scottlogic.datahelix.generator.core.profile.constraints.Constraint;
 import com.scottlogic.datahelix.generator.core.profile.constraints.atomic.*;
@@ -51,7 +50,9 @@ import java.nio.file.Paths;
 import java.time.OffsetDateTime;
 import java.time.temporal.ChronoUnit;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.Iterator;
+import java.util.List;
 import java.util.function.Consumer;
 
 import static com.scottlogic.datahelix.generator.common.util.Defaults.DEFAULT_DATE_FORMATTING;
@@ -61,22 +62,18 @@ import static org.hamcrest.core.IsNull.nullValue;
 
 
 public class JsonProfileReaderTests {
-    private DistributedList<Object> inSetReaderReturnValue = DistributedList.singleton("test");
-    private DistributedList<String> fromFileReaderReturnValue = DistributedList.singleton("test");
+    private List<Object> inSetReaderReturnValue = Collections.singletonList("test");
+    private List<String> fromFileReaderReturnValue = Collections.singletonList("test");
 
     private class MockFromFileReader extends FileReader {
-        public MockFromFileReader() {
-            super(null);
-        }
-
         @Override
-        public DistributedList<Object> setFromFile(File file)
+        public List<Object> setFromFile(File file)
         {
             return inSetReaderReturnValue;
         }
 
         @Override
-        public DistributedList<String> listFromMapFile(File file, String Key)
+        public List<String> listFromMapFile(File file, String Key)
         {
             return fromFileReaderReturnValue;
         }
@@ -0,0 +1,100 @@
+/*
+ * Copyright 2019 Scott Logic Ltd
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.scottlogic.datahelix.generator.profile.reader;
+
+import com.scottlogic.datahelix.generator.common.ValidationException;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.equalTo;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class MappedCsvFileTests {
+    @TempDir
+    Path directory;
+
+    @Test
+    void getWeightedValues_readsFirstColumnOfEachRecord() throws IOException {
+        MappedCsvFile file = MappedCsvFile.open(write("a,0.5\r\n\r\n\"b,c\",1\n\"d\"\"e\",2\n\"f\ng\"\nh"));
+
+        assertThat(file.getWeightedValues(), contains("a", "b,c", "d\"e", "f\ng", "h"));
+    }
+
+    @Test
+    void getWeightedValues_withQuoteInsideUnquotedField_treatsQuoteAsPartOfValue() throws IOException {
+        MappedCsvFile file = MappedCsvFile.open(write("5\" pipe,1\n6\" pipe\nend"));
+
+        assertThat(file.getWeightedValues(), contains("5\" pipe", "6\" pipe", "end"));
+    }
+
+    @Test
+    void getWeightedValues_withEscapedQuotesAroundLineBreak_keepsLineBreakInValue() throws IOException {
+        MappedCsvFile file = MappedCsvFile.open(write("\"say \"\"hi\"\"\nthere\"\n\"\"\"\"\nnext"));
+
+        assertThat(file.getWeightedValues(), contains("say \"hi\"\nthere", "\"", "next"));
+    }
+
+    @Test
+    void getWeightedValues_withRepeatedValues_listsEachValueOnceInFirstOrder() throws IOException {
+        MappedCsvFile file = MappedCsvFile.open(write("b\na\nb,2\n\"a\"\nc\na"));
+
+        assertThat(file.getWeightedValues(), contains("b", "a", "c"));
+    }
+
+    @Test
+    void getWeightedValues_withInvalidWeighting_throwsWhenValueIsRead() throws IOException {
+        List<String> values = MappedCsvFile.open(write("a,1\nb,heavy\n")).getWeightedValues();
+
+        assertThat(values.get(0), equalTo("a"));
+        assertThrows(RuntimeException.class, () -> values.get(1));
+    }
+
+    @Test
+    void getColumn_readsColumnHeadedByKeyWithoutHeader() throws IOException {
+        MappedCsvFile file = MappedCsvFile.open(write("code,name\nGB,\"United Kingdom\"\nFR,France\n"));
+
+        assertThat(file.getColumn("code"), contains("GB", "FR"));
+        assertThat(file.getColumn("name"), contains("United Kingdom", "France"));
+    }
+
+    @Test
+    void getColumn_withUnknownKey_throwsValidationException() throws IOException {
+        MappedCsvFile file = MappedCsvFile.open(write("code,name\nGB,United Kingdom\n"));
+
+        assertThrows(ValidationException.class, () -> file.getColumn("population"));
+    }
+
+    @Test
+    void open_withMissingFile_throwsValidationException() {
+        assertThrows(ValidationException.class, () -> MappedCsvFile.open(directory.resolve("missing.csv").toFile()));
+    }
+
+    private File write(String content) throws IOException {
+        Path path = directory.resolve("values.csv");
+        Files.write(path, content.getBytes(Charset.defaultCharset()));
+        return path.toFile();
+    }
+}
@@ -105,4 +105,52 @@ public class ProfileValidatorTests
         // Assert
         assertFalse(validationResult.isSuccess);
     }
-}
\ No newline at end of file
+
+    @Test
+    public void validateProfile_withUniqueCombinationOfFields_succeeds()
+    {
+        // Arrange
+        ProfileDTO dto = new ProfileDTO();
+        dto.fields = Arrays.asList(FieldDTOBuilder.create("book"), FieldDTOBuilder.create("tradeId"));
+        dto.constraints = new ArrayList<>();
+        dto.uniqueCombinations = Collections.singletonList(Arrays.asList("book", "tradeId"));
+
+        // Act
+        ValidationResult validationResult = profileValidator.validate(dto);
+
+        // Assert
+        assertTrue(validationResult.isSuccess);
+    }
+
+    @Test
+    public void validateProfile_withUniqueCombinationOfUnknownField_fails()
+    {
+        // Arrange
+        ProfileDTO dto = new ProfileDTO();
+        dto.fields = Collections.singletonList(FieldDTOBuilder.create("book"));
+        dto.constraints = new ArrayList<>();
+        dto.uniqueCombinations = Collections.singletonList(Arrays.asList("book", "tradeId"));
+
+        // Act
+        ValidationResult validationResult = profileValidator.validate(dto);
+
+        // Assert
+        assertFalse(validationResult.isSuccess);
+    }
+
+    @Test
+    public void validateProfile_withEmptyUniqueCombination_fails()
+    {
+        // Arrange
+        ProfileDTO dto = new ProfileDTO();
+        dto.fields = Collections.singletonList(FieldDTOBuilder.create("book"));
+        dto.constraints = new ArrayList<>();
+        dto.uniqueCombinations = Collections.singletonList(Collections.emptyList());
+
+        // Act
+        ValidationResult validationResult = profileValidator.validate(dto);
+
+        // Assert
+        assertFalse(validationResult.isSuccess);
+    }
+}